@@ -0,0 +1,92 @@
+package com.payflow.api.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.payflow.api.model.entity.ExchangeRate;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.repository.ExchangeRateHistoryRepository;
+import com.payflow.api.repository.ExchangeRateRepository;
+import com.payflow.api.service.ExchangeRateService;
+import com.payflow.api.service.fx.ExchangeRateProvider;
+import com.payflow.api.service.fx.FxRateSnapshot;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link ExchangeRateService#convertCurrency} against a fully populated rate snapshot, in
+ * its decimal form (used by the conversion endpoint) and its fixed-point form (used on the
+ * transfer path). The snapshot is loaded from a mocked repository with fresh rates, so no lookup
+ * asks for a revalidation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExchangeRateBenchmark {
+
+  private ExchangeRateService exchangeRateService;
+  private FxRateSnapshot snapshot;
+  private BigDecimal decimalAmount;
+  private Money moneyAmount;
+
+  @Setup
+  public void setup() {
+    final ExchangeRateRepository repository = mock(ExchangeRateRepository.class);
+    final List<ExchangeRate> rows = new ArrayList<>();
+    final Wallet.Currency[] currencies = Wallet.Currency.values();
+    for (int from = 0; from < currencies.length; from++) {
+      for (int to = 0; to < currencies.length; to++) {
+        final ExchangeRate row =
+            new ExchangeRate(
+                currencies[from],
+                currencies[to],
+                from == to
+                    ? BigDecimal.ONE
+                    : BigDecimal.valueOf(1 + to)
+                        .divide(BigDecimal.valueOf(1 + from), 6, RoundingMode.HALF_UP));
+        row.setLastUpdated(LocalDateTime.now());
+        rows.add(row);
+      }
+    }
+    when(repository.findAll()).thenReturn(rows);
+    exchangeRateService =
+        new ExchangeRateService(
+            repository,
+            mock(ExchangeRateProvider.class),
+            mock(ExchangeRateHistoryRepository.class));
+    exchangeRateService.initializeExchangeRates();
+    snapshot = exchangeRateService.getRateSnapshot();
+    decimalAmount = new BigDecimal("123.4567");
+    moneyAmount = Money.of(decimalAmount);
+  }
+
+  @TearDown
+  public void tearDown() {
+    exchangeRateService.shutdown();
+  }
+
+  @Benchmark
+  public BigDecimal convertDecimal() {
+    return exchangeRateService.convertCurrency(
+        decimalAmount, Wallet.Currency.USD, Wallet.Currency.EUR);
+  }
+
+  @Benchmark
+  public Money convertMoney() {
+    return exchangeRateService.convertCurrency(
+        snapshot, moneyAmount, Wallet.Currency.USD, Wallet.Currency.EUR);
+  }
+}
@@ -0,0 +1,71 @@
+package com.payflow.api.benchmark;
+
+import com.payflow.api.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Measures what authenticating a request costs {@link JwtTokenProvider}: validating the bearer
+ * token and reading the user ID from it, as the filter does once per request. Each call checks the
+ * signature and parses the claims; {@code parseToken} is that step on its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtTokenBenchmark {
+
+  private static final String SECRET = "payflow_benchmark_key_for_local_measurement_only";
+
+  private JwtTokenProvider tokenProvider;
+  private String token;
+
+  @Setup
+  public void setup() {
+    tokenProvider = new JwtTokenProvider();
+    ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+    ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 86_400_000);
+    token =
+        Jwts.builder()
+            .setSubject("42")
+            .setIssuedAt(new Date())
+            .setExpiration(new Date(System.currentTimeMillis() + 86_400_000L))
+            .claim("email", "benchmark@example.com")
+            .claim("role", "ROLE_USER")
+            .signWith(SignatureAlgorithm.HS512, SECRET)
+            .compact();
+  }
+
+  @Benchmark
+  public Long authenticate() {
+    if (!tokenProvider.validateToken(token)) {
+      throw new IllegalStateException();
+    }
+    return tokenProvider.getUserIdFromJwt(token);
+  }
+
+  @Benchmark
+  public boolean validateToken() {
+    return tokenProvider.validateToken(token);
+  }
+
+  @Benchmark
+  public Long getUserIdFromJwt() {
+    return tokenProvider.getUserIdFromJwt(token);
+  }
+
+  @Benchmark
+  public Claims parseToken() {
+    return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+  }
+}
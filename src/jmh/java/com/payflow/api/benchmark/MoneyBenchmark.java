@@ -0,0 +1,78 @@
+package com.payflow.api.benchmark;
+
+import com.payflow.api.model.money.Money;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the balance check, debit, FX conversion and credit of a cross-currency transfer done
+ * with {@link BigDecimal} (the previous representation) and with {@link Money}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+  private BigDecimal decimalSource;
+  private BigDecimal decimalDestination;
+  private BigDecimal decimalAmount;
+  private BigDecimal decimalRate;
+
+  private Money moneySource;
+  private Money moneyDestination;
+  private Money moneyAmount;
+  private long scaledRate;
+
+  @Setup
+  public void setup() {
+    decimalSource = new BigDecimal("1000.0000");
+    decimalDestination = new BigDecimal("500.0000");
+    decimalAmount = new BigDecimal("123.4567");
+    decimalRate = new BigDecimal("0.921234");
+
+    moneySource = Money.of(decimalSource);
+    moneyDestination = Money.of(decimalDestination);
+    moneyAmount = Money.of(decimalAmount);
+    scaledRate = 921_234L;
+  }
+
+  @Benchmark
+  public void transferBigDecimal(final Blackhole blackhole) {
+    if (decimalSource.compareTo(decimalAmount) < 0) {
+      throw new IllegalStateException();
+    }
+    final BigDecimal converted =
+        decimalAmount.multiply(decimalRate).setScale(4, RoundingMode.HALF_UP);
+    blackhole.consume(decimalSource.subtract(decimalAmount));
+    blackhole.consume(decimalDestination.add(converted));
+  }
+
+  @Benchmark
+  public void transferMoney(final Blackhole blackhole) {
+    if (moneySource.isLessThan(moneyAmount)) {
+      throw new IllegalStateException();
+    }
+    final Money converted = moneyAmount.convert(scaledRate, 6);
+    blackhole.consume(moneySource.minus(moneyAmount));
+    blackhole.consume(moneyDestination.plus(converted));
+  }
+
+  @Benchmark
+  public BigDecimal convertBigDecimal() {
+    return decimalAmount.multiply(decimalRate).setScale(4, RoundingMode.HALF_UP);
+  }
+
+  @Benchmark
+  public Money convertMoney() {
+    return moneyAmount.convert(scaledRate, 6);
+  }
+}
@@ -0,0 +1,117 @@
+package com.payflow.api.benchmark;
+
+import static org.mockito.Mockito.mock;
+
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.repository.QRCodeRepository;
+import com.payflow.api.service.QRCodeService;
+import com.payflow.api.service.TransactionService;
+import com.payflow.api.service.WalletService;
+import com.payflow.api.service.expiry.ExpirationScheduler;
+import com.payflow.api.service.qr.ActiveQRCodeRegistry;
+import com.payflow.api.service.qr.QRBulkArchiveWriter;
+import com.payflow.api.service.qr.QRImageCache;
+import com.payflow.api.service.qr.QRImageFormat;
+import com.payflow.api.service.qr.QRImagePrerenderer;
+import com.payflow.api.service.qr.QRImageRenderer;
+import com.payflow.api.service.qr.QRPayloadSigner;
+import com.payflow.api.service.qr.QRPaymentSubscriptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Measures QR code content and image generation through {@link QRCodeService}. {@code contentTag}
+ * signs the payload and hashes it, which is all a conditional image request costs. {@code
+ * imageCached} is an image request served from the {@link QRImageCache}, and {@code imageRendered}
+ * one that misses the cache and renders the PNG.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QRCodeBenchmark {
+
+  private QRCodeService qrCodeService;
+  private QRImageCache qrImageCache;
+  private QRCode qrCode;
+
+  @Setup
+  public void setup() {
+    final QRPayloadSigner qrPayloadSigner = new QRPayloadSigner();
+    qrPayloadSigner.init();
+    qrImageCache = new QRImageCache();
+    qrCodeService =
+        new QRCodeService(
+            mock(QRCodeRepository.class),
+            mock(WalletService.class),
+            mock(TransactionService.class),
+            qrImageCache,
+            new QRImageRenderer(new SimpleMeterRegistry()),
+            mock(QRImagePrerenderer.class),
+            new ActiveQRCodeRegistry(),
+            qrPayloadSigner,
+            mock(QRBulkArchiveWriter.class),
+            mock(ExpirationScheduler.class),
+            new QRPaymentSubscriptions(),
+            mock(ApplicationEventPublisher.class));
+
+    final User user = new User();
+    user.setId(1L);
+    user.setEmail("merchant@example.com");
+    final Wallet wallet = new Wallet();
+    wallet.setId(1L);
+    wallet.setUser(user);
+    wallet.setCurrency(Wallet.Currency.USD);
+    wallet.setWalletNumber("WALLET123456");
+    wallet.setBalance(Money.of(BigDecimal.valueOf(1000)));
+    qrCode = new QRCode();
+    qrCode.setId(1L);
+    qrCode.setQrId("QR-1234567890");
+    qrCode.setWallet(wallet);
+    qrCode.setAmount(Money.of(new BigDecimal("50.00")));
+    qrCode.setAmountFixed(true);
+    qrCode.setDescription("Coffee");
+    qrCode.setActive(true);
+    qrCode.setCreatedAt(LocalDateTime.now());
+  }
+
+  @Benchmark
+  public String contentTag() {
+    return qrCodeService.getQRCodeImageTag(
+        qrCode,
+        QRImageFormat.PNG,
+        QRCodeService.DEFAULT_IMAGE_SIZE,
+        QRCodeService.DEFAULT_IMAGE_MARGIN);
+  }
+
+  @Benchmark
+  public byte[] imageCached() {
+    return qrCodeService.getQRCodeImage(
+        qrCode,
+        QRImageFormat.PNG,
+        QRCodeService.DEFAULT_IMAGE_SIZE,
+        QRCodeService.DEFAULT_IMAGE_MARGIN);
+  }
+
+  @Benchmark
+  public byte[] imageRendered() {
+    qrImageCache.invalidate(qrCode.getQrId());
+    return qrCodeService.getQRCodeImage(
+        qrCode,
+        QRImageFormat.PNG,
+        QRCodeService.DEFAULT_IMAGE_SIZE,
+        QRCodeService.DEFAULT_IMAGE_MARGIN);
+  }
+}
@@ -0,0 +1,54 @@
+package com.payflow.api.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.payflow.api.service.qr.QRImageFormat;
+import com.payflow.api.service.qr.QRImageRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares rendering a 300x300 QR code PNG through ZXing's {@code MatrixToImageWriter} and ImageIO
+ * (the previous path) with {@link QRImageRenderer}, which writes a 1-bit PNG straight from the
+ * module matrix. SVG output is measured alongside for reference.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QRImageBenchmark {
+
+  private static final String CONTENT =
+      "payflow://payment?qr_id=QR-1234567890&wallet=WALLET123456&currency=USD&amount=50.0000"
+          + "&description=Coffee";
+
+  private final QRImageRenderer renderer = new QRImageRenderer(new SimpleMeterRegistry());
+
+  @Benchmark
+  public byte[] pngImageIo() throws WriterException, IOException {
+    final BitMatrix matrix = new QRCodeWriter().encode(CONTENT, BarcodeFormat.QR_CODE, 300, 300);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MatrixToImageWriter.writeToStream(matrix, "PNG", out);
+    return out.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] pngDirect() throws WriterException {
+    return renderer.render(CONTENT, QRImageFormat.PNG, 300, 4);
+  }
+
+  @Benchmark
+  public byte[] svgDirect() throws WriterException {
+    return renderer.render(CONTENT, QRImageFormat.SVG, 300, 4);
+  }
+}
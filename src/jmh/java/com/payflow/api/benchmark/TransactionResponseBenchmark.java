@@ -0,0 +1,121 @@
+package com.payflow.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.payflow.api.model.dto.response.TransactionResponse;
+import com.payflow.api.model.entity.Transaction;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures turning a page of transaction history into a response body: {@link
+ * TransactionResponse#fromEntity} for each transaction on the page, then serialising the {@code
+ * Page<TransactionResponse>} the way the controller returns it. The object mapper is built like
+ * Spring Boot's, with Java time support and ISO dates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionResponseBenchmark {
+
+  @Param({"20", "100"})
+  private int pageSize;
+
+  private List<Transaction> transactions;
+  private Page<TransactionResponse> page;
+  private ObjectWriter writer;
+
+  @Setup
+  public void setup() {
+    final User sender = user(1L, "Alice Sender");
+    final User receiver = user(2L, "Bob Receiver");
+    final Wallet source = wallet(1L, sender, Wallet.Currency.USD, "WALLET000001");
+    final Wallet destination = wallet(2L, receiver, Wallet.Currency.EUR, "WALLET000002");
+    transactions = new ArrayList<>(pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      final Transaction transaction = new Transaction();
+      transaction.setId((long) i + 1);
+      transaction.setTransactionNumber("TXN" + (100_000_000 + i));
+      transaction.setSender(sender);
+      transaction.setReceiver(receiver);
+      transaction.setSourceWallet(source);
+      transaction.setDestinationWallet(destination);
+      transaction.setAmount(Money.of(new BigDecimal("25.50").add(BigDecimal.valueOf(i))));
+      transaction.setSourceCurrency(Wallet.Currency.USD);
+      transaction.setDestinationCurrency(Wallet.Currency.EUR);
+      transaction.setExchangeRate(new BigDecimal("0.921234"));
+      transaction.setExchangeRateVersion(1_700_000_000_000L);
+      transaction.setType(Transaction.TransactionType.TRANSFER);
+      transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+      transaction.setDescription("Dinner share " + i);
+      transaction.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+      transactions.add(transaction);
+    }
+    page = toPage();
+    final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    writer = objectMapper.writerFor(Page.class);
+  }
+
+  @Benchmark
+  public Page<TransactionResponse> mapPage() {
+    return toPage();
+  }
+
+  @Benchmark
+  public byte[] serializePage() throws JsonProcessingException {
+    return writer.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] mapAndSerializePage() throws JsonProcessingException {
+    return writer.writeValueAsBytes(toPage());
+  }
+
+  private Page<TransactionResponse> toPage() {
+    final List<TransactionResponse> content = new ArrayList<>(transactions.size());
+    for (final Transaction transaction : transactions) {
+      content.add(TransactionResponse.fromEntity(transaction));
+    }
+    return new PageImpl<>(
+        content, PageRequest.of(0, pageSize, Sort.by("createdAt").descending()), 1_000);
+  }
+
+  private static User user(final Long id, final String fullName) {
+    final User user = new User();
+    user.setId(id);
+    user.setFullName(fullName);
+    user.setEmail("user" + id + "@example.com");
+    return user;
+  }
+
+  private static Wallet wallet(
+      final Long id, final User user, final Wallet.Currency currency, final String number) {
+    final Wallet wallet = new Wallet();
+    wallet.setId(id);
+    wallet.setUser(user);
+    wallet.setCurrency(currency);
+    wallet.setWalletNumber(number);
+    wallet.setBalance(Money.of(BigDecimal.valueOf(10_000)));
+    return wallet;
+  }
+}
@@ -0,0 +1,51 @@
+package com.payflow.api.loadtest;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies and counts of one endpoint.
+ *
+ * <p>Two histograms are kept, in microseconds. The response time runs from when the request was due
+ * under the arrival schedule, so time a request spent waiting behind a slow one counts against the
+ * server as it would for a real client; this is the figure to read. The service time runs from when
+ * the request was actually sent and shows how much of the response time was queueing.
+ */
+final class EndpointStats {
+
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+  final String name;
+  final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+  final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+  final LongAdder errors = new LongAdder();
+
+  EndpointStats(final String name) {
+    this.name = name;
+  }
+
+  void record(final long intendedNanos, final long sentNanos, final long doneNanos) {
+    responseTime.recordValue(micros(doneNanos - intendedNanos));
+    serviceTime.recordValue(micros(doneNanos - sentNanos));
+  }
+
+  void recordError() {
+    errors.increment();
+  }
+
+  long count() {
+    return responseTime.getTotalCount();
+  }
+
+  void writeDistribution(final PrintStream out) {
+    // Values are in microseconds; scale the output to milliseconds
+    responseTime.outputPercentileDistribution(out, 1000.0);
+  }
+
+  private static long micros(final long nanos) {
+    return Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1), HIGHEST_TRACKABLE_MICROS);
+  }
+}
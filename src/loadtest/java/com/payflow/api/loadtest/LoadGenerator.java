@@ -0,0 +1,198 @@
+package com.payflow.api.loadtest;
+
+import com.payflow.api.PayflowApiApplication;
+import com.payflow.api.loadtest.LoadTestSeeder.Account;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.service.ExchangeRateService;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+/**
+ * Boots the application in-process against an in-memory H2 or a local Postgres database, seeds
+ * users and wallets, drives a mix of payment traffic at it at a fixed arrival rate with the {@link
+ * OpenLoopDriver}, and prints response time percentiles and throughput per endpoint. Nothing leaves
+ * the machine: the server listens on a random local port and exchange rates come from the bundled
+ * rates file.
+ *
+ * <p>Run with {@code mvn -P loadtest test-compile exec:exec -Dloadtest.args="--rate=200
+ * --duration=2m"}; see {@link LoadTestOptions} for the options.
+ */
+public final class LoadGenerator {
+
+  private static final long RATES_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private LoadGenerator() {}
+
+  public static void main(final String[] args) throws Exception {
+    final LoadTestOptions options = LoadTestOptions.parse(args);
+    final ConfigurableApplicationContext context = boot(options);
+    try {
+      awaitExchangeRates(context.getBean(ExchangeRateService.class));
+      final URI baseUri =
+          URI.create(
+              "http://localhost:"
+                  + context.getEnvironment().getProperty("local.server.port")
+                  + context.getEnvironment().getProperty("server.servlet.context-path", ""));
+
+      System.out.printf(
+          "Seeding %d users (%d merchants) on %s%n", options.users, options.merchants, options.db);
+      long startedAt = System.nanoTime();
+      final List<Account> accounts = new LoadTestSeeder(context, options).seed();
+      System.out.printf(
+          "Seeded in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+
+      System.out.printf(
+          "Driving %.0f req/s for %ds after %ds of warm-up, mix %s%n",
+          options.rate, options.duration.toSeconds(), options.warmup.toSeconds(), options.mix);
+      final OpenLoopDriver driver = new OpenLoopDriver(options, baseUri, accounts);
+      driver.run();
+      report(options, driver, System.out);
+    } finally {
+      context.close();
+    }
+    System.exit(0);
+  }
+
+  private static ConfigurableApplicationContext boot(final LoadTestOptions options) {
+    // Passed as command-line arguments so that they win over the profile's properties files
+    final List<String> properties = new ArrayList<>();
+    properties.add("--server.port=0");
+    properties.add("--spring.jpa.show-sql=false");
+    properties.add("--spring.jpa.properties.hibernate.format_sql=false");
+    properties.add("--spring.h2.console.enabled=false");
+    properties.add("--exchange.rate.provider=file");
+    properties.add("--logging.level.root=WARN");
+    properties.add("--logging.level.com.payflow=WARN");
+    properties.add("--logging.level.org.springframework.web=WARN");
+    properties.add("--logging.level.org.hibernate=WARN");
+    properties.add("--logging.level.org.apache.catalina.loader=ERROR");
+    final String profile;
+    if ("postgres".equals(options.db)) {
+      profile = "prod";
+      properties.add("--spring.datasource.url=" + options.jdbcUrl);
+      properties.add("--spring.datasource.username=" + options.dbUser);
+      properties.add("--spring.datasource.password=" + options.dbPassword);
+    } else {
+      profile = "dev";
+      properties.add("--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+    }
+    return new SpringApplicationBuilder(PayflowApiApplication.class)
+        .web(WebApplicationType.SERVLET)
+        .profiles(profile)
+        .initializers(
+            context ->
+                context
+                    .getBeanFactory()
+                    .registerSingleton(
+                        "testConfigurationExcludeFilter", new TestConfigurationFilter()))
+        .run(properties.toArray(new String[0]));
+  }
+
+  /**
+   * Keeps the test sources' {@code @TestConfiguration} classes, which share the classpath with the
+   * load generator, out of the component scan, as the test framework does for tests.
+   */
+  private static final class TestConfigurationFilter extends TypeExcludeFilter {
+    @Override
+    public boolean match(
+        final MetadataReader metadataReader, final MetadataReaderFactory metadataReaderFactory) {
+      return metadataReader
+          .getAnnotationMetadata()
+          .hasAnnotation(TestConfiguration.class.getName());
+    }
+  }
+
+  /** The rates file is loaded after startup; cross-currency payments fail until it has been. */
+  private static void awaitExchangeRates(final ExchangeRateService exchangeRateService)
+      throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + RATES_TIMEOUT_MILLIS;
+    while (!exchangeRateService
+        .getRateSnapshot()
+        .hasRate(Wallet.Currency.USD, Wallet.Currency.EUR)) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new IllegalStateException("Exchange rates were not loaded");
+      }
+      Thread.sleep(100);
+    }
+  }
+
+  private static void report(
+      final LoadTestOptions options, final OpenLoopDriver driver, final PrintStream out)
+      throws IOException {
+    final double seconds = options.duration.toNanos() / 1e9;
+    out.println();
+    out.println("Response time in ms, measured from when each request was due:");
+    out.printf(
+        "%-22s %9s %7s %9s %9s %9s %9s %9s %9s %12s %12s%n",
+        "endpoint",
+        "count",
+        "errors",
+        "req/s",
+        "p50",
+        "p90",
+        "p99",
+        "p99.9",
+        "max",
+        "service p50",
+        "service p99");
+    long completed = 0;
+    for (final EndpointStats stats : driver.getStats().values()) {
+      completed += stats.count();
+      out.printf(
+          "%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %12.2f %12.2f%n",
+          stats.name,
+          stats.count(),
+          stats.errors.sum(),
+          stats.count() / seconds,
+          millis(stats.responseTime.getValueAtPercentile(50)),
+          millis(stats.responseTime.getValueAtPercentile(90)),
+          millis(stats.responseTime.getValueAtPercentile(99)),
+          millis(stats.responseTime.getValueAtPercentile(99.9)),
+          millis(stats.responseTime.getMaxValue()),
+          millis(stats.serviceTime.getValueAtPercentile(50)),
+          millis(stats.serviceTime.getValueAtPercentile(99)));
+    }
+    out.println();
+    out.printf(
+        "Target %.1f req/s, dispatched %.1f req/s, completed %.1f req/s; dispatcher fell behind by"
+            + " up to %.2f ms%n",
+        options.rate,
+        driver.getDispatched() / seconds,
+        completed / seconds,
+        driver.getMaxDispatchLagNanos() / 1e6);
+    driver
+        .getFirstErrors()
+        .forEach((endpoint, error) -> out.printf("First %s error: %s%n", endpoint, error));
+
+    if (options.histogramDir != null) {
+      final Path dir = Path.of(options.histogramDir);
+      Files.createDirectories(dir);
+      for (final EndpointStats stats : driver.getStats().values()) {
+        final Path file = dir.resolve(stats.name + ".hgrm");
+        try (PrintStream hgrm =
+            new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+          stats.writeDistribution(hgrm);
+        }
+      }
+      out.printf("Percentile distributions written to %s%n", dir.toAbsolutePath());
+    }
+  }
+
+  private static double millis(final long micros) {
+    return micros / 1000.0;
+  }
+}
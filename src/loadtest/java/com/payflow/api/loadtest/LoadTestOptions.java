@@ -0,0 +1,153 @@
+package com.payflow.api.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command-line options of the {@link LoadGenerator}, each given as {@code --name=value}.
+ *
+ * <ul>
+ *   <li>{@code users}: users to seed, each with one funded wallet (default 200)
+ *   <li>{@code merchants}: how many of them also get a reusable QR code (default users / 10)
+ *   <li>{@code rate}: requests started per second, whatever the response times (default 100)
+ *   <li>{@code duration}: how long to measure, such as {@code 60s} or {@code 5m} (default 60s)
+ *   <li>{@code warmup}: how long to drive load before measuring (default 10s)
+ *   <li>{@code mix}: relative weights of the operations (default {@code
+ *       transfer=50,history=30,qr=10,money-request=10})
+ *   <li>{@code foreign-share}: fraction of wallets held in EUR rather than USD, so that part of the
+ *       payments convert currency (default 0.25)
+ *   <li>{@code max-in-flight}: requests outstanding at once before the generator waits (default
+ *       512)
+ *   <li>{@code db}: {@code h2} for an in-memory database or {@code postgres} (default h2)
+ *   <li>{@code jdbc-url}, {@code db-user}, {@code db-password}: the Postgres database to use
+ *   <li>{@code histogram-dir}: directory to write each endpoint's full percentile distribution to
+ *   <li>{@code seed}: random seed of the traffic (default 42)
+ * </ul>
+ */
+final class LoadTestOptions {
+
+  static final String TRANSFER = "transfer";
+  static final String HISTORY = "history";
+  static final String QR = "qr";
+  static final String MONEY_REQUEST = "money-request";
+
+  int users = 200;
+  int merchants = -1;
+  double rate = 100;
+  Duration duration = Duration.ofSeconds(60);
+  Duration warmup = Duration.ofSeconds(10);
+  Map<String, Integer> mix = parseMix("transfer=50,history=30,qr=10,money-request=10");
+  double foreignShare = 0.25;
+  int maxInFlight = 512;
+  String db = "h2";
+  String jdbcUrl = "jdbc:postgresql://localhost:5432/payflow";
+  String dbUser = "postgres";
+  String dbPassword = "postgres";
+  String histogramDir;
+  long seed = 42;
+
+  static LoadTestOptions parse(final String[] args) {
+    final LoadTestOptions options = new LoadTestOptions();
+    for (final String arg : args) {
+      final int equals = arg.indexOf('=');
+      if (!arg.startsWith("--") || equals < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      final String name = arg.substring(2, equals);
+      final String value = arg.substring(equals + 1);
+      switch (name) {
+        case "users":
+          options.users = Integer.parseInt(value);
+          break;
+        case "merchants":
+          options.merchants = Integer.parseInt(value);
+          break;
+        case "rate":
+          options.rate = Double.parseDouble(value);
+          break;
+        case "duration":
+          options.duration = parseDuration(value);
+          break;
+        case "warmup":
+          options.warmup = parseDuration(value);
+          break;
+        case "mix":
+          options.mix = parseMix(value);
+          break;
+        case "foreign-share":
+          options.foreignShare = Double.parseDouble(value);
+          break;
+        case "max-in-flight":
+          options.maxInFlight = Integer.parseInt(value);
+          break;
+        case "db":
+          options.db = value;
+          break;
+        case "jdbc-url":
+          options.jdbcUrl = value;
+          break;
+        case "db-user":
+          options.dbUser = value;
+          break;
+        case "db-password":
+          options.dbPassword = value;
+          break;
+        case "histogram-dir":
+          options.histogramDir = value;
+          break;
+        case "seed":
+          options.seed = Long.parseLong(value);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option --" + name);
+      }
+    }
+    if (options.users < 2) {
+      throw new IllegalArgumentException("At least 2 users are needed");
+    }
+    if (options.merchants < 0) {
+      options.merchants = Math.max(1, options.users / 10);
+    }
+    if (!"h2".equals(options.db) && !"postgres".equals(options.db)) {
+      throw new IllegalArgumentException("--db must be h2 or postgres");
+    }
+    return options;
+  }
+
+  /** Reads {@code 500ms}, {@code 30s}, {@code 5m} or a number of seconds. */
+  private static Duration parseDuration(final String value) {
+    if (value.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+    }
+    if (value.endsWith("s")) {
+      return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+    }
+    if (value.endsWith("m")) {
+      return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+    }
+    return Duration.ofSeconds(Long.parseLong(value));
+  }
+
+  private static Map<String, Integer> parseMix(final String value) {
+    final Map<String, Integer> mix = new LinkedHashMap<>();
+    for (final String entry : value.split(",")) {
+      final String[] parts = entry.split("=");
+      final String operation = parts[0].trim();
+      if (!TRANSFER.equals(operation)
+          && !HISTORY.equals(operation)
+          && !QR.equals(operation)
+          && !MONEY_REQUEST.equals(operation)) {
+        throw new IllegalArgumentException("Unknown operation in --mix: " + operation);
+      }
+      final int weight = Integer.parseInt(parts[1].trim());
+      if (weight > 0) {
+        mix.put(operation, weight);
+      }
+    }
+    if (mix.isEmpty()) {
+      throw new IllegalArgumentException("--mix needs at least one operation with a weight");
+    }
+    return mix;
+  }
+}
@@ -0,0 +1,91 @@
+package com.payflow.api.loadtest;
+
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.repository.UserRepository;
+import com.payflow.api.security.JwtTokenProvider;
+import com.payflow.api.security.UserPrincipal;
+import com.payflow.api.service.QRCodeService;
+import com.payflow.api.service.WalletService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Seeds the users the load test acts as, straight through the application's services so the rows
+ * are the same as ones made through the API: one wallet each, funded well enough that payments
+ * never run out, a JWT per user, and a reusable open-amount QR code for the merchants.
+ */
+final class LoadTestSeeder {
+
+  static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+
+  private final ApplicationContext context;
+  private final LoadTestOptions options;
+
+  LoadTestSeeder(final ApplicationContext context, final LoadTestOptions options) {
+    this.context = context;
+    this.options = options;
+  }
+
+  /** A seeded user as the traffic sees it. */
+  static final class Account {
+    final String email;
+    final String walletNumber;
+    final String token;
+    final String qrId;
+
+    Account(final String email, final String walletNumber, final String token, final String qrId) {
+      this.email = email;
+      this.walletNumber = walletNumber;
+      this.token = token;
+      this.qrId = qrId;
+    }
+  }
+
+  List<Account> seed() {
+    final UserRepository userRepository = context.getBean(UserRepository.class);
+    final WalletService walletService = context.getBean(WalletService.class);
+    final QRCodeService qrCodeService = context.getBean(QRCodeService.class);
+    final JwtTokenProvider tokenProvider = context.getBean(JwtTokenProvider.class);
+    // Every user shares one hash; BCrypt per user would dominate the seeding time
+    final String password = context.getBean(PasswordEncoder.class).encode("load-test");
+    final Random random = new Random(options.seed);
+    final String run = Long.toString(System.currentTimeMillis(), 36);
+
+    final List<Account> accounts = new ArrayList<>(options.users);
+    for (int i = 0; i < options.users; i++) {
+      User user = new User();
+      user.setEmail("load-" + run + "-" + i + "@payflow.test");
+      user.setPassword(password);
+      user.setFullName("Load User " + i);
+      user.setRole(User.UserRole.USER);
+      user.setEnabled(true);
+      user = userRepository.save(user);
+
+      final Wallet.Currency currency =
+          random.nextDouble() < options.foreignShare ? Wallet.Currency.EUR : Wallet.Currency.USD;
+      final Wallet wallet = walletService.createWallet(user, currency, OPENING_BALANCE);
+
+      String qrId = null;
+      if (i < options.merchants) {
+        final QRCode qrCode =
+            qrCodeService.createWalletQRCode(
+                user, wallet.getWalletNumber(), null, false, false, "Load test till", null);
+        qrId = qrCode.getQrId();
+      }
+
+      final UserPrincipal principal = UserPrincipal.create(user);
+      final String token =
+          tokenProvider.generateToken(
+              new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+      accounts.add(new Account(user.getEmail(), wallet.getWalletNumber(), token, qrId));
+    }
+    return accounts;
+  }
+}
@@ -0,0 +1,302 @@
+package com.payflow.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payflow.api.loadtest.LoadTestSeeder.Account;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed arrival rate, open loop: request {@code i} is due at {@code start + i /
+ * rate} whether or not earlier ones have been answered, so a slow server gets more concurrent work
+ * rather than less, as it would from independent clients. Each response time is measured from when
+ * its request was due, not from when it could be sent, which keeps a stall from hiding the requests
+ * queued behind it (coordinated omission).
+ *
+ * <p>Requests are sent asynchronously; at most {@code max-in-flight} are outstanding, after which
+ * the dispatcher waits and the wait shows up in the response times of the late requests.
+ */
+final class OpenLoopDriver {
+
+  static final String MONEY_REQUEST_CREATE = "money-request.create";
+  static final String MONEY_REQUEST_PAY = "money-request.pay";
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+  private static final int ERROR_SAMPLE_LENGTH = 200;
+
+  private final LoadTestOptions options;
+  private final URI baseUri;
+  private final List<Account> accounts;
+  private final List<Account> merchants = new ArrayList<>();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient client =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .build();
+  private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+  private final Map<String, String> firstErrors = new ConcurrentHashMap<>();
+  private final Semaphore inFlight;
+
+  private long dispatched;
+  private long maxDispatchLagNanos;
+
+  OpenLoopDriver(final LoadTestOptions options, final URI baseUri, final List<Account> accounts) {
+    this.options = options;
+    this.baseUri = baseUri;
+    this.accounts = accounts;
+    this.inFlight = new Semaphore(options.maxInFlight);
+    for (final Account account : accounts) {
+      if (account.qrId != null) {
+        merchants.add(account);
+      }
+    }
+    for (final String operation : options.mix.keySet()) {
+      if (LoadTestOptions.MONEY_REQUEST.equals(operation)) {
+        stats.put(MONEY_REQUEST_CREATE, new EndpointStats(MONEY_REQUEST_CREATE));
+        stats.put(MONEY_REQUEST_PAY, new EndpointStats(MONEY_REQUEST_PAY));
+      } else {
+        stats.put(operation, new EndpointStats(operation));
+      }
+    }
+  }
+
+  Map<String, EndpointStats> getStats() {
+    return stats;
+  }
+
+  Map<String, String> getFirstErrors() {
+    return firstErrors;
+  }
+
+  long getDispatched() {
+    return dispatched;
+  }
+
+  long getMaxDispatchLagNanos() {
+    return maxDispatchLagNanos;
+  }
+
+  /**
+   * Drives the warm-up and then the measured period, and waits for the requests still outstanding.
+   *
+   * @throws InterruptedException if interrupted while pacing or draining
+   */
+  void run() throws InterruptedException {
+    final Random random = new Random(options.seed);
+    final String[] operations = options.mix.keySet().toArray(new String[0]);
+    final int[] cumulativeWeights = new int[operations.length];
+    int totalWeight = 0;
+    for (int i = 0; i < operations.length; i++) {
+      totalWeight += options.mix.get(operations[i]);
+      cumulativeWeights[i] = totalWeight;
+    }
+
+    final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+    final long start = System.nanoTime();
+    final long measureFrom = start + options.warmup.toNanos();
+    final long end = measureFrom + options.duration.toNanos();
+
+    for (long i = 0; ; i++) {
+      final long intended = start + (long) (i * intervalNanos);
+      if (intended >= end) {
+        break;
+      }
+      long now = System.nanoTime();
+      while (now < intended) {
+        LockSupport.parkNanos(intended - now);
+        now = System.nanoTime();
+      }
+      inFlight.acquire();
+      final long lag = System.nanoTime() - intended;
+      final boolean measured = intended >= measureFrom;
+      if (measured) {
+        dispatched++;
+        maxDispatchLagNanos = Math.max(maxDispatchLagNanos, lag);
+      }
+
+      final int pick = random.nextInt(totalWeight);
+      int index = 0;
+      while (cumulativeWeights[index] <= pick) {
+        index++;
+      }
+      dispatch(operations[index], random, intended, measured)
+          .whenComplete((r, e) -> inFlight.release());
+    }
+
+    if (!inFlight.tryAcquire(
+        options.maxInFlight, REQUEST_TIMEOUT.toSeconds() * 2, TimeUnit.SECONDS)) {
+      System.err.println("Gave up waiting for requests still in flight");
+    }
+  }
+
+  private CompletableFuture<?> dispatch(
+      final String operation, final Random random, final long intended, final boolean measured) {
+    final Account payer = accounts.get(random.nextInt(accounts.size()));
+    switch (operation) {
+      case LoadTestOptions.TRANSFER:
+        {
+          final Account payee = other(random, payer);
+          final Map<String, Object> body = new LinkedHashMap<>();
+          body.put("sourceWalletNumber", payer.walletNumber);
+          body.put("destinationWalletNumber", payee.walletNumber);
+          body.put("amount", amount(random));
+          body.put("description", "Load test transfer");
+          return call(operation, post("/transactions/transfer", payer, body), intended, measured);
+        }
+      case LoadTestOptions.HISTORY:
+        return call(
+            operation,
+            request("/transactions?page=0&size=20", payer).GET().build(),
+            intended,
+            measured);
+      case LoadTestOptions.QR:
+        {
+          final Account merchant = merchants.get(random.nextInt(merchants.size()));
+          final Account customer = merchant == payer ? other(random, merchant) : payer;
+          final Map<String, Object> body = new LinkedHashMap<>();
+          body.put("amount", amount(random));
+          body.put("sourceWalletNumber", customer.walletNumber);
+          return call(
+              operation,
+              post("/qr-codes/" + merchant.qrId + "/pay", customer, body),
+              intended,
+              measured);
+        }
+      case LoadTestOptions.MONEY_REQUEST:
+        return requestAndPay(random, payer, intended, measured);
+      default:
+        throw new IllegalStateException("Unknown operation " + operation);
+    }
+  }
+
+  /**
+   * Creates a money request and has the requestee pay it. The payment is timed from when it is
+   * sent, since it cannot be due before the request exists.
+   */
+  private CompletableFuture<?> requestAndPay(
+      final Random random, final Account payer, final long intended, final boolean measured) {
+    final Account requester = other(random, payer);
+    final Map<String, Object> create = new LinkedHashMap<>();
+    create.put("requesteeEmail", payer.email);
+    create.put("walletNumber", requester.walletNumber);
+    create.put("amount", amount(random));
+    create.put("description", "Load test request");
+    return call(
+            MONEY_REQUEST_CREATE, post("/money-requests", requester, create), intended, measured)
+        .thenCompose(
+            response -> {
+              if (response == null) {
+                return CompletableFuture.completedFuture(null);
+              }
+              final Map<String, Object> process = new LinkedHashMap<>();
+              process.put("requestNumber", readField(response.body(), "requestNumber"));
+              process.put("action", "APPROVE");
+              process.put("paymentWalletNumber", payer.walletNumber);
+              return call(
+                  MONEY_REQUEST_PAY,
+                  post("/money-requests/process", payer, process),
+                  System.nanoTime(),
+                  measured);
+            });
+  }
+
+  /**
+   * Sends a request and records it. Completes with the response, or with {@code null} if it failed;
+   * never exceptionally.
+   */
+  private CompletableFuture<HttpResponse<String>> call(
+      final String endpoint,
+      final HttpRequest request,
+      final long intended,
+      final boolean measured) {
+    final EndpointStats endpointStats = stats.get(endpoint);
+    final long sent = System.nanoTime();
+    return client
+        .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .handle(
+            (response, failure) -> {
+              final long done = System.nanoTime();
+              final boolean ok =
+                  failure == null && response.statusCode() >= 200 && response.statusCode() < 300;
+              if (measured) {
+                if (ok) {
+                  endpointStats.record(intended, sent, done);
+                } else {
+                  endpointStats.recordError();
+                }
+              }
+              if (!ok) {
+                firstErrors.putIfAbsent(
+                    endpoint,
+                    failure != null
+                        ? failure.toString()
+                        : response.statusCode() + " " + abbreviate(response.body()));
+                return null;
+              }
+              return response;
+            });
+  }
+
+  private HttpRequest post(
+      final String path, final Account account, final Map<String, Object> body) {
+    try {
+      return request(path, account)
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+          .build();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private HttpRequest.Builder request(final String path, final Account account) {
+    return HttpRequest.newBuilder(URI.create(baseUri + path))
+        .timeout(REQUEST_TIMEOUT)
+        .header("Authorization", "Bearer " + account.token);
+  }
+
+  private String readField(final String json, final String field) {
+    try {
+      final JsonNode node = objectMapper.readTree(json).get(field);
+      return node == null ? null : node.asText();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Account other(final Random random, final Account account) {
+    Account other = account;
+    while (other == account) {
+      other = accounts.get(random.nextInt(accounts.size()));
+    }
+    return other;
+  }
+
+  private static BigDecimal amount(final Random random) {
+    return BigDecimal.valueOf(100 + random.nextInt(1900), 2);
+  }
+
+  private static String abbreviate(final String body) {
+    if (body == null || body.length() <= ERROR_SAMPLE_LENGTH) {
+      return body;
+    }
+    return body.substring(0, ERROR_SAMPLE_LENGTH) + "...";
+  }
+}
@@ -1,5 +1,8 @@
 package com.payflow.api.config;
 
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -8,13 +11,15 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 public class AppConfig {
 
-  /** Private constructor to prevent instantiation. */
-  private AppConfig() {
-    // Utility class
-  }
-
+  /**
+   * HTTP client for outbound calls. Timeouts are bounded so a slow upstream cannot hold a thread
+   * indefinitely.
+   */
   @Bean
-  public RestTemplate restTemplate() {
-    return new RestTemplate();
+  public RestTemplate restTemplate(
+      final RestTemplateBuilder builder,
+      @Value("${exchange.rate.api.connect-timeout:2s}") final Duration connectTimeout,
+      @Value("${exchange.rate.api.read-timeout:5s}") final Duration readTimeout) {
+    return builder.setConnectTimeout(connectTimeout).setReadTimeout(readTimeout).build();
   }
 }
@@ -0,0 +1,56 @@
+package com.payflow.api.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics Spring Boot does not publish on its own.
+ *
+ * <p>Boot already publishes the Hikari pool's {@code hikaricp.connections.*} and {@code
+ * jdbc.connections.*} meters. This adds {@code jdbc.connections.saturation}, tagged with the data
+ * source bean name like {@code jdbc.connections.active}: connections in use plus threads waiting
+ * for one, over the pool's maximum size. Above 1 the pool is the bottleneck.
+ */
+@Configuration
+public class MetricsConfig {
+
+  /**
+   * Publishes the saturation of every Hikari pool.
+   *
+   * @param dataSources the data sources by bean name
+   * @return the binder
+   */
+  @Bean
+  public MeterBinder connectionPoolSaturation(final Map<String, DataSource> dataSources) {
+    return registry ->
+        dataSources.forEach(
+            (name, dataSource) -> {
+              final HikariDataSource hikari =
+                  DataSourceUnwrapper.unwrap(
+                      dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+              if (hikari != null) {
+                Gauge.builder("jdbc.connections.saturation", hikari, MetricsConfig::saturation)
+                    .description("Connections in use or waited for, over the maximum pool size")
+                    .tag("name", name)
+                    .register(registry);
+              }
+            });
+  }
+
+  private static double saturation(final HikariDataSource hikari) {
+    final HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+    if (pool == null || hikari.getMaximumPoolSize() <= 0) {
+      return 0;
+    }
+    return (pool.getActiveConnections() + pool.getThreadsAwaitingConnection())
+        / (double) hikari.getMaximumPoolSize();
+  }
+}
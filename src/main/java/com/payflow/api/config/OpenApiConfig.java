@@ -17,11 +17,6 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class OpenApiConfig {
 
-  /** Private constructor to prevent instantiation. */
-  private OpenApiConfig() {
-    // Utility class
-  }
-
   @Bean
   public OpenAPI customOpenApi() {
     return new OpenAPI()
@@ -0,0 +1,110 @@
+package com.payflow.api.config;
+
+import com.payflow.api.metrics.OperationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+
+/**
+ * Runs {@code @Scheduled} jobs on a scheduler of their own and times every run into {@code
+ * scheduler.job}, tagged with the job ({@code Class.method}) and its outcome.
+ *
+ * <p>Without this the jobs would share whichever task scheduler the context happens to hold, which
+ * with the STOMP broker enabled is the broker's. The pool is sized by {@code
+ * spring.task.scheduling.pool.size}.
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+  private final MeteredTaskScheduler scheduler;
+
+  @Value("${spring.task.scheduling.pool.size:2}")
+  private int poolSize = 2;
+
+  public SchedulingConfig(final MeterRegistry meterRegistry) {
+    this.scheduler =
+        new MeteredTaskScheduler(
+            new OperationTimer(
+                meterRegistry, "scheduler.job", "Time taken by scheduled jobs", "job"));
+  }
+
+  @Override
+  public void configureTasks(final ScheduledTaskRegistrar registrar) {
+    scheduler.setPoolSize(poolSize);
+    scheduler.setThreadNamePrefix("scheduling-");
+    scheduler.setDaemon(true);
+    scheduler.initialize();
+    registrar.setTaskScheduler(scheduler);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdown();
+  }
+
+  /** A task scheduler that times every run of the tasks handed to it. */
+  static final class MeteredTaskScheduler extends ThreadPoolTaskScheduler {
+    private static final long serialVersionUID = 1L;
+
+    private final transient OperationTimer jobTimer;
+
+    MeteredTaskScheduler(final OperationTimer jobTimer) {
+      this.jobTimer = jobTimer;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(final Runnable task, final Trigger trigger) {
+      return super.schedule(timed(task), trigger);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(final Runnable task, final Date startTime) {
+      return super.schedule(timed(task), startTime);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(
+        final Runnable task, final Date startTime, final long period) {
+      return super.scheduleAtFixedRate(timed(task), startTime, period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(final Runnable task, final long period) {
+      return super.scheduleAtFixedRate(timed(task), period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(
+        final Runnable task, final Date startTime, final long delay) {
+      return super.scheduleWithFixedDelay(timed(task), startTime, delay);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable task, final long delay) {
+      return super.scheduleWithFixedDelay(timed(task), delay);
+    }
+
+    private Runnable timed(final Runnable task) {
+      final String job = jobName(task);
+      return () -> jobTimer.record(job, task);
+    }
+
+    static String jobName(final Runnable task) {
+      if (task instanceof ScheduledMethodRunnable) {
+        final ScheduledMethodRunnable method = (ScheduledMethodRunnable) task;
+        return method.getMethod().getDeclaringClass().getSimpleName()
+            + '.'
+            + method.getMethod().getName();
+      }
+      return task.getClass().getSimpleName();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.payflow.api.config;
+
+import com.payflow.api.security.StompAuthChannelInterceptor;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP over WebSocket at {@code /ws}, for pushing changes to clients instead of having them poll.
+ *
+ * <p>An in-memory broker fans messages out to user destinations. Every session gets a bounded send
+ * buffer: a client that stops reading lets its buffer fill, and once it exceeds the buffer size, or
+ * a single send blocks for longer than the time limit, the session is closed rather than allowed to
+ * hold memory or an outbound thread. Clients reconnect and re-read current state over REST.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+  private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+  @Value("${websocket.send-buffer-size-limit:524288}")
+  private int sendBufferSizeLimit = 512 * 1024;
+
+  @Value("${websocket.send-time-limit-ms:10000}")
+  private int sendTimeLimitMillis = 10_000;
+
+  @Value("${websocket.message-size-limit:16384}")
+  private int messageSizeLimit = 16 * 1024;
+
+  @Value("${websocket.heartbeat-ms:20000}")
+  private long heartbeatMillis = 20_000;
+
+  @Value("${websocket.outbound-threads:4}")
+  private int outboundThreads = 4;
+
+  /** Sends broker heartbeats; kept apart from the scheduler that runs {@code @Scheduled} jobs. */
+  private final ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+
+  @Override
+  public void registerStompEndpoints(final StompEndpointRegistry registry) {
+    registry.addEndpoint("/ws").setAllowedOriginPatterns("*");
+  }
+
+  @Override
+  public void configureMessageBroker(final MessageBrokerRegistry registry) {
+    heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+    heartbeatScheduler.setDaemon(true);
+    heartbeatScheduler.initialize();
+    registry
+        .enableSimpleBroker("/queue")
+        .setHeartbeatValue(new long[] {heartbeatMillis, heartbeatMillis})
+        .setTaskScheduler(heartbeatScheduler);
+    registry.setApplicationDestinationPrefixes("/app");
+    registry.setUserDestinationPrefix("/user");
+  }
+
+  @Override
+  public void configureWebSocketTransport(final WebSocketTransportRegistration registration) {
+    registration
+        .setSendBufferSizeLimit(sendBufferSizeLimit)
+        .setSendTimeLimit(sendTimeLimitMillis)
+        .setMessageSizeLimit(messageSizeLimit);
+  }
+
+  @Override
+  public void configureClientInboundChannel(final ChannelRegistration registration) {
+    registration.interceptors(stompAuthChannelInterceptor);
+  }
+
+  @Override
+  public void configureClientOutboundChannel(final ChannelRegistration registration) {
+    registration.taskExecutor().corePoolSize(outboundThreads).maxPoolSize(outboundThreads);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    heartbeatScheduler.shutdown();
+  }
+}
@@ -0,0 +1,63 @@
+package com.payflow.api.controller;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.model.dto.response.ExchangeRateResponse;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.service.ExchangeRateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST controller for exchange rate lookups, including historical point-in-time rates. */
+@RestController
+@RequestMapping("exchange-rates")
+@RequiredArgsConstructor
+@Tag(name = "Exchange Rates", description = "Exchange rate lookup API")
+public class ExchangeRateController {
+
+  private final ExchangeRateService exchangeRateService;
+
+  /**
+   * Returns the rate between two currencies, either now or as it was at a point in time. The point
+   * in time is given either as a timestamp or as a transaction's {@code exchangeRateVersion}.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @param at optional timestamp
+   * @param version optional snapshot version
+   * @return the rate in force and when it was published
+   */
+  @GetMapping("/{from}/{to}")
+  @Operation(summary = "Get the exchange rate between two currencies, optionally at a past time")
+  public ResponseEntity<ExchangeRateResponse> getExchangeRate(
+      @PathVariable final Wallet.Currency from,
+      @PathVariable final Wallet.Currency to,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          final LocalDateTime at,
+      @RequestParam(required = false) final Long version) {
+    if (at != null && version != null) {
+      throw new BadRequestException("Specify either 'at' or 'version', not both");
+    }
+    final Instant pointInTime;
+    if (version != null) {
+      pointInTime = Instant.ofEpochMilli(version);
+    } else if (at != null) {
+      pointInTime = at.atZone(ZoneId.systemDefault()).toInstant();
+    } else {
+      pointInTime = Instant.now();
+    }
+    return ResponseEntity.ok(
+        ExchangeRateResponse.fromPoint(
+            from, to, exchangeRateService.getExchangeRateAt(from, to, pointInTime)));
+  }
+}
@@ -0,0 +1,50 @@
+package com.payflow.api.controller;
+
+import com.payflow.api.model.dto.request.FxQuoteRequest;
+import com.payflow.api.model.dto.response.FxQuoteResponse;
+import com.payflow.api.security.UserPrincipal;
+import com.payflow.api.service.FxQuoteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST controller for locking currency conversions as short-lived quotes. */
+@RestController
+@RequestMapping("fx/quotes")
+@RequiredArgsConstructor
+@Tag(name = "FX Quotes", description = "Currency conversion quote API")
+public class FxQuoteController {
+
+  private final FxQuoteService fxQuoteService;
+
+  /**
+   * Locks the rate and converted amount for a conversion. The returned quote id can be passed to a
+   * transfer, QR code payment or money request payment until the quote expires.
+   *
+   * @param currentUser the authenticated user
+   * @param quoteRequest currencies and amount to quote
+   * @return the locked quote
+   */
+  @PostMapping
+  @Operation(summary = "Quote and lock a currency conversion")
+  public ResponseEntity<FxQuoteResponse> createQuote(
+      @AuthenticationPrincipal final UserPrincipal currentUser,
+      @Valid @RequestBody final FxQuoteRequest quoteRequest) {
+    return new ResponseEntity<>(
+        FxQuoteResponse.fromQuote(
+            fxQuoteService.createQuote(
+                currentUser.getId(),
+                quoteRequest.getFromCurrency(),
+                quoteRequest.getToCurrency(),
+                quoteRequest.getAmount())),
+        HttpStatus.CREATED);
+  }
+}
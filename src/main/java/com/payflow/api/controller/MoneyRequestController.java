@@ -1,7 +1,9 @@
 package com.payflow.api.controller;
 
+import com.payflow.api.model.dto.request.GroupMoneyRequestDTO;
 import com.payflow.api.model.dto.request.MoneyRequestActionDTO;
 import com.payflow.api.model.dto.request.MoneyRequestDTO;
+import com.payflow.api.model.dto.response.MoneyRequestGroupResponse;
 import com.payflow.api.model.dto.response.MoneyRequestResponse;
 import com.payflow.api.model.dto.response.TransactionResponse;
 import com.payflow.api.model.entity.MoneyRequest;
@@ -12,6 +14,7 @@ import com.payflow.api.service.MoneyRequestService;
 import com.payflow.api.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -49,6 +52,46 @@ public class MoneyRequestController {
     return new ResponseEntity<>(MoneyRequestResponse.fromEntity(moneyRequest), HttpStatus.CREATED);
   }
 
+  /**
+   * Splits a bill across several users with one request each.
+   *
+   * @param currentUser the authenticated user making the request
+   * @param requestDto the group request details
+   * @return the group with its requests
+   */
+  @PostMapping("/groups")
+  @Operation(summary = "Split a bill across several users")
+  public ResponseEntity<MoneyRequestGroupResponse> requestMoneyFromGroup(
+      @AuthenticationPrincipal final UserPrincipal currentUser,
+      @Valid @RequestBody final GroupMoneyRequestDTO requestDto) {
+
+    final User requester = userService.getUserById(currentUser.getId());
+    final List<MoneyRequest> moneyRequests =
+        moneyRequestService.createGroupMoneyRequest(requester, requestDto);
+    return new ResponseEntity<>(
+        MoneyRequestGroupResponse.fromEntities(moneyRequests.get(0).getGroupId(), moneyRequests),
+        HttpStatus.CREATED);
+  }
+
+  /**
+   * Retrieves a group request made by the current user, with how far it has been paid.
+   *
+   * @param currentUser the authenticated user
+   * @param groupId the group ID
+   * @return the group with its requests
+   */
+  @GetMapping("/groups/{groupId}")
+  @Operation(summary = "Track a split bill")
+  public ResponseEntity<MoneyRequestGroupResponse> getMoneyRequestGroup(
+      @AuthenticationPrincipal final UserPrincipal currentUser,
+      @PathVariable final String groupId) {
+
+    final User user = userService.getUserById(currentUser.getId());
+    final List<MoneyRequest> moneyRequests =
+        moneyRequestService.getMoneyRequestGroup(user, groupId);
+    return ResponseEntity.ok(MoneyRequestGroupResponse.fromEntities(groupId, moneyRequests));
+  }
+
   /**
    * Retrieves money requests sent by the current user.
    *
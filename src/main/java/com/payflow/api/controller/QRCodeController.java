@@ -2,26 +2,43 @@ package com.payflow.api.controller;
 
 import com.payflow.api.exception.PayflowApiException;
 import com.payflow.api.exception.ResourceNotFoundException;
+import com.payflow.api.model.dto.request.BulkQRCodeRequest;
 import com.payflow.api.model.dto.request.QRCodeRequest;
+import com.payflow.api.model.dto.response.QRPaymentResponse;
 import com.payflow.api.model.entity.QRCode;
 import com.payflow.api.model.entity.Transaction;
 import com.payflow.api.model.entity.User;
+import com.payflow.api.model.money.Money;
 import com.payflow.api.security.UserPrincipal;
 import com.payflow.api.service.QRCodeService;
 import com.payflow.api.service.UserService;
+import com.payflow.api.service.qr.QRImageFormat;
+import com.payflow.api.service.qr.QRPayloadSigner;
+import com.payflow.api.service.qr.QRPaymentSubscriptions;
+import com.payflow.api.service.qr.SignedQRPayload;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** Controller for QR code operations. */
 @RestController
@@ -31,8 +48,16 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class QRCodeController {
 
+  /** How long clients may reuse an image before revalidating it with its ETag. */
+  private static final Duration IMAGE_MAX_AGE = Duration.ofMinutes(5);
+
   private final QRCodeService qrCodeService;
   private final UserService userService;
+  private final QRPayloadSigner qrPayloadSigner;
+  private final QRPaymentSubscriptions qrPaymentSubscriptions;
+
+  @Value("${qr.payments.long-poll-timeout-ms:30000}")
+  private long longPollTimeoutMillis = 30_000;
 
   /**
    * Creates a new QR code for a wallet.
@@ -63,7 +88,7 @@ public class QRCodeController {
     response.put("qrId", qrCode.getQrId());
     response.put("walletNumber", qrCode.getWallet().getWalletNumber());
     response.put("currency", qrCode.getWallet().getCurrency());
-    response.put("amount", qrCode.getAmount());
+    response.put("amount", Money.toBigDecimal(qrCode.getAmount()));
     response.put("isAmountFixed", qrCode.isAmountFixed());
     response.put("isOneTime", qrCode.isOneTime());
     response.put("description", qrCode.getDescription());
@@ -74,6 +99,49 @@ public class QRCodeController {
     return new ResponseEntity<>(response, HttpStatus.CREATED);
   }
 
+  /**
+   * Creates a batch of one-time QR codes and streams back a ZIP archive with an image of each code
+   * and a {@code manifest.csv} listing them. The archive is written while images are rendered, so
+   * it is never held in memory as a whole.
+   *
+   * @param currentUser the authenticated user
+   * @param bulkRequest how many codes to create, their shared details and the image options
+   * @return the streamed archive
+   */
+  @PostMapping(value = "/bulk", produces = "application/zip")
+  @Operation(summary = "Create one-time QR codes in bulk and download their images")
+  public ResponseEntity<StreamingResponseBody> createBulkQrCodes(
+      @AuthenticationPrincipal final UserPrincipal currentUser,
+      @RequestBody final BulkQRCodeRequest bulkRequest) {
+
+    final QRImageFormat format =
+        bulkRequest.getFormat() == null ? QRImageFormat.PNG : bulkRequest.getFormat();
+    qrCodeService.validateImageOptions(format, bulkRequest.getSize(), bulkRequest.getMargin());
+
+    final User user = userService.getUserById(currentUser.getId());
+    final List<QRCode> qrCodes =
+        qrCodeService.createBulkQRCodes(
+            user,
+            bulkRequest.getWalletNumber(),
+            bulkRequest.getCount(),
+            bulkRequest.getAmount(),
+            bulkRequest.isAmountFixed(),
+            bulkRequest.getDescription(),
+            bulkRequest.getExpiresAt());
+
+    final StreamingResponseBody archive =
+        out ->
+            qrCodeService.writeQRCodeArchive(
+                qrCodes, format, bulkRequest.getSize(), bulkRequest.getMargin(), out);
+
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .contentType(MediaType.parseMediaType("application/zip"))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("qr-codes.zip").build().toString())
+        .body(archive);
+  }
+
   /**
    * Retrieves all QR codes for the current user.
    *
@@ -95,7 +163,7 @@ public class QRCodeController {
                   map.put("qrId", qrCode.getQrId());
                   map.put("walletNumber", qrCode.getWallet().getWalletNumber());
                   map.put("currency", qrCode.getWallet().getCurrency());
-                  map.put("amount", qrCode.getAmount());
+                  map.put("amount", Money.toBigDecimal(qrCode.getAmount()));
                   map.put("isAmountFixed", qrCode.isAmountFixed());
                   map.put("isOneTime", qrCode.isOneTime());
                   map.put("description", qrCode.getDescription());
@@ -160,6 +228,81 @@ public class QRCodeController {
     }
   }
 
+  /**
+   * Returns a QR code image as a raw PNG.
+   *
+   * @param id the QR code ID
+   * @param size width and height in pixels
+   * @param margin quiet zone width in modules
+   * @param webRequest the current request, used to answer conditional requests
+   * @return the image, or 304 if the client's copy matches
+   */
+  @GetMapping(value = "/{id}/image.png", produces = "image/png")
+  @Operation(
+      summary = "Get QR code image by ID as PNG",
+      description =
+          "Returns the PNG bytes with a strong ETag. Sizes: 128, 256, 300, 512, 1024; margins: 0, 1,"
+              + " 2, 4")
+  public ResponseEntity<byte[]> getQRCodePng(
+      @PathVariable final Long id,
+      @RequestParam(defaultValue = "" + QRCodeService.DEFAULT_IMAGE_SIZE) final int size,
+      @RequestParam(defaultValue = "" + QRCodeService.DEFAULT_IMAGE_MARGIN) final int margin,
+      final WebRequest webRequest) {
+    return getQRCodeImageBytes(id, QRImageFormat.PNG, size, margin, webRequest);
+  }
+
+  /**
+   * Returns a QR code image as SVG.
+   *
+   * @param id the QR code ID
+   * @param size default width and height in pixels
+   * @param margin quiet zone width in modules
+   * @param webRequest the current request, used to answer conditional requests
+   * @return the image, or 304 if the client's copy matches
+   */
+  @GetMapping(value = "/{id}/image.svg", produces = "image/svg+xml")
+  @Operation(
+      summary = "Get QR code image by ID as SVG",
+      description =
+          "Returns the SVG document with a strong ETag. Sizes: 128, 256, 300, 512, 1024; margins:"
+              + " 0, 1, 2, 4")
+  public ResponseEntity<byte[]> getQRCodeSvg(
+      @PathVariable final Long id,
+      @RequestParam(defaultValue = "" + QRCodeService.DEFAULT_IMAGE_SIZE) final int size,
+      @RequestParam(defaultValue = "" + QRCodeService.DEFAULT_IMAGE_MARGIN) final int margin,
+      final WebRequest webRequest) {
+    return getQRCodeImageBytes(id, QRImageFormat.SVG, size, margin, webRequest);
+  }
+
+  /**
+   * Serves image bytes with HTTP caching headers. The ETag is derived from the QR content and the
+   * rendering options, so a matching If-None-Match is answered with 304 before anything is
+   * rendered.
+   */
+  private ResponseEntity<byte[]> getQRCodeImageBytes(
+      final Long id,
+      final QRImageFormat format,
+      final int size,
+      final int margin,
+      final WebRequest webRequest) {
+    final QRCode qrCode = qrCodeService.getQRCodeByIdWithWallet(id);
+    final String eTag = qrCodeService.getQRCodeImageTag(qrCode, format, size, margin);
+    final CacheControl cacheControl = CacheControl.maxAge(IMAGE_MAX_AGE).cachePrivate();
+
+    if (webRequest.checkNotModified(eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(eTag)
+          .cacheControl(cacheControl)
+          .build();
+    }
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(format.getContentType()))
+        .eTag(eTag)
+        .cacheControl(cacheControl)
+        .body(qrCodeService.getQRCodeImage(qrCode, format, size, margin));
+  }
+
   @GetMapping("/{id}")
   @Operation(
       summary = "Get QR code by ID",
@@ -193,7 +336,7 @@ public class QRCodeController {
     response.put("qrId", qrCode.getQrId());
     response.put("walletNumber", qrCode.getWallet().getWalletNumber());
     response.put("currency", qrCode.getWallet().getCurrency());
-    response.put("amount", qrCode.getAmount());
+    response.put("amount", Money.toBigDecimal(qrCode.getAmount()));
     response.put("isAmountFixed", qrCode.isAmountFixed());
     response.put("isOneTime", qrCode.isOneTime());
     response.put("description", qrCode.getDescription());
@@ -214,7 +357,55 @@ public class QRCodeController {
       @AuthenticationPrincipal UserPrincipal currentUser,
       @PathVariable String qrId,
       @RequestBody Map<String, Object> paymentData) {
+    return pay(currentUser, qrId, paymentData);
+  }
+
+  /**
+   * Verifies a scanned QR payload and returns the fields it carries. Nothing is looked up, so a
+   * client can show the payee's currency and amount before the payer confirms.
+   *
+   * @param scanData map holding the scanned {@code payload}
+   * @return the signed fields of the payload
+   */
+  @PostMapping("/scan/verify")
+  @Operation(summary = "Verify a scanned QR code payload")
+  public ResponseEntity<?> verifyScannedQRCode(@RequestBody Map<String, Object> scanData) {
+    SignedQRPayload payload = qrPayloadSigner.verify((String) scanData.get("payload"));
+
+    Map<String, Object> response = new HashMap<>();
+    response.put("qrId", payload.getQrId());
+    response.put("currency", payload.getCurrency());
+    response.put("amount", Money.toBigDecimal(payload.getAmount()));
+    response.put("isAmountFixed", payload.isAmountFixed());
+    response.put("isOneTime", payload.isOneTime());
+    response.put(
+        "expiresAt",
+        payload.getExpiresAtEpochSecond() == 0L
+            ? null
+            : Instant.ofEpochSecond(payload.getExpiresAtEpochSecond()));
+
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Pays the QR code a scanned payload refers to. The payload is verified before anything else, so
+   * forged, tampered and expired scans are turned away without touching the database.
+   *
+   * @param currentUser the authenticated user
+   * @param paymentData map holding the scanned {@code payload} and the payment details
+   * @return the completed transaction
+   */
+  @PostMapping("/scan/pay")
+  @Operation(summary = "Pay using a scanned QR code payload")
+  public ResponseEntity<?> payWithScannedQRCode(
+      @AuthenticationPrincipal UserPrincipal currentUser,
+      @RequestBody Map<String, Object> paymentData) {
+    SignedQRPayload payload = qrPayloadSigner.verify((String) paymentData.get("payload"));
+    return pay(currentUser, payload.getQrId(), paymentData);
+  }
 
+  private ResponseEntity<?> pay(
+      UserPrincipal currentUser, String qrId, Map<String, Object> paymentData) {
     User user = userService.getUserById(currentUser.getId());
 
     BigDecimal amount =
@@ -223,22 +414,63 @@ public class QRCodeController {
             : null;
 
     String sourceWalletNumber = (String) paymentData.get("sourceWalletNumber");
+    String quoteId = (String) paymentData.get("quoteId");
     // String paymentMethodId = (String) paymentData.get("paymentMethodId");
     // TODO: Add payment method processing in future implementation
 
     Transaction transaction =
-        qrCodeService.processQRCodePayment(user, qrId, amount, sourceWalletNumber);
+        qrCodeService.processQRCodePayment(user, qrId, amount, sourceWalletNumber, quoteId);
 
     Map<String, Object> response = new HashMap<>();
     response.put("transactionId", transaction.getId());
     response.put("transactionNumber", transaction.getTransactionNumber());
     response.put("status", transaction.getStatus());
-    response.put("amount", transaction.getAmount());
+    response.put("amount", transaction.getAmount().toBigDecimal());
     response.put("createdAt", transaction.getCreatedAt());
 
     return ResponseEntity.ok(response);
   }
 
+  /**
+   * Waits for the next payment on one of the user's QR codes, so a till can show it the moment it
+   * commits instead of polling the transaction history. The request is parked without holding a
+   * server thread. It answers with the payment, or with the code's expiry or deactivation, and with
+   * 204 if nothing happened within the timeout, after which the till asks again.
+   *
+   * @param currentUser the authenticated user
+   * @param qrId the QR code to watch
+   * @param timeoutMs how long to wait, capped at {@code qr.payments.long-poll-timeout-ms}
+   * @return the notice, once there is one
+   */
+  @GetMapping("/{qrId}/payments/next")
+  @Operation(summary = "Wait for the next payment on a QR code")
+  public DeferredResult<ResponseEntity<QRPaymentResponse>> awaitQRCodePayment(
+      @AuthenticationPrincipal UserPrincipal currentUser,
+      @PathVariable String qrId,
+      @RequestParam(required = false) Long timeoutMs) {
+    long timeout =
+        timeoutMs == null || timeoutMs <= 0
+            ? longPollTimeoutMillis
+            : Math.min(timeoutMs, longPollTimeoutMillis);
+    DeferredResult<ResponseEntity<QRPaymentResponse>> result =
+        new DeferredResult<>(timeout, ResponseEntity.noContent().build());
+    QRPaymentSubscriptions.Subscriber subscriber =
+        notice -> result.setResult(ResponseEntity.ok(notice));
+    if (!qrPaymentSubscriptions.subscribe(qrId, subscriber)) {
+      throw new PayflowApiException(
+          "Too many clients are watching this QR code", HttpStatus.TOO_MANY_REQUESTS);
+    }
+    result.onCompletion(() -> qrPaymentSubscriptions.unsubscribe(qrId, subscriber));
+    // Checked after subscribing, so a code closed in between still reaches the subscriber
+    try {
+      qrCodeService.checkPaymentWatcher(currentUser.getId(), qrId);
+    } catch (RuntimeException e) {
+      qrPaymentSubscriptions.unsubscribe(qrId, subscriber);
+      throw e;
+    }
+    return result;
+  }
+
   @PostMapping("/{id}/deactivate")
   @Operation(summary = "Deactivate a QR code")
   public ResponseEntity<?> deactivateQRCode(
@@ -255,7 +487,7 @@ public class QRCodeController {
     response.put("qrId", qrCode.getQrId());
     response.put("walletNumber", qrCode.getWallet().getWalletNumber());
     response.put("currency", qrCode.getWallet().getCurrency());
-    response.put("amount", qrCode.getAmount());
+    response.put("amount", Money.toBigDecimal(qrCode.getAmount()));
     response.put("isAmountFixed", qrCode.isAmountFixed());
     response.put("isOneTime", qrCode.isOneTime());
     response.put("description", qrCode.getDescription());
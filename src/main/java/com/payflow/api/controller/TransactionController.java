@@ -9,6 +9,7 @@ import com.payflow.api.repository.projection.TransactionSummary;
 import com.payflow.api.security.UserPrincipal;
 import com.payflow.api.service.TransactionService;
 import com.payflow.api.service.UserService;
+import com.payflow.api.service.push.TransactionStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -28,9 +29,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /** REST controller for managing transactions. */
 @RestController
@@ -42,6 +45,7 @@ public class TransactionController {
 
   private final TransactionService transactionService;
   private final UserService userService;
+  private final TransactionStreamService transactionStreamService;
 
   @PostMapping("/transfer")
   @Operation(
@@ -111,6 +115,40 @@ public class TransactionController {
     return ResponseEntity.ok(transactionResponses);
   }
 
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Stream new transactions for the current user",
+      description =
+          "Server-Sent Events feed of the current user's new transactions. Each `transaction` event"
+              + " has the transaction ID as its ID; reconnecting with `Last-Event-ID` first replays"
+              + " what was missed. A `resync` event means too much was missed, and the history"
+              + " should be reloaded from `GET /transactions`.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "400", description = "Invalid Last-Event-ID"),
+        @ApiResponse(responseCode = "401", description = "User is not authenticated")
+      })
+  public SseEmitter streamMyTransactions(
+      @AuthenticationPrincipal UserPrincipal currentUser,
+      @Parameter(description = "ID of the last transaction event received")
+          @RequestHeader(value = "Last-Event-ID", required = false)
+          String lastEventId) {
+
+    Long cursor = null;
+    if (lastEventId != null && !lastEventId.isBlank()) {
+      try {
+        cursor = Long.valueOf(lastEventId.trim());
+      } catch (NumberFormatException e) {
+        throw new BadRequestException("Invalid Last-Event-ID: " + lastEventId);
+      }
+    }
+
+    log.debug("Opening transaction stream for user {} after {}", currentUser.getId(), cursor);
+
+    return transactionStreamService.open(currentUser.getId(), cursor);
+  }
+
   @GetMapping("/summary")
   @Operation(
       summary = "Get transaction summaries for the current user",
@@ -0,0 +1,11 @@
+package com.payflow.api.event;
+
+import com.payflow.api.model.entity.Transaction;
+
+/** Published once a deposit into a wallet has committed. */
+public final class DepositCompletedEvent extends TransactionCompletedEvent {
+
+  public DepositCompletedEvent(final Transaction transaction) {
+    super(transaction);
+  }
+}
@@ -0,0 +1,7 @@
+package com.payflow.api.event;
+
+/**
+ * Marker for events that are handed to the {@link DomainEventBus} once the change they describe has
+ * committed. Implementations are immutable, since they are read on the handlers' threads.
+ */
+public interface DomainEvent {}
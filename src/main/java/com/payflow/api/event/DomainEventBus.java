@@ -0,0 +1,292 @@
+package com.payflow.api.event;
+
+import com.payflow.api.event.DomainEventHandler.OverflowPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Hands committed {@link DomainEvent}s to every {@link DomainEventHandler} on the handler's own
+ * thread, so the request that made the change does not wait for its side effects.
+ *
+ * <p>Events published with Spring's {@code ApplicationEventPublisher} reach the bus only once the
+ * publishing transaction commits, or at once if there is none; a rolled-back change publishes
+ * nothing. They are written to one bounded ring of {@code events.bus.capacity} slots, which every
+ * handler reads independently, taking up to its batch size of events at a time.
+ *
+ * <p>The ring is full when the slowest {@link OverflowPolicy#BLOCK} handler is a whole ring behind.
+ * Publishers then wait for it, for at most {@code events.bus.block-timeout-ms}, after which the
+ * event is written anyway so a stuck handler cannot stall commits; that handler then skips what it
+ * was lapped on. {@link OverflowPolicy#DROP} handlers never hold publishers up and skip events they
+ * were lapped on.
+ *
+ * <p>Publishes {@code events.bus.published}, and per handler {@code events.bus.lag} (events not yet
+ * handled), {@code events.bus.handle} (time per batch), {@code events.bus.dropped} and {@code
+ * events.bus.failures} (batches that threw).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DomainEventBus {
+
+  /** Handlers are woken on publish; this only bounds a missed wake-up. */
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final List<DomainEventHandler<?>> handlers;
+  private final Environment environment;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${events.bus.capacity:4096}")
+  private int capacity = 4096;
+
+  @Value("${events.bus.block-timeout-ms:5000}")
+  private long blockTimeoutMs = 5_000;
+
+  @Value("${events.bus.shutdown-timeout-ms:5000}")
+  private long shutdownTimeoutMs = 5_000;
+
+  /** Sequence of the last event written. */
+  private final AtomicLong cursor = new AtomicLong(-1);
+
+  private final Object publishLock = new Object();
+
+  private AtomicReferenceArray<DomainEvent> ring;
+  private int size;
+  private int mask;
+  private Subscription<?>[] subscriptions;
+  private volatile boolean running;
+  private Counter publishedCounter;
+  private Counter blockTimeoutCounter;
+
+  /** Allocates the ring and starts one thread per handler. */
+  @PostConstruct
+  public void start() {
+    size = 1;
+    while (size < capacity) {
+      size <<= 1;
+    }
+    mask = size - 1;
+    ring = new AtomicReferenceArray<>(size);
+    subscriptions = handlers.stream().map(this::subscribe).toArray(Subscription<?>[]::new);
+    publishedCounter =
+        Counter.builder("events.bus.published")
+            .description("Domain events published to the bus")
+            .register(meterRegistry);
+    blockTimeoutCounter =
+        Counter.builder("events.bus.block-timeouts")
+            .description("Publishes that stopped waiting for a blocking handler")
+            .register(meterRegistry);
+    running = true;
+    for (final Subscription<?> subscription : subscriptions) {
+      subscription.thread.start();
+    }
+    log.info("Domain event bus started with {} slots and {} handlers", size, subscriptions.length);
+  }
+
+  /** Lets every handler finish the events already published, then stops the threads. */
+  @PreDestroy
+  public void stop() {
+    running = false;
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+    for (final Subscription<?> subscription : subscriptions) {
+      LockSupport.unpark(subscription.thread);
+    }
+    for (final Subscription<?> subscription : subscriptions) {
+      try {
+        subscription.thread.join(
+            Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Receives events published through the application context once their transaction commits.
+   *
+   * @param event the committed event
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCommitted(final DomainEvent event) {
+    publish(event);
+  }
+
+  /**
+   * Writes an event to the ring and wakes the handlers. Call only once the change it describes is
+   * durable.
+   *
+   * @param event the event
+   */
+  public void publish(final DomainEvent event) {
+    if (!running) {
+      log.warn("Domain event bus is stopped; discarding {}", event);
+      return;
+    }
+    synchronized (publishLock) {
+      final long sequence = cursor.get() + 1;
+      awaitCapacity(sequence);
+      ring.set((int) (sequence & mask), event);
+      cursor.set(sequence);
+    }
+    publishedCounter.increment();
+    for (final Subscription<?> subscription : subscriptions) {
+      LockSupport.unpark(subscription.thread);
+    }
+  }
+
+  /** Waits until every blocking handler is done with the slot the sequence reuses. */
+  private void awaitCapacity(final long sequence) {
+    final long wrapPoint = sequence - size;
+    if (minimumBlockingSequence() >= wrapPoint) {
+      return;
+    }
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+    while (minimumBlockingSequence() < wrapPoint) {
+      if (System.nanoTime() - deadline > 0) {
+        blockTimeoutCounter.increment();
+        log.warn("Domain event bus stayed full for {} ms; overwriting", blockTimeoutMs);
+        return;
+      }
+      LockSupport.parkNanos(FULL_PARK_NANOS);
+    }
+  }
+
+  private long minimumBlockingSequence() {
+    long minimum = Long.MAX_VALUE;
+    for (final Subscription<?> subscription : subscriptions) {
+      if (subscription.policy == OverflowPolicy.BLOCK) {
+        minimum = Math.min(minimum, subscription.sequence.get());
+      }
+    }
+    return minimum;
+  }
+
+  private <E extends DomainEvent> Subscription<E> subscribe(final DomainEventHandler<E> handler) {
+    return new Subscription<>(handler);
+  }
+
+  /** One handler's position in the ring and the thread that advances it. */
+  private final class Subscription<E extends DomainEvent> implements Runnable {
+    private final DomainEventHandler<E> handler;
+    private final Class<E> eventType;
+    private final OverflowPolicy policy;
+    private final int maxBatchSize;
+
+    /** Sequence of the last event handled. */
+    private final AtomicLong sequence = new AtomicLong(-1);
+
+    private final Thread thread;
+    private final Timer handleTimer;
+    private final Counter droppedCounter;
+    private final Counter failureCounter;
+
+    private Subscription(final DomainEventHandler<E> handler) {
+      final String name = handler.getName();
+      final String prefix = "events.handlers." + name + ".";
+      this.handler = handler;
+      this.eventType = handler.getEventType();
+      this.policy =
+          environment.getProperty(
+              prefix + "overflow-policy", OverflowPolicy.class, handler.getOverflowPolicy());
+      this.maxBatchSize =
+          Math.max(
+              1,
+              environment.getProperty(
+                  prefix + "max-batch-size", Integer.class, handler.getMaxBatchSize()));
+      this.thread = new Thread(this, "events-" + name);
+      this.thread.setDaemon(true);
+      Gauge.builder("events.bus.lag", this, s -> cursor.get() - s.sequence.get())
+          .description("Published domain events a handler has not handled yet")
+          .tag("handler", name)
+          .register(meterRegistry);
+      this.handleTimer =
+          Timer.builder("events.bus.handle")
+              .description("Time a handler takes per batch of domain events")
+              .tag("handler", name)
+              .register(meterRegistry);
+      this.droppedCounter =
+          Counter.builder("events.bus.dropped")
+              .description("Domain events a handler skipped because it was lapped")
+              .tag("handler", name)
+              .register(meterRegistry);
+      this.failureCounter =
+          Counter.builder("events.bus.failures")
+              .description("Batches of domain events a handler failed on")
+              .tag("handler", name)
+              .register(meterRegistry);
+    }
+
+    @Override
+    public void run() {
+      final List<E> batch = new ArrayList<>(maxBatchSize);
+      long next = 0;
+      while (true) {
+        final long available = cursor.get();
+        if (available < next) {
+          if (!running) {
+            return;
+          }
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+          continue;
+        }
+        if (available - next >= size) {
+          final long resume = available - size + 1;
+          drop(resume - next);
+          next = resume;
+        }
+        final long end = Math.min(available, next + maxBatchSize - 1);
+        for (long s = next; s <= end; s++) {
+          final DomainEvent event = ring.get((int) (s & mask));
+          if (eventType.isInstance(event)) {
+            batch.add(eventType.cast(event));
+          }
+        }
+        // Slots are only reused under a handler that may be lapped; if that happened while they
+        // were being read, some of the batch may be newer events, so none of it is trusted
+        if (cursor.get() - size >= next) {
+          drop(end - next + 1);
+        } else if (!batch.isEmpty()) {
+          deliver(batch);
+        }
+        batch.clear();
+        sequence.set(end);
+        next = end + 1;
+      }
+    }
+
+    private void deliver(final List<E> batch) {
+      final long startedAt = System.nanoTime();
+      try {
+        handler.handle(batch);
+      } catch (RuntimeException e) {
+        failureCounter.increment();
+        log.error("{} failed on {} domain events", handler.getName(), batch.size(), e);
+      } finally {
+        handleTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    private void drop(final long count) {
+      droppedCounter.increment(count);
+      log.warn("{} fell behind and skipped {} domain events", handler.getName(), count);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.payflow.api.event;
+
+import java.util.List;
+
+/**
+ * Consumes one type of {@link DomainEvent} from the {@link DomainEventBus}. Declare an
+ * implementation as a bean and the bus gives it a thread of its own, on which {@link #handle} is
+ * called with the events in the order they committed.
+ *
+ * <p>The overflow policy and batch size can be overridden per handler with {@code
+ * events.handlers.<name>.overflow-policy} and {@code events.handlers.<name>.max-batch-size}.
+ *
+ * @param <E> the events handled; subtypes are included
+ */
+public interface DomainEventHandler<E extends DomainEvent> {
+
+  /** What happens when a handler falls a whole ring behind the newest event. */
+  enum OverflowPolicy {
+    /** Publishers wait for the handler, up to {@code events.bus.block-timeout-ms}. */
+    BLOCK,
+    /** Publishers never wait; the handler skips the events it was lapped on. */
+    DROP
+  }
+
+  /** The type of event to receive. */
+  Class<E> getEventType();
+
+  /**
+   * Handles a batch of events. An exception is logged and the batch is not retried.
+   *
+   * @param events one or more events, oldest first; the list is reused once this returns
+   */
+  void handle(List<E> events);
+
+  /** Names the handler's thread, metrics and properties. */
+  default String getName() {
+    return getClass().getSimpleName();
+  }
+
+  default OverflowPolicy getOverflowPolicy() {
+    return OverflowPolicy.BLOCK;
+  }
+
+  /** The most events passed to one call of {@link #handle}. */
+  default int getMaxBatchSize() {
+    return 64;
+  }
+}
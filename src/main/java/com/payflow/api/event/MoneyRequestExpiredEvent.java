@@ -0,0 +1,60 @@
+package com.payflow.api.event;
+
+import com.payflow.api.model.dto.response.MoneyRequestResponse;
+import com.payflow.api.model.money.Money;
+
+/**
+ * Published once a PENDING money request has been moved to EXPIRED and that change has committed,
+ * so listeners can notify the requester and requestee.
+ *
+ * <p>The request is read back as the API returns it, with both parties' emails, inside the
+ * transaction that expired it, so handlers never touch a persistence context.
+ */
+public final class MoneyRequestExpiredEvent implements DomainEvent {
+
+  private final Long requesterId;
+  private final Long requesteeId;
+  private final Money amount;
+  private final MoneyRequestResponse moneyRequest;
+
+  public MoneyRequestExpiredEvent(
+      final Long requesterId,
+      final Long requesteeId,
+      final Money amount,
+      final MoneyRequestResponse moneyRequest) {
+    this.requesterId = requesterId;
+    this.requesteeId = requesteeId;
+    this.amount = amount;
+    this.moneyRequest = moneyRequest;
+  }
+
+  public Long getMoneyRequestId() {
+    return moneyRequest.getId();
+  }
+
+  public String getRequestNumber() {
+    return moneyRequest.getRequestNumber();
+  }
+
+  public Long getRequesterId() {
+    return requesterId;
+  }
+
+  public Long getRequesteeId() {
+    return requesteeId;
+  }
+
+  public Money getAmount() {
+    return amount;
+  }
+
+  /** The expired request as the API returns it. Handlers must not modify it. */
+  public MoneyRequestResponse getMoneyRequest() {
+    return moneyRequest;
+  }
+
+  @Override
+  public String toString() {
+    return "MoneyRequestExpiredEvent{" + moneyRequest.getRequestNumber() + '}';
+  }
+}
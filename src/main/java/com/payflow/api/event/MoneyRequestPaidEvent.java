@@ -0,0 +1,29 @@
+package com.payflow.api.event;
+
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.entity.Transaction;
+
+/**
+ * Published once the payment of a money request has committed. The sender is the requestee who paid
+ * and the receiver the requester.
+ */
+public final class MoneyRequestPaidEvent extends TransactionCompletedEvent {
+
+  private final Long moneyRequestId;
+  private final String requestNumber;
+
+  public MoneyRequestPaidEvent(final Transaction transaction) {
+    super(transaction);
+    final MoneyRequest moneyRequest = transaction.getMoneyRequest();
+    this.moneyRequestId = moneyRequest == null ? null : moneyRequest.getId();
+    this.requestNumber = moneyRequest == null ? null : moneyRequest.getRequestNumber();
+  }
+
+  public Long getMoneyRequestId() {
+    return moneyRequestId;
+  }
+
+  public String getRequestNumber() {
+    return requestNumber;
+  }
+}
@@ -0,0 +1,31 @@
+package com.payflow.api.event;
+
+import com.payflow.api.model.entity.Transaction;
+
+/** Published once a payment against a QR code has committed. */
+public final class QRPaymentCompletedEvent extends TransactionCompletedEvent {
+
+  private final String qrId;
+  private final boolean closesCode;
+
+  /**
+   * Creates the event.
+   *
+   * @param transaction the saved payment, with its parties and wallets loaded
+   * @param closesCode true if the payment used up a one-time code
+   */
+  public QRPaymentCompletedEvent(final Transaction transaction, final boolean closesCode) {
+    super(transaction);
+    this.qrId = transaction.getQrCodeId();
+    this.closesCode = closesCode;
+  }
+
+  public String getQrId() {
+    return qrId;
+  }
+
+  /** True if the code can no longer be paid. */
+  public boolean isClosesCode() {
+    return closesCode;
+  }
+}
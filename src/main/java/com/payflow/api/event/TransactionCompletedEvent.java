@@ -0,0 +1,172 @@
+package com.payflow.api.event;
+
+import com.payflow.api.model.dto.response.TransactionResponse;
+import com.payflow.api.model.entity.Transaction;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.time.LocalDateTime;
+
+/**
+ * Base of the events published when a transaction that moved money has committed.
+ *
+ * <p>Everything a handler needs is copied out of the entities when the event is created, inside the
+ * transaction, so handlers never touch a persistence context: the transaction as the API returns
+ * it, the two parties and the balances the two wallets committed with. Create events once the
+ * balances have been updated.
+ */
+public abstract class TransactionCompletedEvent implements DomainEvent {
+
+  private final TransactionResponse transaction;
+  private final Money amount;
+  private final Party sender;
+  private final Party receiver;
+  private final WalletBalance sourceWallet;
+  private final WalletBalance destinationWallet;
+  private final LocalDateTime occurredAt;
+
+  protected TransactionCompletedEvent(final Transaction transaction) {
+    this.transaction = TransactionResponse.fromEntity(transaction);
+    this.amount = transaction.getAmount();
+    this.sender = Party.of(transaction.getSender());
+    this.receiver = Party.of(transaction.getReceiver());
+    this.sourceWallet = WalletBalance.of(transaction.getSourceWallet());
+    this.destinationWallet = WalletBalance.of(transaction.getDestinationWallet());
+    this.occurredAt =
+        transaction.getCreatedAt() == null ? LocalDateTime.now() : transaction.getCreatedAt();
+  }
+
+  /**
+   * Creates the event for a saved transaction, chosen by its type. Money request and QR code
+   * payments carry more than the transaction, so use their own constructors where that is known.
+   *
+   * @param transaction the saved transaction, with its parties and wallets loaded
+   * @return the event
+   */
+  public static TransactionCompletedEvent of(final Transaction transaction) {
+    switch (transaction.getType()) {
+      case DEPOSIT:
+        return new DepositCompletedEvent(transaction);
+      case WITHDRAWAL:
+        return new WithdrawalCompletedEvent(transaction);
+      case REQUEST_PAYMENT:
+        return new MoneyRequestPaidEvent(transaction);
+      default:
+        return new TransferCompletedEvent(transaction);
+    }
+  }
+
+  /** The transaction as the API returns it. Handlers must not modify it. */
+  public TransactionResponse getTransaction() {
+    return transaction;
+  }
+
+  public Long getTransactionId() {
+    return transaction.getId();
+  }
+
+  public String getTransactionNumber() {
+    return transaction.getTransactionNumber();
+  }
+
+  public Money getAmount() {
+    return amount;
+  }
+
+  /** The paying user, or null if money came from outside. */
+  public Party getSender() {
+    return sender;
+  }
+
+  /** The paid user, or null if money left the system. */
+  public Party getReceiver() {
+    return receiver;
+  }
+
+  public WalletBalance getSourceWallet() {
+    return sourceWallet;
+  }
+
+  public WalletBalance getDestinationWallet() {
+    return destinationWallet;
+  }
+
+  public LocalDateTime getOccurredAt() {
+    return occurredAt;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + '{' + transaction.getTransactionNumber() + '}';
+  }
+
+  /** A user taking part in a transaction. */
+  public static final class Party {
+    private final Long userId;
+    private final String email;
+
+    private Party(final Long userId, final String email) {
+      this.userId = userId;
+      this.email = email;
+    }
+
+    private static Party of(final User user) {
+      return user == null ? null : new Party(user.getId(), user.getEmail());
+    }
+
+    public Long getUserId() {
+      return userId;
+    }
+
+    public String getEmail() {
+      return email;
+    }
+  }
+
+  /** A wallet a transaction moved money into or out of, with the balance it committed with. */
+  public static final class WalletBalance {
+    private final Long walletId;
+    private final String walletNumber;
+    private final Wallet.Currency currency;
+    private final Money balance;
+    private final Party owner;
+    private final LocalDateTime createdAt;
+
+    private WalletBalance(final Wallet wallet) {
+      this.walletId = wallet.getId();
+      this.walletNumber = wallet.getWalletNumber();
+      this.currency = wallet.getCurrency();
+      this.balance = wallet.getBalance();
+      this.owner = Party.of(wallet.getUser());
+      this.createdAt = wallet.getCreatedAt();
+    }
+
+    private static WalletBalance of(final Wallet wallet) {
+      return wallet == null ? null : new WalletBalance(wallet);
+    }
+
+    public Long getWalletId() {
+      return walletId;
+    }
+
+    public String getWalletNumber() {
+      return walletNumber;
+    }
+
+    public Wallet.Currency getCurrency() {
+      return currency;
+    }
+
+    public Money getBalance() {
+      return balance;
+    }
+
+    public Party getOwner() {
+      return owner;
+    }
+
+    public LocalDateTime getCreatedAt() {
+      return createdAt;
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.payflow.api.event;
+
+import com.payflow.api.model.entity.Transaction;
+
+/** Published once a transfer between two wallets has committed. */
+public final class TransferCompletedEvent extends TransactionCompletedEvent {
+
+  public TransferCompletedEvent(final Transaction transaction) {
+    super(transaction);
+  }
+}
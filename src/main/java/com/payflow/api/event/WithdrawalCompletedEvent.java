@@ -0,0 +1,14 @@
+package com.payflow.api.event;
+
+import com.payflow.api.model.entity.Transaction;
+
+/**
+ * Published once a withdrawal out of a wallet has committed. It has no receiver or destination
+ * wallet.
+ */
+public final class WithdrawalCompletedEvent extends TransactionCompletedEvent {
+
+  public WithdrawalCompletedEvent(final Transaction transaction) {
+    super(transaction);
+  }
+}
@@ -1,5 +1,6 @@
 package com.payflow.api.exception;
 
+import com.payflow.api.model.money.Money;
 import java.math.BigDecimal;
 
 /** Exception thrown when a transaction cannot be completed due to insufficient funds */
@@ -20,6 +21,10 @@ public class InsufficientFundsException extends BadRequestException {
     this.requestedAmount = requestedAmount;
   }
 
+  public InsufficientFundsException(Money availableBalance, Money requestedAmount) {
+    this(availableBalance.toBigDecimal(), requestedAmount.toBigDecimal());
+  }
+
   public BigDecimal getAvailableBalance() {
     return availableBalance;
   }
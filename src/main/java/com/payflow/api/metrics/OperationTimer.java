@@ -0,0 +1,153 @@
+package com.payflow.api.metrics;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.exception.InsufficientFundsException;
+import com.payflow.api.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times operations into one timer per operation and outcome, so that failed calls are not averaged
+ * into the successful ones. Every timer shares a name and carries an operation tag, {@code
+ * operation} unless named otherwise, and an {@code outcome} tag; the outcome is {@link #SUCCESS} or
+ * is read from the exception the operation threw.
+ *
+ * <p>Timers are registered on first use and kept, so recording after that costs a map lookup.
+ * Histograms and percentiles are configured per meter name with the {@code
+ * management.metrics.distribution.*} properties.
+ */
+public final class OperationTimer {
+
+  public static final String SUCCESS = "success";
+  public static final String INSUFFICIENT_FUNDS = "insufficient_funds";
+  public static final String NOT_FOUND = "not_found";
+  public static final String REJECTED = "rejected";
+  public static final String ERROR = "error";
+
+  private final MeterRegistry meterRegistry;
+  private final String name;
+  private final String description;
+  private final String operationTag;
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a timer family.
+   *
+   * @param meterRegistry the registry to register the timers with
+   * @param name the meter name shared by every operation
+   * @param description the meter description
+   */
+  public OperationTimer(
+      final MeterRegistry meterRegistry, final String name, final String description) {
+    this(meterRegistry, name, description, "operation");
+  }
+
+  /**
+   * Creates a timer family whose operation tag has another name.
+   *
+   * @param meterRegistry the registry to register the timers with
+   * @param name the meter name shared by every operation
+   * @param description the meter description
+   * @param operationTag the name of the tag that holds the operation
+   */
+  public OperationTimer(
+      final MeterRegistry meterRegistry,
+      final String name,
+      final String description,
+      final String operationTag) {
+    this.meterRegistry = meterRegistry;
+    this.name = name;
+    this.description = description;
+    this.operationTag = operationTag;
+  }
+
+  /**
+   * Runs an operation and records how long it took under the outcome it had.
+   *
+   * @param operation the operation tag
+   * @param body the operation
+   * @param <T> the result type
+   * @return what the operation returned
+   */
+  public <T> T record(final String operation, final Supplier<T> body) {
+    final long startedAt = System.nanoTime();
+    String outcome = ERROR;
+    try {
+      final T result = body.get();
+      outcome = SUCCESS;
+      return result;
+    } catch (RuntimeException e) {
+      outcome = outcomeOf(e);
+      throw e;
+    } finally {
+      record(operation, outcome, System.nanoTime() - startedAt);
+    }
+  }
+
+  /**
+   * Runs an operation that returns nothing and records how long it took under its outcome.
+   *
+   * @param operation the operation tag
+   * @param body the operation
+   */
+  public void record(final String operation, final Runnable body) {
+    record(
+        operation,
+        () -> {
+          body.run();
+          return null;
+        });
+  }
+
+  /**
+   * Records a duration measured elsewhere.
+   *
+   * @param operation the operation tag
+   * @param outcome the outcome tag
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(final String operation, final String outcome, final long nanos) {
+    timer(operation, outcome).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the timer for an operation and outcome, registering it if needed.
+   *
+   * @param operation the operation tag
+   * @param outcome the outcome tag
+   * @return the timer
+   */
+  public Timer timer(final String operation, final String outcome) {
+    return timers.computeIfAbsent(
+        operation + '|' + outcome,
+        key ->
+            Timer.builder(name)
+                .description(description)
+                .tag(operationTag, operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+  }
+
+  /**
+   * Classifies a failure into an outcome tag.
+   *
+   * @param failure what the operation threw
+   * @return the outcome
+   */
+  public static String outcomeOf(final Throwable failure) {
+    if (failure instanceof InsufficientFundsException) {
+      return INSUFFICIENT_FUNDS;
+    }
+    if (failure instanceof ResourceNotFoundException) {
+      return NOT_FOUND;
+    }
+    if (failure instanceof BadRequestException) {
+      return REJECTED;
+    }
+    return ERROR;
+  }
+}
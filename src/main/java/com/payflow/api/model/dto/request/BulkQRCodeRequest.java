@@ -0,0 +1,19 @@
+package com.payflow.api.model.dto.request;
+
+import com.payflow.api.service.qr.QRImageFormat;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+@Data
+public class BulkQRCodeRequest {
+  private String walletNumber;
+  private int count;
+  private BigDecimal amount;
+  private boolean isAmountFixed;
+  private String description;
+  private LocalDateTime expiresAt;
+  private QRImageFormat format = QRImageFormat.PNG;
+  private int size = 300;
+  private int margin = 4;
+}
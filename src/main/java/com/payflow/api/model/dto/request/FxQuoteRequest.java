@@ -0,0 +1,21 @@
+package com.payflow.api.model.dto.request;
+
+import com.payflow.api.model.entity.Wallet;
+import java.math.BigDecimal;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class FxQuoteRequest {
+
+  @NotNull(message = "Source currency is required")
+  private Wallet.Currency fromCurrency;
+
+  @NotNull(message = "Target currency is required")
+  private Wallet.Currency toCurrency;
+
+  @NotNull(message = "Amount is required")
+  @Positive(message = "Amount must be positive")
+  private BigDecimal amount;
+}
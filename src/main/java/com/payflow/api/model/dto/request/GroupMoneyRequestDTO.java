@@ -0,0 +1,44 @@
+package com.payflow.api.model.dto.request;
+
+import java.math.BigDecimal;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.Email;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * Splits a bill across several requestees. Either every requestee is given an amount, or none is
+ * and {@code amount} is split equally between them, and the requester too if {@code
+ * includeRequester} is set.
+ */
+@Data
+public class GroupMoneyRequestDTO {
+
+  @NotBlank(message = "Wallet number is required")
+  private String walletNumber;
+
+  @Positive(message = "Amount must be positive")
+  private BigDecimal amount;
+
+  private boolean includeRequester;
+
+  @NotEmpty(message = "At least one requestee is required")
+  @Valid
+  private List<Share> requestees;
+
+  private String description;
+
+  @Data
+  public static class Share {
+
+    @NotBlank(message = "Requestee email is required")
+    @Email(message = "Invalid email format")
+    private String email;
+
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount;
+  }
+}
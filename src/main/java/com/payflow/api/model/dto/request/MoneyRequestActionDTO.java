@@ -14,4 +14,7 @@ public class MoneyRequestActionDTO {
 
   @NotBlank(message = "Wallet number to make payment from is required")
   private String paymentWalletNumber;
+
+  /** Optional FX quote to settle a cross-currency payment at; see {@code POST /fx/quotes}. */
+  private String quoteId;
 }
@@ -20,4 +20,7 @@ public class TransactionRequest {
   private BigDecimal amount;
 
   private String description;
+
+  /** Optional FX quote to settle a cross-currency transfer at; see {@code POST /fx/quotes}. */
+  private String quoteId;
 }
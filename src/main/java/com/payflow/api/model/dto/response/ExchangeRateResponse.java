@@ -0,0 +1,33 @@
+package com.payflow.api.model.dto.response;
+
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.service.fx.FxRateHistory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateResponse {
+  private String fromCurrency;
+  private String toCurrency;
+  private BigDecimal rate;
+  private LocalDateTime effectiveFrom;
+  private Long version;
+
+  public static ExchangeRateResponse fromPoint(
+      Wallet.Currency fromCurrency, Wallet.Currency toCurrency, FxRateHistory.Point point) {
+    return new ExchangeRateResponse(
+        fromCurrency.name(),
+        toCurrency.name(),
+        point.getRate(),
+        LocalDateTime.ofInstant(
+            Instant.ofEpochMilli(point.getRecordedAtMillis()), ZoneId.systemDefault()),
+        point.getRecordedAtMillis());
+  }
+}
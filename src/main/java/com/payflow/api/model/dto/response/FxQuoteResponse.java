@@ -0,0 +1,37 @@
+package com.payflow.api.model.dto.response;
+
+import com.payflow.api.service.fx.FxQuote;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxQuoteResponse {
+  private String quoteId;
+  private String fromCurrency;
+  private String toCurrency;
+  private BigDecimal amount;
+  private BigDecimal rate;
+  private BigDecimal convertedAmount;
+  private Long rateVersion;
+  private LocalDateTime expiresAt;
+
+  public static FxQuoteResponse fromQuote(FxQuote quote) {
+    return new FxQuoteResponse(
+        quote.getQuoteId(),
+        quote.getFromCurrency().name(),
+        quote.getToCurrency().name(),
+        quote.getAmount().toBigDecimal(),
+        quote.getRate(),
+        quote.getConvertedAmount().toBigDecimal(),
+        quote.getRateVersion(),
+        LocalDateTime.ofInstant(
+            Instant.ofEpochMilli(quote.getExpiresAtMillis()), ZoneId.systemDefault()));
+  }
+}
@@ -0,0 +1,59 @@
+package com.payflow.api.model.dto.response;
+
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.money.Money;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoneyRequestGroupResponse {
+  private String groupId;
+  private String walletNumber;
+  private String currency;
+  private BigDecimal totalAmount;
+  private BigDecimal paidAmount;
+  private Map<MoneyRequest.RequestStatus, Long> statusCounts;
+  private List<MoneyRequestResponse> requests;
+
+  /**
+   * Summarises the requests of one group.
+   *
+   * @param groupId the group ID
+   * @param moneyRequests every request in the group, with requester, requestee and wallet loaded
+   * @return the group with its progress
+   */
+  public static MoneyRequestGroupResponse fromEntities(
+      final String groupId, final List<MoneyRequest> moneyRequests) {
+    Money total = Money.ZERO;
+    Money paid = Money.ZERO;
+    final Map<MoneyRequest.RequestStatus, Long> counts =
+        new EnumMap<>(MoneyRequest.RequestStatus.class);
+    for (final MoneyRequest.RequestStatus status : MoneyRequest.RequestStatus.values()) {
+      counts.put(status, 0L);
+    }
+    for (final MoneyRequest moneyRequest : moneyRequests) {
+      total = total.plus(moneyRequest.getAmount());
+      if (moneyRequest.getStatus() == MoneyRequest.RequestStatus.APPROVED) {
+        paid = paid.plus(moneyRequest.getAmount());
+      }
+      counts.merge(moneyRequest.getStatus(), 1L, Long::sum);
+    }
+    final MoneyRequest first = moneyRequests.get(0);
+    return new MoneyRequestGroupResponse(
+        groupId,
+        first.getRequestWallet().getWalletNumber(),
+        first.getRequestWallet().getCurrency().name(),
+        total.toBigDecimal(),
+        paid.toBigDecimal(),
+        counts,
+        moneyRequests.stream().map(MoneyRequestResponse::fromEntity).collect(Collectors.toList()));
+  }
+}
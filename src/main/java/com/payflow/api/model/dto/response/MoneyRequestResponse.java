@@ -24,6 +24,7 @@ public class MoneyRequestResponse {
   private String description;
   private LocalDateTime createdAt;
   private LocalDateTime expiresAt;
+  private String groupId;
 
   public static MoneyRequestResponse fromEntity(MoneyRequest moneyRequest) {
     return new MoneyRequestResponse(
@@ -35,10 +36,11 @@ public class MoneyRequestResponse {
         moneyRequest.getRequestee().getEmail(),
         moneyRequest.getRequestWallet().getWalletNumber(),
         moneyRequest.getRequestWallet().getCurrency().name(),
-        moneyRequest.getAmount(),
+        moneyRequest.getAmount().toBigDecimal(),
         moneyRequest.getStatus().name(),
         moneyRequest.getDescription(),
         moneyRequest.getCreatedAt(),
-        moneyRequest.getExpiresAt());
+        moneyRequest.getExpiresAt(),
+        moneyRequest.getGroupId());
   }
 }
@@ -0,0 +1,45 @@
+package com.payflow.api.model.dto.response;
+
+import com.payflow.api.event.QRPaymentCompletedEvent;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a merchant watching a QR code is told: a payment against it, or that it can no longer be
+ * paid.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QRPaymentResponse {
+
+  public enum Status {
+    PAID,
+    EXPIRED,
+    DEACTIVATED
+  }
+
+  private String qrId;
+  private Status status;
+  private String transactionNumber;
+  private BigDecimal amount;
+  private String currency;
+  private LocalDateTime occurredAt;
+
+  public static QRPaymentResponse paid(final QRPaymentCompletedEvent payment) {
+    return new QRPaymentResponse(
+        payment.getQrId(),
+        Status.PAID,
+        payment.getTransactionNumber(),
+        payment.getAmount().toBigDecimal(),
+        payment.getTransaction().getSourceCurrency(),
+        payment.getOccurredAt());
+  }
+
+  public static QRPaymentResponse closed(final String qrId, final Status status) {
+    return new QRPaymentResponse(qrId, status, null, null, null, LocalDateTime.now());
+  }
+}
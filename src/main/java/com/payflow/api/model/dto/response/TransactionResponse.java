@@ -19,6 +19,7 @@ public class TransactionResponse {
   private String destinationWalletNumber;
   private BigDecimal amount;
   private BigDecimal exchangeRate;
+  private Long exchangeRateVersion;
   private String sourceCurrency;
   private String destinationCurrency;
   private String type;
@@ -30,12 +31,17 @@ public class TransactionResponse {
     return new TransactionResponse(
         transaction.getId(),
         transaction.getTransactionNumber(),
-        transaction.getSender().getFullName(),
-        transaction.getReceiver().getFullName(),
-        transaction.getSourceWallet().getWalletNumber(),
-        transaction.getDestinationWallet().getWalletNumber(),
-        transaction.getAmount(),
+        transaction.getSender() == null ? null : transaction.getSender().getFullName(),
+        transaction.getReceiver() == null ? null : transaction.getReceiver().getFullName(),
+        transaction.getSourceWallet() == null
+            ? null
+            : transaction.getSourceWallet().getWalletNumber(),
+        transaction.getDestinationWallet() == null
+            ? null
+            : transaction.getDestinationWallet().getWalletNumber(),
+        transaction.getAmount().toBigDecimal(),
         transaction.getExchangeRate(),
+        transaction.getExchangeRateVersion(),
         transaction.getSourceCurrency().name(),
         transaction.getDestinationCurrency().name(),
         transaction.getType().name(),
@@ -22,7 +22,7 @@ public class WalletResponse {
         wallet.getId(),
         wallet.getWalletNumber(),
         wallet.getCurrency().name(),
-        wallet.getBalance(),
+        wallet.getBalance().toBigDecimal(),
         wallet.getCreatedAt());
   }
 }
@@ -10,6 +10,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,7 +18,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 /** Entity representing exchange rates between currencies. */
 @Entity
-@Table(name = "exchange_rates")
+@Table(
+    name = "exchange_rates",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"base_currency", "target_currency"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,11 +30,11 @@ public class ExchangeRate {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @Column(nullable = false)
+  @Column(name = "base_currency", nullable = false)
   @Enumerated(EnumType.STRING)
   private Wallet.Currency baseCurrency;
 
-  @Column(nullable = false)
+  @Column(name = "target_currency", nullable = false)
   @Enumerated(EnumType.STRING)
   private Wallet.Currency targetCurrency;
 
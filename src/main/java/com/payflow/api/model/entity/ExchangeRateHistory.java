@@ -0,0 +1,51 @@
+package com.payflow.api.model.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Append-only record of an exchange rate as it was published. Rows are never updated, so the rate
+ * that priced any past transaction can be looked up by pair and time.
+ *
+ * <p>The layout is deliberately compact: the pair is a small integer (see {@code
+ * FxRateHistory.pairId}) and the rate is stored as a long scaled by 10^6. The time index is a BRIN
+ * index created by the V4 migration on PostgreSQL.
+ */
+@Entity
+@Table(name = "exchange_rate_history")
+@IdClass(ExchangeRateHistory.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateHistory {
+
+  @Id
+  @Column(name = "pair_id", nullable = false)
+  private short pairId;
+
+  @Id
+  @Column(name = "recorded_at", nullable = false)
+  private LocalDateTime recordedAt;
+
+  @Column(name = "rate_scaled", nullable = false)
+  private long rateScaled;
+
+  /** Composite primary key of a history row. */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private short pairId;
+    private LocalDateTime recordedAt;
+  }
+}
@@ -1,6 +1,6 @@
 package com.payflow.api.model.entity;
 
-import java.math.BigDecimal;
+import com.payflow.api.model.money.Money;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import javax.persistence.*;
@@ -37,7 +37,7 @@ public class MoneyRequest {
   private Wallet requestWallet;
 
   @Column(nullable = false, precision = 19, scale = 4)
-  private BigDecimal amount;
+  private Money amount;
 
   @Column(nullable = false)
   @Enumerated(EnumType.STRING)
@@ -58,6 +58,9 @@ public class MoneyRequest {
 
   @Column private LocalDateTime expiresAt;
 
+  /** Shared by the requests of one split bill; {@code null} for a request made on its own. */
+  @Column private String groupId;
+
   public enum RequestStatus {
     PENDING,
     APPROVED,
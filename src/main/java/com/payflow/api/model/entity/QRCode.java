@@ -1,6 +1,6 @@
 package com.payflow.api.model.entity;
 
-import java.math.BigDecimal;
+import com.payflow.api.model.money.Money;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import javax.persistence.*;
@@ -28,7 +28,7 @@ public class QRCode {
   private Wallet wallet;
 
   @Column(precision = 19, scale = 4)
-  private BigDecimal amount;
+  private Money amount;
 
   @Column(nullable = false)
   private boolean isAmountFixed;
@@ -53,7 +53,7 @@ public class QRCode {
 
   public QRCode(
       Wallet wallet,
-      BigDecimal amount,
+      Money amount,
       boolean isAmountFixed,
       boolean isOneTime,
       String description,
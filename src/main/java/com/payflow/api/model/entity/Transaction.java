@@ -1,5 +1,6 @@
 package com.payflow.api.model.entity;
 
+import com.payflow.api.model.money.Money;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -40,7 +41,7 @@ public class Transaction {
   private Wallet destinationWallet;
 
   @Column(nullable = false, precision = 19, scale = 4)
-  private BigDecimal amount;
+  private Money amount;
 
   @Column(nullable = false)
   @Enumerated(EnumType.STRING)
@@ -52,9 +53,13 @@ public class Transaction {
 
   private String description;
 
-  @Column(precision = 19, scale = 4)
+  @Column(precision = 19, scale = 6)
   private BigDecimal exchangeRate;
 
+  /** Version of the in-memory rate snapshot the exchange rate was read from, if any. */
+  @Column(name = "exchange_rate_version")
+  private Long exchangeRateVersion;
+
   @Column(nullable = false)
   @Enumerated(EnumType.STRING)
   private Wallet.Currency sourceCurrency;
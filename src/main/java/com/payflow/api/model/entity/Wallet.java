@@ -1,6 +1,6 @@
 package com.payflow.api.model.entity;
 
-import java.math.BigDecimal;
+import com.payflow.api.model.money.Money;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -31,7 +31,7 @@ public class Wallet {
   private Currency currency;
 
   @Column(nullable = false, precision = 19, scale = 4)
-  private BigDecimal balance = BigDecimal.ZERO;
+  private Money balance = Money.ZERO;
 
   @Column(nullable = false, unique = true)
   private String walletNumber;
@@ -0,0 +1,89 @@
+package com.payflow.api.model.expiry;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * A time-bound entity that falls due at {@code dueAt}: a QR code, a money request, or anything else
+ * with an expiry column. The entity is identified by its type and database ID alone; two
+ * expirations for the same entity are equal whatever their due time or reference.
+ */
+public final class Expiration {
+
+  /** Type of active QR codes, which expire at {@code qr_codes.expires_at}. */
+  public static final String QR_CODE = "qr-code";
+
+  /** Type of PENDING money requests, which expire at {@code money_requests.expires_at}. */
+  public static final String MONEY_REQUEST = "money-request";
+
+  private final String type;
+  private final long id;
+  private final String reference;
+  private final LocalDateTime dueAt;
+
+  /**
+   * Creates an expiration.
+   *
+   * @param type the entity type, as returned by its handler
+   * @param id the entity's database ID
+   * @param reference a business key the handler needs once the entity expires, such as a QR ID, or
+   *     {@code null}
+   * @param dueAt when the entity expires
+   */
+  public Expiration(
+      final String type, final long id, final String reference, final LocalDateTime dueAt) {
+    this.type = Objects.requireNonNull(type);
+    this.id = id;
+    this.reference = reference;
+    this.dueAt = Objects.requireNonNull(dueAt);
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getReference() {
+    return reference;
+  }
+
+  public LocalDateTime getDueAt() {
+    return dueAt;
+  }
+
+  /**
+   * Returns the due time as epoch millis in the system time zone, which is the zone expiry columns
+   * are written and compared in.
+   *
+   * @return epoch millis of the due time
+   */
+  public long getDueAtMillis() {
+    return dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Expiration)) {
+      return false;
+    }
+    final Expiration other = (Expiration) o;
+    return id == other.id && type.equals(other.type);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * type.hashCode() + Long.hashCode(id);
+  }
+
+  @Override
+  public String toString() {
+    return type + ':' + id + '@' + dueAt;
+  }
+}
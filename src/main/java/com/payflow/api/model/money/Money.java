@@ -0,0 +1,213 @@
+package com.payflow.api.model.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable fixed-point monetary amount stored as a {@code long} count of minor units at {@value
+ * #SCALE} decimal places, the precision of the {@code DECIMAL(19, 4)} money columns.
+ *
+ * <p>Comparisons and additions are plain long operations and allocate nothing beyond the result.
+ * Arithmetic is overflow-checked and throws {@link ArithmeticException} rather than wrapping.
+ * Currency conversion rounds HALF_UP exactly like {@code amount.multiply(rate).setScale(4,
+ * HALF_UP)} on {@link BigDecimal}, so switching representations does not change any result.
+ *
+ * <p>The type carries no currency; the owning wallet or transaction already records it.
+ */
+public final class Money implements Comparable<Money> {
+
+  /** Number of decimal places held. */
+  public static final int SCALE = 4;
+
+  private static final long FACTOR = 10_000L;
+
+  private static final long[] POWERS_OF_TEN = new long[19];
+
+  static {
+    POWERS_OF_TEN[0] = 1L;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+    }
+  }
+
+  public static final Money ZERO = new Money(0L);
+
+  private final long minorUnits;
+
+  private Money(final long minorUnits) {
+    this.minorUnits = minorUnits;
+  }
+
+  /**
+   * Creates an amount from a count of minor units (10^-{@value #SCALE}).
+   *
+   * @param minorUnits the amount in minor units
+   * @return the amount
+   */
+  public static Money ofMinor(final long minorUnits) {
+    return minorUnits == 0L ? ZERO : new Money(minorUnits);
+  }
+
+  /**
+   * Creates an amount from whole units.
+   *
+   * @param units the amount in whole units
+   * @return the amount
+   * @throws ArithmeticException if the amount does not fit
+   */
+  public static Money ofMajor(final long units) {
+    return ofMinor(Math.multiplyExact(units, FACTOR));
+  }
+
+  /**
+   * Creates an amount from a decimal, rounding HALF_UP to {@value #SCALE} places.
+   *
+   * @param amount the amount; {@code null} yields {@code null}
+   * @return the amount, or {@code null}
+   * @throws ArithmeticException if the amount does not fit
+   */
+  @JsonCreator
+  public static Money of(final BigDecimal amount) {
+    if (amount == null) {
+      return null;
+    }
+    return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+  }
+
+  /**
+   * Parses a decimal string such as {@code "12.50"}.
+   *
+   * @param amount the amount
+   * @return the amount
+   */
+  public static Money parse(final String amount) {
+    return of(new BigDecimal(amount));
+  }
+
+  public long getMinorUnits() {
+    return minorUnits;
+  }
+
+  /**
+   * Converts an amount to a decimal, tolerating {@code null}.
+   *
+   * @param money the amount, possibly {@code null}
+   * @return the decimal value at scale {@value #SCALE}, or {@code null}
+   */
+  public static BigDecimal toBigDecimal(final Money money) {
+    return money == null ? null : money.toBigDecimal();
+  }
+
+  /**
+   * Returns this amount as a decimal at scale {@value #SCALE}.
+   *
+   * @return the decimal value
+   */
+  @JsonValue
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  /**
+   * Adds an amount.
+   *
+   * @param other the amount to add
+   * @return the sum
+   * @throws ArithmeticException on overflow
+   */
+  public Money plus(final Money other) {
+    return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+  }
+
+  /**
+   * Subtracts an amount.
+   *
+   * @param other the amount to subtract
+   * @return the difference
+   * @throws ArithmeticException on overflow
+   */
+  public Money minus(final Money other) {
+    return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+  }
+
+  /**
+   * Converts this amount with an exchange rate given as a long scaled by 10^{@code rateScale},
+   * rounding HALF_UP to {@value #SCALE} places.
+   *
+   * @param scaledRate the rate's unscaled value
+   * @param rateScale the rate's scale, between 0 and 18
+   * @return the converted amount
+   * @throws ArithmeticException if the result does not fit
+   */
+  public Money convert(final long scaledRate, final int rateScale) {
+    if (rateScale < 0 || rateScale > 18) {
+      throw new IllegalArgumentException("rateScale must be between 0 and 18");
+    }
+    final long high = Math.multiplyHigh(minorUnits, scaledRate);
+    final long low = minorUnits * scaledRate;
+    if ((high == 0L && low >= 0L) || (high == -1L && low < 0L)) {
+      return ofMinor(divideHalfUp(low, POWERS_OF_TEN[rateScale]));
+    }
+    // The raw product does not fit in a long; take the exact, slower route
+    return of(toBigDecimal().multiply(BigDecimal.valueOf(scaledRate, rateScale)));
+  }
+
+  /**
+   * Converts this amount with an exchange rate, rounding HALF_UP to {@value #SCALE} places.
+   *
+   * @param rate the exchange rate
+   * @return the converted amount
+   * @throws ArithmeticException if the result does not fit
+   */
+  public Money convert(final BigDecimal rate) {
+    if (rate.scale() >= 0 && rate.scale() <= 18 && rate.precision() <= 18) {
+      return convert(rate.unscaledValue().longValue(), rate.scale());
+    }
+    return of(toBigDecimal().multiply(rate));
+  }
+
+  public boolean isLessThan(final Money other) {
+    return minorUnits < other.minorUnits;
+  }
+
+  public boolean isPositive() {
+    return minorUnits > 0L;
+  }
+
+  public boolean isZero() {
+    return minorUnits == 0L;
+  }
+
+  @Override
+  public int compareTo(final Money other) {
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return this == o || (o instanceof Money && ((Money) o).minorUnits == minorUnits);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+
+  private static long divideHalfUp(final long dividend, final long divisor) {
+    final long quotient = dividend / divisor;
+    final long remainder = dividend % divisor;
+    // Round half away from zero; |remainder| * 2 cannot overflow since |remainder| < divisor <=
+    // 1e18
+    if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+      return dividend < 0 ? quotient - 1 : quotient + 1;
+    }
+    return quotient;
+  }
+}
@@ -0,0 +1,23 @@
+package com.payflow.api.model.money;
+
+import java.math.BigDecimal;
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Maps {@link Money} attributes to the existing {@code DECIMAL(19, 4)} columns. Applied
+ * automatically to every {@code Money} attribute, so entities need no annotation.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+  @Override
+  public BigDecimal convertToDatabaseColumn(final Money money) {
+    return Money.toBigDecimal(money);
+  }
+
+  @Override
+  public Money convertToEntityAttribute(final BigDecimal amount) {
+    return Money.of(amount);
+  }
+}
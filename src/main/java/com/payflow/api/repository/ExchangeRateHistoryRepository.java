@@ -0,0 +1,23 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.model.entity.ExchangeRateHistory;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExchangeRateHistoryRepository
+    extends JpaRepository<ExchangeRateHistory, ExchangeRateHistory.Key>,
+        ExchangeRateHistoryRepositoryCustom {
+
+  /**
+   * Finds the rate that was in force for a pair at a given time.
+   *
+   * @param pairId the pair id
+   * @param at the point in time
+   * @return the latest row recorded at or before {@code at}
+   */
+  Optional<ExchangeRateHistory> findFirstByPairIdAndRecordedAtLessThanEqualOrderByRecordedAtDesc(
+      short pairId, LocalDateTime at);
+}
@@ -0,0 +1,17 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.model.entity.ExchangeRateHistory;
+import java.util.Collection;
+
+/** Bulk write operations on exchange rate history that Spring Data cannot derive. */
+public interface ExchangeRateHistoryRepositoryCustom {
+
+  /**
+   * Appends history rows with a single batched insert. Rows whose pair and time are already
+   * recorded are skipped, so rates reloaded on startup can be appended again.
+   *
+   * @param rows the rows to append
+   * @return number of rows written
+   */
+  int appendAll(Collection<ExchangeRateHistory> rows);
+}
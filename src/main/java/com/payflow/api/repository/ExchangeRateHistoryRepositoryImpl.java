@@ -0,0 +1,75 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.model.entity.ExchangeRateHistory;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+/**
+ * JDBC implementation of {@link ExchangeRateHistoryRepositoryCustom}. History rows carry assigned
+ * keys, so going through JPA would issue a SELECT per row before each insert.
+ */
+@RequiredArgsConstructor
+public class ExchangeRateHistoryRepositoryImpl implements ExchangeRateHistoryRepositoryCustom {
+
+  private static final String POSTGRES_INSERT =
+      "INSERT INTO exchange_rate_history (pair_id, recorded_at, rate_scaled) VALUES (?, ?, ?) "
+          + "ON CONFLICT (pair_id, recorded_at) DO NOTHING";
+
+  private static final String H2_INSERT =
+      "MERGE INTO exchange_rate_history (pair_id, recorded_at, rate_scaled) "
+          + "KEY (pair_id, recorded_at) VALUES (?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DataSource dataSource;
+
+  private volatile String insertSql;
+
+  @Override
+  public int appendAll(final Collection<ExchangeRateHistory> historyRows) {
+    if (historyRows.isEmpty()) {
+      return 0;
+    }
+    final List<ExchangeRateHistory> rows = new ArrayList<>(historyRows);
+    final int[] counts =
+        jdbcTemplate
+            .batchUpdate(
+                insertSql(),
+                rows,
+                rows.size(),
+                (PreparedStatement ps, ExchangeRateHistory row) -> {
+                  ps.setShort(1, row.getPairId());
+                  ps.setTimestamp(2, Timestamp.valueOf(row.getRecordedAt()));
+                  ps.setLong(3, row.getRateScaled());
+                })[0];
+    return counts.length;
+  }
+
+  private String insertSql() {
+    String sql = insertSql;
+    if (sql == null) {
+      sql = isPostgres() ? POSTGRES_INSERT : H2_INSERT;
+      insertSql = sql;
+    }
+    return sql;
+  }
+
+  private boolean isPostgres() {
+    try {
+      final String product =
+          JdbcUtils.extractDatabaseMetaData(
+              dataSource, metaData -> metaData.getDatabaseProductName());
+      return product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+    } catch (final MetaDataAccessException e) {
+      throw new IllegalStateException("Unable to determine database type", e);
+    }
+  }
+}
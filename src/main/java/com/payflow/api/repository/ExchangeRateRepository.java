@@ -7,7 +7,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
+public interface ExchangeRateRepository
+    extends JpaRepository<ExchangeRate, Long>, ExchangeRateRepositoryCustom {
   Optional<ExchangeRate> findByBaseCurrencyAndTargetCurrency(
       Wallet.Currency baseCurrency, Wallet.Currency targetCurrency);
 }
@@ -0,0 +1,16 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.model.entity.ExchangeRate;
+import java.util.Collection;
+
+/** Bulk operations on exchange rates that Spring Data cannot derive. */
+public interface ExchangeRateRepositoryCustom {
+
+  /**
+   * Inserts or updates every given rate, keyed by (base, target), in a single JDBC batch.
+   *
+   * @param exchangeRates rates to store; {@code lastUpdated} is used as the row timestamp
+   * @return number of rows written
+   */
+  int upsertAll(Collection<ExchangeRate> exchangeRates);
+}
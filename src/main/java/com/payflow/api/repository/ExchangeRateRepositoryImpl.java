@@ -0,0 +1,78 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.model.entity.ExchangeRate;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+/**
+ * JDBC implementation of {@link ExchangeRateRepositoryCustom}. Writes all rates with one batched
+ * upsert statement instead of a find-then-save round trip per currency pair.
+ */
+@RequiredArgsConstructor
+public class ExchangeRateRepositoryImpl implements ExchangeRateRepositoryCustom {
+
+  private static final String POSTGRES_UPSERT =
+      "INSERT INTO exchange_rates (base_currency, target_currency, rate, last_updated) "
+          + "VALUES (?, ?, ?, ?) "
+          + "ON CONFLICT (base_currency, target_currency) "
+          + "DO UPDATE SET rate = EXCLUDED.rate, last_updated = EXCLUDED.last_updated";
+
+  private static final String H2_UPSERT =
+      "MERGE INTO exchange_rates (base_currency, target_currency, rate, last_updated) "
+          + "KEY (base_currency, target_currency) VALUES (?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DataSource dataSource;
+
+  private volatile String upsertSql;
+
+  @Override
+  public int upsertAll(final Collection<ExchangeRate> exchangeRates) {
+    if (exchangeRates.isEmpty()) {
+      return 0;
+    }
+    final List<ExchangeRate> rows = new ArrayList<>(exchangeRates);
+    final int[] counts =
+        jdbcTemplate
+            .batchUpdate(
+                upsertSql(),
+                rows,
+                rows.size(),
+                (PreparedStatement ps, ExchangeRate rate) -> {
+                  ps.setString(1, rate.getBaseCurrency().name());
+                  ps.setString(2, rate.getTargetCurrency().name());
+                  ps.setBigDecimal(3, rate.getRate());
+                  ps.setTimestamp(4, Timestamp.valueOf(rate.getLastUpdated()));
+                })[0];
+    return counts.length;
+  }
+
+  private String upsertSql() {
+    String sql = upsertSql;
+    if (sql == null) {
+      sql = isPostgres() ? POSTGRES_UPSERT : H2_UPSERT;
+      upsertSql = sql;
+    }
+    return sql;
+  }
+
+  private boolean isPostgres() {
+    try {
+      final String product =
+          JdbcUtils.extractDatabaseMetaData(
+              dataSource, metaData -> metaData.getDatabaseProductName());
+      return product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+    } catch (final MetaDataAccessException e) {
+      throw new IllegalStateException("Unable to determine database type", e);
+    }
+  }
+}
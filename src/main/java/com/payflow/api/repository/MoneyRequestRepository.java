@@ -8,11 +8,13 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface MoneyRequestRepository extends JpaRepository<MoneyRequest, Long> {
+public interface MoneyRequestRepository
+    extends JpaRepository<MoneyRequest, Long>, MoneyRequestRepositoryCustom {
   Optional<MoneyRequest> findByRequestNumber(String requestNumber);
 
   @Query("SELECT m FROM MoneyRequest m WHERE m.requester = ?1 ORDER BY m.createdAt DESC")
@@ -21,10 +23,31 @@ public interface MoneyRequestRepository extends JpaRepository<MoneyRequest, Long
   @Query("SELECT m FROM MoneyRequest m WHERE m.requestee = ?1 ORDER BY m.createdAt DESC")
   Page<MoneyRequest> findByRequesteeOrderByCreatedAtDesc(User requestee, Pageable pageable);
 
-  @Query("SELECT m FROM MoneyRequest m WHERE m.status = 'PENDING' AND m.expiresAt < ?1")
-  List<MoneyRequest> findExpiredRequests(LocalDateTime currentTime);
-
   @Query(
       "SELECT m FROM MoneyRequest m WHERE m.requestee = ?1 AND m.status = 'PENDING' ORDER BY m.createdAt DESC")
   List<MoneyRequest> findPendingRequestsForUser(User user);
+
+  @Query(
+      "SELECT m FROM MoneyRequest m JOIN FETCH m.requester JOIN FETCH m.requestee"
+          + " JOIN FETCH m.requestWallet WHERE m.groupId = ?1 ORDER BY m.id")
+  List<MoneyRequest> findByGroupIdWithParties(String groupId);
+
+  /**
+   * Moves a money request from one status to another only if it is still in the expected status. Of
+   * several concurrent transitions out of the same status, exactly one sees an update count of 1.
+   *
+   * @param id the money request ID
+   * @param expected the status the request must currently have
+   * @param target the new status
+   * @param updatedAt the new update timestamp
+   * @return 1 if this call made the transition, 0 if the request was no longer in {@code expected}
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "UPDATE MoneyRequest m SET m.status = ?3, m.updatedAt = ?4 WHERE m.id = ?1 AND m.status = ?2")
+  int compareAndSetStatus(
+      Long id,
+      MoneyRequest.RequestStatus expected,
+      MoneyRequest.RequestStatus target,
+      LocalDateTime updatedAt);
 }
@@ -0,0 +1,54 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.event.MoneyRequestExpiredEvent;
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.expiry.Expiration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/** Batched inserts, expiry queries and set-based updates on money requests. */
+public interface MoneyRequestRepositoryCustom {
+
+  /**
+   * Reads a page of PENDING requests that expire before a cut-off, ordered by expiry and then ID.
+   *
+   * @param before the expiry cut-off, exclusive
+   * @param after the last entry of the previous page, or {@code null} for the first page
+   * @param limit maximum number of requests to return
+   * @return one expiration per request, with the request number as its reference
+   */
+  List<Expiration> findDueExpirations(LocalDateTime before, Expiration after, int limit);
+
+  /**
+   * Moves every PENDING request in an ID range that expired before {@code now} to EXPIRED with a
+   * single statement.
+   *
+   * @param now the expiry cut-off
+   * @param fromId lowest ID of the range, inclusive
+   * @param toId highest ID of the range, inclusive
+   * @param stamp written to {@code updated_at}, so the rows can be read back with {@link
+   *     #findExpiredInRange}
+   * @return the number of requests expired
+   */
+  int expireRange(LocalDateTime now, long fromId, long toId, LocalDateTime stamp);
+
+  /**
+   * Reads back the requests that {@link #expireRange} expired, within the same transaction.
+   *
+   * @param fromId lowest ID of the range, inclusive
+   * @param toId highest ID of the range, inclusive
+   * @param stamp the stamp passed to {@link #expireRange}
+   * @return one event per expired request, carrying the request as the API returns it
+   */
+  List<MoneyRequestExpiredEvent> findExpiredInRange(long fromId, long toId, LocalDateTime stamp);
+
+  /**
+   * Inserts money requests with batched statements. The requests must already carry their request
+   * number and timestamps; database IDs are not read back.
+   *
+   * @param moneyRequests the requests to insert
+   * @return number of rows written
+   */
+  int insertAll(Collection<MoneyRequest> moneyRequests);
+}
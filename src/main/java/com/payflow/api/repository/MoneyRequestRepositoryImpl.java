@@ -0,0 +1,152 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.event.MoneyRequestExpiredEvent;
+import com.payflow.api.model.dto.response.MoneyRequestResponse;
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.expiry.Expiration;
+import com.payflow.api.model.money.Money;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * JDBC implementation of {@link MoneyRequestRepositoryCustom}. Money requests use identity keys,
+ * which stop Hibernate from batching inserts, so group requests are written directly in batches of
+ * {@value #BATCH_SIZE}. Due requests are read with a keyset query on the expiry index, and expired
+ * with range-bounded UPDATE statements so that no request is loaded into the persistence context
+ * and each statement locks a bounded number of rows.
+ */
+@RequiredArgsConstructor
+public class MoneyRequestRepositoryImpl implements MoneyRequestRepositoryCustom {
+
+  static final int BATCH_SIZE = 500;
+
+  private static final String DUE =
+      "SELECT id, request_number, expires_at FROM money_requests"
+          + " WHERE status = 'PENDING' AND expires_at < ?";
+
+  private static final String DUE_FIRST = DUE + " ORDER BY expires_at, id LIMIT ?";
+
+  private static final String DUE_AFTER =
+      DUE + " AND (expires_at, id) > (?, ?) ORDER BY expires_at, id LIMIT ?";
+
+  private static final String EXPIRE_RANGE =
+      "UPDATE money_requests SET status = 'EXPIRED', updated_at = ?"
+          + " WHERE status = 'PENDING' AND expires_at < ? AND id BETWEEN ? AND ?";
+
+  private static final String EXPIRED_IN_RANGE =
+      "SELECT r.id, r.request_number, r.requester_id, r.requestee_id, r.amount, r.status,"
+          + " r.description, r.created_at, r.expires_at, r.group_id,"
+          + " requester.full_name AS requester_name, requester.email AS requester_email,"
+          + " requestee.full_name AS requestee_name, requestee.email AS requestee_email,"
+          + " w.wallet_number, w.currency"
+          + " FROM money_requests r"
+          + " JOIN users requester ON requester.id = r.requester_id"
+          + " JOIN users requestee ON requestee.id = r.requestee_id"
+          + " JOIN wallets w ON w.id = r.wallet_id"
+          + " WHERE r.status = 'EXPIRED' AND r.updated_at = ? AND r.id BETWEEN ? AND ?";
+
+  private static final String INSERT =
+      "INSERT INTO money_requests (request_number, requester_id, requestee_id, wallet_id, amount,"
+          + " status, description, created_at, updated_at, expires_at, group_id)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public List<Expiration> findDueExpirations(
+      final LocalDateTime before, final Expiration after, final int limit) {
+    final RowMapper<Expiration> mapper =
+        (rs, rowNum) ->
+            new Expiration(
+                Expiration.MONEY_REQUEST,
+                rs.getLong("id"),
+                rs.getString("request_number"),
+                rs.getTimestamp("expires_at").toLocalDateTime());
+    if (after == null) {
+      return jdbcTemplate.query(DUE_FIRST, mapper, Timestamp.valueOf(before), limit);
+    }
+    return jdbcTemplate.query(
+        DUE_AFTER,
+        mapper,
+        Timestamp.valueOf(before),
+        Timestamp.valueOf(after.getDueAt()),
+        after.getId(),
+        limit);
+  }
+
+  @Override
+  public int expireRange(
+      final LocalDateTime now, final long fromId, final long toId, final LocalDateTime stamp) {
+    return jdbcTemplate.update(
+        EXPIRE_RANGE, Timestamp.valueOf(stamp), Timestamp.valueOf(now), fromId, toId);
+  }
+
+  @Override
+  public List<MoneyRequestExpiredEvent> findExpiredInRange(
+      final long fromId, final long toId, final LocalDateTime stamp) {
+    return jdbcTemplate.query(
+        EXPIRED_IN_RANGE,
+        (rs, rowNum) -> {
+          final Money amount = Money.of(rs.getBigDecimal("amount"));
+          return new MoneyRequestExpiredEvent(
+              rs.getLong("requester_id"),
+              rs.getLong("requestee_id"),
+              amount,
+              new MoneyRequestResponse(
+                  rs.getLong("id"),
+                  rs.getString("request_number"),
+                  rs.getString("requester_name"),
+                  rs.getString("requester_email"),
+                  rs.getString("requestee_name"),
+                  rs.getString("requestee_email"),
+                  rs.getString("wallet_number"),
+                  rs.getString("currency"),
+                  amount.toBigDecimal(),
+                  rs.getString("status"),
+                  rs.getString("description"),
+                  rs.getTimestamp("created_at").toLocalDateTime(),
+                  rs.getTimestamp("expires_at").toLocalDateTime(),
+                  rs.getString("group_id")));
+        },
+        Timestamp.valueOf(stamp),
+        fromId,
+        toId);
+  }
+
+  @Override
+  public int insertAll(final Collection<MoneyRequest> moneyRequests) {
+    if (moneyRequests.isEmpty()) {
+      return 0;
+    }
+    final int[][] counts =
+        jdbcTemplate.batchUpdate(
+            INSERT,
+            new ArrayList<>(moneyRequests),
+            BATCH_SIZE,
+            (PreparedStatement ps, MoneyRequest row) -> {
+              ps.setString(1, row.getRequestNumber());
+              ps.setLong(2, row.getRequester().getId());
+              ps.setLong(3, row.getRequestee().getId());
+              ps.setLong(4, row.getRequestWallet().getId());
+              ps.setBigDecimal(5, Money.toBigDecimal(row.getAmount()));
+              ps.setString(6, row.getStatus().name());
+              ps.setString(7, row.getDescription());
+              ps.setTimestamp(8, Timestamp.valueOf(row.getCreatedAt()));
+              ps.setTimestamp(9, Timestamp.valueOf(row.getUpdatedAt()));
+              ps.setTimestamp(10, Timestamp.valueOf(row.getExpiresAt()));
+              ps.setString(11, row.getGroupId());
+            });
+    int written = 0;
+    for (final int[] batch : counts) {
+      written += batch.length;
+    }
+    return written;
+  }
+}
@@ -3,14 +3,17 @@ package com.payflow.api.repository;
 import com.payflow.api.model.entity.QRCode;
 import com.payflow.api.model.entity.User;
 import com.payflow.api.model.entity.Wallet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface QRCodeRepository extends JpaRepository<QRCode, Long> {
+public interface QRCodeRepository extends JpaRepository<QRCode, Long>, QRCodeRepositoryCustom {
   Optional<QRCode> findByQrId(String qrId);
 
   @Query("SELECT q FROM QRCode q JOIN FETCH q.wallet WHERE q.qrId = ?1")
@@ -22,6 +25,29 @@ public interface QRCodeRepository extends JpaRepository<QRCode, Long> {
   List<QRCode> findByWallet(Wallet wallet);
 
   @Query(
-      "SELECT q FROM QRCode q WHERE q.isActive = true AND (q.expiresAt IS NULL OR q.expiresAt > CURRENT_TIMESTAMP)")
+      "SELECT q FROM QRCode q JOIN FETCH q.wallet WHERE q.isActive = true AND (q.expiresAt IS NULL OR q.expiresAt > CURRENT_TIMESTAMP)")
   List<QRCode> findAllActiveQRCodes();
+
+  /**
+   * Deactivates a QR code only if it is still active. Used to claim a one-time code before any
+   * money moves: of several concurrent payers, exactly one sees an update count of 1.
+   *
+   * @param id the QR code ID
+   * @return 1 if this call deactivated the code, 0 if it was already inactive
+   */
+  @Modifying(flushAutomatically = true)
+  @Query("UPDATE QRCode q SET q.isActive = false WHERE q.id = ?1 AND q.isActive = true")
+  int deactivateIfActive(Long id);
+
+  /**
+   * Deactivates a batch of QR codes in one statement. Codes that are already inactive are left
+   * untouched.
+   *
+   * @param ids the QR code IDs
+   * @return the number of codes this call deactivated
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE QRCode q SET q.isActive = false WHERE q.id IN ?1 AND q.isActive = true")
+  int deactivateAllIfActive(Collection<Long> ids);
 }
@@ -0,0 +1,30 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.expiry.Expiration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/** Bulk operations on QR codes that Spring Data cannot derive. */
+public interface QRCodeRepositoryCustom {
+
+  /**
+   * Inserts QR codes with batched statements. The codes must already carry their QR ID and creation
+   * time; their database IDs are read back and set on them.
+   *
+   * @param qrCodes the codes to insert
+   * @return number of rows written
+   */
+  int insertAll(Collection<QRCode> qrCodes);
+
+  /**
+   * Reads a page of active QR codes that expire before a cut-off, ordered by expiry and then ID.
+   *
+   * @param before the expiry cut-off, exclusive
+   * @param after the last entry of the previous page, or {@code null} for the first page
+   * @param limit maximum number of codes to return
+   * @return one expiration per code, with the QR ID as its reference
+   */
+  List<Expiration> findDueExpirations(LocalDateTime before, Expiration after, int limit);
+}
@@ -0,0 +1,114 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.expiry.Expiration;
+import com.payflow.api.model.money.Money;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * JDBC implementation of {@link QRCodeRepositoryCustom}. QR codes use identity keys, which stop
+ * Hibernate from batching inserts, so bulk issuance writes them directly in batches of {@value
+ * #BATCH_SIZE} and reads their IDs back by QR ID, the same number at a time.
+ */
+@RequiredArgsConstructor
+public class QRCodeRepositoryImpl implements QRCodeRepositoryCustom {
+
+  static final int BATCH_SIZE = 500;
+
+  private static final String INSERT =
+      "INSERT INTO qr_codes (qr_id, wallet_id, amount, is_amount_fixed, is_one_time, description,"
+          + " is_active, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String IDS = "SELECT id, qr_id FROM qr_codes WHERE qr_id IN (";
+
+  private static final String DUE =
+      "SELECT id, qr_id, expires_at FROM qr_codes WHERE is_active = TRUE AND expires_at < ?";
+
+  private static final String DUE_FIRST = DUE + " ORDER BY expires_at, id LIMIT ?";
+
+  private static final String DUE_AFTER =
+      DUE + " AND (expires_at, id) > (?, ?) ORDER BY expires_at, id LIMIT ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public int insertAll(final Collection<QRCode> qrCodes) {
+    if (qrCodes.isEmpty()) {
+      return 0;
+    }
+    final List<QRCode> rows = new ArrayList<>(qrCodes);
+    final int[][] counts =
+        jdbcTemplate.batchUpdate(
+            INSERT,
+            rows,
+            BATCH_SIZE,
+            (PreparedStatement ps, QRCode row) -> {
+              ps.setString(1, row.getQrId());
+              ps.setLong(2, row.getWallet().getId());
+              ps.setBigDecimal(3, Money.toBigDecimal(row.getAmount()));
+              ps.setBoolean(4, row.isAmountFixed());
+              ps.setBoolean(5, row.isOneTime());
+              ps.setString(6, row.getDescription());
+              ps.setBoolean(7, row.isActive());
+              ps.setTimestamp(8, Timestamp.valueOf(row.getCreatedAt()));
+              ps.setTimestamp(
+                  9, row.getExpiresAt() == null ? null : Timestamp.valueOf(row.getExpiresAt()));
+            });
+    int written = 0;
+    for (final int[] batch : counts) {
+      written += batch.length;
+    }
+    readIds(rows);
+    return written;
+  }
+
+  private void readIds(final List<QRCode> rows) {
+    final Map<String, QRCode> byQrId = new HashMap<>();
+    for (final QRCode row : rows) {
+      byQrId.put(row.getQrId(), row);
+    }
+    final RowCallbackHandler setId =
+        rs -> byQrId.get(rs.getString("qr_id")).setId(rs.getLong("id"));
+    for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+      final List<QRCode> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+      jdbcTemplate.query(
+          IDS + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+          setId,
+          chunk.stream().map(QRCode::getQrId).toArray());
+    }
+  }
+
+  @Override
+  public List<Expiration> findDueExpirations(
+      final LocalDateTime before, final Expiration after, final int limit) {
+    final RowMapper<Expiration> mapper =
+        (rs, rowNum) ->
+            new Expiration(
+                Expiration.QR_CODE,
+                rs.getLong("id"),
+                rs.getString("qr_id"),
+                rs.getTimestamp("expires_at").toLocalDateTime());
+    if (after == null) {
+      return jdbcTemplate.query(DUE_FIRST, mapper, Timestamp.valueOf(before), limit);
+    }
+    return jdbcTemplate.query(
+        DUE_AFTER,
+        mapper,
+        Timestamp.valueOf(before),
+        Timestamp.valueOf(after.getDueAt()),
+        after.getId(),
+        limit);
+  }
+}
@@ -82,4 +82,24 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
           + "WHERE t.sender.id = :userId OR t.receiver.id = :userId "
           + ORDER_BY_CREATED_AT_DESC)
   Page<TransactionSummary> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+  /**
+   * Returns a user's transactions after a cursor, oldest first, for resuming a transaction stream.
+   * Withdrawals have no receiver, so the parties are fetched with outer joins.
+   */
+  @Query(
+      "SELECT t FROM Transaction t "
+          + "LEFT JOIN FETCH t.sender s "
+          + "LEFT JOIN FETCH t.receiver r "
+          + "LEFT JOIN FETCH t.sourceWallet sw "
+          + "LEFT JOIN FETCH t.destinationWallet dw "
+          + "WHERE (s.id = :userId OR r.id = :userId) AND t.id > :afterId "
+          + "ORDER BY t.id")
+  List<Transaction> findByUserIdAfter(
+      @Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+  @Query(
+      "SELECT max(t.id) FROM Transaction t "
+          + "WHERE t.sender.id = :userId OR t.receiver.id = :userId")
+  Long findLatestIdByUserId(@Param("userId") Long userId);
 }
@@ -1,6 +1,8 @@
 package com.payflow.api.repository;
 
 import com.payflow.api.model.entity.User;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -9,5 +11,7 @@ import org.springframework.stereotype.Repository;
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
 
+  List<User> findByEmailIn(Collection<String> emails);
+
   boolean existsByEmail(String email);
 }
@@ -0,0 +1,18 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.model.entity.Wallet;
+
+/** Row locks on wallets that Spring Data cannot derive. */
+public interface WalletRepositoryCustom {
+
+  /**
+   * Takes a write lock on each wallet's row and reloads its balance, so the balance is the latest
+   * committed one and stays so until the current transaction ends. Wallets are locked in ascending
+   * ID order, whatever order they are passed in, so two payments between the same wallets cannot
+   * deadlock. The wallets must be managed by the current persistence context; {@code null}s and
+   * repeats are skipped.
+   *
+   * @param wallets the wallets a balance change will touch
+   */
+  void lockForUpdate(Wallet... wallets);
+}
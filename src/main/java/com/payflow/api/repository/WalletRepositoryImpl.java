@@ -0,0 +1,45 @@
+package com.payflow.api.repository;
+
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * JPA implementation of {@link WalletRepositoryCustom}. Only the balance is locked and reloaded: a
+ * locking query would hand back the instance the persistence context already holds without
+ * reloading it, and refreshing the entity would cascade to every transaction of the wallet.
+ */
+public class WalletRepositoryImpl implements WalletRepositoryCustom {
+
+  private static final String LOCK_BALANCE = "SELECT balance FROM wallets WHERE id = ? FOR UPDATE";
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public void lockForUpdate(final Wallet... wallets) {
+    final Wallet[] ordered =
+        Arrays.stream(wallets)
+            .filter(Objects::nonNull)
+            .sorted(Comparator.comparing(Wallet::getId))
+            .toArray(Wallet[]::new);
+    Long lockedId = null;
+    for (final Wallet wallet : ordered) {
+      // Compared by ID; Wallet's equals walks its lazy transaction lists
+      if (!wallet.getId().equals(lockedId)) {
+        final BigDecimal balance =
+            (BigDecimal)
+                entityManager
+                    .createNativeQuery(LOCK_BALANCE)
+                    .setParameter(1, wallet.getId())
+                    .getSingleResult();
+        wallet.setBalance(Money.of(balance));
+        lockedId = wallet.getId();
+      }
+    }
+  }
+}
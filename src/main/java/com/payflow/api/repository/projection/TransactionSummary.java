@@ -1,6 +1,6 @@
 package com.payflow.api.repository.projection;
 
-import java.math.BigDecimal;
+import com.payflow.api.model.money.Money;
 import java.time.LocalDateTime;
 
 /**
@@ -12,7 +12,7 @@ public interface TransactionSummary {
 
   String getTransactionNumber();
 
-  BigDecimal getAmount();
+  Money getAmount();
 
   String getType();
 
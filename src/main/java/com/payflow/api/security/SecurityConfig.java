@@ -114,6 +114,10 @@ public class SecurityConfig {
         .antMatchers("/public/**")
         .permitAll()
 
+        // WebSocket handshake; STOMP sessions authenticate on CONNECT
+        .antMatchers("/ws/**")
+        .permitAll()
+
         // All other endpoints require authentication
         .anyRequest()
         .authenticated();
@@ -0,0 +1,81 @@
+package com.payflow.api.security;
+
+import java.util.Arrays;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Authenticates STOMP sessions. Browsers cannot set headers on the WebSocket handshake, so the JWT
+ * travels in the {@code Authorization} header of the STOMP CONNECT frame instead and the session
+ * takes the user it names. Sessions may only subscribe to their own user destinations, and cannot
+ * send: all traffic flows from the server.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+  /** Destination prefixes a session may subscribe to. */
+  private static final List<String> SUBSCRIBABLE = Arrays.asList("/user/queue/");
+
+  private final JwtTokenProvider tokenProvider;
+  private final CustomUserDetailsService userDetailsService;
+
+  @Override
+  public Message<?> preSend(final Message<?> message, final MessageChannel channel) {
+    final StompHeaderAccessor accessor =
+        MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+    if (accessor == null || accessor.getCommand() == null) {
+      return message;
+    }
+    switch (accessor.getCommand()) {
+      case CONNECT:
+        accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        break;
+      case SUBSCRIBE:
+        checkSubscription(accessor);
+        break;
+      case SEND:
+        throw new AccessDeniedException("Sending messages is not supported");
+      default:
+        break;
+    }
+    return message;
+  }
+
+  private UsernamePasswordAuthenticationToken authenticate(final String header) {
+    if (!StringUtils.hasText(header) || !header.startsWith("Bearer ")) {
+      throw new BadCredentialsException("A bearer token is required to connect");
+    }
+    final String jwt = header.substring(7);
+    if (!tokenProvider.validateToken(jwt)) {
+      throw new BadCredentialsException("Invalid or expired token");
+    }
+    final UserDetails userDetails =
+        userDetailsService.loadUserById(tokenProvider.getUserIdFromJwt(jwt));
+    return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+  }
+
+  private void checkSubscription(final StompHeaderAccessor accessor) {
+    final String destination = accessor.getDestination();
+    if (accessor.getUser() == null) {
+      throw new AccessDeniedException("Not connected");
+    }
+    if (destination == null || SUBSCRIBABLE.stream().noneMatch(destination::startsWith)) {
+      log.warn("User {} may not subscribe to {}", accessor.getUser().getName(), destination);
+      throw new AccessDeniedException("Cannot subscribe to " + destination);
+    }
+  }
+}
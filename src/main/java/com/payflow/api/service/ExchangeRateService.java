@@ -2,90 +2,379 @@ package com.payflow.api.service;
 
 import com.payflow.api.exception.ResourceNotFoundException;
 import com.payflow.api.model.entity.ExchangeRate;
+import com.payflow.api.model.entity.ExchangeRateHistory;
 import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.repository.ExchangeRateHistoryRepository;
 import com.payflow.api.repository.ExchangeRateRepository;
+import com.payflow.api.service.fx.CircuitBreaker;
+import com.payflow.api.service.fx.ExchangeRateProvider;
+import com.payflow.api.service.fx.FxRateHistory;
+import com.payflow.api.service.fx.FxRateSnapshot;
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongBiFunction;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-/** Service class for managing exchange rates between currencies. */
+/**
+ * Service class for managing exchange rates between currencies.
+ *
+ * <p>Rates are served from an in-memory {@link FxRateSnapshot} rather than the database. The
+ * snapshot is loaded from the exchange_rates table on startup and replaced wholesale whenever the
+ * rates are refreshed, so lookups on the transfer path never touch the database or take a lock.
+ *
+ * <p>A refresh fetches the rates for a single base currency and derives every cross rate from them.
+ * It runs on a dedicated background thread, first once the application is ready and then on the
+ * configured schedule, so neither startup nor the shared scheduler thread waits on the network.
+ *
+ * <p>Each pair remembers when it was last updated. A lookup that finds a missing or stale pair
+ * still answers immediately from the snapshot and only asks for a background revalidation, so a
+ * slow or failing provider never delays a conversion. Provider calls go through a {@link
+ * CircuitBreaker} so a failing upstream is not hammered by repeated revalidations.
+ *
+ * <p>Every published rate change is appended to the exchange_rate_history table, keyed by the
+ * snapshot version, and kept in an in-memory {@link FxRateHistory} ring. Rates loaded on startup
+ * are recorded the same way, keyed by the time they were last updated, so the ring and the table
+ * cover every rate the service has served. Point-in-time lookups are answered from the ring or the
+ * current snapshot when they reach back far enough, and from the table otherwise.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ExchangeRateService {
 
+  /** Stands in for the update time of a stored rate that has none, so it gets revalidated. */
+  private static final Instant UNKNOWN_UPDATE = Instant.EPOCH.plusMillis(1);
+
   private final ExchangeRateRepository exchangeRateRepository;
-  private final RestTemplate restTemplate;
+  private final ExchangeRateProvider exchangeRateProvider;
+  private final ExchangeRateHistoryRepository exchangeRateHistoryRepository;
+
+  @Value("${exchange.rate.base-currency:USD}")
+  private Wallet.Currency baseCurrency = Wallet.Currency.USD;
+
+  @Value("${exchange.rate.stale-after:7h}")
+  private Duration staleAfter = Duration.ofHours(7);
+
+  @Value("${exchange.rate.revalidate-interval:1m}")
+  private Duration revalidateInterval = Duration.ofMinutes(1);
+
+  @Value("${exchange.rate.circuit-breaker.failure-threshold:3}")
+  private int breakerFailureThreshold = 3;
+
+  @Value("${exchange.rate.circuit-breaker.open-duration:5m}")
+  private Duration breakerOpenDuration = Duration.ofMinutes(5);
+
+  @Value("${exchange.rate.history.memory-size:256}")
+  private int historyMemorySize = 256;
+
+  private FxRateHistory rateHistory = new FxRateHistory(256);
+  private CircuitBreaker circuitBreaker = new CircuitBreaker(3, Duration.ofMinutes(5));
+  private final AtomicLong lastRevalidationMillis = new AtomicLong();
+
+  private final ExecutorService refreshExecutor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            final Thread thread = new Thread(runnable, "fx-refresh");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final AtomicBoolean refreshInFlight = new AtomicBoolean();
 
-  @Value("${exchange.rate.api.url}")
-  private String exchangeRateApiUrl;
+  private volatile FxRateSnapshot rateSnapshot = FxRateSnapshot.empty();
 
-  /** Initializes exchange rates on service startup. */
+  /** Loads the last stored rates on service startup; the provider is only called once ready. */
   @PostConstruct
   public void initializeExchangeRates() {
-    updateAllExchangeRates();
+    circuitBreaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenDuration);
+    rateHistory = new FxRateHistory(historyMemorySize);
+    loadSnapshotFromDatabase();
   }
 
-  /** Scheduled task to update all exchange rates. */
+  /** Stops the background refresh thread. */
+  @PreDestroy
+  public void shutdown() {
+    refreshExecutor.shutdownNow();
+  }
+
+  /**
+   * Rebuilds the in-memory rate snapshot from the exchange_rates table. Used on startup so that
+   * previously stored rates are available even if the rate provider cannot be reached. Each loaded
+   * rate is recorded in the history as of its last update, so point-in-time lookups between then
+   * and the next change find it.
+   */
+  public synchronized void loadSnapshotFromDatabase() {
+    final FxRateSnapshot previous = rateSnapshot;
+    final FxRateSnapshot.Builder builder = previous.toBuilder();
+    for (final ExchangeRate exchangeRate : exchangeRateRepository.findAll()) {
+      // A row without a timestamp is treated as arbitrarily old so it gets revalidated
+      final Instant updatedAt =
+          exchangeRate.getLastUpdated() != null
+              ? exchangeRate.getLastUpdated().atZone(ZoneId.systemDefault()).toInstant()
+              : UNKNOWN_UPDATE;
+      builder.put(
+          exchangeRate.getBaseCurrency(),
+          exchangeRate.getTargetCurrency(),
+          exchangeRate.getRate(),
+          updatedAt);
+    }
+    publish(builder);
+    final FxRateSnapshot current = rateSnapshot;
+    appendHistory(recordHistory(previous, current, current::getUpdatedAtMillis));
+  }
+
+  /** Triggers the first provider refresh once the application is ready to serve traffic. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    refreshAsync();
+  }
+
+  /** Scheduled task to update all exchange rates. Only hands the work to the refresh thread. */
   @Scheduled(cron = "${exchange.rate.update.schedule}")
-  public void updateAllExchangeRates() {
-    log.info("Updating exchange rates");
+  public void scheduledRefresh() {
+    refreshAsync();
+  }
+
+  /**
+   * Queues a refresh on the background thread unless one is already running.
+   *
+   * @return true if a refresh was queued, false if one was already in flight
+   */
+  public boolean refreshAsync() {
+    if (!refreshInFlight.compareAndSet(false, true)) {
+      log.debug("Exchange rate refresh already in progress, skipping");
+      return false;
+    }
+    try {
+      refreshExecutor.execute(
+          () -> {
+            try {
+              updateAllExchangeRates();
+            } finally {
+              refreshInFlight.set(false);
+            }
+          });
+      return true;
+    } catch (final RuntimeException e) {
+      refreshInFlight.set(false);
+      throw e;
+    }
+  }
+
+  /**
+   * Fetches the rates for the base currency, derives all cross rates from them, publishes a new
+   * snapshot and stores every pair with one batched upsert. Skipped while the circuit breaker is
+   * open; the current snapshot keeps serving in the meantime.
+   */
+  public synchronized void updateAllExchangeRates() {
+    if (!circuitBreaker.tryAcquire()) {
+      log.warn(
+          "Exchange rate provider circuit is open, keeping snapshot {}", rateSnapshot.getVersion());
+      return;
+    }
+    log.info("Updating exchange rates from {} base", baseCurrency);
 
+    final List<ExchangeRate> rows;
+    final List<ExchangeRateHistory> historyRows;
     try {
-      for (final Wallet.Currency baseCurrency : Wallet.Currency.values()) {
-        updateExchangeRatesForCurrency(baseCurrency);
+      final Map<Wallet.Currency, BigDecimal> baseRates =
+          exchangeRateProvider.fetchRates(baseCurrency);
+      if (baseRates == null || baseRates.isEmpty()) {
+        throw new IllegalStateException("Exchange rate provider returned no rates");
       }
-      log.info("Exchange rates updated successfully");
+      final FxRateSnapshot previous = rateSnapshot;
+      final FxRateSnapshot.Builder builder = previous.toBuilder();
+      rows = deriveCrossRates(baseRates, previous, builder);
+      publish(builder);
+      final FxRateSnapshot current = rateSnapshot;
+      historyRows = recordHistory(previous, current, (from, to) -> current.getVersion());
+      circuitBreaker.recordSuccess();
     } catch (final Exception e) {
+      circuitBreaker.recordFailure();
       log.error("Failed to update exchange rates: {}", e.getMessage(), e);
+      return;
+    }
+
+    try {
+      final int written = exchangeRateRepository.upsertAll(rows);
+      log.info("Exchange rates updated successfully ({} pairs stored)", written);
+    } catch (final Exception e) {
+      log.error("Failed to store exchange rates: {}", e.getMessage(), e);
     }
+
+    appendHistory(historyRows);
   }
 
-  private void updateExchangeRatesForCurrency(final Wallet.Currency baseCurrency) {
+  private void appendHistory(final List<ExchangeRateHistory> historyRows) {
+    if (historyRows.isEmpty()) {
+      return;
+    }
     try {
-      final String url = exchangeRateApiUrl + baseCurrency.name();
-      final ResponseEntity<ExchangeRateApiResponse> response =
-          restTemplate.getForEntity(url, ExchangeRateApiResponse.class);
-
-      if (response.getBody() != null && response.getBody().getRates() != null) {
-        final Map<String, Double> rates = response.getBody().getRates();
-
-        for (final Wallet.Currency targetCurrency : Wallet.Currency.values()) {
-          if (rates.containsKey(targetCurrency.name())) {
-            final Double rateValue = rates.get(targetCurrency.name());
-            if (rateValue != null) {
-              final BigDecimal rate = BigDecimal.valueOf(rateValue);
-              saveOrUpdateExchangeRate(baseCurrency, targetCurrency, rate);
-            }
-          }
+      exchangeRateHistoryRepository.appendAll(historyRows);
+    } catch (final Exception e) {
+      log.error("Failed to append exchange rate history: {}", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Records every pair whose rate differs between two snapshots in the in-memory ring and returns
+   * the matching history rows to persist. Pairs whose update time is unknown are left out.
+   *
+   * @param previous the snapshot before the change
+   * @param current the snapshot after the change
+   * @param recordedAt the time to record each changed pair at, in epoch millis
+   * @return the history rows to append
+   */
+  private List<ExchangeRateHistory> recordHistory(
+      final FxRateSnapshot previous,
+      final FxRateSnapshot current,
+      final ToLongBiFunction<Wallet.Currency, Wallet.Currency> recordedAt) {
+    final List<ExchangeRateHistory> historyRows = new ArrayList<>();
+    if (previous == current) {
+      return historyRows;
+    }
+    for (final Wallet.Currency from : Wallet.Currency.values()) {
+      for (final Wallet.Currency to : Wallet.Currency.values()) {
+        final BigDecimal rate = current.getRate(from, to);
+        if (from == to || rate == null || rate.equals(previous.getRate(from, to))) {
+          continue;
+        }
+        final long recordedAtMillis = recordedAt.applyAsLong(from, to);
+        if (recordedAtMillis <= UNKNOWN_UPDATE.toEpochMilli()) {
+          continue;
         }
+        final long scaledRate = FxRateHistory.toScaled(rate);
+        rateHistory.record(from, to, recordedAtMillis, scaledRate);
+        historyRows.add(
+            new ExchangeRateHistory(
+                FxRateHistory.pairId(from, to),
+                LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(recordedAtMillis), ZoneId.systemDefault()),
+                scaledRate));
       }
-    } catch (final Exception e) {
-      log.error("Failed to update exchange rates for {}: {}", baseCurrency, e.getMessage(), e);
     }
+    return historyRows;
   }
 
-  private void saveOrUpdateExchangeRate(
-      final Wallet.Currency baseCurrency,
-      final Wallet.Currency targetCurrency,
-      final BigDecimal rate) {
-    exchangeRateRepository
-        .findByBaseCurrencyAndTargetCurrency(baseCurrency, targetCurrency)
-        .ifPresentOrElse(
-            exchangeRate -> {
-              exchangeRate.setRate(rate);
-              exchangeRateRepository.save(exchangeRate);
-            },
-            () ->
-                exchangeRateRepository.save(new ExchangeRate(baseCurrency, targetCurrency, rate)));
+  /**
+   * Triangulates every pair through the base currency: {@code rate(a, b) = base(b) / base(a)}.
+   * Pairs involving a currency the provider did not quote are skipped. A pair whose rate did not
+   * change is stored with the time its rate took effect, as the snapshot keeps it.
+   */
+  private List<ExchangeRate> deriveCrossRates(
+      final Map<Wallet.Currency, BigDecimal> baseRates,
+      final FxRateSnapshot previous,
+      final FxRateSnapshot.Builder builder) {
+    final Wallet.Currency[] currencies = Wallet.Currency.values();
+    final List<ExchangeRate> rows = new ArrayList<>(currencies.length * currencies.length);
+    final Instant refreshedAt = Instant.now();
+    final LocalDateTime now = LocalDateTime.ofInstant(refreshedAt, ZoneId.systemDefault());
+
+    for (final Wallet.Currency from : currencies) {
+      final BigDecimal fromRate = quoteAgainstBase(baseRates, from);
+      if (fromRate == null) {
+        continue;
+      }
+      for (final Wallet.Currency to : currencies) {
+        final BigDecimal toRate = quoteAgainstBase(baseRates, to);
+        if (toRate == null) {
+          continue;
+        }
+        final BigDecimal rate =
+            from == to
+                ? BigDecimal.ONE.setScale(FxRateSnapshot.RATE_SCALE)
+                : toRate
+                    .divide(fromRate, MathContext.DECIMAL64)
+                    .setScale(FxRateSnapshot.RATE_SCALE, RoundingMode.HALF_UP);
+        builder.put(from, to, rate, refreshedAt);
+
+        final ExchangeRate row = new ExchangeRate(from, to, rate);
+        row.setLastUpdated(
+            from != to && rate.equals(previous.getRate(from, to))
+                ? LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(previous.getUpdatedAtMillis(from, to)),
+                    ZoneId.systemDefault())
+                : now);
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  private BigDecimal quoteAgainstBase(
+      final Map<Wallet.Currency, BigDecimal> baseRates, final Wallet.Currency currency) {
+    if (currency == baseCurrency) {
+      return BigDecimal.ONE;
+    }
+    final BigDecimal rate = baseRates.get(currency);
+    return rate != null && rate.signum() > 0 ? rate : null;
+  }
+
+  private void publish(final FxRateSnapshot.Builder builder) {
+    if (builder.changes() == 0) {
+      return;
+    }
+    rateSnapshot = builder.build(Instant.now());
+    log.info(
+        "Published exchange rate snapshot version {} ({} rates)",
+        rateSnapshot.getVersion(),
+        builder.changes());
+  }
+
+  /**
+   * Requests a background refresh without waiting for it. Calls are throttled to one per {@code
+   * exchange.rate.revalidate-interval}, so a burst of lookups on stale pairs triggers one fetch.
+   *
+   * @return true if a refresh was queued
+   */
+  boolean revalidate() {
+    final long now = System.currentTimeMillis();
+    final long last = lastRevalidationMillis.get();
+    if (now - last < revalidateInterval.toMillis()
+        || !lastRevalidationMillis.compareAndSet(last, now)) {
+      return false;
+    }
+    log.debug("Exchange rates are stale or incomplete, revalidating in the background");
+    return refreshAsync();
+  }
+
+  /**
+   * Returns the circuit breaker guarding the rate provider.
+   *
+   * @return the breaker
+   */
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  /**
+   * Returns the currently published rate snapshot. Callers that need both a rate and a converted
+   * amount should read the snapshot once and use it for both, so the two values always agree.
+   *
+   * @return the current immutable snapshot
+   */
+  public FxRateSnapshot getRateSnapshot() {
+    return rateSnapshot;
   }
 
   /**
@@ -98,17 +387,78 @@ public class ExchangeRateService {
    */
   public BigDecimal getExchangeRate(
       final Wallet.Currency fromCurrency, final Wallet.Currency toCurrency) {
-    if (fromCurrency == toCurrency) {
-      return BigDecimal.ONE;
+    return getExchangeRate(rateSnapshot, fromCurrency, toCurrency);
+  }
+
+  /**
+   * Retrieves the exchange rate between two currencies from a specific snapshot.
+   *
+   * @param snapshot the snapshot to read from
+   * @param fromCurrency source currency
+   * @param toCurrency target currency
+   * @return exchange rate, possibly stale while a background revalidation is pending
+   * @throws ResourceNotFoundException if the snapshot has no rate for the pair
+   */
+  public BigDecimal getExchangeRate(
+      final FxRateSnapshot snapshot,
+      final Wallet.Currency fromCurrency,
+      final Wallet.Currency toCurrency) {
+    final BigDecimal rate = snapshot.getRate(fromCurrency, toCurrency);
+    if (rate == null
+        || snapshot.isStale(
+            fromCurrency, toCurrency, staleAfter.toMillis(), System.currentTimeMillis())) {
+      revalidate();
     }
+    if (rate == null) {
+      throw new ResourceNotFoundException(
+          "ExchangeRate", "currencies", fromCurrency + " to " + toCurrency);
+    }
+    return rate;
+  }
 
-    return exchangeRateRepository
-        .findByBaseCurrencyAndTargetCurrency(fromCurrency, toCurrency)
-        .map(ExchangeRate::getRate)
+  /**
+   * Retrieves the exchange rate that was in force between two currencies at a point in time. A
+   * transaction's {@code exchangeRateVersion} is a valid point in time and yields exactly the rate
+   * it was priced with.
+   *
+   * @param fromCurrency source currency
+   * @param toCurrency target currency
+   * @param at the point in time
+   * @return the rate and the time it was published
+   * @throws ResourceNotFoundException if no rate had been recorded for the pair by then
+   */
+  public FxRateHistory.Point getExchangeRateAt(
+      final Wallet.Currency fromCurrency, final Wallet.Currency toCurrency, final Instant at) {
+    if (fromCurrency == toCurrency) {
+      return new FxRateHistory.Point(at.toEpochMilli(), FxRateHistory.toScaled(BigDecimal.ONE));
+    }
+    final FxRateHistory.Point cached =
+        rateHistory.find(fromCurrency, toCurrency, at.toEpochMilli());
+    if (cached != null) {
+      return cached;
+    }
+    // A rate stored without an update time is not in the ring, but is the only one known
+    final FxRateSnapshot snapshot = rateSnapshot;
+    final BigDecimal current = snapshot.getRate(fromCurrency, toCurrency);
+    final long updatedAt = snapshot.getUpdatedAtMillis(fromCurrency, toCurrency);
+    if (current != null && updatedAt != 0L && updatedAt <= at.toEpochMilli()) {
+      return new FxRateHistory.Point(updatedAt, FxRateHistory.toScaled(current));
+    }
+    return exchangeRateHistoryRepository
+        .findFirstByPairIdAndRecordedAtLessThanEqualOrderByRecordedAtDesc(
+            FxRateHistory.pairId(fromCurrency, toCurrency),
+            LocalDateTime.ofInstant(at, ZoneId.systemDefault()))
+        .map(
+            row ->
+                new FxRateHistory.Point(
+                    row.getRecordedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                    row.getRateScaled()))
         .orElseThrow(
             () ->
                 new ResourceNotFoundException(
-                    "ExchangeRate", "currencies", fromCurrency + " to " + toCurrency));
+                    "ExchangeRate",
+                    "currencies",
+                    fromCurrency + " to " + toCurrency + " at " + at));
   }
 
   /**
@@ -123,29 +473,48 @@ public class ExchangeRateService {
       final BigDecimal amount,
       final Wallet.Currency fromCurrency,
       final Wallet.Currency toCurrency) {
-    final BigDecimal rate = getExchangeRate(fromCurrency, toCurrency);
-    return amount.multiply(rate).setScale(4, RoundingMode.HALF_UP);
+    return convertCurrency(rateSnapshot, amount, fromCurrency, toCurrency);
   }
 
-  /** DTO for the exchange rate API response. */
-  private static class ExchangeRateApiResponse {
-    private String base;
-    private Map<String, Double> rates;
-
-    public String getBase() {
-      return base;
-    }
-
-    public void setBase(final String base) {
-      this.base = base;
-    }
-
-    public Map<String, Double> getRates() {
-      return rates;
-    }
+  /**
+   * Converts an amount from one currency to another using a specific snapshot.
+   *
+   * @param snapshot the snapshot to read from
+   * @param amount the amount to convert
+   * @param fromCurrency source currency
+   * @param toCurrency target currency
+   * @return converted amount
+   * @throws ResourceNotFoundException if the snapshot has no rate for the pair
+   */
+  public BigDecimal convertCurrency(
+      final FxRateSnapshot snapshot,
+      final BigDecimal amount,
+      final Wallet.Currency fromCurrency,
+      final Wallet.Currency toCurrency) {
+    return FxRateSnapshot.applyRate(amount, getExchangeRate(snapshot, fromCurrency, toCurrency));
+  }
 
-    public void setRates(final Map<String, Double> rates) {
-      this.rates = rates;
+  /**
+   * Converts a fixed-point amount from one currency to another using a specific snapshot. This is
+   * the allocation-free variant used on the transfer path.
+   *
+   * @param snapshot the snapshot to read from
+   * @param amount the amount to convert
+   * @param fromCurrency source currency
+   * @param toCurrency target currency
+   * @return converted amount, rounded HALF_UP to {@link Money#SCALE}
+   * @throws ResourceNotFoundException if the snapshot has no rate for the pair
+   */
+  public Money convertCurrency(
+      final FxRateSnapshot snapshot,
+      final Money amount,
+      final Wallet.Currency fromCurrency,
+      final Wallet.Currency toCurrency) {
+    if (fromCurrency == toCurrency) {
+      return amount;
     }
+    // Goes through the decimal lookup for its staleness and not-found handling
+    getExchangeRate(snapshot, fromCurrency, toCurrency);
+    return FxRateSnapshot.applyRate(amount, snapshot.getScaledRate(fromCurrency, toCurrency));
   }
 }
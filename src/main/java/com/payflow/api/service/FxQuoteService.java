@@ -0,0 +1,163 @@
+package com.payflow.api.service;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.service.fx.FxQuote;
+import com.payflow.api.service.fx.FxQuoteStore;
+import com.payflow.api.service.fx.FxRateSnapshot;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Prices currency conversions and locks them as short-lived quotes.
+ *
+ * <p>A client that wants to show the converted amount before confirming a payment requests a quote,
+ * which fixes the rate and converted amount for {@code exchange.rate.quote.ttl}. Passing the quote
+ * id with the payment guarantees the payment settles at exactly the quoted figures, even if the
+ * rates are refreshed in between. Quotes are single use and can only be redeemed by the user who
+ * requested them. A quote is taken out of the store as soon as a payment redeems it, so no other
+ * payment can use it at the same time, and put back if that payment rolls back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FxQuoteService {
+
+  private final ExchangeRateService exchangeRateService;
+
+  @Value("${exchange.rate.quote.ttl:30s}")
+  private Duration quoteTtl = Duration.ofSeconds(30);
+
+  @Value("${exchange.rate.quote.max-entries:10000}")
+  private int maxQuotes = 10_000;
+
+  private FxQuoteStore quoteStore = new FxQuoteStore(10_000);
+
+  /** Sizes the quote store from configuration. */
+  @PostConstruct
+  public void initializeQuoteStore() {
+    quoteStore = new FxQuoteStore(maxQuotes);
+  }
+
+  /**
+   * Prices a conversion and locks it as a quote.
+   *
+   * @param userId the user the quote is issued to
+   * @param fromCurrency source currency
+   * @param toCurrency target currency
+   * @param amount the amount to convert, in the source currency
+   * @return the stored quote
+   */
+  public FxQuote createQuote(
+      final Long userId,
+      final Wallet.Currency fromCurrency,
+      final Wallet.Currency toCurrency,
+      final BigDecimal amount) {
+    final long now = System.currentTimeMillis();
+    final FxQuote spot = price(fromCurrency, toCurrency, Money.of(amount));
+    final FxQuote quote =
+        new FxQuote(
+            "FXQ-" + UUID.randomUUID(),
+            userId,
+            fromCurrency,
+            toCurrency,
+            spot.getAmount(),
+            spot.getRate(),
+            spot.getConvertedAmount(),
+            spot.getRateVersion(),
+            now + quoteTtl.toMillis());
+    quoteStore.put(quote, now);
+    log.debug(
+        "Issued quote {} for {} {} -> {} at {}",
+        quote.getQuoteId(),
+        amount,
+        fromCurrency,
+        toCurrency,
+        quote.getRate());
+    return quote;
+  }
+
+  /**
+   * Prices a conversion from the current rate snapshot without locking it.
+   *
+   * @param fromCurrency source currency
+   * @param toCurrency target currency
+   * @param amount the amount to convert
+   * @return an unsaved spot quote
+   */
+  public FxQuote price(
+      final Wallet.Currency fromCurrency, final Wallet.Currency toCurrency, final Money amount) {
+    final FxRateSnapshot rates = exchangeRateService.getRateSnapshot();
+    final BigDecimal rate = exchangeRateService.getExchangeRate(rates, fromCurrency, toCurrency);
+    final Money converted =
+        FxRateSnapshot.applyRate(amount, rates.getScaledRate(fromCurrency, toCurrency));
+    return new FxQuote(
+        null, null, fromCurrency, toCurrency, amount, rate, converted, rates.getVersion(), 0L);
+  }
+
+  /**
+   * Returns the figures a payment should settle at: the locked quote if an id is given, otherwise a
+   * spot price. A redeemed quote is returned to the store if the current transaction rolls back,
+   * whether the quote itself was rejected or the payment failed later, so the user can try again at
+   * the same rate while it lasts.
+   *
+   * @param quoteId the quote id, or {@code null} for a spot price
+   * @param userId the paying user
+   * @param fromCurrency source currency of the payment
+   * @param toCurrency target currency of the payment
+   * @param amount the payment amount, in the source currency
+   * @return the quote to settle at
+   * @throws BadRequestException if the quote is unknown, expired, already used, issued to another
+   *     user or does not match the payment
+   */
+  public FxQuote resolve(
+      final String quoteId,
+      final Long userId,
+      final Wallet.Currency fromCurrency,
+      final Wallet.Currency toCurrency,
+      final Money amount) {
+    if (quoteId == null || quoteId.isEmpty()) {
+      return price(fromCurrency, toCurrency, amount);
+    }
+    final FxQuote quote = quoteStore.remove(quoteId, userId);
+    if (quote == null) {
+      throw new BadRequestException("Unknown or already used quote: " + quoteId);
+    }
+    restoreOnRollback(quote);
+    if (quote.isExpired(System.currentTimeMillis())) {
+      throw new BadRequestException("Quote " + quoteId + " has expired");
+    }
+    if (quote.getFromCurrency() != fromCurrency
+        || quote.getToCurrency() != toCurrency
+        || !quote.getAmount().equals(amount)) {
+      throw new BadRequestException("Quote " + quoteId + " does not match this payment");
+    }
+    return quote;
+  }
+
+  private void restoreOnRollback(final FxQuote quote) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(final int status) {
+            final long now = System.currentTimeMillis();
+            if (status != STATUS_COMMITTED && !quote.isExpired(now)) {
+              quoteStore.put(quote, now);
+              log.debug("Restored quote {} after its payment rolled back", quote.getQuoteId());
+            }
+          }
+        });
+  }
+}
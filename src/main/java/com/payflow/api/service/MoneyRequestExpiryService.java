@@ -0,0 +1,130 @@
+package com.payflow.api.service;
+
+import com.payflow.api.event.MoneyRequestExpiredEvent;
+import com.payflow.api.model.expiry.Expiration;
+import com.payflow.api.repository.MoneyRequestRepository;
+import com.payflow.api.service.expiry.ExpirationHandler;
+import com.payflow.api.service.expiry.ExpirationScheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Expires PENDING money requests once they pass {@code expiresAt}.
+ *
+ * <p>Due requests are found and handed over by the {@link ExpirationScheduler}, within about a
+ * second of their expiry. Each batch is expired in ID ranges of at most {@code
+ * money-request.expiry.chunk-size}; every range is expired by one set-based UPDATE in its own short
+ * transaction, so no request is loaded as an entity and locks are held only briefly. Requests
+ * approved, declined or cancelled in the meantime no longer match the {@code status = 'PENDING'}
+ * predicate and are left alone.
+ *
+ * <p>A {@link MoneyRequestExpiredEvent} is published for every expired request once its range has
+ * committed. The number of requests expired is logged per batch and counted in {@code
+ * money.requests.expired}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MoneyRequestExpiryService implements ExpirationHandler {
+
+  private final MoneyRequestRepository moneyRequestRepository;
+  private final PlatformTransactionManager transactionManager;
+  private final ApplicationEventPublisher eventPublisher;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${money-request.expiry.chunk-size:500}")
+  private int chunkSize = 500;
+
+  private TransactionTemplate transactionTemplate;
+  private Counter expiredCounter;
+
+  /** Sets up the per-range transaction template and registers the expiry counter. */
+  @PostConstruct
+  public void init() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    // Each range must commit on its own, even if a caller is already in a transaction
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    expiredCounter =
+        Counter.builder("money.requests.expired")
+            .description("Money requests moved from PENDING to EXPIRED")
+            .register(meterRegistry);
+  }
+
+  @Override
+  public String getType() {
+    return Expiration.MONEY_REQUEST;
+  }
+
+  @Override
+  public List<Expiration> findDue(
+      final LocalDateTime before, final Expiration after, final int limit) {
+    return moneyRequestRepository.findDueExpirations(before, after, limit);
+  }
+
+  @Override
+  public void expire(final List<Expiration> due) {
+    expireDueRequests(
+        due.stream().mapToLong(Expiration::getId).sorted().toArray(), LocalDateTime.now());
+  }
+
+  /**
+   * Expires the PENDING requests among the given IDs whose expiry is before {@code now}. Due
+   * requests that share a range with one of the IDs are expired with it.
+   *
+   * @param ids the IDs of the due requests, in ascending order
+   * @param now the expiry cut-off
+   * @return the number of requests expired
+   */
+  int expireDueRequests(final long[] ids, final LocalDateTime now) {
+    final long startedAt = System.nanoTime();
+    int expired = 0;
+    int ranges = 0;
+    int next = 0;
+    while (next < ids.length) {
+      final long from = ids[next];
+      final long to = from + chunkSize - 1;
+      while (next < ids.length && ids[next] <= to) {
+        next++;
+      }
+      final List<MoneyRequestExpiredEvent> events =
+          transactionTemplate.execute(status -> expireRange(now, from, to));
+      events.forEach(eventPublisher::publishEvent);
+      expired += events.size();
+      ranges++;
+    }
+
+    if (expired > 0) {
+      expiredCounter.increment(expired);
+      log.info(
+          "Expired {} money requests in {} ranges ({} ms)",
+          expired,
+          ranges,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+    return expired;
+  }
+
+  private List<MoneyRequestExpiredEvent> expireRange(
+      final LocalDateTime now, final long fromId, final long toId) {
+    // Timestamps are stored to the microsecond, so truncate to read the stamp back exactly
+    final LocalDateTime stamp = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    final int updated = moneyRequestRepository.expireRange(now, fromId, toId, stamp);
+    if (updated == 0) {
+      return List.of();
+    }
+    return moneyRequestRepository.findExpiredInRange(fromId, toId, stamp);
+  }
+}
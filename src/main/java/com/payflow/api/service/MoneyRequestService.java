@@ -2,19 +2,28 @@ package com.payflow.api.service;
 
 import com.payflow.api.exception.BadRequestException;
 import com.payflow.api.exception.ResourceNotFoundException;
+import com.payflow.api.model.dto.request.GroupMoneyRequestDTO;
 import com.payflow.api.model.dto.request.MoneyRequestActionDTO;
 import com.payflow.api.model.dto.request.MoneyRequestDTO;
 import com.payflow.api.model.entity.MoneyRequest;
 import com.payflow.api.model.entity.Transaction;
 import com.payflow.api.model.entity.User;
 import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
 import com.payflow.api.repository.MoneyRequestRepository;
+import com.payflow.api.service.push.UserPushService;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +36,10 @@ public class MoneyRequestService {
   private final UserService userService;
   private final WalletService walletService;
   private final TransactionService transactionService;
+  private final UserPushService userPushService;
+
+  @Value("${money-request.group.max-size:50}")
+  private int groupMaxSize = 50;
 
   /**
    * Creates a new money request.
@@ -56,12 +69,167 @@ public class MoneyRequestService {
     moneyRequest.setRequester(requester);
     moneyRequest.setRequestee(requestee);
     moneyRequest.setRequestWallet(wallet);
-    moneyRequest.setAmount(requestDto.getAmount());
+    moneyRequest.setAmount(Money.of(requestDto.getAmount()));
     moneyRequest.setDescription(requestDto.getDescription());
     moneyRequest.setStatus(MoneyRequest.RequestStatus.PENDING);
     moneyRequest.setExpiresAt(LocalDateTime.now().plusDays(7));
 
-    return moneyRequestRepository.save(moneyRequest);
+    final MoneyRequest saved = moneyRequestRepository.save(moneyRequest);
+    userPushService.moneyRequestChanged(saved);
+    return saved;
+  }
+
+  /**
+   * Splits a bill across several requestees, creating one PENDING request per requestee under a
+   * shared group ID. The requestees are resolved with one query and the requests written with one
+   * batched insert.
+   *
+   * <p>An equal split is made in the smallest unit of the wallet's currency, such as cents; units
+   * left over go one each to the first requestees, so the requests add up to the amount exactly
+   * unless the requester keeps a share.
+   *
+   * @param requester the user requesting money
+   * @param requestDto the group request details
+   * @return the created requests, in the order of the requestees
+   * @throws BadRequestException if validation fails
+   * @throws ResourceNotFoundException if a requestee email has no user
+   */
+  @Transactional
+  public List<MoneyRequest> createGroupMoneyRequest(
+      final User requester, final GroupMoneyRequestDTO requestDto) {
+    final List<GroupMoneyRequestDTO.Share> shares = requestDto.getRequestees();
+    if (shares.size() > groupMaxSize) {
+      throw new BadRequestException(
+          "A group request can have at most " + groupMaxSize + " requestees");
+    }
+    final Set<String> emails = new LinkedHashSet<>();
+    for (final GroupMoneyRequestDTO.Share share : shares) {
+      if (!emails.add(share.getEmail())) {
+        throw new BadRequestException("Each requestee can only appear once in a group request");
+      }
+    }
+    final Wallet wallet = walletService.getWalletByNumber(requestDto.getWalletNumber());
+
+    // Ensure the wallet belongs to the requester
+    if (!wallet.getUser().getId().equals(requester.getId())) {
+      throw new BadRequestException("You can only request money to your own wallet");
+    }
+    final List<Money> amounts = splitAmounts(requestDto, wallet.getCurrency());
+
+    final Map<String, User> requestees = userService.getUsersByEmails(emails);
+    final String groupId =
+        "GRP-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(Locale.ROOT);
+    final LocalDateTime now = LocalDateTime.now();
+    final List<MoneyRequest> moneyRequests = new ArrayList<>(shares.size());
+    for (int i = 0; i < shares.size(); i++) {
+      final User requestee = requestees.get(shares.get(i).getEmail());
+      // Ensure requester is not requesting money from themselves
+      if (requester.getId().equals(requestee.getId())) {
+        throw new BadRequestException("You cannot request money from yourself");
+      }
+      final MoneyRequest moneyRequest = new MoneyRequest();
+      moneyRequest.setRequester(requester);
+      moneyRequest.setRequestee(requestee);
+      moneyRequest.setRequestWallet(wallet);
+      moneyRequest.setAmount(amounts.get(i));
+      moneyRequest.setDescription(requestDto.getDescription());
+      moneyRequest.setStatus(MoneyRequest.RequestStatus.PENDING);
+      moneyRequest.setCreatedAt(now);
+      moneyRequest.setUpdatedAt(now);
+      moneyRequest.setExpiresAt(now.plusDays(7));
+      moneyRequest.setGroupId(groupId);
+      // Not persisted through JPA, so assign the request number the entity would on persist
+      moneyRequest.generateRequestNumber();
+      moneyRequests.add(moneyRequest);
+    }
+    moneyRequestRepository.insertAll(moneyRequests);
+    final List<MoneyRequest> created = moneyRequestRepository.findByGroupIdWithParties(groupId);
+    created.forEach(userPushService::moneyRequestChanged);
+    return created;
+  }
+
+  /**
+   * Retrieves the requests of a group made by the given user.
+   *
+   * @param requester the user who made the group request
+   * @param groupId the group ID
+   * @return the requests in the group, with requester, requestee and wallet loaded
+   * @throws ResourceNotFoundException if the user made no group with this ID
+   */
+  @Transactional(readOnly = true)
+  public List<MoneyRequest> getMoneyRequestGroup(final User requester, final String groupId) {
+    final List<MoneyRequest> moneyRequests =
+        moneyRequestRepository.findByGroupIdWithParties(groupId);
+    if (moneyRequests.isEmpty()
+        || !moneyRequests.get(0).getRequester().getId().equals(requester.getId())) {
+      throw new ResourceNotFoundException("MoneyRequestGroup", "groupId", groupId);
+    }
+    return moneyRequests;
+  }
+
+  /**
+   * Works out each requestee's amount: the given shares, or an equal split of the total.
+   *
+   * @param requestDto the group request details
+   * @param currency the currency of the receiving wallet
+   * @return one amount per requestee, in order
+   * @throws BadRequestException if the shares and total do not fit together
+   */
+  private static List<Money> splitAmounts(
+      final GroupMoneyRequestDTO requestDto, final Wallet.Currency currency) {
+    final List<GroupMoneyRequestDTO.Share> shares = requestDto.getRequestees();
+    final long given = shares.stream().filter(share -> share.getAmount() != null).count();
+    final Money total = requestDto.getAmount() == null ? null : Money.of(requestDto.getAmount());
+
+    if (given == shares.size()) {
+      final List<Money> amounts = new ArrayList<>(shares.size());
+      Money sum = Money.ZERO;
+      for (final GroupMoneyRequestDTO.Share share : shares) {
+        final Money amount = Money.of(share.getAmount());
+        amounts.add(amount);
+        sum = sum.plus(amount);
+      }
+      if (total != null
+          && (requestDto.isIncludeRequester() ? !sum.isLessThan(total) : !sum.equals(total))) {
+        throw new BadRequestException(
+            requestDto.isIncludeRequester()
+                ? "Shares must add up to less than the amount when the requester pays a share"
+                : "Shares must add up to the amount");
+      }
+      return amounts;
+    }
+    if (given > 0) {
+      throw new BadRequestException("Give an amount for every requestee or for none of them");
+    }
+    if (total == null) {
+      throw new BadRequestException("Amount is required for an equal split");
+    }
+
+    // Split in whole currency units (e.g. cents) so nobody is asked for a fraction of a cent
+    final int fractionDigits =
+        Math.max(
+            0,
+            Math.min(
+                Money.SCALE,
+                java.util.Currency.getInstance(currency.name()).getDefaultFractionDigits()));
+    final long unit = (long) Math.pow(10, Money.SCALE - fractionDigits);
+    final int parts = shares.size() + (requestDto.isIncludeRequester() ? 1 : 0);
+    final long units = total.getMinorUnits() / unit;
+    final long base = units / parts;
+    final long extra = units % parts;
+    if (base == 0) {
+      throw new BadRequestException("Amount is too small to split between " + parts + " people");
+    }
+    final List<Money> amounts = new ArrayList<>(shares.size());
+    for (int i = 0; i < shares.size(); i++) {
+      long minor = (base + (i < extra ? 1 : 0)) * unit;
+      if (i == 0) {
+        // Any fraction of a unit in the total goes with the first share
+        minor += total.getMinorUnits() % unit;
+      }
+      amounts.add(Money.ofMinor(minor));
+    }
+    return amounts;
   }
 
   /**
@@ -122,7 +290,8 @@ public class MoneyRequestService {
     String action = actionDTO.getAction().toUpperCase(java.util.Locale.ROOT);
     switch (action) {
       case "APPROVE":
-        return approveMoneyRequest(moneyRequest, user, actionDTO.getPaymentWalletNumber());
+        return approveMoneyRequest(
+            moneyRequest, user, actionDTO.getPaymentWalletNumber(), actionDTO.getQuoteId());
       case "DECLINE":
         declineMoneyRequest(moneyRequest);
         return null;
@@ -132,7 +301,7 @@ public class MoneyRequestService {
   }
 
   private Transaction approveMoneyRequest(
-      MoneyRequest moneyRequest, User user, String paymentWalletNumber) {
+      MoneyRequest moneyRequest, User user, String paymentWalletNumber, String quoteId) {
     Wallet sourceWallet = walletService.getWalletByNumber(paymentWalletNumber);
 
     // Ensure the wallet belongs to the user
@@ -140,20 +309,36 @@ public class MoneyRequestService {
       throw new BadRequestException("You can only pay with your own wallet");
     }
 
-    // Create a transaction for the payment
-    Transaction transaction =
-        transactionService.createMoneyRequestTransaction(moneyRequest, sourceWallet);
-
-    // Update the money request status
-    moneyRequest.setStatus(MoneyRequest.RequestStatus.APPROVED);
-    moneyRequestRepository.save(moneyRequest);
+    // Claim the request before any money moves, so it cannot be paid twice
+    transitionFromPending(moneyRequest, MoneyRequest.RequestStatus.APPROVED);
 
-    return transaction;
+    // Create a transaction for the payment
+    return transactionService.createMoneyRequestTransaction(moneyRequest, sourceWallet, quoteId);
   }
 
   private void declineMoneyRequest(MoneyRequest moneyRequest) {
-    moneyRequest.setStatus(MoneyRequest.RequestStatus.DECLINED);
-    moneyRequestRepository.save(moneyRequest);
+    transitionFromPending(moneyRequest, MoneyRequest.RequestStatus.DECLINED);
+  }
+
+  /**
+   * Moves a pending request to a new status with a conditional update, so that of several
+   * concurrent approvals, declines, cancellations and expiries exactly one takes effect. The check
+   * against the loaded entity only gives a friendlier message; the update is what decides.
+   *
+   * @param moneyRequest the request, loaded in the current transaction
+   * @param target the new status
+   * @throws BadRequestException if the request is no longer pending
+   */
+  private void transitionFromPending(
+      final MoneyRequest moneyRequest, final MoneyRequest.RequestStatus target) {
+    final int updated =
+        moneyRequestRepository.compareAndSetStatus(
+            moneyRequest.getId(), MoneyRequest.RequestStatus.PENDING, target, LocalDateTime.now());
+    if (updated == 0) {
+      throw new BadRequestException("This money request has already been processed");
+    }
+    moneyRequest.setStatus(target);
+    userPushService.moneyRequestChanged(moneyRequest);
   }
 
   @Transactional
@@ -171,19 +356,7 @@ public class MoneyRequestService {
     }
 
     // Update the money request status
-    moneyRequest.setStatus(MoneyRequest.RequestStatus.CANCELLED);
-    moneyRequestRepository.save(moneyRequest);
-  }
-
-  @Scheduled(cron = "0 0 0 * * ?") // Run every day at midnight
-  public void expireMoneyRequests() {
-    LocalDateTime now = LocalDateTime.now();
-    List<MoneyRequest> expiredRequests = moneyRequestRepository.findExpiredRequests(now);
-
-    for (MoneyRequest request : expiredRequests) {
-      request.setStatus(MoneyRequest.RequestStatus.EXPIRED);
-      moneyRequestRepository.save(request);
-    }
+    transitionFromPending(moneyRequest, MoneyRequest.RequestStatus.CANCELLED);
   }
 
   public List<MoneyRequest> getPendingRequestsForUser(User user) {
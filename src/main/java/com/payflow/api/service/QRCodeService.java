@@ -1,25 +1,47 @@
 package com.payflow.api.service;
 
-import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import com.payflow.api.event.QRPaymentCompletedEvent;
 import com.payflow.api.exception.BadRequestException;
 import com.payflow.api.exception.ResourceNotFoundException;
+import com.payflow.api.model.dto.response.QRPaymentResponse;
 import com.payflow.api.model.entity.QRCode;
 import com.payflow.api.model.entity.Transaction;
 import com.payflow.api.model.entity.User;
 import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.expiry.Expiration;
+import com.payflow.api.model.money.Money;
 import com.payflow.api.repository.QRCodeRepository;
-import java.io.ByteArrayOutputStream;
+import com.payflow.api.service.expiry.ExpirationScheduler;
+import com.payflow.api.service.qr.ActiveQRCode;
+import com.payflow.api.service.qr.ActiveQRCodeRegistry;
+import com.payflow.api.service.qr.QRBulkArchiveWriter;
+import com.payflow.api.service.qr.QRCodeExpirationHandler;
+import com.payflow.api.service.qr.QRImageCache;
+import com.payflow.api.service.qr.QRImageFormat;
+import com.payflow.api.service.qr.QRImagePrerenderer;
+import com.payflow.api.service.qr.QRImageRenderer;
+import com.payflow.api.service.qr.QRPayloadSigner;
+import com.payflow.api.service.qr.QRPaymentSubscriptions;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,15 +51,47 @@ import org.springframework.transaction.annotation.Transactional;
  * <p>This service handles the creation, retrieval, and processing of QR codes for wallet-to-wallet
  * payments. It also provides functionality for generating QR code images and managing QR code
  * lifecycle.
+ *
+ * <p>Payments are validated against the {@link ActiveQRCodeRegistry} rather than a fresh read of
+ * the code. The registry is loaded once the application is ready, reloaded on a fixed delay, and
+ * kept current as codes are created, deactivated and consumed. Codes with an expiry are handed to
+ * the {@link ExpirationScheduler}, which deactivates them in bulk through the {@link
+ * QRCodeExpirationHandler} once they run out.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class QRCodeService {
 
+  /** Image width and height in pixels used when a client does not ask for a size. */
+  public static final int DEFAULT_IMAGE_SIZE = 300;
+
+  /** Quiet zone width in modules used when a client does not ask for a margin. */
+  public static final int DEFAULT_IMAGE_MARGIN = 4;
+
+  private static final SortedSet<Integer> IMAGE_SIZES =
+      Collections.unmodifiableSortedSet(new TreeSet<>(Arrays.asList(128, 256, 300, 512, 1024)));
+  private static final SortedSet<Integer> IMAGE_MARGINS =
+      Collections.unmodifiableSortedSet(new TreeSet<>(Arrays.asList(0, 1, 2, 4)));
+
   private final QRCodeRepository qrCodeRepository;
   private final WalletService walletService;
   private final TransactionService transactionService;
+  private final QRImageCache qrImageCache;
+  private final QRImageRenderer qrImageRenderer;
+  private final QRImagePrerenderer qrImagePrerenderer;
+  private final ActiveQRCodeRegistry activeQRCodes;
+  private final QRPayloadSigner qrPayloadSigner;
+  private final QRBulkArchiveWriter qrBulkArchiveWriter;
+  private final ExpirationScheduler expirationScheduler;
+  private final QRPaymentSubscriptions qrPaymentSubscriptions;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @Value("${qr.bulk.max-count:5000}")
+  private int bulkMaxCount = 5_000;
+
+  @Value("${qr.image.prerender.sizes:300}")
+  private int[] prerenderSizes = {DEFAULT_IMAGE_SIZE};
 
   /**
    * Creates a new QR code for a wallet with specified parameters.
@@ -68,9 +122,126 @@ public class QRCodeService {
       throw new BadRequestException("You can only create QR codes for your own wallets");
     } // Create the QR code
     final QRCode qrCode =
-        new QRCode(wallet, amount, isAmountFixed, isOneTime, description, expiresAt);
+        new QRCode(wallet, Money.of(amount), isAmountFixed, isOneTime, description, expiresAt);
+
+    final QRCode savedQRCode = qrCodeRepository.save(qrCode);
+    activeQRCodes.registerAfterCommit(ActiveQRCode.from(savedQRCode));
+    if (expiresAt != null) {
+      expirationScheduler.scheduleAfterCommit(
+          new Expiration(
+              Expiration.QR_CODE, savedQRCode.getId(), savedQRCode.getQrId(), expiresAt));
+    }
+    qrImagePrerenderer.submitAfterCommit(() -> prerenderImages(savedQRCode));
+    return savedQRCode;
+  }
 
-    return qrCodeRepository.save(qrCode);
+  /**
+   * Creates a batch of one-time QR codes for a wallet with a single batched insert. The codes are
+   * not pre-rendered; their images are expected to be taken from {@link #writeQRCodeArchive}. Once
+   * the insert commits, the whole batch is registered as active and its expiries are scheduled
+   * together, as {@link #createWalletQRCode} does for a single code.
+   *
+   * @param user the user creating the QR codes
+   * @param walletNumber the wallet number for which to create the QR codes
+   * @param count how many codes to create
+   * @param amount the payment amount (can be null if not fixed)
+   * @param isAmountFixed whether the amount is fixed and cannot be changed
+   * @param description optional description shared by all codes
+   * @param expiresAt optional expiration date/time
+   * @return the created QR codes, with their database IDs and wallet set
+   * @throws BadRequestException if the wallet doesn't belong to the user or the count is out of
+   *     range
+   */
+  @Transactional
+  public List<QRCode> createBulkQRCodes(
+      final User user,
+      final String walletNumber,
+      final int count,
+      final BigDecimal amount,
+      final boolean isAmountFixed,
+      final String description,
+      final LocalDateTime expiresAt) {
+    if (count < 1 || count > bulkMaxCount) {
+      throw new BadRequestException("Count must be between 1 and " + bulkMaxCount);
+    }
+    final Wallet wallet = walletService.getWalletByNumber(walletNumber);
+
+    // Ensure the wallet belongs to the user
+    if (!wallet.getUser().getId().equals(user.getId())) {
+      throw new BadRequestException("You can only create QR codes for your own wallets");
+    }
+
+    final Money fixedAmount = Money.of(amount);
+    final LocalDateTime createdAt = LocalDateTime.now();
+    final List<QRCode> qrCodes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final QRCode qrCode =
+          new QRCode(
+              wallet, fixedAmount, isAmountFixed && amount != null, true, description, expiresAt);
+      qrCode.generateQrId();
+      qrCode.setCreatedAt(createdAt);
+      qrCodes.add(qrCode);
+    }
+    qrCodeRepository.insertAll(qrCodes);
+    final List<ActiveQRCode> active = new ArrayList<>(count);
+    final List<Expiration> expirations = new ArrayList<>(expiresAt == null ? 0 : count);
+    for (final QRCode qrCode : qrCodes) {
+      active.add(ActiveQRCode.from(qrCode));
+      if (expiresAt != null) {
+        expirations.add(
+            new Expiration(Expiration.QR_CODE, qrCode.getId(), qrCode.getQrId(), expiresAt));
+      }
+    }
+    activeQRCodes.registerAllAfterCommit(active);
+    expirationScheduler.scheduleAllAfterCommit(expirations);
+    log.info("Created {} one-time QR codes for wallet {}", count, walletNumber);
+    return qrCodes;
+  }
+
+  /**
+   * Checks that QR images can be rendered with the given options.
+   *
+   * @param format the image format
+   * @param size width and height in pixels
+   * @param margin quiet zone width in modules
+   * @throws BadRequestException if the size or margin is not supported
+   */
+  public void validateImageOptions(final QRImageFormat format, final int size, final int margin) {
+    imageVariant(format, size, margin);
+  }
+
+  /**
+   * Streams a ZIP archive with an image of each QR code and a manifest listing them.
+   *
+   * @param qrCodes the QR codes, with their wallets loaded
+   * @param format the image format
+   * @param size width and height in pixels
+   * @param margin quiet zone width in modules
+   * @param out where to write the archive
+   * @throws IOException if the archive cannot be written
+   * @throws BadRequestException if the size or margin is not supported
+   */
+  public void writeQRCodeArchive(
+      final List<QRCode> qrCodes,
+      final QRImageFormat format,
+      final int size,
+      final int margin,
+      final OutputStream out)
+      throws IOException {
+    imageVariant(format, size, margin);
+    qrBulkArchiveWriter.write(qrCodes, this::createQRCodeContent, format, size, margin, out);
+  }
+
+  /**
+   * Renders a new QR code's PNG at the commonly requested sizes into the image cache, so the first
+   * customer to scan it does not wait for the encode.
+   *
+   * @param qrCode the saved QR code, with its wallet loaded
+   */
+  private void prerenderImages(final QRCode qrCode) {
+    for (final int size : prerenderSizes) {
+      getQRCodeImage(qrCode, QRImageFormat.PNG, size, DEFAULT_IMAGE_MARGIN);
+    }
   }
 
   /**
@@ -126,6 +297,7 @@ public class QRCodeService {
    * @param qrId the QR code ID to process
    * @param amount the payment amount (ignored if QR code has fixed amount)
    * @param sourceWalletNumber the wallet number to send payment from
+   * @param quoteId FX quote to settle a cross-currency payment at, or {@code null}
    * @return the completed transaction
    * @throws BadRequestException if QR code is invalid or payment cannot be processed
    */
@@ -134,16 +306,12 @@ public class QRCodeService {
       final User sender,
       final String qrId,
       final BigDecimal amount,
-      final String sourceWalletNumber) {
-    final QRCode qrCode = getQRCodeByQrId(qrId);
-
-    // Ensure the QR code is active
-    if (!qrCode.isActive()) {
-      throw new BadRequestException("This QR code is no longer active");
-    }
+      final String sourceWalletNumber,
+      final String quoteId) {
+    final ActiveQRCode qrCode = getActiveQRCode(qrId);
 
     // Check expiration
-    if (qrCode.getExpiresAt() != null && qrCode.getExpiresAt().isBefore(LocalDateTime.now())) {
+    if (qrCode.isExpired(LocalDateTime.now())) {
       throw new BadRequestException("This QR code has expired");
     }
 
@@ -155,22 +323,34 @@ public class QRCodeService {
     }
 
     // Check if amount is fixed
-    BigDecimal paymentAmount = amount;
+    Money paymentAmount = Money.of(amount);
     if (qrCode.isAmountFixed()) {
       paymentAmount = qrCode.getAmount();
     }
 
     // Ensure the amount is positive
-    if (paymentAmount == null || paymentAmount.compareTo(BigDecimal.ZERO) <= 0) {
+    if (paymentAmount == null || !paymentAmount.isPositive()) {
       throw new BadRequestException("Payment amount must be positive");
     }
 
     // Check if the source wallet has enough balance
-    if (sourceWallet.getBalance().compareTo(paymentAmount) < 0) {
+    if (sourceWallet.getBalance().isLessThan(paymentAmount)) {
       throw new BadRequestException("Insufficient balance in source wallet");
     }
 
-    final Wallet destinationWallet = qrCode.getWallet();
+    // Claim a one-time code before any money moves, so concurrent payers cannot both use it. The
+    // claim rolls back with the payment, so the code only leaves the registry and the expiry wheel
+    // once the payment commits.
+    if (qrCode.isOneTime()) {
+      if (qrCodeRepository.deactivateIfActive(qrCode.getId()) != 1) {
+        activeQRCodes.remove(qrId);
+        throw new BadRequestException("This QR code is no longer active");
+      }
+      activeQRCodes.removeAfterCommit(qrId);
+      expirationScheduler.cancelAfterCommit(Expiration.QR_CODE, qrCode.getId());
+    }
+
+    final Wallet destinationWallet = walletService.getWalletById(qrCode.getWalletId());
 
     // Create transaction
     final Transaction transaction = new Transaction();
@@ -187,17 +367,64 @@ public class QRCodeService {
     transaction.setQrCodeId(qrCode.getQrId());
 
     final Transaction processedTransaction =
-        transactionService.processQRCodeTransaction(transaction);
+        transactionService.processQRCodeTransaction(transaction, quoteId);
 
-    // If it's a one-time QR code, deactivate it
     if (qrCode.isOneTime()) {
-      qrCode.setActive(false);
-      qrCodeRepository.save(qrCode);
+      qrImageCache.invalidate(qrCode.getQrId());
     }
+    eventPublisher.publishEvent(
+        new QRPaymentCompletedEvent(processedTransaction, qrCode.isOneTime()));
 
     return processedTransaction;
   }
 
+  /**
+   * Looks up a payable QR code in the registry, falling back to the database for codes this node
+   * does not hold yet.
+   *
+   * @param qrId the QR ID
+   * @return the active code
+   * @throws ResourceNotFoundException if no QR code found with the given QR ID
+   * @throws BadRequestException if the QR code has been deactivated
+   */
+  private ActiveQRCode getActiveQRCode(final String qrId) {
+    final ActiveQRCode cached = activeQRCodes.get(qrId);
+    if (cached != null) {
+      return cached;
+    }
+    final long stamp = activeQRCodes.stamp();
+    final QRCode qrCode = getQRCodeByQrId(qrId);
+    if (!qrCode.isActive()) {
+      throw new BadRequestException("This QR code is no longer active");
+    }
+    final ActiveQRCode activeQRCode = ActiveQRCode.from(qrCode);
+    activeQRCodes.register(activeQRCode, stamp);
+    return activeQRCode;
+  }
+
+  /** Loads the active QR code registry once the application is ready to serve traffic. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    reloadActiveQRCodes();
+  }
+
+  /**
+   * Reloads the active QR code registry from the database. This picks up codes deactivated or
+   * created through other nodes, which the registry is not told about directly.
+   */
+  @Scheduled(
+      fixedDelayString = "${qr.registry.reload-interval-ms:300000}",
+      initialDelayString = "${qr.registry.reload-interval-ms:300000}")
+  public void reloadActiveQRCodes() {
+    final long stamp = activeQRCodes.stamp();
+    final List<ActiveQRCode> codes =
+        qrCodeRepository.findAllActiveQRCodes().stream()
+            .map(ActiveQRCode::from)
+            .collect(Collectors.toList());
+    activeQRCodes.replaceAll(codes, stamp);
+    log.debug("Loaded {} active QR codes", codes.size());
+  }
+
   /**
    * Generates QR code image as base64 string.
    *
@@ -205,14 +432,6 @@ public class QRCodeService {
    * accessing wallet outside of a transaction. The readOnly=true flag optimizes database access for
    * better performance.
    *
-   * <p>In a production environment, consider adding caching to this method:
-   *
-   * <ul>
-   *   <li>Add a @Cacheable annotation with a TTL policy
-   *   <li>Implement a distributed cache like Redis for clustered environments
-   *   <li>Use a file-based cache for QR images to reduce CPU usage
-   * </ul>
-   *
    * @param qrId the QR ID to generate image for
    * @return base64 encoded QR code image
    * @throws ResourceNotFoundException if QR code not found
@@ -220,94 +439,106 @@ public class QRCodeService {
    */
   @Transactional(readOnly = true)
   public String generateQRCodeImage(final String qrId) {
-    log.info("Generating QR code image for qrId: {}", qrId);
-    try {
-      final QRCode qrCode =
-          qrCodeRepository
-              .findByQrIdWithWallet(qrId)
-              .orElseThrow(
-                  () -> {
-                    log.warn("QR code not found with qrId: {}", qrId);
-                    return new ResourceNotFoundException("QRCode", "qrId", qrId);
-                  });
-
-      // Force initialization of the wallet entity to avoid
-      // LazyInitializationException
-      if (qrCode.getWallet() != null) {
-        final String walletNumber = qrCode.getWallet().getWalletNumber(); // Force initialization
-        log.debug("Successfully initialized wallet {} for QR code: {}", walletNumber, qrId);
-      } else {
-        log.warn("Wallet is null for QR code: {}", qrId);
-      }
+    log.debug("Generating QR code image for qrId: {}", qrId);
+    final QRCode qrCode =
+        qrCodeRepository
+            .findByQrIdWithWallet(qrId)
+            .orElseThrow(
+                () -> {
+                  log.warn("QR code not found with qrId: {}", qrId);
+                  return new ResourceNotFoundException("QRCode", "qrId", qrId);
+                });
+    final byte[] qrCodeBytes =
+        getQRCodeImage(qrCode, QRImageFormat.PNG, DEFAULT_IMAGE_SIZE, DEFAULT_IMAGE_MARGIN);
+    return Base64.getEncoder().encodeToString(qrCodeBytes);
+  }
 
-      // Create the content for the QR code
-      final String qrContent = createQRCodeContent(qrCode);
-      log.debug("Generated QR content for qrId: {}", qrId);
+  /**
+   * Returns a tag that identifies the exact bytes {@link #getQRCodeImage} produces for the same
+   * arguments, without rendering anything. It changes whenever the encoded content, the rendering
+   * options or the renderer itself change, so it can be used as a strong HTTP entity tag.
+   *
+   * @param qrCode the QR code, with its wallet loaded
+   * @param format the image format
+   * @param size width and height in pixels
+   * @param margin quiet zone width in modules
+   * @return the image tag
+   * @throws BadRequestException if the size or margin is not supported
+   */
+  public String getQRCodeImageTag(
+      final QRCode qrCode, final QRImageFormat format, final int size, final int margin) {
+    return QRImageCache.contentHash(createQRCodeContent(qrCode))
+        + '-'
+        + imageVariant(format, size, margin);
+  }
 
-      // Generate the QR code
-      final QRCodeWriter qrCodeWriter = new QRCodeWriter();
-      final BitMatrix bitMatrix = qrCodeWriter.encode(qrContent, BarcodeFormat.QR_CODE, 300, 300);
+  /**
+   * Renders a QR code image, serving it from the {@link QRImageCache} when possible.
+   *
+   * @param qrCode the QR code, with its wallet loaded
+   * @param format the image format
+   * @param size width and height in pixels
+   * @param margin quiet zone width in modules
+   * @return the encoded image
+   * @throws BadRequestException if the size or margin is not supported or rendering fails
+   */
+  public byte[] getQRCodeImage(
+      final QRCode qrCode, final QRImageFormat format, final int size, final int margin) {
+    final String variant = imageVariant(format, size, margin);
+    final String qrContent = createQRCodeContent(qrCode);
+    return qrImageCache.get(
+        qrCode.getQrId(),
+        QRImageCache.contentHash(qrContent),
+        variant,
+        () -> renderImage(qrCode.getQrId(), qrContent, format, size, margin));
+  }
 
-      // Convert to an image
-      final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-      MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-      final byte[] qrCodeBytes = outputStream.toByteArray();
+  /**
+   * Validates rendering options and names the cache variant they produce. Only a small set of sizes
+   * and margins is accepted so that clients share cache entries.
+   */
+  private static String imageVariant(final QRImageFormat format, final int size, final int margin) {
+    if (!IMAGE_SIZES.contains(size)) {
+      throw new BadRequestException(
+          "Unsupported QR image size " + size + "; use one of " + IMAGE_SIZES);
+    }
+    if (!IMAGE_MARGINS.contains(margin)) {
+      throw new BadRequestException(
+          "Unsupported QR image margin " + margin + "; use one of " + IMAGE_MARGINS);
+    }
+    return QRImageRenderer.VERSION + '-' + format.getExtension() + '-' + size + '-' + margin;
+  }
 
-      // Return as base64 string
-      return Base64.getEncoder().encodeToString(qrCodeBytes);
-    } catch (final ResourceNotFoundException e) {
-      log.error("QR code not found: {}", qrId, e);
-      throw e;
+  private byte[] renderImage(
+      final String qrId,
+      final String qrContent,
+      final QRImageFormat format,
+      final int size,
+      final int margin) {
+    try {
+      return qrImageRenderer.render(qrContent, format, size, margin);
     } catch (final WriterException e) {
       log.error("Error encoding QR code: {}", qrId, e);
       throw new BadRequestException("Failed to generate QR code image: " + e.getMessage());
-    } catch (final IOException e) {
-      log.error("I/O error generating QR code image: {}", qrId, e);
-      throw new BadRequestException("Failed to generate QR code image: " + e.getMessage());
-    } catch (final Exception e) {
+    } catch (final RuntimeException e) {
       log.error("Unexpected error generating QR code image: {}", qrId, e);
       throw new BadRequestException("Failed to generate QR code image: " + e.getMessage());
     }
   }
 
   /**
-   * Creates QR code content with proper URL encoding.
+   * Creates the signed payload encoded in a QR code image.
    *
-   * @param qrCode the QR code entity
-   * @return formatted QR code content string
-   * @throws BadRequestException if content creation fails
+   * @param qrCode the QR code entity, with its wallet loaded
+   * @return the signed payload
+   * @throws BadRequestException if the QR code has no wallet
    */
   private String createQRCodeContent(final QRCode qrCode) {
-    try {
-      final StringBuilder content = new StringBuilder();
-      content.append("payflow://payment?");
-      content.append("qr_id=").append(qrCode.getQrId());
-
-      // Check if wallet is not null before accessing
-      if (qrCode.getWallet() != null) {
-        content.append("&wallet=").append(qrCode.getWallet().getWalletNumber());
-        content.append("&currency=").append(qrCode.getWallet().getCurrency());
-      } else {
-        log.warn("QR code {} has null wallet", qrCode.getQrId());
-        throw new BadRequestException("Invalid QR code: missing wallet information");
-      }
-
-      if (qrCode.isAmountFixed() && qrCode.getAmount() != null) {
-        content.append("&amount=").append(qrCode.getAmount());
-      }
-
-      if (qrCode.getDescription() != null && !qrCode.getDescription().isEmpty()) {
-        // URL encode the description to handle special characters
-        final String encodedDescription =
-            java.net.URLEncoder.encode(qrCode.getDescription(), "UTF-8");
-        content.append("&description=").append(encodedDescription);
-      }
-
-      return content.toString();
-    } catch (final Exception e) {
-      log.error("Error creating QR code content for QR ID: {}", qrCode.getQrId(), e);
-      throw new BadRequestException("Failed to create QR code content: " + e.getMessage());
+    if (qrCode.getWallet() == null) {
+      log.warn("QR code {} has null wallet", qrCode.getQrId());
+      throw new BadRequestException("Invalid QR code: missing wallet information");
     }
+    return qrPayloadSigner.sign(qrCode);
   }
 
   /**
@@ -329,6 +560,32 @@ public class QRCodeService {
 
     qrCode.setActive(false);
     qrCodeRepository.save(qrCode);
+    activeQRCodes.removeAfterCommit(qrId);
+    expirationScheduler.cancelAfterCommit(Expiration.QR_CODE, qrCode.getId());
+    qrImageCache.invalidate(qrId);
+    qrPaymentSubscriptions.publishAfterCommit(
+        QRPaymentResponse.closed(qrId, QRPaymentResponse.Status.DEACTIVATED), true);
+  }
+
+  /**
+   * Checks that a user may watch the payments made on a QR code: the code must be theirs and still
+   * active.
+   *
+   * @param userId the watching user
+   * @param qrId the QR ID
+   * @throws ResourceNotFoundException if no QR code found with the given QR ID
+   * @throws BadRequestException if the code is not the user's or is no longer active
+   */
+  @Transactional(readOnly = true)
+  public void checkPaymentWatcher(final Long userId, final String qrId) {
+    final QRCode qrCode = getQRCodeByQrId(qrId);
+    if (!qrCode.getWallet().getUser().getId().equals(userId)) {
+      throw new BadRequestException("You can only watch payments on your own QR codes");
+    }
+    if (!qrCode.isActive()
+        || (qrCode.getExpiresAt() != null && qrCode.getExpiresAt().isBefore(LocalDateTime.now()))) {
+      throw new BadRequestException("This QR code is no longer active");
+    }
   }
 
   /**
@@ -1,30 +1,53 @@
 package com.payflow.api.service;
 
+import com.payflow.api.event.TransactionCompletedEvent;
 import com.payflow.api.exception.BadRequestException;
 import com.payflow.api.exception.InsufficientFundsException;
 import com.payflow.api.exception.PayflowApiException;
 import com.payflow.api.exception.ResourceNotFoundException;
+import com.payflow.api.metrics.OperationTimer;
 import com.payflow.api.model.dto.request.TransactionRequest;
 import com.payflow.api.model.entity.MoneyRequest;
 import com.payflow.api.model.entity.Transaction;
 import com.payflow.api.model.entity.User;
 import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
 import com.payflow.api.repository.TransactionRepository;
 import com.payflow.api.repository.WalletRepository;
 import com.payflow.api.repository.projection.TransactionSummary;
+import com.payflow.api.service.fx.FxQuote;
+import com.payflow.api.service.fx.FxRateSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
-/** Service for handling all transaction-related operations */
+/**
+ * Service for handling all transaction-related operations. Balances and amounts are handled as
+ * fixed-point {@link Money}, so balance checks and updates on the transfer path are long
+ * arithmetic.
+ *
+ * <p>Each operation publishes a {@link TransactionCompletedEvent} for the transaction it saved.
+ * Side effects such as pushing the change to the users' clients are left to the handlers of the
+ * {@link com.payflow.api.event.DomainEventBus}, which run once the transaction has committed.
+ *
+ * <p>Every operation is timed into {@code transaction.operation}, tagged with the operation and its
+ * outcome ({@code success}, {@code insufficient_funds}, {@code not_found}, {@code rejected} or
+ * {@code error}). The time is measured inside the transaction, so it excludes the commit. Time
+ * spent waiting for the row locks of the wallets a payment touches is published as {@code
+ * wallet.lock.wait} and exchange rate and quote lookups as {@code fx.lookup}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -32,7 +55,36 @@ public class TransactionService {
 
   private final TransactionRepository transactionRepository;
   private final ExchangeRateService exchangeRateService;
+  private final FxQuoteService fxQuoteService;
   private final WalletRepository walletRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final MeterRegistry meterRegistry;
+
+  private OperationTimer operations;
+  private Timer walletLockTimer;
+  private Timer spotLookupTimer;
+  private Timer quoteLookupTimer;
+
+  /** Registers the timers. */
+  @PostConstruct
+  public void registerMetrics() {
+    operations =
+        new OperationTimer(
+            meterRegistry, "transaction.operation", "Time taken by transaction service operations");
+    walletLockTimer =
+        Timer.builder("wallet.lock.wait")
+            .description("Time spent waiting for a wallet row lock")
+            .register(meterRegistry);
+    spotLookupTimer = fxLookupTimer("spot");
+    quoteLookupTimer = fxLookupTimer("quote");
+  }
+
+  private Timer fxLookupTimer(final String kind) {
+    return Timer.builder("fx.lookup")
+        .description("Time taken to look up an exchange rate or redeem a quote for a payment")
+        .tag("kind", kind)
+        .register(meterRegistry);
+  }
 
   /**
    * Generic method to create a transaction. This can be used by other services or specific
@@ -56,7 +108,27 @@ public class TransactionService {
       final Wallet.Currency destinationCurrency,
       final Transaction.TransactionType type,
       final String description) {
+    return operations.record(
+        "create",
+        () ->
+            create(
+                sourceWallet,
+                destinationWallet,
+                amount,
+                sourceCurrency,
+                destinationCurrency,
+                type,
+                description));
+  }
 
+  private Transaction create(
+      final Wallet sourceWallet,
+      final Wallet destinationWallet,
+      final BigDecimal amount,
+      final Wallet.Currency sourceCurrency,
+      final Wallet.Currency destinationCurrency,
+      final Transaction.TransactionType type,
+      final String description) {
     log.info("Creating transaction of type {} for amount {}", type, amount);
 
     try {
@@ -68,7 +140,7 @@ public class TransactionService {
       transaction.setReceiver(receiver);
       transaction.setSourceWallet(sourceWallet);
       transaction.setDestinationWallet(destinationWallet);
-      transaction.setAmount(amount);
+      transaction.setAmount(Money.of(amount));
       transaction.setSourceCurrency(sourceCurrency);
       transaction.setDestinationCurrency(destinationCurrency);
       transaction.setType(type);
@@ -80,9 +152,13 @@ public class TransactionService {
       if (sourceWallet != null
           && destinationWallet != null
           && !sourceCurrency.equals(destinationCurrency)) {
+        final long lookupStartedAt = System.nanoTime();
+        final FxRateSnapshot rates = exchangeRateService.getRateSnapshot();
         BigDecimal exchangeRate =
-            exchangeRateService.getExchangeRate(sourceCurrency, destinationCurrency);
+            exchangeRateService.getExchangeRate(rates, sourceCurrency, destinationCurrency);
+        spotLookupTimer.record(System.nanoTime() - lookupStartedAt, TimeUnit.NANOSECONDS);
         transaction.setExchangeRate(exchangeRate);
+        transaction.setExchangeRateVersion(rates.getVersion());
         log.debug(
             "Applied exchange rate of {} from {} to {}",
             exchangeRate,
@@ -92,6 +168,7 @@ public class TransactionService {
 
       Transaction savedTransaction = transactionRepository.save(transaction);
       log.info("Successfully created transaction with ID: {}", savedTransaction.getId());
+      eventPublisher.publishEvent(TransactionCompletedEvent.of(savedTransaction));
       return savedTransaction;
     } catch (Exception e) {
       log.error("Error creating transaction: {}", e.getMessage(), e);
@@ -109,30 +186,37 @@ public class TransactionService {
    */
   @Transactional
   public Transaction createDepositTransaction(final Wallet wallet, final BigDecimal amount) {
+    return operations.record("deposit", () -> deposit(wallet, amount));
+  }
+
+  private Transaction deposit(final Wallet wallet, final BigDecimal amount) {
     log.info(
         "Creating deposit transaction for wallet {} with amount {}",
         wallet.getWalletNumber(),
         amount);
 
+    lock(wallet);
     try {
       User user = wallet.getUser();
+      final Money depositAmount = Money.of(amount);
 
       Transaction transaction = new Transaction();
       transaction.setSender(user);
       transaction.setReceiver(user);
       transaction.setSourceWallet(wallet);
       transaction.setDestinationWallet(wallet);
-      transaction.setAmount(amount);
+      transaction.setAmount(depositAmount);
       transaction.setSourceCurrency(wallet.getCurrency());
       transaction.setDestinationCurrency(wallet.getCurrency());
       transaction.setType(Transaction.TransactionType.DEPOSIT);
       transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
       transaction.setDescription("Deposit to wallet " + wallet.getWalletNumber());
-      wallet.setBalance(wallet.getBalance().add(amount));
+      wallet.setBalance(wallet.getBalance().plus(depositAmount));
       walletRepository.save(wallet);
 
       Transaction savedTransaction = transactionRepository.save(transaction);
       log.info("Successfully created deposit transaction with ID: {}", savedTransaction.getId());
+      eventPublisher.publishEvent(TransactionCompletedEvent.of(savedTransaction));
       return savedTransaction;
 
     } catch (Exception e) {
@@ -150,10 +234,15 @@ public class TransactionService {
    * @throws ResourceNotFoundException If source or destination wallet not found
    * @throws BadRequestException If sender doesn't own source wallet
    * @throws InsufficientFundsException If source wallet has insufficient balance
+   * @throws BadRequestException If {@code request.quoteId} cannot be redeemed for this transfer
    */
-  @Transactional(isolation = Isolation.REPEATABLE_READ)
+  @Transactional
   public Transaction createTransferTransaction(
       final User sender, final TransactionRequest request) {
+    return operations.record("transfer", () -> transfer(sender, request));
+  }
+
+  private Transaction transfer(final User sender, final TransactionRequest request) {
     log.info(
         "Creating transfer transaction from {} to {} with amount {}",
         request.getSourceWalletNumber(),
@@ -161,7 +250,7 @@ public class TransactionService {
         request.getAmount());
     Wallet sourceWallet =
         walletRepository
-            .findByWalletNumberWithLock(request.getSourceWalletNumber())
+            .findByWalletNumber(request.getSourceWalletNumber())
             .orElseThrow(
                 () -> {
                   log.error("Source wallet not found: {}", request.getSourceWalletNumber());
@@ -179,6 +268,7 @@ public class TransactionService {
                   return new ResourceNotFoundException(
                       "Wallet", "walletNumber", request.getDestinationWalletNumber());
                 });
+    lock(sourceWallet, destinationWallet);
 
     if (!sourceWallet.getUser().getId().equals(sender.getId())) {
       log.error(
@@ -188,25 +278,26 @@ public class TransactionService {
       throw new BadRequestException("You can only send money from your own wallet");
     }
 
-    if (sourceWallet.getBalance().compareTo(request.getAmount()) < 0) {
+    final Money amount = Money.of(request.getAmount());
+    if (sourceWallet.getBalance().isLessThan(amount)) {
       log.error(
           "Insufficient balance in wallet {}: requested {} but available {}",
           sourceWallet.getId(),
-          request.getAmount(),
+          amount,
           sourceWallet.getBalance());
-      throw new InsufficientFundsException(sourceWallet.getBalance(), request.getAmount());
+      throw new InsufficientFundsException(sourceWallet.getBalance(), amount);
     }
+    final FxQuote quote =
+        resolveQuote(request.getQuoteId(), sender.getId(), sourceWallet, destinationWallet, amount);
     try {
       BigDecimal exchangeRate = BigDecimal.ONE;
-      BigDecimal convertedAmount = request.getAmount();
-
-      if (!sourceWallet.getCurrency().equals(destinationWallet.getCurrency())) {
-        exchangeRate =
-            exchangeRateService.getExchangeRate(
-                sourceWallet.getCurrency(), destinationWallet.getCurrency());
-        convertedAmount =
-            exchangeRateService.convertCurrency(
-                request.getAmount(), sourceWallet.getCurrency(), destinationWallet.getCurrency());
+      Money convertedAmount = amount;
+      Long exchangeRateVersion = null;
+
+      if (quote != null) {
+        exchangeRate = quote.getRate();
+        convertedAmount = quote.getConvertedAmount();
+        exchangeRateVersion = quote.getRateVersion();
         log.debug(
             "Applied exchange rate of {} from {} to {}, converted amount: {}",
             exchangeRate,
@@ -220,23 +311,25 @@ public class TransactionService {
       transaction.setReceiver(destinationWallet.getUser());
       transaction.setSourceWallet(sourceWallet);
       transaction.setDestinationWallet(destinationWallet);
-      transaction.setAmount(request.getAmount());
+      transaction.setAmount(amount);
       transaction.setSourceCurrency(sourceWallet.getCurrency());
       transaction.setDestinationCurrency(destinationWallet.getCurrency());
       transaction.setType(Transaction.TransactionType.TRANSFER);
       transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
       transaction.setDescription(request.getDescription());
       transaction.setExchangeRate(exchangeRate);
+      transaction.setExchangeRateVersion(exchangeRateVersion);
 
       Transaction savedTransaction = transactionRepository.save(transaction);
 
-      sourceWallet.setBalance(sourceWallet.getBalance().subtract(request.getAmount()));
-      destinationWallet.setBalance(destinationWallet.getBalance().add(convertedAmount));
+      sourceWallet.setBalance(sourceWallet.getBalance().minus(amount));
+      destinationWallet.setBalance(destinationWallet.getBalance().plus(convertedAmount));
 
       walletRepository.save(sourceWallet);
       walletRepository.save(destinationWallet);
 
       log.info("Successfully created transfer transaction with ID: {}", savedTransaction.getId());
+      eventPublisher.publishEvent(TransactionCompletedEvent.of(savedTransaction));
       return savedTransaction;
 
     } catch (Exception e) {
@@ -246,16 +339,25 @@ public class TransactionService {
   }
 
   /**
-   * Creates a transaction for money request payment.
+   * Creates a transaction for money request payment, settling any currency conversion at a
+   * previously locked quote if one is given.
    *
    * @param moneyRequest Money request to pay
    * @param sourceWallet Wallet to pay from
+   * @param quoteId FX quote to settle at, or {@code null} to use the current rate
    * @return Created transaction entity
    * @throws InsufficientFundsException If source wallet has insufficient balance
+   * @throws BadRequestException If the quote cannot be redeemed for this payment
    */
-  @Transactional(isolation = Isolation.REPEATABLE_READ)
+  @Transactional
   public Transaction createMoneyRequestTransaction(
-      final MoneyRequest moneyRequest, final Wallet sourceWallet) {
+      final MoneyRequest moneyRequest, final Wallet sourceWallet, final String quoteId) {
+    return operations.record(
+        "money_request_payment", () -> payMoneyRequest(moneyRequest, sourceWallet, quoteId));
+  }
+
+  private Transaction payMoneyRequest(
+      final MoneyRequest moneyRequest, final Wallet sourceWallet, final String quoteId) {
     log.info(
         "Processing money request payment from wallet {} for request ID {}",
         sourceWallet.getWalletNumber(),
@@ -264,10 +366,11 @@ public class TransactionService {
     User sender = sourceWallet.getUser();
     User receiver = moneyRequest.getRequester();
     Wallet destinationWallet = moneyRequest.getRequestWallet();
-    BigDecimal amount = moneyRequest.getAmount();
+    Money amount = moneyRequest.getAmount();
+    lock(sourceWallet, destinationWallet);
 
     // Check if source wallet has enough balance
-    if (sourceWallet.getBalance().compareTo(amount) < 0) {
+    if (sourceWallet.getBalance().isLessThan(amount)) {
       log.error(
           "Insufficient balance in wallet {}: requested {} but available {}",
           sourceWallet.getId(),
@@ -275,17 +378,17 @@ public class TransactionService {
           sourceWallet.getBalance());
       throw new InsufficientFundsException(sourceWallet.getBalance(), amount);
     }
+    final FxQuote quote =
+        resolveQuote(quoteId, sender.getId(), sourceWallet, destinationWallet, amount);
     try {
       BigDecimal exchangeRate = BigDecimal.ONE;
-      BigDecimal convertedAmount = amount;
-
-      if (!sourceWallet.getCurrency().equals(destinationWallet.getCurrency())) {
-        exchangeRate =
-            exchangeRateService.getExchangeRate(
-                sourceWallet.getCurrency(), destinationWallet.getCurrency());
-        convertedAmount =
-            exchangeRateService.convertCurrency(
-                amount, sourceWallet.getCurrency(), destinationWallet.getCurrency());
+      Money convertedAmount = amount;
+      Long exchangeRateVersion = null;
+
+      if (quote != null) {
+        exchangeRate = quote.getRate();
+        convertedAmount = quote.getConvertedAmount();
+        exchangeRateVersion = quote.getRateVersion();
         log.debug(
             "Applied exchange rate of {} from {} to {}, converted amount: {}",
             exchangeRate,
@@ -306,18 +409,20 @@ public class TransactionService {
       transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
       transaction.setDescription("Payment for request: " + moneyRequest.getDescription());
       transaction.setExchangeRate(exchangeRate);
+      transaction.setExchangeRateVersion(exchangeRateVersion);
       transaction.setMoneyRequest(moneyRequest);
 
       Transaction savedTransaction = transactionRepository.save(transaction);
 
-      sourceWallet.setBalance(sourceWallet.getBalance().subtract(amount));
-      destinationWallet.setBalance(destinationWallet.getBalance().add(convertedAmount));
+      sourceWallet.setBalance(sourceWallet.getBalance().minus(amount));
+      destinationWallet.setBalance(destinationWallet.getBalance().plus(convertedAmount));
 
       walletRepository.save(sourceWallet);
       walletRepository.save(destinationWallet);
 
       log.info(
           "Successfully created money request transaction with ID: {}", savedTransaction.getId());
+      eventPublisher.publishEvent(TransactionCompletedEvent.of(savedTransaction));
       return savedTransaction;
 
     } catch (Exception e) {
@@ -327,13 +432,21 @@ public class TransactionService {
   }
 
   /**
-   * Processes a QR code transaction.
+   * Processes a QR code transaction, settling any currency conversion at a previously locked quote
+   * if one is given. No event is published; the caller knows the code, so it publishes the {@link
+   * com.payflow.api.event.QRPaymentCompletedEvent}.
    *
    * @param transaction Prepared transaction entity
+   * @param quoteId FX quote to settle at, or {@code null} to use the current rate
    * @return Processed transaction entity
+   * @throws BadRequestException If the quote cannot be redeemed for this payment
    */
-  @Transactional(isolation = Isolation.REPEATABLE_READ)
-  public Transaction processQRCodeTransaction(final Transaction transaction) {
+  @Transactional
+  public Transaction processQRCodeTransaction(final Transaction transaction, final String quoteId) {
+    return operations.record("qr_payment", () -> payQRCode(transaction, quoteId));
+  }
+
+  private Transaction payQRCode(final Transaction transaction, final String quoteId) {
     log.info(
         "Processing QR code transaction between wallets {} and {}",
         transaction.getSourceWallet().getWalletNumber(),
@@ -341,10 +454,11 @@ public class TransactionService {
 
     Wallet sourceWallet = transaction.getSourceWallet();
     Wallet destinationWallet = transaction.getDestinationWallet();
-    BigDecimal amount = transaction.getAmount();
+    Money amount = transaction.getAmount();
+    lock(sourceWallet, destinationWallet);
 
     // Check if source wallet has enough balance
-    if (sourceWallet.getBalance().compareTo(amount) < 0) {
+    if (sourceWallet.getBalance().isLessThan(amount)) {
       log.error(
           "Insufficient balance in wallet {}: requested {} but available {}",
           sourceWallet.getId(),
@@ -352,20 +466,19 @@ public class TransactionService {
           sourceWallet.getBalance());
       throw new InsufficientFundsException(sourceWallet.getBalance(), amount);
     }
+    final FxQuote quote =
+        resolveQuote(
+            quoteId, sourceWallet.getUser().getId(), sourceWallet, destinationWallet, amount);
     try {
-      BigDecimal convertedAmount = amount;
+      Money convertedAmount = amount;
 
-      if (!sourceWallet.getCurrency().equals(destinationWallet.getCurrency())) {
-        BigDecimal exchangeRate =
-            exchangeRateService.getExchangeRate(
-                sourceWallet.getCurrency(), destinationWallet.getCurrency());
-        convertedAmount =
-            exchangeRateService.convertCurrency(
-                amount, sourceWallet.getCurrency(), destinationWallet.getCurrency());
-        transaction.setExchangeRate(exchangeRate);
+      if (quote != null) {
+        convertedAmount = quote.getConvertedAmount();
+        transaction.setExchangeRate(quote.getRate());
+        transaction.setExchangeRateVersion(quote.getRateVersion());
         log.debug(
             "Applied exchange rate of {} from {} to {}, converted amount: {}",
-            exchangeRate,
+            quote.getRate(),
             sourceWallet.getCurrency(),
             destinationWallet.getCurrency(),
             convertedAmount);
@@ -373,8 +486,8 @@ public class TransactionService {
 
       Transaction savedTransaction = transactionRepository.save(transaction);
 
-      sourceWallet.setBalance(sourceWallet.getBalance().subtract(amount));
-      destinationWallet.setBalance(destinationWallet.getBalance().add(convertedAmount));
+      sourceWallet.setBalance(sourceWallet.getBalance().minus(amount));
+      destinationWallet.setBalance(destinationWallet.getBalance().plus(convertedAmount));
 
       walletRepository.save(sourceWallet);
       walletRepository.save(destinationWallet);
@@ -388,6 +501,50 @@ public class TransactionService {
     }
   }
 
+  /**
+   * Locks the wallets a payment moves money between and reloads their balances, timing the wait
+   * into {@code wallet.lock.wait}. Every balance change goes through here before it reads a
+   * balance, and the locks are always taken in the same order, so concurrent payments neither
+   * overwrite each other's balances nor deadlock.
+   *
+   * @param wallets the wallets to lock
+   */
+  private void lock(final Wallet... wallets) {
+    final long startedAt = System.nanoTime();
+    walletRepository.lockForUpdate(wallets);
+    walletLockTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Resolves the FX quote a payment between two wallets settles at. Same-currency payments need no
+   * conversion, so any quote id passed with them is ignored.
+   *
+   * @param quoteId the locked quote, or {@code null} for the current rate
+   * @param userId the paying user
+   * @param sourceWallet the paying wallet
+   * @param destinationWallet the receiving wallet
+   * @param amount the amount debited from the source wallet
+   * @return the quote to settle at, or {@code null} if no conversion is needed
+   */
+  private FxQuote resolveQuote(
+      final String quoteId,
+      final Long userId,
+      final Wallet sourceWallet,
+      final Wallet destinationWallet,
+      final Money amount) {
+    if (sourceWallet.getCurrency() == destinationWallet.getCurrency()) {
+      return null;
+    }
+    final Timer timer = quoteId == null || quoteId.isEmpty() ? spotLookupTimer : quoteLookupTimer;
+    final long startedAt = System.nanoTime();
+    try {
+      return fxQuoteService.resolve(
+          quoteId, userId, sourceWallet.getCurrency(), destinationWallet.getCurrency(), amount);
+    } finally {
+      timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
   /**
    * Retrieves a transaction by its ID.
    *
@@ -398,13 +555,16 @@ public class TransactionService {
   @Transactional(readOnly = true)
   public Transaction getTransactionById(final Long id) {
     log.debug("Retrieving transaction with ID: {}", id);
-    return transactionRepository
-        .findById(id)
-        .orElseThrow(
-            () -> {
-              log.error("Transaction not found with ID: {}", id);
-              return new ResourceNotFoundException("Transaction", "id", id);
-            });
+    return operations.record(
+        "get_by_id",
+        () ->
+            transactionRepository
+                .findById(id)
+                .orElseThrow(
+                    () -> {
+                      log.error("Transaction not found with ID: {}", id);
+                      return new ResourceNotFoundException("Transaction", "id", id);
+                    }));
   }
 
   /**
@@ -417,14 +577,17 @@ public class TransactionService {
   @Transactional(readOnly = true)
   public Transaction getTransactionByNumber(final String transactionNumber) {
     log.debug("Retrieving transaction with number: {}", transactionNumber);
-    return transactionRepository
-        .findByTransactionNumber(transactionNumber)
-        .orElseThrow(
-            () -> {
-              log.error("Transaction not found with number: {}", transactionNumber);
-              return new ResourceNotFoundException(
-                  "Transaction", "transactionNumber", transactionNumber);
-            });
+    return operations.record(
+        "get_by_number",
+        () ->
+            transactionRepository
+                .findByTransactionNumber(transactionNumber)
+                .orElseThrow(
+                    () -> {
+                      log.error("Transaction not found with number: {}", transactionNumber);
+                      return new ResourceNotFoundException(
+                          "Transaction", "transactionNumber", transactionNumber);
+                    }));
   }
 
   /**
@@ -437,7 +600,9 @@ public class TransactionService {
   @Transactional(readOnly = true)
   public Page<Transaction> getUserTransactions(final User user, final Pageable pageable) {
     log.debug("Retrieving transactions for user ID: {}", user.getId());
-    return transactionRepository.findBySenderOrReceiverOrderByCreatedAtDesc(user, pageable);
+    return operations.record(
+        "user_history",
+        () -> transactionRepository.findBySenderOrReceiverOrderByCreatedAtDesc(user, pageable));
   }
 
   /**
@@ -451,13 +616,17 @@ public class TransactionService {
   public Page<TransactionSummary> getUserTransactionSummaries(
       final User user, final Pageable pageable) {
     log.debug("Retrieving transaction summaries for user ID: {}", user.getId());
-    return transactionRepository.findSummariesByUserId(user.getId(), pageable);
+    return operations.record(
+        "user_summaries",
+        () -> transactionRepository.findSummariesByUserId(user.getId(), pageable));
   }
 
   @Transactional(readOnly = true)
   public Page<Transaction> getWalletTransactions(final Wallet wallet, final Pageable pageable) {
     log.debug("Retrieving transactions for wallet ID: {}", wallet.getId());
-    return transactionRepository.findByWalletOrderByCreatedAtDesc(wallet, pageable);
+    return operations.record(
+        "wallet_history",
+        () -> transactionRepository.findByWalletOrderByCreatedAtDesc(wallet, pageable));
   }
 
   @Transactional(readOnly = true)
@@ -468,6 +637,7 @@ public class TransactionService {
         user.getId(),
         startDate,
         endDate);
-    return transactionRepository.findByUserAndDateRange(user, startDate, endDate);
+    return operations.record(
+        "date_range", () -> transactionRepository.findByUserAndDateRange(user, startDate, endDate));
   }
 }
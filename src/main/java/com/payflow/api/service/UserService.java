@@ -5,6 +5,10 @@ import com.payflow.api.exception.ResourceNotFoundException;
 import com.payflow.api.model.dto.request.SignUpRequest;
 import com.payflow.api.model.entity.User;
 import com.payflow.api.repository.UserRepository;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -48,6 +52,29 @@ public class UserService {
         .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
   }
 
+  /**
+   * Looks up several users by email with a single query.
+   *
+   * @param emails the email addresses
+   * @return the users keyed by email, in the order of {@code emails}
+   * @throws ResourceNotFoundException if any of the addresses has no user
+   */
+  public Map<String, User> getUsersByEmails(final Collection<String> emails) {
+    final Map<String, User> found = new HashMap<>();
+    for (final User user : userRepository.findByEmailIn(emails)) {
+      found.put(user.getEmail(), user);
+    }
+    final Map<String, User> users = new LinkedHashMap<>();
+    for (final String email : emails) {
+      final User user = found.get(email);
+      if (user == null) {
+        throw new ResourceNotFoundException("User", "email", email);
+      }
+      users.put(email, user);
+    }
+    return users;
+  }
+
   public boolean existsByEmail(final String email) {
     return userRepository.existsByEmail(email);
   }
@@ -7,6 +7,7 @@ import com.payflow.api.model.dto.request.WalletRequest;
 import com.payflow.api.model.entity.Transaction;
 import com.payflow.api.model.entity.User;
 import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
 import com.payflow.api.repository.WalletRepository;
 import java.math.BigDecimal;
 import java.util.List;
@@ -56,7 +57,8 @@ public class WalletService {
    *
    * @param user the user to create wallet for
    * @param currency the wallet currency
-   * @param initialBalance the initial balance * @return the created wallet
+   * @param initialBalance the initial balance, credited through a deposit transaction
+   * @return the created wallet
    */
   @Transactional
   public Wallet createWallet(
@@ -64,7 +66,7 @@ public class WalletService {
     final Wallet wallet = new Wallet();
     wallet.setUser(user);
     wallet.setCurrency(currency);
-    wallet.setBalance(initialBalance);
+    // The wallet opens empty; the deposit below credits the initial balance
 
     final Wallet savedWallet = walletRepository.save(wallet);
     if (initialBalance.compareTo(BigDecimal.ZERO) > 0) {
@@ -123,12 +125,8 @@ public class WalletService {
     if (!wallet.getUser().getId().equals(user.getId())) {
       throw new BadRequestException("You can only top up your own wallet");
     }
-    final Transaction transaction =
-        transactionService.createDepositTransaction(wallet, topUpRequest.getAmount());
-    wallet.setBalance(wallet.getBalance().add(topUpRequest.getAmount()));
-    walletRepository.save(wallet);
-
-    return transaction;
+    // The deposit credits the wallet
+    return transactionService.createDepositTransaction(wallet, topUpRequest.getAmount());
   }
 
   @Transactional
@@ -152,11 +150,9 @@ public class WalletService {
     // to charge the user. Since that's out of scope for this example, we'll
     // simulate a successful payment.
 
+    // The deposit credits the wallet
     transactionService.createDepositTransaction(primaryWallet, amount);
 
-    primaryWallet.setBalance(primaryWallet.getBalance().add(amount));
-    walletRepository.save(primaryWallet);
-
     // The transaction object itself might be more appropriate to return,
     // or a dedicated response DTO. Returning Wallet for now as per controller.
     return primaryWallet;
@@ -171,12 +167,18 @@ public class WalletService {
             .findFirst()
             .orElseThrow(() -> new ResourceNotFoundException("Wallet", "type", "Primary USD"));
 
-    if (primaryWallet.getBalance().compareTo(amount) < 0) {
+    // Check and debit the balance under the wallet's row lock, as payments do
+    walletRepository.lockForUpdate(primaryWallet);
+    if (primaryWallet.getBalance().isLessThan(Money.of(amount))) {
       throw new BadRequestException("Insufficient funds for withdrawal.");
     } // Here, you would typically interact with a payment gateway using the
     // paymentMethodId
     // to process the withdrawal. This is a simplified simulation.
 
+    // Update the balance first, so the withdrawal event carries the balance it commits with
+    primaryWallet.setBalance(primaryWallet.getBalance().minus(Money.of(amount)));
+    walletRepository.save(primaryWallet);
+
     // Create withdrawal transaction (you might need a new transaction type or
     // adjust existing)
     // For now, using a generic description. Consider creating a specific withdrawal
@@ -191,16 +193,12 @@ public class WalletService {
         "Withdrawal to payment method " + paymentMethodId // description
         );
 
-    // Update wallet balance
-    primaryWallet.setBalance(primaryWallet.getBalance().subtract(amount));
-    walletRepository.save(primaryWallet);
-
     return primaryWallet;
   }
 
   @Transactional
   public void updateWalletBalance(Wallet wallet, BigDecimal amount) {
-    wallet.setBalance(wallet.getBalance().add(amount));
+    wallet.setBalance(wallet.getBalance().plus(Money.of(amount)));
     walletRepository.save(wallet);
   }
 }
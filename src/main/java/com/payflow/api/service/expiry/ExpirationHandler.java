@@ -0,0 +1,41 @@
+package com.payflow.api.service.expiry;
+
+import com.payflow.api.model.expiry.Expiration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expires one type of time-bound entity for the {@link ExpirationScheduler}. Every bean
+ * implementing this interface is picked up by the scheduler.
+ *
+ * <p>The scheduler may hand an entity to {@link #expire} more than once, from more than one node,
+ * or after it has been completed some other way, so expiry must be conditional on the entity still
+ * being live and past its due time.
+ */
+public interface ExpirationHandler {
+
+  /**
+   * Returns the entity type this handler expires.
+   *
+   * @return a short, unique type name
+   */
+  String getType();
+
+  /**
+   * Reads live entities due before a cut-off, ordered by due time and then ID, continuing after a
+   * previous page. Must be served by an index on the due time, never by a table scan.
+   *
+   * @param before the due time cut-off, exclusive
+   * @param after the last entry of the previous page, or {@code null} for the first page
+   * @param limit maximum number of entries to return
+   * @return the next page of due entities
+   */
+  List<Expiration> findDue(LocalDateTime before, Expiration after, int limit);
+
+  /**
+   * Expires a batch of entities whose due time has passed.
+   *
+   * @param due the entities, all of this handler's type
+   */
+  void expire(List<Expiration> due);
+}
@@ -0,0 +1,300 @@
+package com.payflow.api.service.expiry;
+
+import com.payflow.api.model.expiry.Expiration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Expires time-bound entities of every type within about a second of their due time.
+ *
+ * <p>Entities falling due within the next {@code expiration.horizon-ms} are held on an in-memory
+ * {@link TimingWheel}. The database stays the source of truth: every {@code
+ * expiration.reload-interval-ms}, and once the application is ready, each {@link ExpirationHandler}
+ * pages through its due entities up to the horizon with an index range scan, so a restart, a missed
+ * callback or an entity created on another node is picked up by the next load. Entities created on
+ * this node that fall due inside the loaded horizon are added directly with {@link #schedule} or
+ * {@link #scheduleAfterCommit}; later ones are left to a future load.
+ *
+ * <p>Every {@code expiration.poll-interval-ms} the wheel is advanced and the entities that fell due
+ * are handed to their handlers in one batch per type. An entity is held at most once at a time, and
+ * no more than {@code expiration.max-pending} are held in total; a load that would exceed the cap
+ * stops early and leaves the rest to a later load.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpirationScheduler {
+
+  /** Buckets per wheel level. */
+  static final int WHEEL_SIZE = 64;
+
+  /** Wheel levels; at one-second ticks four levels of 64 span about six months. */
+  static final int LEVELS = 4;
+
+  private final List<ExpirationHandler> handlers;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${expiration.tick-ms:1000}")
+  private long tickMillis = 1_000L;
+
+  @Value("${expiration.horizon-ms:600000}")
+  private long horizonMillis = 600_000L;
+
+  @Value("${expiration.page-size:1000}")
+  private int pageSize = 1_000;
+
+  @Value("${expiration.max-pending:100000}")
+  private int maxPending = 100_000;
+
+  private final Map<String, ExpirationHandler> handlersByType = new HashMap<>();
+  private final Map<String, Counter> firedCounters = new HashMap<>();
+  private final Map<String, Long> loadedUntil = new ConcurrentHashMap<>();
+  private final Set<Expiration> pending = ConcurrentHashMap.newKeySet();
+  private TimingWheel<Expiration> wheel;
+
+  /** Indexes the handlers by type and registers the scheduler's metrics. */
+  @PostConstruct
+  public void init() {
+    for (final ExpirationHandler handler : handlers) {
+      if (handlersByType.putIfAbsent(handler.getType(), handler) != null) {
+        throw new IllegalStateException("Duplicate expiration handler type " + handler.getType());
+      }
+      firedCounters.put(
+          handler.getType(),
+          Counter.builder("expiration.fired")
+              .description("Entities handed to their expiration handler")
+              .tag("type", handler.getType())
+              .register(meterRegistry));
+    }
+    wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, LEVELS, System.currentTimeMillis());
+    Gauge.builder("expiration.pending", pending, Set::size)
+        .description("Entities held on the expiration wheel")
+        .register(meterRegistry);
+  }
+
+  /** Rebuilds the wheel from the database once the application is ready to serve traffic. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    load();
+  }
+
+  /** Scheduled task to load entities falling due within the horizon. */
+  @Scheduled(
+      fixedDelayString = "${expiration.reload-interval-ms:60000}",
+      initialDelayString = "${expiration.reload-interval-ms:60000}")
+  public void load() {
+    load(System.currentTimeMillis());
+  }
+
+  /**
+   * Loads every entity due before {@code nowMillis} plus the horizon that is not already held.
+   *
+   * @param nowMillis the current time in epoch millis
+   * @return the number of entities added to the wheel
+   */
+  public int load(final long nowMillis) {
+    final long untilMillis = nowMillis + horizonMillis;
+    int loaded = 0;
+    for (final ExpirationHandler handler : handlers) {
+      try {
+        loaded += load(handler, untilMillis);
+      } catch (final RuntimeException e) {
+        log.warn("Failed to load due {} expirations: {}", handler.getType(), e.getMessage());
+      }
+    }
+    if (loaded > 0) {
+      log.debug("Loaded {} expirations, {} pending", loaded, pending.size());
+    }
+    return loaded;
+  }
+
+  /**
+   * Adds an entity to the wheel if it falls due inside the horizon already loaded for its type.
+   * Entities due later are picked up by a future load, so callers need not check the due time.
+   *
+   * @param expiration the entity and its due time
+   * @throws IllegalArgumentException if no handler is registered for the type
+   */
+  public void schedule(final Expiration expiration) {
+    if (!handlersByType.containsKey(expiration.getType())) {
+      throw new IllegalArgumentException("No expiration handler for " + expiration.getType());
+    }
+    if (expiration.getDueAtMillis()
+        <= loadedUntil.getOrDefault(expiration.getType(), Long.MIN_VALUE)) {
+      enqueue(expiration);
+    }
+  }
+
+  /**
+   * Schedules a newly created entity once the current transaction commits, or immediately if no
+   * transaction is active.
+   *
+   * @param expiration the entity and its due time
+   */
+  public void scheduleAfterCommit(final Expiration expiration) {
+    scheduleAllAfterCommit(List.of(expiration));
+  }
+
+  /**
+   * Schedules a batch of newly created entities once the current transaction commits, or
+   * immediately if no transaction is active.
+   *
+   * @param expirations the entities and their due times
+   */
+  public void scheduleAllAfterCommit(final Collection<Expiration> expirations) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              expirations.forEach(ExpirationScheduler.this::schedule);
+            }
+          });
+    } else {
+      expirations.forEach(this::schedule);
+    }
+  }
+
+  /**
+   * Withdraws an entity that was completed before its due time. Its handler is not called when the
+   * due time passes, unless a later load finds it still live.
+   *
+   * @param type the entity type
+   * @param id the entity's database ID
+   */
+  public void cancel(final String type, final long id) {
+    pending.remove(new Expiration(type, id, null, LocalDateTime.MIN));
+  }
+
+  /**
+   * Withdraws an entity once the current transaction commits, or immediately if no transaction is
+   * active, so an entity whose completion rolls back keeps its expiry.
+   *
+   * @param type the entity type
+   * @param id the entity's database ID
+   */
+  public void cancelAfterCommit(final String type, final long id) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              cancel(type, id);
+            }
+          });
+    } else {
+      cancel(type, id);
+    }
+  }
+
+  /** Scheduled task to hand entities that fell due to their handlers. */
+  @Scheduled(fixedDelayString = "${expiration.poll-interval-ms:1000}")
+  public void fire() {
+    fire(System.currentTimeMillis());
+  }
+
+  /**
+   * Advances the wheel and expires every held entity that fell due, one batch per type. An entity
+   * whose handler fails is dropped from the wheel and retried by the next load.
+   *
+   * @param nowMillis the current time in epoch millis
+   * @return the number of entities handed to their handlers
+   */
+  public int fire(final long nowMillis) {
+    final List<Expiration> due = wheel.advance(nowMillis);
+    if (due.isEmpty()) {
+      return 0;
+    }
+    final Map<String, List<Expiration>> batches = new LinkedHashMap<>();
+    for (final Expiration expiration : due) {
+      if (pending.remove(expiration)) {
+        batches.computeIfAbsent(expiration.getType(), type -> new ArrayList<>()).add(expiration);
+      }
+    }
+    int fired = 0;
+    for (final Map.Entry<String, List<Expiration>> batch : batches.entrySet()) {
+      try {
+        handlersByType.get(batch.getKey()).expire(batch.getValue());
+        firedCounters.get(batch.getKey()).increment(batch.getValue().size());
+        fired += batch.getValue().size();
+      } catch (final RuntimeException e) {
+        log.error(
+            "Failed to expire {} {} entities; they will be retried on the next load",
+            batch.getValue().size(),
+            batch.getKey(),
+            e);
+      }
+    }
+    return fired;
+  }
+
+  /**
+   * Returns the number of entities held on the wheel.
+   *
+   * @return entities waiting to fall due
+   */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  private int load(final ExpirationHandler handler, final long untilMillis) {
+    final LocalDateTime until =
+        LocalDateTime.ofInstant(Instant.ofEpochMilli(untilMillis), ZoneId.systemDefault());
+    int loaded = 0;
+    Expiration after = null;
+    List<Expiration> page;
+    do {
+      if (pending.size() >= maxPending) {
+        // Only what was read is covered; the rest waits for the wheel to drain
+        loadedUntil.put(
+            handler.getType(), after == null ? Long.MIN_VALUE : after.getDueAtMillis() - 1);
+        log.warn(
+            "Expiration wheel holds {} entities; deferring the rest of {}",
+            pending.size(),
+            handler.getType());
+        return loaded;
+      }
+      page = handler.findDue(until, after, pageSize);
+      for (final Expiration expiration : page) {
+        if (enqueue(expiration)) {
+          loaded++;
+        }
+      }
+      if (!page.isEmpty()) {
+        after = page.get(page.size() - 1);
+      }
+    } while (page.size() == pageSize);
+    loadedUntil.put(handler.getType(), untilMillis);
+    return loaded;
+  }
+
+  private boolean enqueue(final Expiration expiration) {
+    if (!pending.add(expiration)) {
+      return false;
+    }
+    wheel.schedule(expiration, expiration.getDueAtMillis());
+    return true;
+  }
+}
@@ -0,0 +1,161 @@
+package com.payflow.api.service.expiry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel that hands back items once their deadline has passed.
+ *
+ * <p>Time is cut into ticks of a fixed length. The lowest level has one bucket per tick; each level
+ * above it has buckets {@code wheelSize} times as wide, so a few small levels cover months at
+ * one-second resolution. An item is dropped into the lowest level whose bucket width still
+ * separates its deadline from the current tick. When time reaches the start of a higher-level
+ * bucket, that bucket is cascaded: its items are re-placed into the finer levels below, and an item
+ * finally fires from the lowest level on exactly the tick it falls due. Deadlines beyond the top
+ * level wait in its buckets and are re-placed each time their bucket comes round.
+ *
+ * <p>Scheduling is constant time and {@link #advance} only touches the buckets of the ticks that
+ * elapsed since the previous call, so a wheel holding many far-off deadlines costs almost nothing
+ * to drive. There is no cancellation: owners that withdraw an item are expected to ignore it when
+ * it fires. The wheel is safe for use from multiple threads.
+ *
+ * @param <T> the scheduled item type
+ */
+public final class TimingWheel<T> {
+
+  private final long tickMillis;
+  private final int wheelSize;
+
+  /** Ticks covered by one bucket at each level: 1, wheelSize, wheelSize^2 and so on. */
+  private final long[] bucketTicks;
+
+  private final List<Slot<T>>[][] levels;
+  private long currentTick;
+  private int size;
+
+  /**
+   * Creates an empty wheel.
+   *
+   * @param tickMillis length of one tick; deadlines are rounded up to a whole tick
+   * @param wheelSize number of buckets per level
+   * @param levelCount number of levels
+   * @param startMillis the current time in epoch millis
+   */
+  @SuppressWarnings("unchecked")
+  public TimingWheel(
+      final long tickMillis, final int wheelSize, final int levelCount, final long startMillis) {
+    if (tickMillis <= 0 || wheelSize <= 1 || levelCount <= 0) {
+      throw new IllegalArgumentException(
+          "Tick length and level count must be positive and wheel size above one");
+    }
+    this.tickMillis = tickMillis;
+    this.wheelSize = wheelSize;
+    this.bucketTicks = new long[levelCount];
+    this.levels = new List[levelCount][wheelSize];
+    long ticks = 1;
+    for (int level = 0; level < levelCount; level++) {
+      bucketTicks[level] = ticks;
+      for (int i = 0; i < wheelSize; i++) {
+        levels[level][i] = new ArrayList<>();
+      }
+      ticks = Math.multiplyExact(ticks, wheelSize);
+    }
+    this.currentTick = Math.floorDiv(startMillis, tickMillis);
+  }
+
+  /**
+   * Schedules an item. A deadline that has already passed fires on the next tick.
+   *
+   * @param item the item to hand back
+   * @param deadlineMillis when the item falls due, in epoch millis
+   */
+  public synchronized void schedule(final T item, final long deadlineMillis) {
+    final long deadlineTick =
+        Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+    place(new Slot<>(item, deadlineTick), currentTick);
+    size++;
+  }
+
+  /**
+   * Moves the wheel forward to the given time and removes every item that has fallen due.
+   *
+   * @param nowMillis the current time in epoch millis
+   * @return the items whose deadline is at or before {@code nowMillis}, in no particular order
+   */
+  public synchronized List<T> advance(final long nowMillis) {
+    final long nowTick = Math.floorDiv(nowMillis, tickMillis);
+    if (nowTick <= currentTick || size == 0) {
+      currentTick = Math.max(currentTick, nowTick);
+      return Collections.emptyList();
+    }
+    final List<T> due = new ArrayList<>();
+    while (currentTick < nowTick && size > 0) {
+      final long tick = ++currentTick;
+      // Coarsest first, so an item can drop through several levels on the same tick
+      for (int level = bucketTicks.length - 1; level > 0; level--) {
+        if (tick % bucketTicks[level] == 0) {
+          cascade(level, tick);
+        }
+      }
+      final List<Slot<T>> slots = levels[0][bucket(tick, 0)];
+      if (!slots.isEmpty()) {
+        for (final Slot<T> slot : slots) {
+          due.add(slot.item);
+        }
+        size -= slots.size();
+        slots.clear();
+      }
+    }
+    currentTick = nowTick;
+    return due;
+  }
+
+  /**
+   * Returns the number of scheduled items, including any their owners have since withdrawn.
+   *
+   * @return items waiting in the wheel
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  private void cascade(final int level, final long tick) {
+    final int bucket = bucket(tick, level);
+    final List<Slot<T>> slots = levels[level][bucket];
+    if (slots.isEmpty()) {
+      return;
+    }
+    levels[level][bucket] = new ArrayList<>();
+    for (final Slot<T> slot : slots) {
+      place(slot, tick);
+    }
+  }
+
+  /**
+   * Puts a slot in the lowest level where its deadline and {@code referenceTick} share every digit
+   * above that level, so the bucket it lands in is reached, or cascaded, on time.
+   */
+  private void place(final Slot<T> slot, final long referenceTick) {
+    int level = 0;
+    while (level < bucketTicks.length - 1
+        && slot.deadlineTick / bucketTicks[level + 1] != referenceTick / bucketTicks[level + 1]) {
+      level++;
+    }
+    levels[level][bucket(slot.deadlineTick, level)].add(slot);
+  }
+
+  private int bucket(final long tick, final int level) {
+    return (int) Math.floorMod(tick / bucketTicks[level], (long) wheelSize);
+  }
+
+  private static final class Slot<T> {
+    private final T item;
+    private final long deadlineTick;
+
+    private Slot(final T item, final long deadlineTick) {
+      this.item = item;
+      this.deadlineTick = deadlineTick;
+    }
+  }
+}
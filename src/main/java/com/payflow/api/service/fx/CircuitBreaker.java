@@ -0,0 +1,82 @@
+package com.payflow.api.service.fx;
+
+import java.time.Duration;
+
+/**
+ * Minimal circuit breaker guarding calls to an unreliable dependency.
+ *
+ * <p>After {@code failureThreshold} consecutive failures the breaker opens and rejects calls for
+ * {@code openDuration}. It then lets a single trial call through (half-open); success closes the
+ * breaker, failure opens it again for another full period.
+ */
+public final class CircuitBreaker {
+
+  /** Breaker states. */
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openDurationNanos;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAtNanos;
+
+  /**
+   * Creates a closed breaker.
+   *
+   * @param failureThreshold consecutive failures that open the breaker
+   * @param openDuration how long the breaker stays open before allowing a trial call
+   */
+  public CircuitBreaker(final int failureThreshold, final Duration openDuration) {
+    if (failureThreshold < 1) {
+      throw new IllegalArgumentException("failureThreshold must be at least 1");
+    }
+    this.failureThreshold = failureThreshold;
+    this.openDurationNanos = openDuration.toNanos();
+  }
+
+  /**
+   * Asks permission to make a call. Callers that are granted permission must report the outcome
+   * through {@link #recordSuccess()} or {@link #recordFailure()}.
+   *
+   * @return true if the call may proceed
+   */
+  public synchronized boolean tryAcquire() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.nanoTime() - openedAtNanos >= openDurationNanos) {
+          state = State.HALF_OPEN;
+          return true;
+        }
+        return false;
+      default:
+        // A trial call is already in flight
+        return false;
+    }
+  }
+
+  /** Records a successful call and closes the breaker. */
+  public synchronized void recordSuccess() {
+    consecutiveFailures = 0;
+    state = State.CLOSED;
+  }
+
+  /** Records a failed call, opening the breaker if the threshold is reached. */
+  public synchronized void recordFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAtNanos = System.nanoTime();
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+}
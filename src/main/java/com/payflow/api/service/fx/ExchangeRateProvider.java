@@ -0,0 +1,17 @@
+package com.payflow.api.service.fx;
+
+import com.payflow.api.model.entity.Wallet;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/** Source of raw exchange rates quoted against a single base currency. */
+public interface ExchangeRateProvider {
+
+  /**
+   * Fetches the rates for every currency the provider knows, quoted against {@code base}.
+   *
+   * @param base the currency the rates are quoted against
+   * @return rates keyed by target currency; currencies the provider does not quote are absent
+   */
+  Map<Wallet.Currency, BigDecimal> fetchRates(Wallet.Currency base);
+}
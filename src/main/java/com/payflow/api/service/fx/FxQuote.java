@@ -0,0 +1,90 @@
+package com.payflow.api.service.fx;
+
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.math.BigDecimal;
+
+/**
+ * Priced conversion of an amount between two currencies. A locked quote carries an id, an owner and
+ * an expiry and is held in a {@link FxQuoteStore} until it is redeemed; a spot quote has none of
+ * these and is priced from the current snapshot on the spot.
+ */
+public final class FxQuote {
+
+  private final String quoteId;
+  private final Long ownerId;
+  private final Wallet.Currency fromCurrency;
+  private final Wallet.Currency toCurrency;
+  private final Money amount;
+  private final BigDecimal rate;
+  private final Money convertedAmount;
+  private final long rateVersion;
+  private final long expiresAtMillis;
+
+  public FxQuote(
+      final String quoteId,
+      final Long ownerId,
+      final Wallet.Currency fromCurrency,
+      final Wallet.Currency toCurrency,
+      final Money amount,
+      final BigDecimal rate,
+      final Money convertedAmount,
+      final long rateVersion,
+      final long expiresAtMillis) {
+    this.quoteId = quoteId;
+    this.ownerId = ownerId;
+    this.fromCurrency = fromCurrency;
+    this.toCurrency = toCurrency;
+    this.amount = amount;
+    this.rate = rate;
+    this.convertedAmount = convertedAmount;
+    this.rateVersion = rateVersion;
+    this.expiresAtMillis = expiresAtMillis;
+  }
+
+  /**
+   * Tells whether a locked quote has run out. Spot quotes never expire.
+   *
+   * @param nowMillis the current time in epoch millis
+   * @return true if the quote can no longer be redeemed
+   */
+  public boolean isExpired(final long nowMillis) {
+    return quoteId != null && nowMillis >= expiresAtMillis;
+  }
+
+  public String getQuoteId() {
+    return quoteId;
+  }
+
+  public Long getOwnerId() {
+    return ownerId;
+  }
+
+  public Wallet.Currency getFromCurrency() {
+    return fromCurrency;
+  }
+
+  public Wallet.Currency getToCurrency() {
+    return toCurrency;
+  }
+
+  public Money getAmount() {
+    return amount;
+  }
+
+  public BigDecimal getRate() {
+    return rate;
+  }
+
+  public Money getConvertedAmount() {
+    return convertedAmount;
+  }
+
+  public long getRateVersion() {
+    return rateVersion;
+  }
+
+  public long getExpiresAtMillis() {
+    return expiresAtMillis;
+  }
+}
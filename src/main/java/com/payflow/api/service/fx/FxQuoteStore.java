@@ -0,0 +1,74 @@
+package com.payflow.api.service.fx;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded in-memory store of locked FX quotes.
+ *
+ * <p>Every quote lives for the same time-to-live, so insertion order is also expiry order. Expired
+ * quotes are therefore always at the head of the map and are purged there on each insert. If the
+ * store is still full the oldest live quote is evicted, which keeps memory bounded no matter how
+ * many quotes clients request. A quote put back after a rolled-back payment rejoins at the tail, so
+ * it may be purged a little after it expires; redemption checks expiry regardless.
+ */
+public final class FxQuoteStore {
+
+  private final int maxEntries;
+  private final LinkedHashMap<String, FxQuote> quotes = new LinkedHashMap<>();
+
+  /**
+   * Creates an empty store.
+   *
+   * @param maxEntries maximum number of quotes held at once
+   */
+  public FxQuoteStore(final int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be at least 1");
+    }
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Adds a quote, purging expired quotes and evicting the oldest one if the store is full.
+   *
+   * @param quote the quote to hold
+   * @param nowMillis the current time in epoch millis
+   */
+  public synchronized void put(final FxQuote quote, final long nowMillis) {
+    purgeExpired(nowMillis);
+    if (quotes.size() >= maxEntries) {
+      final Iterator<FxQuote> eldest = quotes.values().iterator();
+      eldest.next();
+      eldest.remove();
+    }
+    quotes.put(quote.getQuoteId(), quote);
+  }
+
+  /**
+   * Removes and returns a quote so that it can be redeemed at most once. A quote is left in place
+   * if it belongs to someone else, so a guessed id cannot burn another user's quote.
+   *
+   * @param quoteId the quote id
+   * @param ownerId the user redeeming the quote
+   * @return the quote, which may have expired, or {@code null} if unknown or owned by another user
+   */
+  public synchronized FxQuote remove(final String quoteId, final Long ownerId) {
+    final FxQuote quote = quotes.get(quoteId);
+    if (quote == null || !quote.getOwnerId().equals(ownerId)) {
+      return null;
+    }
+    return quotes.remove(quoteId);
+  }
+
+  public synchronized int size() {
+    return quotes.size();
+  }
+
+  private void purgeExpired(final long nowMillis) {
+    final Iterator<FxQuote> iterator = quotes.values().iterator();
+    while (iterator.hasNext() && iterator.next().isExpired(nowMillis)) {
+      iterator.remove();
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.payflow.api.service.fx;
+
+import com.payflow.api.model.entity.Wallet;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * In-memory ring of the most recent published rates for every currency pair.
+ *
+ * <p>Each pair keeps its last {@code capacity} rates as parallel {@code long} arrays of timestamps
+ * and rates scaled by 10^{@value FxRateSnapshot#RATE_SCALE}. Entries are appended in time order, so
+ * a point-in-time lookup is a binary search. The ring can answer any time at or after its oldest
+ * entry; earlier times must be answered from the exchange_rate_history table.
+ */
+public final class FxRateHistory {
+
+  private static final Wallet.Currency[] CURRENCIES = Wallet.Currency.values();
+  private static final int SIZE = CURRENCIES.length;
+
+  private final Ring[] rings;
+
+  /**
+   * Creates empty rings.
+   *
+   * @param capacity number of rates remembered per pair
+   */
+  public FxRateHistory(final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+    rings = new Ring[SIZE * SIZE];
+    for (int i = 0; i < rings.length; i++) {
+      rings[i] = new Ring(capacity);
+    }
+  }
+
+  /**
+   * Returns the stable, persisted id of a currency pair. Unlike {@link FxRateSnapshot#pairIndex} it
+   * does not depend on the number of currencies, so it stays valid as long as new currencies are
+   * only ever appended to {@link Wallet.Currency}.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @return the pair id
+   */
+  public static short pairId(final Wallet.Currency from, final Wallet.Currency to) {
+    return (short) (from.ordinal() << 8 | to.ordinal());
+  }
+
+  /**
+   * Converts a rate to its scaled long representation.
+   *
+   * @param rate the rate
+   * @return the rate multiplied by 10^{@value FxRateSnapshot#RATE_SCALE}
+   */
+  public static long toScaled(final BigDecimal rate) {
+    return rate.setScale(FxRateSnapshot.RATE_SCALE, RoundingMode.HALF_UP)
+        .unscaledValue()
+        .longValueExact();
+  }
+
+  /**
+   * Converts a scaled long rate back to a decimal.
+   *
+   * @param scaledRate the rate multiplied by 10^{@value FxRateSnapshot#RATE_SCALE}
+   * @return the rate at {@link FxRateSnapshot#RATE_SCALE}
+   */
+  public static BigDecimal fromScaled(final long scaledRate) {
+    return BigDecimal.valueOf(scaledRate, FxRateSnapshot.RATE_SCALE);
+  }
+
+  /**
+   * Appends a rate for a pair. Entries older than the newest one already held are ignored, which
+   * keeps every ring sorted.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @param recordedAtMillis when the rate was published, in epoch millis
+   * @param scaledRate the rate in scaled long form
+   */
+  public void record(
+      final Wallet.Currency from,
+      final Wallet.Currency to,
+      final long recordedAtMillis,
+      final long scaledRate) {
+    rings[FxRateSnapshot.pairIndex(from, to)].add(recordedAtMillis, scaledRate);
+  }
+
+  /**
+   * Finds the rate in force for a pair at a given time.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @param atMillis the point in time, in epoch millis
+   * @return the latest point at or before {@code atMillis}, or {@code null} if the ring is empty or
+   *     {@code atMillis} is older than everything it holds
+   */
+  public Point find(final Wallet.Currency from, final Wallet.Currency to, final long atMillis) {
+    return rings[FxRateSnapshot.pairIndex(from, to)].find(atMillis);
+  }
+
+  /** A rate together with the time it was published. */
+  public static final class Point {
+
+    private final long recordedAtMillis;
+    private final long scaledRate;
+
+    public Point(final long recordedAtMillis, final long scaledRate) {
+      this.recordedAtMillis = recordedAtMillis;
+      this.scaledRate = scaledRate;
+    }
+
+    public long getRecordedAtMillis() {
+      return recordedAtMillis;
+    }
+
+    public long getScaledRate() {
+      return scaledRate;
+    }
+
+    public BigDecimal getRate() {
+      return fromScaled(scaledRate);
+    }
+  }
+
+  /** Fixed-size circular buffer of (timestamp, rate) pairs for one currency pair. */
+  private static final class Ring {
+
+    private final long[] times;
+    private final long[] rates;
+    private int head;
+    private int count;
+
+    Ring(final int capacity) {
+      times = new long[capacity];
+      rates = new long[capacity];
+    }
+
+    synchronized void add(final long time, final long rate) {
+      if (count > 0 && time <= times[physical(count - 1)]) {
+        return;
+      }
+      final int slot = (head + count) % times.length;
+      times[slot] = time;
+      rates[slot] = rate;
+      if (count < times.length) {
+        count++;
+      } else {
+        head = (head + 1) % times.length;
+      }
+    }
+
+    synchronized Point find(final long at) {
+      if (count == 0 || at < times[head]) {
+        return null;
+      }
+      // Binary search for the last logical index whose time is <= at
+      int low = 0;
+      int high = count - 1;
+      while (low < high) {
+        final int mid = (low + high + 1) >>> 1;
+        if (times[physical(mid)] <= at) {
+          low = mid;
+        } else {
+          high = mid - 1;
+        }
+      }
+      final int slot = physical(low);
+      return new Point(times[slot], rates[slot]);
+    }
+
+    private int physical(final int logical) {
+      return (head + logical) % times.length;
+    }
+  }
+}
@@ -0,0 +1,299 @@
+package com.payflow.api.service.fx;
+
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Immutable matrix of exchange rates between every pair of {@link Wallet.Currency} values.
+ *
+ * <p>Rates are stored in a flat array indexed by {@code from.ordinal() * N + to.ordinal()}, so a
+ * lookup is a plain array read with no locking or hashing. A new snapshot is built off to the side
+ * and published by swapping a single reference, which means readers always see a consistent set of
+ * rates. Every snapshot carries a monotonically increasing version that doubles as its publication
+ * timestamp (epoch millis), so a transaction can record exactly which rates it was priced with.
+ * Each pair also remembers when its current rate took effect, which point-in-time lookups rely on,
+ * and when its source last confirmed it, which drives the per-pair staleness policy.
+ *
+ * <p>Alongside the decimal rates the snapshot keeps each rate as a long scaled by 10^{@value
+ * #RATE_SCALE}, so {@link Money} conversions on the transfer path need no decimal arithmetic.
+ */
+public final class FxRateSnapshot {
+
+  /** Scale of stored rates, matching the {@code DECIMAL(19, 6)} exchange_rates.rate column. */
+  public static final int RATE_SCALE = 6;
+
+  /** Scale of converted amounts, matching the {@code DECIMAL(19, 4)} money columns. */
+  public static final int AMOUNT_SCALE = 4;
+
+  private static final Wallet.Currency[] CURRENCIES = Wallet.Currency.values();
+  private static final int SIZE = CURRENCIES.length;
+
+  private static final long SCALED_ONE = 1_000_000L;
+
+  private static final FxRateSnapshot EMPTY =
+      new FxRateSnapshot(
+          new BigDecimal[SIZE * SIZE],
+          new long[SIZE * SIZE],
+          new long[SIZE * SIZE],
+          new long[SIZE * SIZE],
+          0L,
+          Instant.EPOCH);
+
+  private final BigDecimal[] rates;
+  private final long[] scaledRates;
+  private final long[] updatedAtMillis;
+  private final long[] checkedAtMillis;
+  private final long version;
+  private final Instant asOf;
+
+  private FxRateSnapshot(
+      final BigDecimal[] rates,
+      final long[] scaledRates,
+      final long[] updatedAtMillis,
+      final long[] checkedAtMillis,
+      final long version,
+      final Instant asOf) {
+    this.rates = rates;
+    this.scaledRates = scaledRates;
+    this.updatedAtMillis = updatedAtMillis;
+    this.checkedAtMillis = checkedAtMillis;
+    this.version = version;
+    this.asOf = asOf;
+  }
+
+  /**
+   * Returns a snapshot that holds no rates. Only same-currency conversions succeed against it.
+   *
+   * @return the empty snapshot
+   */
+  public static FxRateSnapshot empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns the index of a currency pair in the flattened rate matrix.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @return the pair index
+   */
+  public static int pairIndex(final Wallet.Currency from, final Wallet.Currency to) {
+    return from.ordinal() * SIZE + to.ordinal();
+  }
+
+  /**
+   * Looks up the rate for a currency pair.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @return the rate, {@link BigDecimal#ONE} for identical currencies, or {@code null} if the pair
+   *     is not known in this snapshot
+   */
+  public BigDecimal getRate(final Wallet.Currency from, final Wallet.Currency to) {
+    if (from == to) {
+      return BigDecimal.ONE;
+    }
+    return rates[pairIndex(from, to)];
+  }
+
+  /**
+   * Looks up the rate for a currency pair as a long scaled by 10^{@value #RATE_SCALE}.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @return the scaled rate, 10^{@value #RATE_SCALE} for identical currencies, or 0 if the pair is
+   *     not known in this snapshot
+   */
+  public long getScaledRate(final Wallet.Currency from, final Wallet.Currency to) {
+    if (from == to) {
+      return SCALED_ONE;
+    }
+    return scaledRates[pairIndex(from, to)];
+  }
+
+  /**
+   * Tells whether this snapshot holds a rate for the given pair.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @return true if {@link #getRate} would return a non-null value
+   */
+  public boolean hasRate(final Wallet.Currency from, final Wallet.Currency to) {
+    return getRate(from, to) != null;
+  }
+
+  /**
+   * Tells when the current rate for a pair took effect. Refreshes that confirm the same rate do not
+   * move it.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @return epoch millis of the last rate change, or 0 if the pair is unknown or identical
+   */
+  public long getUpdatedAtMillis(final Wallet.Currency from, final Wallet.Currency to) {
+    return updatedAtMillis[pairIndex(from, to)];
+  }
+
+  /**
+   * Tells when the rate for a pair was last obtained from its source, whether or not it changed.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @return epoch millis of the last refresh, or 0 if the pair is unknown or identical
+   */
+  public long getCheckedAtMillis(final Wallet.Currency from, final Wallet.Currency to) {
+    return checkedAtMillis[pairIndex(from, to)];
+  }
+
+  /**
+   * Tells whether a pair was last refreshed longer ago than the given age. Same-currency pairs are
+   * never stale.
+   *
+   * @param from source currency
+   * @param to target currency
+   * @param maxAgeMillis the maximum acceptable age
+   * @param nowMillis the current time in epoch millis
+   * @return true if the pair is known and older than {@code maxAgeMillis}
+   */
+  public boolean isStale(
+      final Wallet.Currency from,
+      final Wallet.Currency to,
+      final long maxAgeMillis,
+      final long nowMillis) {
+    if (from == to) {
+      return false;
+    }
+    final long checkedAt = checkedAtMillis[pairIndex(from, to)];
+    return checkedAt != 0L && nowMillis - checkedAt > maxAgeMillis;
+  }
+
+  /**
+   * Applies a rate to an amount using the rounding rules for stored money values.
+   *
+   * @param amount the amount to convert
+   * @param rate the rate to apply
+   * @return the converted amount, rounded HALF_UP to {@link #AMOUNT_SCALE}
+   */
+  public static BigDecimal applyRate(final BigDecimal amount, final BigDecimal rate) {
+    return amount.multiply(rate).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Applies a scaled rate to an amount, rounding HALF_UP exactly like {@link #applyRate(BigDecimal,
+   * BigDecimal)}.
+   *
+   * @param amount the amount to convert
+   * @param scaledRate the rate as returned by {@link #getScaledRate}
+   * @return the converted amount
+   */
+  public static Money applyRate(final Money amount, final long scaledRate) {
+    return amount.convert(scaledRate, RATE_SCALE);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Instant getAsOf() {
+    return asOf;
+  }
+
+  /**
+   * Starts a builder pre-populated with this snapshot's rates.
+   *
+   * @return a mutable builder
+   */
+  public Builder toBuilder() {
+    return new Builder(
+        Arrays.copyOf(rates, rates.length),
+        Arrays.copyOf(scaledRates, scaledRates.length),
+        Arrays.copyOf(updatedAtMillis, updatedAtMillis.length),
+        Arrays.copyOf(checkedAtMillis, checkedAtMillis.length),
+        version);
+  }
+
+  /** Mutable builder used to assemble the next snapshot before it is published. */
+  public static final class Builder {
+
+    private final BigDecimal[] rates;
+    private final long[] scaledRates;
+    private final long[] updatedAtMillis;
+    private final long[] checkedAtMillis;
+    private final long previousVersion;
+    private int changes;
+
+    private Builder(
+        final BigDecimal[] rates,
+        final long[] scaledRates,
+        final long[] updatedAtMillis,
+        final long[] checkedAtMillis,
+        final long previousVersion) {
+      this.rates = rates;
+      this.scaledRates = scaledRates;
+      this.updatedAtMillis = updatedAtMillis;
+      this.checkedAtMillis = checkedAtMillis;
+      this.previousVersion = previousVersion;
+    }
+
+    /**
+     * Sets the rate for a currency pair. Same-currency pairs are ignored since they are always 1.
+     * If the pair already holds the same rate only the time it was last checked moves, so the pair
+     * keeps the time its rate took effect.
+     *
+     * @param from source currency
+     * @param to target currency
+     * @param rate the rate; normalised to {@link FxRateSnapshot#RATE_SCALE}
+     * @param updatedAt when the rate was obtained from its source
+     * @return this builder
+     */
+    public Builder put(
+        final Wallet.Currency from,
+        final Wallet.Currency to,
+        final BigDecimal rate,
+        final Instant updatedAt) {
+      if (from != to && rate != null && rate.signum() > 0) {
+        final int index = pairIndex(from, to);
+        final BigDecimal scaled = rate.setScale(RATE_SCALE, RoundingMode.HALF_UP);
+        if (!scaled.equals(rates[index])) {
+          rates[index] = scaled;
+          scaledRates[index] = scaled.unscaledValue().longValueExact();
+          updatedAtMillis[index] = updatedAt.toEpochMilli();
+        }
+        checkedAtMillis[index] = updatedAt.toEpochMilli();
+        changes++;
+      }
+      return this;
+    }
+
+    /**
+     * Returns the number of rates written or confirmed since the builder was created.
+     *
+     * @return count of {@link #put} calls that stored or confirmed a rate
+     */
+    public int changes() {
+      return changes;
+    }
+
+    /**
+     * Freezes the builder into a new snapshot. The version is the publication time in epoch millis,
+     * bumped past the previous version if the clock has not moved on.
+     *
+     * @param now publication time
+     * @return the new immutable snapshot
+     */
+    public FxRateSnapshot build(final Instant now) {
+      final long version = Math.max(previousVersion + 1, now.toEpochMilli());
+      return new FxRateSnapshot(
+          rates.clone(),
+          scaledRates.clone(),
+          updatedAtMillis.clone(),
+          checkedAtMillis.clone(),
+          version,
+          now);
+    }
+  }
+}
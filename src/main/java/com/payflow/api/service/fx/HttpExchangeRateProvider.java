@@ -0,0 +1,96 @@
+package com.payflow.api.service.fx;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payflow.api.model.entity.Wallet;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Primary provider: fetches rates from the public exchange rate API configured by {@code
+ * exchange.rate.api.url}. Selected by default, or explicitly with {@code
+ * exchange.rate.provider=http}.
+ *
+ * <p>With {@code exchange.rate.api.fallback-to-file=true}, a call that fails or gets no rates back
+ * reads the local file at {@code exchange.rate.file.location} instead, as {@link
+ * LocalFileExchangeRateProvider} does. Only when both fail does the refresh fail and count against
+ * the circuit breaker.
+ */
+@Component
+@ConditionalOnProperty(name = "exchange.rate.provider", havingValue = "http", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class HttpExchangeRateProvider implements ExchangeRateProvider {
+
+  private final RestTemplate restTemplate;
+  private final ObjectMapper objectMapper;
+
+  @Value("${exchange.rate.api.url}")
+  private String exchangeRateApiUrl;
+
+  @Value("${exchange.rate.api.fallback-to-file:false}")
+  private boolean fallbackToFile;
+
+  @Value("${exchange.rate.file.location:classpath:fx/rates.json}")
+  private Resource fallbackLocation;
+
+  @Override
+  public Map<Wallet.Currency, BigDecimal> fetchRates(final Wallet.Currency base) {
+    final Map<Wallet.Currency, BigDecimal> rates;
+    try {
+      rates = fetchFromApi(base);
+    } catch (final RuntimeException e) {
+      if (!fallbackToFile) {
+        throw e;
+      }
+      log.warn("Exchange rate API failed, reading {}: {}", fallbackLocation, e.getMessage());
+      return LocalFileExchangeRateProvider.readRates(objectMapper, fallbackLocation, base);
+    }
+    if (rates.isEmpty() && fallbackToFile) {
+      log.warn("Exchange rate API returned no rates, reading {}", fallbackLocation);
+      return LocalFileExchangeRateProvider.readRates(objectMapper, fallbackLocation, base);
+    }
+    return rates;
+  }
+
+  private Map<Wallet.Currency, BigDecimal> fetchFromApi(final Wallet.Currency base) {
+    final ResponseEntity<ExchangeRateApiResponse> response =
+        restTemplate.getForEntity(exchangeRateApiUrl + base.name(), ExchangeRateApiResponse.class);
+
+    if (response.getBody() == null || response.getBody().getRates() == null) {
+      return Collections.emptyMap();
+    }
+
+    return RateTables.fromCodes(response.getBody().getRates());
+  }
+
+  /** DTO for the exchange rate API response, also used as the local rate file format. */
+  static class ExchangeRateApiResponse {
+    private String base;
+    private Map<String, Double> rates;
+
+    public String getBase() {
+      return base;
+    }
+
+    public void setBase(final String base) {
+      this.base = base;
+    }
+
+    public Map<String, Double> getRates() {
+      return rates;
+    }
+
+    public void setRates(final Map<String, Double> rates) {
+      this.rates = rates;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.payflow.api.service.fx;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payflow.api.model.entity.Wallet;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads rates from a local JSON file in the same shape as the public API response ({@code {"base":
+ * "USD", "rates": {...}}}). Enabled with {@code exchange.rate.provider=file}; the file is re-read
+ * on every refresh so it can be replaced while the application runs. The {@link
+ * HttpExchangeRateProvider} can also fall back to the same file.
+ */
+@Component
+@ConditionalOnProperty(name = "exchange.rate.provider", havingValue = "file")
+@RequiredArgsConstructor
+public class LocalFileExchangeRateProvider implements ExchangeRateProvider {
+
+  private final ObjectMapper objectMapper;
+
+  @Value("${exchange.rate.file.location:classpath:fx/rates.json}")
+  private Resource location;
+
+  @Override
+  public Map<Wallet.Currency, BigDecimal> fetchRates(final Wallet.Currency base) {
+    return readRates(objectMapper, location, base);
+  }
+
+  /**
+   * Reads a rate file and quotes its rates against {@code base}.
+   *
+   * @param objectMapper parses the file
+   * @param location the file
+   * @param base the currency the rates are quoted against
+   * @return rates keyed by target currency
+   * @throws UncheckedIOException if the file cannot be read
+   */
+  static Map<Wallet.Currency, BigDecimal> readRates(
+      final ObjectMapper objectMapper, final Resource location, final Wallet.Currency base) {
+    final HttpExchangeRateProvider.ExchangeRateApiResponse file;
+    try (InputStream in = location.getInputStream()) {
+      file = objectMapper.readValue(in, HttpExchangeRateProvider.ExchangeRateApiResponse.class);
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Unable to read exchange rates from " + location, e);
+    }
+
+    final Map<Wallet.Currency, BigDecimal> rates =
+        new EnumMap<>(RateTables.fromCodes(file.getRates()));
+    final Wallet.Currency fileBase = Wallet.Currency.valueOf(file.getBase());
+    rates.put(fileBase, BigDecimal.ONE);
+    return RateTables.rebase(rates, base);
+  }
+}
@@ -0,0 +1,53 @@
+package com.payflow.api.service.fx;
+
+import com.payflow.api.model.entity.Wallet;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.EnumMap;
+import java.util.Map;
+
+/** Helpers shared by providers that hold a rate table quoted against one fixed base. */
+final class RateTables {
+
+  private RateTables() {}
+
+  /**
+   * Re-expresses a rate table quoted against one base in terms of another base.
+   *
+   * @param rates rates quoted against the table's own base (which maps to 1)
+   * @param base the base the caller wants rates against
+   * @return rates against {@code base}, or an empty map if the table does not quote {@code base}
+   */
+  static Map<Wallet.Currency, BigDecimal> rebase(
+      final Map<Wallet.Currency, BigDecimal> rates, final Wallet.Currency base) {
+    final Map<Wallet.Currency, BigDecimal> result = new EnumMap<>(Wallet.Currency.class);
+    final BigDecimal baseRate = rates.get(base);
+    if (baseRate == null || baseRate.signum() <= 0) {
+      return result;
+    }
+    for (final Map.Entry<Wallet.Currency, BigDecimal> entry : rates.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().divide(baseRate, MathContext.DECIMAL64));
+    }
+    return result;
+  }
+
+  /**
+   * Converts a raw {@code currency code -> rate} map into a typed table, dropping unknown codes.
+   *
+   * @param rates raw rates as returned by an API or file
+   * @return rates keyed by supported currency
+   */
+  static Map<Wallet.Currency, BigDecimal> fromCodes(final Map<String, Double> rates) {
+    final Map<Wallet.Currency, BigDecimal> result = new EnumMap<>(Wallet.Currency.class);
+    if (rates == null) {
+      return result;
+    }
+    for (final Wallet.Currency currency : Wallet.Currency.values()) {
+      final Double rateValue = rates.get(currency.name());
+      if (rateValue != null) {
+        result.put(currency, BigDecimal.valueOf(rateValue));
+      }
+    }
+    return result;
+  }
+}
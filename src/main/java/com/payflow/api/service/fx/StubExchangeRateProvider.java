@@ -0,0 +1,109 @@
+package com.payflow.api.service.fx;
+
+import com.payflow.api.model.entity.Wallet;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deterministic, network-free provider for tests and offline development. Enabled with {@code
+ * exchange.rate.provider=stub}; quotes a fixed USD table and derives other bases from it.
+ *
+ * <p>Tests can inject latency and failures to exercise the circuit breaker and the
+ * stale-while-revalidate path without a real upstream.
+ */
+@Component
+@ConditionalOnProperty(name = "exchange.rate.provider", havingValue = "stub")
+public class StubExchangeRateProvider implements ExchangeRateProvider {
+
+  private static final Map<Wallet.Currency, BigDecimal> USD_RATES = usdRates();
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private final AtomicInteger failuresRemaining = new AtomicInteger();
+  private volatile Duration latency = Duration.ZERO;
+  private volatile Map<Wallet.Currency, BigDecimal> overrides = Collections.emptyMap();
+
+  @Override
+  public Map<Wallet.Currency, BigDecimal> fetchRates(final Wallet.Currency base) {
+    calls.incrementAndGet();
+    if (!latency.isZero()) {
+      try {
+        Thread.sleep(latency.toMillis());
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while simulating latency", e);
+      }
+    }
+    if (failuresRemaining.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+      throw new IllegalStateException("Simulated exchange rate provider failure");
+    }
+
+    final Map<Wallet.Currency, BigDecimal> rates = new EnumMap<>(USD_RATES);
+    rates.putAll(overrides);
+    return RateTables.rebase(rates, base);
+  }
+
+  /**
+   * Makes every subsequent call sleep before answering.
+   *
+   * @param latency the delay to add; {@link Duration#ZERO} disables it
+   */
+  public void setLatency(final Duration latency) {
+    this.latency = latency;
+  }
+
+  /**
+   * Makes the next {@code count} calls throw.
+   *
+   * @param count number of calls that should fail
+   */
+  public void failNextCalls(final int count) {
+    failuresRemaining.set(count);
+  }
+
+  /**
+   * Replaces some USD rates for subsequent calls.
+   *
+   * @param usdRates rates against USD to override; an empty map restores the defaults
+   */
+  public void setUsdRates(final Map<Wallet.Currency, BigDecimal> usdRates) {
+    this.overrides = new EnumMap<>(usdRates);
+  }
+
+  /**
+   * Returns how many times the provider has been called.
+   *
+   * @return number of {@link #fetchRates} calls so far
+   */
+  public int getCallCount() {
+    return calls.get();
+  }
+
+  /** Restores the default behaviour: no latency, no failures, default rates. */
+  public void reset() {
+    latency = Duration.ZERO;
+    failuresRemaining.set(0);
+    overrides = Collections.emptyMap();
+    calls.set(0);
+  }
+
+  private static Map<Wallet.Currency, BigDecimal> usdRates() {
+    final Map<Wallet.Currency, BigDecimal> rates = new EnumMap<>(Wallet.Currency.class);
+    rates.put(Wallet.Currency.USD, BigDecimal.ONE);
+    rates.put(Wallet.Currency.EUR, new BigDecimal("0.92"));
+    rates.put(Wallet.Currency.GBP, new BigDecimal("0.78"));
+    rates.put(Wallet.Currency.PLN, new BigDecimal("3.95"));
+    rates.put(Wallet.Currency.JPY, new BigDecimal("150.25"));
+    rates.put(Wallet.Currency.CAD, new BigDecimal("1.35"));
+    rates.put(Wallet.Currency.AUD, new BigDecimal("1.48"));
+    rates.put(Wallet.Currency.CHF, new BigDecimal("0.90"));
+    rates.put(Wallet.Currency.CNY, new BigDecimal("7.23"));
+    rates.put(Wallet.Currency.INR, new BigDecimal("83.45"));
+    return Collections.unmodifiableMap(rates);
+  }
+}
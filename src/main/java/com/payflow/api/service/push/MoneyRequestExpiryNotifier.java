@@ -0,0 +1,34 @@
+package com.payflow.api.service.push;
+
+import com.payflow.api.event.DomainEventHandler;
+import com.payflow.api.event.MoneyRequestExpiredEvent;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells the requester and requestee of each expired money request, through the {@link
+ * UserPushService}, that it is now EXPIRED, so clients that stopped polling drop it from their
+ * pending lists.
+ */
+@Component
+@RequiredArgsConstructor
+public class MoneyRequestExpiryNotifier implements DomainEventHandler<MoneyRequestExpiredEvent> {
+
+  private final UserPushService userPushService;
+
+  @Override
+  public Class<MoneyRequestExpiredEvent> getEventType() {
+    return MoneyRequestExpiredEvent.class;
+  }
+
+  @Override
+  public String getName() {
+    return "money-request-expiry-push";
+  }
+
+  @Override
+  public void handle(final List<MoneyRequestExpiredEvent> events) {
+    userPushService.moneyRequestsExpired(events);
+  }
+}
@@ -0,0 +1,135 @@
+package com.payflow.api.service.push;
+
+import com.payflow.api.model.dto.response.QRPaymentResponse;
+import com.payflow.api.security.UserPrincipal;
+import com.payflow.api.service.QRCodeService;
+import com.payflow.api.service.qr.QRPaymentSubscriptions;
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+/**
+ * Lets a merchant till watch one of its QR codes over WebSocket by subscribing to {@code
+ * /user/queue/qr-codes/{qrId}}. Each such subscription is entered in the {@link
+ * QRPaymentSubscriptions} index and receives the same notices as a long-poll, sent to that session
+ * only. Subscriptions to codes the user does not own, or that are no longer active, are ignored.
+ * Entries are removed when the client unsubscribes or disconnects, or when the code closes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QRPaymentPushService {
+
+  public static final String QR_CODES = "/queue/qr-codes/";
+
+  private static final String USER_QR_CODES = "/user" + QR_CODES;
+
+  private final QRPaymentSubscriptions qrPaymentSubscriptions;
+  private final QRCodeService qrCodeService;
+  private final SimpMessageSendingOperations messagingTemplate;
+
+  /** Entries in the index by session ID, then by STOMP subscription ID. */
+  private final Map<String, Map<String, Watch>> sessions = new ConcurrentHashMap<>();
+
+  @EventListener
+  public void onSubscribe(final SessionSubscribeEvent event) {
+    final StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+    final String destination = accessor.getDestination();
+    final Principal user = event.getUser();
+    if (destination == null || !destination.startsWith(USER_QR_CODES) || user == null) {
+      return;
+    }
+    final String qrId = destination.substring(USER_QR_CODES.length());
+    final Watch watch = new Watch(qrId, user.getName(), accessor.getSessionId());
+    if (!qrPaymentSubscriptions.subscribe(qrId, watch)) {
+      log.warn("Too many clients watching QR code {}; ignoring {}", qrId, user.getName());
+      return;
+    }
+    // Checked after subscribing, so a code closed in between still reaches the subscriber
+    try {
+      qrCodeService.checkPaymentWatcher(userId(user), qrId);
+    } catch (RuntimeException e) {
+      qrPaymentSubscriptions.unsubscribe(qrId, watch);
+      log.warn("{} may not watch QR code {}: {}", user.getName(), qrId, e.getMessage());
+      return;
+    }
+    sessions
+        .computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+        .put(accessor.getSubscriptionId(), watch);
+  }
+
+  @EventListener
+  public void onUnsubscribe(final SessionUnsubscribeEvent event) {
+    final StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+    final Map<String, Watch> watches = sessions.get(accessor.getSessionId());
+    if (watches != null) {
+      final Watch watch = watches.remove(accessor.getSubscriptionId());
+      if (watch != null) {
+        qrPaymentSubscriptions.unsubscribe(watch.qrId, watch);
+      }
+    }
+  }
+
+  @EventListener
+  public void onDisconnect(final SessionDisconnectEvent event) {
+    final Map<String, Watch> watches = sessions.remove(event.getSessionId());
+    if (watches != null) {
+      for (final Watch watch : watches.values()) {
+        qrPaymentSubscriptions.unsubscribe(watch.qrId, watch);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of sessions watching at least one code.
+   *
+   * @return watching sessions
+   */
+  public int getSessionCount() {
+    return sessions.size();
+  }
+
+  private static Long userId(final Principal user) {
+    return ((UserPrincipal) ((Authentication) user).getPrincipal()).getId();
+  }
+
+  /** One session's subscription to one code. */
+  private final class Watch implements QRPaymentSubscriptions.Subscriber {
+    private final String qrId;
+    private final String userName;
+    private final String sessionId;
+
+    private Watch(final String qrId, final String userName, final String sessionId) {
+      this.qrId = qrId;
+      this.userName = userName;
+      this.sessionId = sessionId;
+    }
+
+    @Override
+    public void deliver(final QRPaymentResponse notice) {
+      final SimpMessageHeaderAccessor headers =
+          SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+      headers.setSessionId(sessionId);
+      headers.setLeaveMutable(true);
+      try {
+        messagingTemplate.convertAndSendToUser(
+            userName, QR_CODES + qrId, notice, headers.getMessageHeaders());
+      } catch (MessagingException e) {
+        log.warn("Could not push QR code {} notice to {}: {}", qrId, userName, e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,398 @@
+package com.payflow.api.service.push;
+
+import com.payflow.api.event.DomainEventHandler;
+import com.payflow.api.event.TransactionCompletedEvent;
+import com.payflow.api.model.dto.response.TransactionResponse;
+import com.payflow.api.model.entity.Transaction;
+import com.payflow.api.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams a user's new transactions as Server-Sent Events, for clients that cannot hold a
+ * WebSocket.
+ *
+ * <p>Each event carries the transaction ID as its {@code id}, so a client that reconnects with
+ * {@code Last-Event-ID} is first sent the transactions it missed. If it missed more than the
+ * backlog holds it is sent a single {@code resync} event instead, telling it to reload its history
+ * through {@code GET /transactions}. Transaction IDs are assigned before commit, so a transaction
+ * committing while a client is disconnected can occasionally fall behind the cursor; the next
+ * resync picks it up.
+ *
+ * <p>New transactions arrive as {@link TransactionCompletedEvent}s from the {@link
+ * com.payflow.api.event.DomainEventBus} once they commit. Each stream queues at most {@code
+ * transaction.stream.backlog-size} events; a stream whose client reads too slowly has its queue
+ * replaced by one {@code resync} event rather than growing without bound. Queued events are written
+ * by a small pool of daemon threads, so no servlet thread is held while a stream is open. A user
+ * may hold a few streams at once; opening one more closes the oldest.
+ *
+ * <p>Streams are per node: a client only hears about transactions committed on the node it is
+ * connected to. Publishes {@code transaction.stream.open} and {@code transaction.stream.resyncs}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionStreamService implements DomainEventHandler<TransactionCompletedEvent> {
+
+  public static final String TRANSACTION = "transaction";
+  public static final String RESYNC = "resync";
+
+  private static final Stream[] NONE = new Stream[0];
+
+  private final TransactionRepository transactionRepository;
+  private final MeterRegistry meterRegistry;
+
+  private final Map<Long, Stream[]> streams = new ConcurrentHashMap<>();
+
+  @Value("${transaction.stream.backlog-size:100}")
+  private int backlogSize = 100;
+
+  @Value("${transaction.stream.timeout-ms:1800000}")
+  private long timeoutMs = 1_800_000L;
+
+  @Value("${transaction.stream.max-streams-per-user:4}")
+  private int maxStreamsPerUser = 4;
+
+  @Value("${transaction.stream.threads:4}")
+  private int threads = 4;
+
+  private ThreadPoolExecutor executor;
+  private Counter resyncCounter;
+
+  /** Starts the writer pool and registers the stream metrics. */
+  @PostConstruct
+  public void start() {
+    // At most one task is queued per open stream, so the queue needs no bound of its own
+    executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+              final Thread thread = new Thread(runnable, "transaction-stream");
+              thread.setDaemon(true);
+              return thread;
+            });
+    Gauge.builder("transaction.stream.open", this, TransactionStreamService::getStreamCount)
+        .description("Open Server-Sent Event transaction streams")
+        .register(meterRegistry);
+    resyncCounter =
+        Counter.builder("transaction.stream.resyncs")
+            .description("Transaction streams told to resync because their backlog overflowed")
+            .register(meterRegistry);
+  }
+
+  /** Closes every open stream and stops the writer pool. */
+  @PreDestroy
+  public void stop() {
+    for (final Stream[] open : streams.values()) {
+      for (final Stream stream : open) {
+        stream.emitter.complete();
+      }
+    }
+    streams.clear();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Opens a stream of the user's transactions.
+   *
+   * @param userId the user
+   * @param lastEventId the last transaction ID the client received, or null to start from now
+   * @return the emitter to return from the request handler
+   */
+  public SseEmitter open(final Long userId, final Long lastEventId) {
+    final SseEmitter emitter = newEmitter(timeoutMs);
+    final Stream stream = new Stream(userId, emitter);
+    emitter.onCompletion(() -> remove(stream));
+    emitter.onError(error -> remove(stream));
+    // Registered before catching up so nothing committed meanwhile is missed; it is queued instead
+    add(stream);
+    try {
+      if (lastEventId != null) {
+        catchUp(stream, lastEventId);
+      }
+    } catch (IOException | IllegalStateException e) {
+      remove(stream);
+      emitter.completeWithError(e);
+      return emitter;
+    }
+    stream.goLive();
+    return emitter;
+  }
+
+  @Override
+  public Class<TransactionCompletedEvent> getEventType() {
+    return TransactionCompletedEvent.class;
+  }
+
+  @Override
+  public String getName() {
+    return "transaction-stream";
+  }
+
+  /**
+   * Queues committed transactions on the open streams of their senders and receivers.
+   *
+   * @param events the committed transactions, oldest first
+   */
+  @Override
+  public void handle(final List<TransactionCompletedEvent> events) {
+    if (streams.isEmpty()) {
+      return;
+    }
+    for (final TransactionCompletedEvent event : events) {
+      final TransactionCompletedEvent.Party sender = event.getSender();
+      final TransactionCompletedEvent.Party receiver = event.getReceiver();
+      if (sender != null) {
+        publish(sender.getUserId(), event.getTransaction());
+      }
+      if (receiver != null
+          && (sender == null || !receiver.getUserId().equals(sender.getUserId()))) {
+        publish(receiver.getUserId(), event.getTransaction());
+      }
+    }
+  }
+
+  /**
+   * Queues a committed transaction on every stream its user has open.
+   *
+   * @param userId the sender or receiver of the transaction
+   * @param transaction the transaction
+   */
+  public void publish(final Long userId, final TransactionResponse transaction) {
+    final Stream[] open = userId == null ? null : streams.get(userId);
+    if (open == null) {
+      return;
+    }
+    for (final Stream stream : open) {
+      stream.enqueue(new Event(TRANSACTION, transaction.getId(), transaction));
+    }
+  }
+
+  /** Writes a comment to idle streams so proxies keep them open and dead clients are noticed. */
+  @Scheduled(fixedDelayString = "${transaction.stream.heartbeat-ms:15000}")
+  public void heartbeat() {
+    for (final Stream[] open : streams.values()) {
+      for (final Stream stream : open) {
+        stream.heartbeat();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of open streams.
+   *
+   * @return open streams
+   */
+  public int getStreamCount() {
+    int count = 0;
+    for (final Stream[] open : streams.values()) {
+      count += open.length;
+    }
+    return count;
+  }
+
+  SseEmitter newEmitter(final long timeout) {
+    return new SseEmitter(timeout);
+  }
+
+  private void catchUp(final Stream stream, final Long lastEventId) throws IOException {
+    final List<Transaction> missed =
+        transactionRepository.findByUserIdAfter(
+            stream.userId, lastEventId, PageRequest.of(0, backlogSize + 1));
+    if (missed.size() > backlogSize) {
+      resyncCounter.increment();
+      stream.send(
+          new Event(RESYNC, transactionRepository.findLatestIdByUserId(stream.userId), null));
+      return;
+    }
+    for (final Transaction transaction : missed) {
+      stream.send(
+          new Event(TRANSACTION, transaction.getId(), TransactionResponse.fromEntity(transaction)));
+    }
+  }
+
+  private void add(final Stream stream) {
+    final Stream[] evicted = {null};
+    streams.compute(
+        stream.userId,
+        (key, current) -> {
+          Stream[] existing = current == null ? NONE : current;
+          if (existing.length >= maxStreamsPerUser) {
+            evicted[0] = existing[0];
+            existing = Arrays.copyOfRange(existing, 1, existing.length);
+          }
+          final Stream[] next = Arrays.copyOf(existing, existing.length + 1);
+          next[existing.length] = stream;
+          return next;
+        });
+    if (evicted[0] != null) {
+      log.debug("Closing the oldest transaction stream of user {}", stream.userId);
+      remove(evicted[0]);
+      evicted[0].emitter.complete();
+    }
+  }
+
+  private void remove(final Stream stream) {
+    stream.close();
+    streams.computeIfPresent(
+        stream.userId,
+        (key, current) -> {
+          final Stream[] next =
+              Arrays.stream(current).filter(open -> open != stream).toArray(Stream[]::new);
+          return next.length == 0 ? null : next;
+        });
+  }
+
+  /** One queued event. A null name marks a heartbeat comment. */
+  private static final class Event {
+    private final String name;
+    private final Long id;
+    private final Object data;
+
+    private Event(final String name, final Long id, final Object data) {
+      this.name = name;
+      this.id = id;
+      this.data = data;
+    }
+
+    private SseEmitter.SseEventBuilder build() {
+      if (name == null) {
+        return SseEmitter.event().comment("");
+      }
+      final SseEmitter.SseEventBuilder event = SseEmitter.event().name(name);
+      if (id != null) {
+        event.id(String.valueOf(id));
+      }
+      // EventSource ignores events without data
+      return event.data(data != null ? data : Collections.singletonMap("latestTransactionId", id));
+    }
+  }
+
+  /** One open stream and the events waiting to be written to it. */
+  private final class Stream {
+    private final Long userId;
+    private final SseEmitter emitter;
+
+    /** Guarded by this stream. */
+    private final ArrayDeque<Event> pending = new ArrayDeque<>();
+
+    /** Transactions already sent while catching up; cleared once live. */
+    private final Set<Long> caughtUp = new HashSet<>();
+
+    private boolean live;
+    private boolean draining;
+    private boolean closed;
+
+    private Stream(final Long userId, final SseEmitter emitter) {
+      this.userId = userId;
+      this.emitter = emitter;
+    }
+
+    private void send(final Event event) throws IOException {
+      emitter.send(event.build());
+      if (TRANSACTION.equals(event.name)) {
+        synchronized (this) {
+          caughtUp.add(event.id);
+        }
+      }
+    }
+
+    private synchronized void enqueue(final Event event) {
+      if (closed) {
+        return;
+      }
+      if (pending.size() < backlogSize) {
+        pending.add(event);
+      } else {
+        // The client is not keeping up: replace what it has not read with one resync
+        long latest = event.id == null ? 0L : event.id;
+        for (final Event queued : pending) {
+          if (queued.id != null) {
+            latest = Math.max(latest, queued.id);
+          }
+        }
+        pending.clear();
+        pending.add(new Event(RESYNC, latest == 0L ? null : latest, null));
+        resyncCounter.increment();
+        log.debug("Transaction stream of user {} overflowed; sending resync", userId);
+      }
+      scheduleDrain();
+    }
+
+    private synchronized void heartbeat() {
+      if (live && pending.isEmpty()) {
+        pending.add(new Event(null, null, null));
+        scheduleDrain();
+      }
+    }
+
+    private synchronized void goLive() {
+      live = true;
+      pending.removeIf(event -> TRANSACTION.equals(event.name) && caughtUp.contains(event.id));
+      caughtUp.clear();
+      scheduleDrain();
+    }
+
+    private synchronized void close() {
+      closed = true;
+      pending.clear();
+    }
+
+    private void scheduleDrain() {
+      if (live && !draining && !closed && !pending.isEmpty()) {
+        draining = true;
+        executor.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      while (true) {
+        final Event event;
+        synchronized (this) {
+          event = pending.poll();
+          if (event == null || closed) {
+            draining = false;
+            return;
+          }
+        }
+        try {
+          emitter.send(event.build());
+        } catch (IOException | IllegalStateException e) {
+          log.debug("Transaction stream of user {} closed: {}", userId, e.getMessage());
+          remove(this);
+          emitter.completeWithError(e);
+          synchronized (this) {
+            draining = false;
+          }
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,289 @@
+package com.payflow.api.service.push;
+
+import com.payflow.api.event.DomainEventHandler;
+import com.payflow.api.event.MoneyRequestExpiredEvent;
+import com.payflow.api.event.TransactionCompletedEvent;
+import com.payflow.api.model.dto.response.MoneyRequestResponse;
+import com.payflow.api.model.dto.response.WalletResponse;
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+/**
+ * Pushes wallet balances, new transactions and money requests to the WebSocket sessions of the
+ * users they belong to, so clients need not poll for them.
+ *
+ * <p>Changes made inside a database transaction are collected against it and sent only once it
+ * commits, so a rolled-back transfer pushes nothing. A wallet is pushed once per transaction with
+ * the balance it committed with, however many times it was saved. Changes made outside a
+ * transaction are sent straight away. Users with no open session are skipped before anything is
+ * serialized.
+ *
+ * <p>Each session subscribes to the destinations below under the {@code /user} prefix, for example
+ * {@code /user/queue/wallets}, and the in-memory broker fans a message out to every session of the
+ * user. Sessions that cannot keep up are closed by the broker; see {@link
+ * com.payflow.api.config.WebSocketConfig}.
+ *
+ * <p>New transactions arrive as {@link TransactionCompletedEvent}s from the {@link
+ * com.payflow.api.event.DomainEventBus}, already committed. Each batch of them is pushed as one, so
+ * a wallet moved by several transactions in a batch is pushed once, with its latest balance.
+ * Expired money requests arrive the same way, through {@link MoneyRequestExpiryNotifier}.
+ */
+@Service
+@Slf4j
+public class UserPushService implements DomainEventHandler<TransactionCompletedEvent> {
+
+  public static final String WALLETS = "/queue/wallets";
+  public static final String TRANSACTIONS = "/queue/transactions";
+  public static final String MONEY_REQUESTS = "/queue/money-requests";
+
+  private final SimpMessageSendingOperations messagingTemplate;
+  private final SimpUserRegistry userRegistry;
+  private final Counter sent;
+  private final Counter evicted;
+
+  public UserPushService(
+      final SimpMessageSendingOperations messagingTemplate,
+      final SimpUserRegistry userRegistry,
+      final MeterRegistry meterRegistry) {
+    this.messagingTemplate = messagingTemplate;
+    this.userRegistry = userRegistry;
+    this.sent = meterRegistry.counter("push.messages.sent");
+    this.evicted = meterRegistry.counter("push.sessions.evicted");
+  }
+
+  @Override
+  public Class<TransactionCompletedEvent> getEventType() {
+    return TransactionCompletedEvent.class;
+  }
+
+  @Override
+  public String getName() {
+    return "user-push";
+  }
+
+  /**
+   * Pushes committed transactions to their senders and receivers, and the balances of the wallets
+   * they moved money between.
+   *
+   * @param events the committed transactions, oldest first
+   */
+  @Override
+  public void handle(final List<TransactionCompletedEvent> events) {
+    final Batch batch = new Batch();
+    for (final TransactionCompletedEvent event : events) {
+      batch.message(event.getSender(), TRANSACTIONS, event.getTransaction());
+      batch.message(event.getReceiver(), TRANSACTIONS, event.getTransaction());
+      batch.wallet(event.getSourceWallet());
+      batch.wallet(event.getDestinationWallet());
+    }
+    send(batch);
+  }
+
+  /**
+   * Pushes the balance of a wallet as it stands when the current transaction commits.
+   *
+   * @param wallet the wallet whose balance changed
+   */
+  public void walletChanged(final Wallet wallet) {
+    collect(batch -> batch.wallet(wallet));
+  }
+
+  /**
+   * Pushes a new or updated money request to its requester and requestee.
+   *
+   * @param moneyRequest the saved request, with its parties and wallet loaded
+   */
+  public void moneyRequestChanged(final MoneyRequest moneyRequest) {
+    collect(
+        batch -> {
+          final MoneyRequestResponse payload = MoneyRequestResponse.fromEntity(moneyRequest);
+          batch.message(moneyRequest.getRequestee(), MONEY_REQUESTS, payload);
+          batch.message(moneyRequest.getRequester(), MONEY_REQUESTS, payload);
+        });
+  }
+
+  /**
+   * Pushes expired money requests to their requesters and requestees.
+   *
+   * @param events the committed expiries, oldest first
+   */
+  public void moneyRequestsExpired(final List<MoneyRequestExpiredEvent> events) {
+    final Batch batch = new Batch();
+    for (final MoneyRequestExpiredEvent event : events) {
+      final MoneyRequestResponse payload = event.getMoneyRequest();
+      batch.message(payload.getRequesteeEmail(), MONEY_REQUESTS, payload);
+      batch.message(payload.getRequesterEmail(), MONEY_REQUESTS, payload);
+    }
+    send(batch);
+  }
+
+  /** Counts sessions the broker closed because they stopped reading. */
+  @EventListener
+  public void onSessionDisconnect(final SessionDisconnectEvent event) {
+    if (CloseStatus.SESSION_NOT_RELIABLE.equals(event.getCloseStatus())) {
+      evicted.increment();
+      log.warn(
+          "Evicted slow WebSocket session {} of {}",
+          event.getSessionId(),
+          event.getUser() == null ? "anonymous" : event.getUser().getName());
+    }
+  }
+
+  /**
+   * Adds a change to the current transaction's batch, or sends it at once outside a transaction. A
+   * change that cannot be turned into a push is logged and dropped; it never fails the caller.
+   */
+  private void collect(final Consumer<Batch> change) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      final Batch batch = new Batch();
+      if (apply(change, batch)) {
+        send(batch);
+      }
+      return;
+    }
+    Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+    if (batch == null) {
+      final Batch created = new Batch();
+      TransactionSynchronizationManager.bindResource(this, created);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(final int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(UserPushService.this);
+              if (status == STATUS_COMMITTED) {
+                send(created);
+              }
+            }
+          });
+      batch = created;
+    }
+    apply(change, batch);
+  }
+
+  private static boolean apply(final Consumer<Batch> change, final Batch batch) {
+    try {
+      change.accept(batch);
+      return true;
+    } catch (RuntimeException e) {
+      log.warn("Could not prepare push: {}", e.getMessage(), e);
+      return false;
+    }
+  }
+
+  private void send(final Batch batch) {
+    for (final WalletPush push : batch.wallets.values()) {
+      send(push.email, WALLETS, push.payload);
+    }
+    for (final MessagePush push : batch.messages) {
+      send(push.email, push.destination, () -> push.payload);
+    }
+  }
+
+  private void send(final String email, final String destination, final Supplier<Object> payload) {
+    if (userRegistry.getUser(email) == null) {
+      return;
+    }
+    try {
+      messagingTemplate.convertAndSendToUser(email, destination, payload.get());
+      sent.increment();
+    } catch (MessagingException e) {
+      // The change has committed; a client that misses a push catches up on its next read
+      log.warn("Could not push {} to {}: {}", destination, email, e.getMessage());
+    }
+  }
+
+  /** The pushes collected for one database transaction, or one batch of committed events. */
+  private static final class Batch {
+    private final Map<String, WalletPush> wallets = new LinkedHashMap<>();
+    private final List<MessagePush> messages = new ArrayList<>();
+
+    private void wallet(final Wallet wallet) {
+      if (wallet != null) {
+        // Read when the batch is sent, so the pushed balance is the committed one
+        wallets.put(
+            wallet.getWalletNumber(),
+            new WalletPush(wallet.getUser().getEmail(), () -> WalletResponse.fromEntity(wallet)));
+      }
+    }
+
+    private void wallet(final TransactionCompletedEvent.WalletBalance wallet) {
+      if (wallet != null && wallet.getOwner() != null) {
+        final WalletResponse payload =
+            new WalletResponse(
+                wallet.getWalletId(),
+                wallet.getWalletNumber(),
+                wallet.getCurrency().name(),
+                wallet.getBalance().toBigDecimal(),
+                wallet.getCreatedAt());
+        wallets.put(
+            wallet.getWalletNumber(), new WalletPush(wallet.getOwner().getEmail(), () -> payload));
+      }
+    }
+
+    private void message(final User user, final String destination, final Object payload) {
+      if (user != null) {
+        message(user.getEmail(), destination, payload);
+      }
+    }
+
+    private void message(
+        final TransactionCompletedEvent.Party party,
+        final String destination,
+        final Object payload) {
+      if (party != null) {
+        message(party.getEmail(), destination, payload);
+      }
+    }
+
+    private void message(final String email, final String destination, final Object payload) {
+      for (final MessagePush push : messages) {
+        if (push.email.equals(email) && push.payload == payload) {
+          return;
+        }
+      }
+      messages.add(new MessagePush(email, destination, payload));
+    }
+  }
+
+  private static final class WalletPush {
+    private final String email;
+    private final Supplier<Object> payload;
+
+    private WalletPush(final String email, final Supplier<Object> payload) {
+      this.email = Objects.requireNonNull(email);
+      this.payload = payload;
+    }
+  }
+
+  private static final class MessagePush {
+    private final String email;
+    private final String destination;
+    private final Object payload;
+
+    private MessagePush(final String email, final String destination, final Object payload) {
+      this.email = Objects.requireNonNull(email);
+      this.destination = destination;
+      this.payload = payload;
+    }
+  }
+}
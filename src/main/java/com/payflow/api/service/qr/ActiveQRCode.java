@@ -0,0 +1,110 @@
+package com.payflow.api.service.qr;
+
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of the fields of a {@link QRCode} that a payment needs to validate and route it.
+ * None of them change while a code is active, so an instance can be shared by any number of
+ * concurrent payments without touching the entity or the database.
+ */
+public final class ActiveQRCode {
+
+  private final Long id;
+  private final String qrId;
+  private final Long walletId;
+  private final Wallet.Currency currency;
+  private final Money amount;
+  private final boolean amountFixed;
+  private final boolean oneTime;
+  private final String description;
+  private final LocalDateTime expiresAt;
+
+  public ActiveQRCode(
+      final Long id,
+      final String qrId,
+      final Long walletId,
+      final Wallet.Currency currency,
+      final Money amount,
+      final boolean amountFixed,
+      final boolean oneTime,
+      final String description,
+      final LocalDateTime expiresAt) {
+    this.id = id;
+    this.qrId = qrId;
+    this.walletId = walletId;
+    this.currency = currency;
+    this.amount = amount;
+    this.amountFixed = amountFixed;
+    this.oneTime = oneTime;
+    this.description = description;
+    this.expiresAt = expiresAt;
+  }
+
+  /**
+   * Copies the payment metadata out of a QR code entity.
+   *
+   * @param qrCode the QR code, with its wallet loaded
+   * @return the immutable copy
+   */
+  public static ActiveQRCode from(final QRCode qrCode) {
+    return new ActiveQRCode(
+        qrCode.getId(),
+        qrCode.getQrId(),
+        qrCode.getWallet().getId(),
+        qrCode.getWallet().getCurrency(),
+        qrCode.getAmount(),
+        qrCode.isAmountFixed(),
+        qrCode.isOneTime(),
+        qrCode.getDescription(),
+        qrCode.getExpiresAt());
+  }
+
+  /**
+   * Tells whether the code has passed its expiry. Codes without an expiry never expire.
+   *
+   * @param now the current time
+   * @return true if the code can no longer be paid
+   */
+  public boolean isExpired(final LocalDateTime now) {
+    return expiresAt != null && expiresAt.isBefore(now);
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getQrId() {
+    return qrId;
+  }
+
+  public Long getWalletId() {
+    return walletId;
+  }
+
+  public Wallet.Currency getCurrency() {
+    return currency;
+  }
+
+  public Money getAmount() {
+    return amount;
+  }
+
+  public boolean isAmountFixed() {
+    return amountFixed;
+  }
+
+  public boolean isOneTime() {
+    return oneTime;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public LocalDateTime getExpiresAt() {
+    return expiresAt;
+  }
+}
@@ -0,0 +1,160 @@
+package com.payflow.api.service.qr;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory index of the QR codes that can currently be paid, keyed by QR ID, so that validating a
+ * payment needs no query for the code itself.
+ *
+ * <p>The registry is per node and is never the source of truth. It is filled from the database at
+ * startup and periodically afterwards, and a payment for a code it does not hold falls back to the
+ * database and registers what it finds. A code leaves the registry as soon as it is deactivated or
+ * expired, and again once that transaction commits; a consumed code leaves once the payment that
+ * consumed it commits. Every removal leaves a short-lived tombstone, so a database read that
+ * started before the removal cannot put the code back.
+ *
+ * <p>Expired codes are dropped by the {@link QRCodeExpirationHandler}; until then a payment still
+ * checks the expiry held in the registry.
+ */
+@Component
+public class ActiveQRCodeRegistry {
+
+  private final Map<String, ActiveQRCode> codes = new ConcurrentHashMap<>();
+  private final Map<String, Long> tombstones = new ConcurrentHashMap<>();
+  private final AtomicLong removals = new AtomicLong();
+  private volatile long lastReloadStamp;
+
+  /**
+   * Looks up an active code.
+   *
+   * @param qrId the QR ID
+   * @return the code, or {@code null} if this node does not know it to be active
+   */
+  public ActiveQRCode get(final String qrId) {
+    return codes.get(qrId);
+  }
+
+  /**
+   * Returns the current removal stamp. Take it before reading codes from the database and pass it
+   * to {@link #register} or {@link #replaceAll}, so that codes removed in the meantime are skipped.
+   *
+   * @return the removal stamp
+   */
+  public long stamp() {
+    return removals.get();
+  }
+
+  /**
+   * Adds a code read from the database, unless it has been removed since {@code stamp} was taken.
+   *
+   * @param code the active code
+   * @param stamp the value of {@link #stamp()} taken before the code was read
+   */
+  public void register(final ActiveQRCode code, final long stamp) {
+    if (tombstones.getOrDefault(code.getQrId(), Long.MIN_VALUE) > stamp) {
+      return;
+    }
+    codes.putIfAbsent(code.getQrId(), code);
+  }
+
+  /**
+   * Adds a newly created code once the current transaction commits, or immediately if no
+   * transaction is active.
+   *
+   * @param code the new code
+   */
+  public void registerAfterCommit(final ActiveQRCode code) {
+    afterCommit(() -> register(code, stamp()));
+  }
+
+  /**
+   * Adds a batch of newly created codes once the current transaction commits, or immediately if no
+   * transaction is active.
+   *
+   * @param newCodes the new codes
+   */
+  public void registerAllAfterCommit(final Collection<ActiveQRCode> newCodes) {
+    afterCommit(
+        () -> {
+          final long stamp = stamp();
+          for (final ActiveQRCode code : newCodes) {
+            register(code, stamp);
+          }
+        });
+  }
+
+  /**
+   * Removes a code that has been deactivated or consumed. The code is dropped at once, so no
+   * further payment on this node is validated against it, and again after the current transaction
+   * commits in case a concurrent read registered it in between.
+   *
+   * @param qrId the QR ID
+   */
+  public void remove(final String qrId) {
+    removeNow(qrId);
+    afterCommit(() -> removeNow(qrId));
+  }
+
+  /**
+   * Removes a code once the current transaction commits, or immediately if no transaction is
+   * active. Used where the code is only consumed if the rest of the transaction succeeds: until
+   * then it stays registered, and the database decides which of several concurrent payers claims
+   * it.
+   *
+   * @param qrId the QR ID
+   */
+  public void removeAfterCommit(final String qrId) {
+    afterCommit(() -> removeNow(qrId));
+  }
+
+  /**
+   * Replaces the registry contents with a fresh read of every active code. Codes removed after
+   * {@code stamp} was taken are left out, and tombstones older than the previous reload are
+   * discarded.
+   *
+   * @param activeCodes every active code, as read from the database
+   * @param stamp the value of {@link #stamp()} taken before the codes were read
+   */
+  public void replaceAll(final Collection<ActiveQRCode> activeCodes, final long stamp) {
+    final Set<String> qrIds = new HashSet<>();
+    for (final ActiveQRCode code : activeCodes) {
+      qrIds.add(code.getQrId());
+      register(code, stamp);
+    }
+    codes.keySet().retainAll(qrIds);
+    final long previousStamp = lastReloadStamp;
+    tombstones.values().removeIf(removedAt -> removedAt <= previousStamp);
+    lastReloadStamp = stamp;
+  }
+
+  public int size() {
+    return codes.size();
+  }
+
+  private void removeNow(final String qrId) {
+    tombstones.put(qrId, removals.incrementAndGet());
+    codes.remove(qrId);
+  }
+
+  private static void afterCommit(final Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+}
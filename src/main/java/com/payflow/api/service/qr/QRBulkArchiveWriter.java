@@ -0,0 +1,176 @@
+package com.payflow.api.service.qr;
+
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.money.Money;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams a ZIP archive holding one image per QR code and a CSV manifest.
+ *
+ * <p>Images are rendered on a fixed pool of daemon threads shared by all archives. Each archive
+ * keeps at most {@code 2 * threads} renders in flight and writes them to the stream in order as
+ * they finish, so memory use does not grow with the number of codes and the first bytes reach the
+ * client before the last image is rendered. Bulk images bypass the {@link QRImageCache}, which they
+ * would otherwise flush.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QRBulkArchiveWriter {
+
+  /** Name of the manifest entry, written before the images. */
+  public static final String MANIFEST = "manifest.csv";
+
+  private static final String MANIFEST_HEADER = "qr_id,file,currency,amount,expires_at,payload\n";
+
+  private final QRImageRenderer qrImageRenderer;
+
+  @Value("${qr.bulk.render-threads:4}")
+  private int threads = 4;
+
+  private ThreadPoolExecutor executor;
+
+  /** Starts the render pool. */
+  @PostConstruct
+  public void start() {
+    executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+              final Thread thread = new Thread(runnable, "qr-bulk-render");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Stops the render pool, abandoning archives still being written. */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Writes the archive. The stream is finished but not closed.
+   *
+   * @param qrCodes the codes to include, with their wallets loaded
+   * @param content produces the payload encoded in each code's image
+   * @param format the image format
+   * @param size width and height in pixels
+   * @param margin quiet zone width in modules
+   * @param out where to write the archive
+   * @throws IOException if writing fails or an image cannot be rendered
+   */
+  public void write(
+      final List<QRCode> qrCodes,
+      final Function<QRCode, String> content,
+      final QRImageFormat format,
+      final int size,
+      final int margin,
+      final OutputStream out)
+      throws IOException {
+    final List<String> payloads = new ArrayList<>(qrCodes.size());
+    for (final QRCode qrCode : qrCodes) {
+      payloads.add(content.apply(qrCode));
+    }
+
+    final ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+    // PNG data is already deflated; compressing it again only burns CPU
+    zip.setLevel(format == QRImageFormat.PNG ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED);
+    writeManifest(zip, qrCodes, payloads, format);
+
+    final Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    final int window = threads * 2;
+    int next = 0;
+    int written = 0;
+    try {
+      while (written < qrCodes.size()) {
+        while (next < qrCodes.size() && inFlight.size() < window) {
+          final String payload = payloads.get(next++);
+          inFlight.add(
+              executor.submit(() -> qrImageRenderer.render(payload, format, size, margin)));
+        }
+        final byte[] image = await(inFlight.poll());
+        zip.putNextEntry(new ZipEntry(fileName(qrCodes.get(written++), format)));
+        zip.write(image);
+        zip.closeEntry();
+      }
+      zip.finish();
+      zip.flush();
+    } finally {
+      inFlight.forEach(render -> render.cancel(true));
+    }
+    log.debug("Wrote QR archive with {} {} images", written, format);
+  }
+
+  private static void writeManifest(
+      final ZipOutputStream zip,
+      final List<QRCode> qrCodes,
+      final List<String> payloads,
+      final QRImageFormat format)
+      throws IOException {
+    zip.putNextEntry(new ZipEntry(MANIFEST));
+    // Not closed: closing would close the archive stream underneath it
+    final Writer manifest = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+    manifest.write(MANIFEST_HEADER);
+    for (int i = 0; i < qrCodes.size(); i++) {
+      final QRCode qrCode = qrCodes.get(i);
+      manifest
+          .append(qrCode.getQrId())
+          .append(',')
+          .append(fileName(qrCode, format))
+          .append(',')
+          .append(String.valueOf(qrCode.getWallet().getCurrency()))
+          .append(',')
+          .append(qrCode.isAmountFixed() ? Money.toBigDecimal(qrCode.getAmount()).toString() : "")
+          .append(',')
+          .append(qrCode.getExpiresAt() == null ? "" : qrCode.getExpiresAt().toString())
+          .append(',')
+          .append(payloads.get(i))
+          .append('\n');
+    }
+    manifest.flush();
+    zip.closeEntry();
+  }
+
+  private static String fileName(final QRCode qrCode, final QRImageFormat format) {
+    return qrCode.getQrId() + '.' + format.getExtension();
+  }
+
+  private static byte[] await(final Future<byte[]> render) throws IOException {
+    try {
+      return render.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while rendering QR images", e);
+    } catch (final ExecutionException e) {
+      throw new IOException("Failed to render QR image: " + e.getCause().getMessage(), e);
+    }
+  }
+}
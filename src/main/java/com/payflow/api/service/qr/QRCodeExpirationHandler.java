@@ -0,0 +1,66 @@
+package com.payflow.api.service.qr;
+
+import com.payflow.api.model.dto.response.QRPaymentResponse;
+import com.payflow.api.model.expiry.Expiration;
+import com.payflow.api.repository.QRCodeRepository;
+import com.payflow.api.service.expiry.ExpirationHandler;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deactivates QR codes that pass their expiry, drops them from the {@link ActiveQRCodeRegistry} and
+ * the {@link QRImageCache}, and closes any payment subscriptions on them.
+ *
+ * <p>A batch is deactivated in chunks of at most {@code qr.expiry.chunk-size} codes, one update and
+ * transaction per chunk. Bulk-issued codes share an expiry, so a single tick can hold thousands of
+ * them, more than a single {@code IN} list can safely bind. A chunk that fails does not undo the
+ * chunks before it, and its codes are retried by the next load.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QRCodeExpirationHandler implements ExpirationHandler {
+
+  private final QRCodeRepository qrCodeRepository;
+  private final ActiveQRCodeRegistry activeQRCodes;
+  private final QRImageCache qrImageCache;
+  private final QRPaymentSubscriptions qrPaymentSubscriptions;
+
+  @Value("${qr.expiry.chunk-size:1000}")
+  private int chunkSize = 1000;
+
+  @Override
+  public String getType() {
+    return Expiration.QR_CODE;
+  }
+
+  @Override
+  public List<Expiration> findDue(
+      final LocalDateTime before, final Expiration after, final int limit) {
+    return qrCodeRepository.findDueExpirations(before, after, limit);
+  }
+
+  @Override
+  public void expire(final List<Expiration> due) {
+    int deactivated = 0;
+    for (int from = 0; from < due.size(); from += chunkSize) {
+      final List<Expiration> chunk = due.subList(from, Math.min(from + chunkSize, due.size()));
+      deactivated +=
+          qrCodeRepository.deactivateAllIfActive(
+              chunk.stream().map(Expiration::getId).collect(Collectors.toList()));
+      for (final Expiration expiration : chunk) {
+        activeQRCodes.remove(expiration.getReference());
+        qrImageCache.invalidate(expiration.getReference());
+        qrPaymentSubscriptions.publishAfterCommit(
+            QRPaymentResponse.closed(expiration.getReference(), QRPaymentResponse.Status.EXPIRED),
+            true);
+      }
+    }
+    log.info("Expired {} QR codes", deactivated);
+  }
+}
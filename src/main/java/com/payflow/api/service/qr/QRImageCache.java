@@ -0,0 +1,221 @@
+package com.payflow.api.service.qr;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * In-process cache of rendered QR code images, bounded by the total number of bytes it holds.
+ *
+ * <p>Entries are keyed by the QR id, a hash of the encoded content and a rendering variant (format
+ * and size). Because the content hash is part of the key, an image can never be served for content
+ * it was not rendered from. Entries are evicted in least-recently-used order once the byte budget
+ * is exceeded, and all entries for a QR id are dropped when the code is deactivated.
+ *
+ * <p>Concurrent misses for the same key are coalesced: the first caller renders the image and any
+ * callers arriving while it does so wait for that result instead of rendering it again.
+ */
+@Component
+@Slf4j
+public class QRImageCache {
+
+  @Value("${qr.image.cache.max-size:16MB}")
+  private DataSize maxSize = DataSize.ofMegabytes(16);
+
+  private final LinkedHashMap<Key, byte[]> images = new LinkedHashMap<>(64, 0.75f, true);
+  private final Map<Key, CompletableFuture<byte[]>> renders = new ConcurrentHashMap<>();
+
+  private long sizeBytes;
+  private long generation;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Returns a cached image, rendering and caching it if absent.
+   *
+   * @param qrId the QR code id
+   * @param contentHash hash of the encoded content, see {@link #contentHash(String)}
+   * @param variant rendering variant, for example {@code "png:300"}
+   * @param renderer renders the image on a miss
+   * @return the image bytes; callers must not modify the array
+   */
+  public byte[] get(
+      final String qrId,
+      final String contentHash,
+      final String variant,
+      final Supplier<byte[]> renderer) {
+    final Key key = new Key(qrId, contentHash, variant);
+    final byte[] cached = lookup(key);
+    if (cached != null) {
+      hits.incrementAndGet();
+      return cached;
+    }
+
+    final CompletableFuture<byte[]> pending = new CompletableFuture<>();
+    final CompletableFuture<byte[]> inFlight = renders.putIfAbsent(key, pending);
+    if (inFlight != null) {
+      hits.incrementAndGet();
+      return join(inFlight);
+    }
+
+    misses.incrementAndGet();
+    final long startGeneration = currentGeneration();
+    try {
+      final byte[] image = renderer.get();
+      store(key, image, startGeneration);
+      pending.complete(image);
+      return image;
+    } catch (final RuntimeException e) {
+      pending.completeExceptionally(e);
+      throw e;
+    } finally {
+      renders.remove(key, pending);
+    }
+  }
+
+  /**
+   * Drops every cached image of a QR code. Renders already in flight complete for their callers but
+   * are not cached.
+   *
+   * @param qrId the QR code id
+   */
+  public synchronized void invalidate(final String qrId) {
+    generation++;
+    final Iterator<Map.Entry<Key, byte[]>> entries = images.entrySet().iterator();
+    while (entries.hasNext()) {
+      final Map.Entry<Key, byte[]> entry = entries.next();
+      if (entry.getKey().qrId.equals(qrId)) {
+        sizeBytes -= entry.getValue().length;
+        entries.remove();
+      }
+    }
+  }
+
+  /**
+   * Hashes QR content into a short hex string suitable for cache keys and ETags.
+   *
+   * @param content the encoded QR content
+   * @return the first 128 bits of the content's SHA-256, as hex
+   */
+  public static String contentHash(final String content) {
+    try {
+      final byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+      final StringBuilder hex = new StringBuilder(32);
+      for (int i = 0; i < 16; i++) {
+        hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+        hex.append(Character.forDigit(digest[i] & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  public synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  public synchronized int getEntryCount() {
+    return images.size();
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  private synchronized byte[] lookup(final Key key) {
+    return images.get(key);
+  }
+
+  private synchronized long currentGeneration() {
+    return generation;
+  }
+
+  private synchronized void store(final Key key, final byte[] image, final long startGeneration) {
+    if (startGeneration != generation) {
+      return;
+    }
+    final long budget = maxSize.toBytes();
+    if (image.length > budget) {
+      log.debug("Not caching {} byte image for QR code {}", image.length, key.qrId);
+      return;
+    }
+    final byte[] previous = images.put(key, image);
+    if (previous != null) {
+      sizeBytes -= previous.length;
+    }
+    sizeBytes += image.length;
+
+    final Iterator<byte[]> eldest = images.values().iterator();
+    while (sizeBytes > budget) {
+      sizeBytes -= eldest.next().length;
+      eldest.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  private static byte[] join(final CompletableFuture<byte[]> render) {
+    try {
+      return render.join();
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static final class Key {
+    private final String qrId;
+    private final String contentHash;
+    private final String variant;
+
+    private Key(final String qrId, final String contentHash, final String variant) {
+      this.qrId = qrId;
+      this.contentHash = contentHash;
+      this.variant = variant;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) o;
+      return qrId.equals(other.qrId)
+          && contentHash.equals(other.contentHash)
+          && variant.equals(other.variant);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(qrId, contentHash, variant);
+    }
+  }
+}
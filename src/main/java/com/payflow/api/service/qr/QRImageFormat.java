@@ -0,0 +1,23 @@
+package com.payflow.api.service.qr;
+
+/** Image formats QR codes can be rendered in. */
+public enum QRImageFormat {
+  PNG("image/png", "png"),
+  SVG("image/svg+xml", "svg");
+
+  private final String contentType;
+  private final String extension;
+
+  QRImageFormat(final String contentType, final String extension) {
+    this.contentType = contentType;
+    this.extension = extension;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+}
@@ -0,0 +1,132 @@
+package com.payflow.api.service.qr;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs QR image pre-rendering in the background so that the first request for a new code's image is
+ * served from the {@link QRImageCache}.
+ *
+ * <p>Work is queued only once the creating transaction commits, so nothing is rendered for codes
+ * that were rolled back. Rendering runs on a small pool of minimum-priority daemon threads behind a
+ * bounded queue. When the queue is full new work is dropped, since the image is still rendered on
+ * demand the first time it is requested.
+ *
+ * <p>Publishes {@code qr.image.prerender.queue} (queued tasks), {@code qr.image.prerender} (render
+ * latency per task) and {@code qr.image.prerender.rejected} (tasks dropped on a full queue).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QRImagePrerenderer {
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${qr.image.prerender.threads:1}")
+  private int threads = 1;
+
+  @Value("${qr.image.prerender.queue-capacity:1000}")
+  private int queueCapacity = 1_000;
+
+  private ThreadPoolExecutor executor;
+  private Timer renderTimer;
+  private Counter rejectedCounter;
+
+  /** Starts the worker pool and registers its metrics. */
+  @PostConstruct
+  public void start() {
+    executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              final Thread thread = new Thread(runnable, "qr-prerender");
+              thread.setDaemon(true);
+              thread.setPriority(Thread.MIN_PRIORITY);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    Gauge.builder("qr.image.prerender.queue", executor, e -> e.getQueue().size())
+        .description("QR image pre-render tasks waiting to run")
+        .register(meterRegistry);
+    renderTimer =
+        Timer.builder("qr.image.prerender")
+            .description("Time to pre-render the images of one QR code")
+            .register(meterRegistry);
+    rejectedCounter =
+        Counter.builder("qr.image.prerender.rejected")
+            .description("QR image pre-render tasks dropped because the queue was full")
+            .register(meterRegistry);
+  }
+
+  /** Stops the worker pool, discarding queued work. */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Queues a pre-render task to run after the current transaction commits, or immediately if no
+   * transaction is active.
+   *
+   * @param task renders and caches the images
+   */
+  public void submitAfterCommit(final Runnable task) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              submit(task);
+            }
+          });
+    } else {
+      submit(task);
+    }
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public long getCompletedCount() {
+    return renderTimer.count();
+  }
+
+  public long getRejectedCount() {
+    return (long) rejectedCounter.count();
+  }
+
+  private void submit(final Runnable task) {
+    try {
+      executor.execute(
+          () -> {
+            try {
+              renderTimer.record(task);
+            } catch (final RuntimeException e) {
+              log.warn("QR image pre-render failed: {}", e.getMessage());
+            }
+          });
+    } catch (final RejectedExecutionException e) {
+      rejectedCounter.increment();
+      log.debug("QR image pre-render queue is full, leaving images to render on demand");
+    }
+  }
+}
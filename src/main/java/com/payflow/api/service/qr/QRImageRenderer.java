@@ -0,0 +1,250 @@
+package com.payflow.api.service.qr;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodes QR content and renders it as PNG or SVG.
+ *
+ * <p>Content is encoded once into a matrix of one bit per module, without a quiet zone, and both
+ * formats are written straight from that matrix. PNG output is a 1-bit greyscale image laid out
+ * exactly like ZXing's {@code QRCodeWriter} would at the same size and margin: modules are scaled
+ * by the largest whole multiple that fits and the code is centred. Each module row is expanded into
+ * a single packed scanline that is written once per pixel row it covers, so no full-size raster is
+ * ever allocated. SVG images are drawn on a grid of one unit per module and scaled by the viewer,
+ * so their size only sets the default width and height.
+ *
+ * <p>Each render is timed into {@code qr.image.render}, tagged with the format.
+ */
+@Component
+public class QRImageRenderer {
+
+  /** Identifies the renderer's output; bump it whenever the bytes produced for a QR code change. */
+  public static final String VERSION = "r2";
+
+  private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+  private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+  private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+  private static final int FILTER_NONE = 0;
+
+  private final Map<QRImageFormat, Timer> renderTimers = new EnumMap<>(QRImageFormat.class);
+
+  /**
+   * Creates a renderer.
+   *
+   * @param meterRegistry the registry to publish render times to
+   */
+  public QRImageRenderer(final MeterRegistry meterRegistry) {
+    for (final QRImageFormat format : QRImageFormat.values()) {
+      renderTimers.put(
+          format,
+          Timer.builder("qr.image.render")
+              .description("Time taken to encode and render a QR code image")
+              .tag("format", format.getExtension())
+              .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Renders QR content.
+   *
+   * @param content the content to encode
+   * @param format the output format
+   * @param size width and height in pixels
+   * @param margin quiet zone width in modules
+   * @return the encoded image
+   * @throws WriterException if the content cannot be encoded
+   */
+  public byte[] render(
+      final String content, final QRImageFormat format, final int size, final int margin)
+      throws WriterException {
+    final long startedAt = System.nanoTime();
+    try {
+      final BitMatrix modules = encode(content);
+      switch (format) {
+        case SVG:
+          return writeSvg(modules, size, margin);
+        case PNG:
+        default:
+          return writePng(modules, size, margin);
+      }
+    } finally {
+      renderTimers.get(format).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Encodes content into a matrix of exactly one bit per module, with no quiet zone.
+   *
+   * @param content the content to encode
+   * @return the module matrix
+   * @throws WriterException if the content cannot be encoded
+   */
+  static BitMatrix encode(final String content) throws WriterException {
+    final Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.MARGIN, 0);
+    return new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0, hints);
+  }
+
+  /**
+   * Writes a 1-bit greyscale PNG. Pixel rows that fall on the same module row share one scanline,
+   * and the quiet zone shares one all-white scanline.
+   */
+  static byte[] writePng(final BitMatrix modules, final int size, final int margin) {
+    final int moduleCount = modules.getWidth();
+    final int qrWidth = moduleCount + margin * 2;
+    final int width = Math.max(size, qrWidth);
+    final int multiple = width / qrWidth;
+    final int padding = (width - moduleCount * multiple) / 2;
+    final int rowBytes = (width + 7) >>> 3;
+
+    // Filter byte followed by packed pixels, 1 = white
+    final byte[] blank = new byte[rowBytes + 1];
+    Arrays.fill(blank, 1, blank.length, (byte) 0xFF);
+    final byte[] scanline = new byte[rowBytes + 1];
+
+    final ByteArrayOutputStream png =
+        new ByteArrayOutputStream(512 + moduleCount * moduleCount / 4);
+    try {
+      png.write(PNG_SIGNATURE);
+      final byte[] header = new byte[13];
+      putInt(header, 0, width);
+      putInt(header, 4, width);
+      header[8] = 1; // bit depth
+      header[9] = 0; // greyscale
+      writeChunk(png, IHDR, header, header.length);
+
+      final ByteArrayOutputStream idat = new ByteArrayOutputStream(rowBytes * 8);
+      final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try (OutputStream out = new DeflaterOutputStream(idat, deflater, 4096)) {
+        for (int y = 0; y < padding; y++) {
+          out.write(blank);
+        }
+        for (int row = 0; row < moduleCount; row++) {
+          fillScanline(scanline, blank, modules, row, padding, multiple);
+          for (int i = 0; i < multiple; i++) {
+            out.write(scanline);
+          }
+        }
+        for (int y = padding + moduleCount * multiple; y < width; y++) {
+          out.write(blank);
+        }
+      } finally {
+        deflater.end();
+      }
+      writeChunk(png, IDAT, idat.toByteArray(), idat.size());
+      writeChunk(png, IEND, new byte[0], 0);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return png.toByteArray();
+  }
+
+  private static void fillScanline(
+      final byte[] scanline,
+      final byte[] blank,
+      final BitMatrix modules,
+      final int row,
+      final int padding,
+      final int multiple) {
+    System.arraycopy(blank, 0, scanline, 0, blank.length);
+    scanline[0] = FILTER_NONE;
+    final int moduleCount = modules.getWidth();
+    for (int column = 0; column < moduleCount; column++) {
+      if (!modules.get(column, row)) {
+        continue;
+      }
+      final int start = padding + column * multiple;
+      for (int x = start; x < start + multiple; x++) {
+        scanline[1 + (x >>> 3)] &= (byte) ~(0x80 >>> (x & 7));
+      }
+    }
+  }
+
+  private static void writeChunk(
+      final ByteArrayOutputStream png, final byte[] type, final byte[] data, final int length) {
+    final byte[] lengthBytes = new byte[4];
+    putInt(lengthBytes, 0, length);
+    png.write(lengthBytes, 0, 4);
+    png.write(type, 0, 4);
+    png.write(data, 0, length);
+
+    final CRC32 crc = new CRC32();
+    crc.update(type);
+    crc.update(data, 0, length);
+    final byte[] crcBytes = new byte[4];
+    putInt(crcBytes, 0, (int) crc.getValue());
+    png.write(crcBytes, 0, 4);
+  }
+
+  private static void putInt(final byte[] target, final int offset, final int value) {
+    target[offset] = (byte) (value >>> 24);
+    target[offset + 1] = (byte) (value >>> 16);
+    target[offset + 2] = (byte) (value >>> 8);
+    target[offset + 3] = (byte) value;
+  }
+
+  /**
+   * Draws each horizontal run of dark modules as one closed sub-path of a single path element,
+   * which keeps the document small compared to one rectangle per module.
+   */
+  static byte[] writeSvg(final BitMatrix modules, final int size, final int margin) {
+    final int moduleCount = modules.getWidth();
+    final int viewBox = moduleCount + margin * 2;
+    final StringBuilder svg = new StringBuilder(256 + moduleCount * moduleCount);
+    svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"")
+        .append(size)
+        .append("\" height=\"")
+        .append(size)
+        .append("\" viewBox=\"0 0 ")
+        .append(viewBox)
+        .append(' ')
+        .append(viewBox)
+        .append("\" shape-rendering=\"crispEdges\"><rect width=\"100%\" height=\"100%\"")
+        .append(" fill=\"#fff\"/><path fill=\"#000\" d=\"");
+    for (int y = 0; y < moduleCount; y++) {
+      int x = 0;
+      while (x < moduleCount) {
+        if (!modules.get(x, y)) {
+          x++;
+          continue;
+        }
+        final int start = x;
+        while (x < moduleCount && modules.get(x, y)) {
+          x++;
+        }
+        final int run = x - start;
+        svg.append('M')
+            .append(start + margin)
+            .append(' ')
+            .append(y + margin)
+            .append('h')
+            .append(run)
+            .append("v1h-")
+            .append(run)
+            .append('z');
+      }
+    }
+    svg.append("\"/></svg>");
+    return svg.toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
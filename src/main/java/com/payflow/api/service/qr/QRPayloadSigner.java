@@ -0,0 +1,275 @@
+package com.payflow.api.service.qr;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signs and verifies the compact payload encoded in QR code images.
+ *
+ * <p>A payload looks like {@code PF1.K1.<body>.<mac>}: a format version, the id of the key that
+ * signed it, a Base32 body and a Base32 HMAC-SHA256 tag truncated to {@value #MAC_BYTES} bytes. The
+ * body packs the QR ID, currency, fixed amount, one-time flag and expiry into a few bytes. Every
+ * character is an upper-case letter, a digit or a dot, so the whole payload fits the QR
+ * alphanumeric mode, which stores 5.5 bits per character instead of the 8 of byte mode.
+ *
+ * <p>Verification touches nothing but memory: the shape is checked before any cryptography, the tag
+ * is computed with a per-thread {@link Mac} already keyed for the payload's key id, and the body is
+ * only decoded once the tag matches. A forged, tampered or expired scan is therefore rejected
+ * without a database lookup.
+ *
+ * <p>Keys are configured as a comma-separated list of {@code id:secret} pairs in {@code
+ * qr.payload.keys}; {@code qr.payload.signing-key} names the one used for new payloads. To rotate,
+ * add a new key, switch the signing key to it, and drop the old key once the payloads it signed are
+ * no longer in circulation. Rotating changes the encoded content, so cached images and their entity
+ * tags are replaced automatically.
+ */
+@Component
+@Slf4j
+public class QRPayloadSigner {
+
+  /** Version prefix of the current payload format. */
+  public static final String VERSION = "PF1";
+
+  /** Length of the truncated HMAC tag in bytes. */
+  static final int MAC_BYTES = 10;
+
+  private static final int MAX_PAYLOAD_LENGTH = 256;
+  private static final int MIN_SECRET_BYTES = 32;
+  private static final Pattern KEY_ID = Pattern.compile("[0-9A-Z]{1,4}");
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+  private static final char[] BASE32 = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray();
+
+  private static final int FLAG_AMOUNT_FIXED = 1;
+  private static final int FLAG_ONE_TIME = 1 << 1;
+  private static final int FLAG_EXPIRES = 1 << 2;
+
+  private static final Wallet.Currency[] CURRENCIES = Wallet.Currency.values();
+
+  @Value("${qr.payload.keys:K1:payflow_qr_signing_key_should_be_replaced_in_production}")
+  private String[] keys = {"K1:payflow_qr_signing_key_should_be_replaced_in_production"};
+
+  @Value("${qr.payload.signing-key:K1}")
+  private String signingKeyId = "K1";
+
+  private Map<String, ThreadLocal<Mac>> macs = Collections.emptyMap();
+
+  /**
+   * Parses the configured keys.
+   *
+   * @throws IllegalStateException if a key is malformed or the signing key is not configured
+   */
+  @PostConstruct
+  public void init() {
+    final Map<String, ThreadLocal<Mac>> parsed = new HashMap<>();
+    for (final String key : keys) {
+      final int colon = key.indexOf(':');
+      final String keyId = colon < 0 ? "" : key.substring(0, colon).trim();
+      if (!KEY_ID.matcher(keyId).matches()) {
+        throw new IllegalStateException(
+            "QR payload key ids must be 1-4 upper-case letters or digits");
+      }
+      final byte[] secret = key.substring(colon + 1).trim().getBytes(StandardCharsets.UTF_8);
+      if (secret.length < MIN_SECRET_BYTES) {
+        throw new IllegalStateException(
+            "QR payload key " + keyId + " must be at least " + MIN_SECRET_BYTES + " bytes");
+      }
+      final SecretKeySpec spec = new SecretKeySpec(secret, MAC_ALGORITHM);
+      parsed.put(keyId, ThreadLocal.withInitial(() -> newMac(spec)));
+    }
+    if (!parsed.containsKey(signingKeyId)) {
+      throw new IllegalStateException("QR payload signing key " + signingKeyId + " is not set");
+    }
+    macs = parsed;
+    log.info("QR payloads signed with key {} ({} keys accepted)", signingKeyId, parsed.size());
+  }
+
+  /**
+   * Builds the signed payload for a QR code.
+   *
+   * @param qrCode the QR code, with its wallet loaded
+   * @return the payload to encode in the image
+   */
+  public String sign(final QRCode qrCode) {
+    final byte[] qrId = qrCode.getQrId().getBytes(StandardCharsets.UTF_8);
+    final boolean amountFixed = qrCode.isAmountFixed() && qrCode.getAmount() != null;
+    final boolean expires = qrCode.getExpiresAt() != null;
+
+    final ByteBuffer body = ByteBuffer.allocate(2 + Long.BYTES + Integer.BYTES + qrId.length);
+    body.put(
+        (byte)
+            ((amountFixed ? FLAG_AMOUNT_FIXED : 0)
+                | (qrCode.isOneTime() ? FLAG_ONE_TIME : 0)
+                | (expires ? FLAG_EXPIRES : 0)));
+    body.put((byte) qrCode.getWallet().getCurrency().ordinal());
+    if (amountFixed) {
+      body.putLong(qrCode.getAmount().getMinorUnits());
+    }
+    if (expires) {
+      body.putInt((int) qrCode.getExpiresAt().atZone(ZoneId.systemDefault()).toEpochSecond());
+    }
+    body.put(qrId);
+
+    final StringBuilder payload = new StringBuilder(96);
+    payload.append(VERSION).append('.').append(signingKeyId).append('.');
+    base32(Arrays.copyOf(body.array(), body.position()), payload);
+    final byte[] tag = tag(macs.get(signingKeyId).get(), payload);
+    payload.append('.');
+    base32(tag, payload);
+    return payload.toString();
+  }
+
+  /**
+   * Verifies a scanned payload and decodes its fields.
+   *
+   * @param payload the scanned payload
+   * @return the verified fields
+   * @throws BadRequestException if the payload is malformed, forged, signed with an unknown key or
+   *     expired
+   */
+  public SignedQRPayload verify(final String payload) {
+    return verify(payload, Instant.now().getEpochSecond());
+  }
+
+  SignedQRPayload verify(final String payload, final long nowEpochSecond) {
+    // Cheap structural checks first, so junk never reaches the MAC
+    if (payload == null
+        || payload.length() > MAX_PAYLOAD_LENGTH
+        || !payload.startsWith(VERSION + '.')) {
+      throw invalid();
+    }
+    final int keyEnd = payload.indexOf('.', VERSION.length() + 1);
+    final int bodyEnd = payload.lastIndexOf('.');
+    if (keyEnd < 0 || bodyEnd <= keyEnd) {
+      throw invalid();
+    }
+    final String keyId = payload.substring(VERSION.length() + 1, keyEnd);
+    final ThreadLocal<Mac> mac = macs.get(keyId);
+    if (mac == null) {
+      throw invalid();
+    }
+    final byte[] expected = unbase32(payload, bodyEnd + 1, payload.length());
+    if (expected == null || expected.length != MAC_BYTES) {
+      throw invalid();
+    }
+    if (!MessageDigest.isEqual(expected, tag(mac.get(), payload.subSequence(0, bodyEnd)))) {
+      throw invalid();
+    }
+
+    final byte[] bodyBytes = unbase32(payload, keyEnd + 1, bodyEnd);
+    if (bodyBytes == null || bodyBytes.length < 2) {
+      throw invalid();
+    }
+    final ByteBuffer body = ByteBuffer.wrap(bodyBytes);
+    final int flags = body.get();
+    final int currency = body.get() & 0xFF;
+    if (currency >= CURRENCIES.length) {
+      throw invalid();
+    }
+    final boolean amountFixed = (flags & FLAG_AMOUNT_FIXED) != 0;
+    final Money amount = amountFixed ? Money.ofMinor(body.getLong()) : null;
+    final long expiresAt = (flags & FLAG_EXPIRES) != 0 ? Integer.toUnsignedLong(body.getInt()) : 0L;
+    final String qrId =
+        new String(bodyBytes, body.position(), body.remaining(), StandardCharsets.UTF_8);
+
+    final SignedQRPayload verified =
+        new SignedQRPayload(
+            keyId,
+            qrId,
+            CURRENCIES[currency],
+            amount,
+            amountFixed,
+            (flags & FLAG_ONE_TIME) != 0,
+            expiresAt);
+    if (verified.isExpired(nowEpochSecond)) {
+      throw new BadRequestException("This QR code has expired");
+    }
+    return verified;
+  }
+
+  public String getSigningKeyId() {
+    return signingKeyId;
+  }
+
+  private static BadRequestException invalid() {
+    return new BadRequestException("Invalid QR code");
+  }
+
+  private static byte[] tag(final Mac mac, final CharSequence signed) {
+    for (int i = 0; i < signed.length(); i++) {
+      mac.update((byte) signed.charAt(i));
+    }
+    return Arrays.copyOf(mac.doFinal(), MAC_BYTES);
+  }
+
+  private static Mac newMac(final SecretKeySpec key) {
+    try {
+      final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(key);
+      return mac;
+    } catch (final GeneralSecurityException e) {
+      throw new IllegalStateException("HMAC-SHA256 is not available", e);
+    }
+  }
+
+  /** Appends RFC 4648 Base32 without padding. */
+  private static void base32(final byte[] bytes, final StringBuilder out) {
+    int buffer = 0;
+    int bits = 0;
+    for (final byte b : bytes) {
+      buffer = (buffer << 8) | (b & 0xFF);
+      bits += 8;
+      while (bits >= 5) {
+        out.append(BASE32[(buffer >>> (bits - 5)) & 31]);
+        bits -= 5;
+      }
+    }
+    if (bits > 0) {
+      out.append(BASE32[(buffer << (5 - bits)) & 31]);
+    }
+  }
+
+  /** Decodes unpadded Base32 from a range of a string, or returns null if it is not valid. */
+  private static byte[] unbase32(final String text, final int from, final int to) {
+    final byte[] out = new byte[(to - from) * 5 / 8];
+    int buffer = 0;
+    int bits = 0;
+    int length = 0;
+    for (int i = from; i < to; i++) {
+      final char c = text.charAt(i);
+      final int value;
+      if (c >= 'A' && c <= 'Z') {
+        value = c - 'A';
+      } else if (c >= '2' && c <= '7') {
+        value = c - '2' + 26;
+      } else {
+        return null;
+      }
+      buffer = (buffer << 5) | value;
+      bits += 5;
+      if (bits >= 8) {
+        out[length++] = (byte) (buffer >>> (bits - 8));
+        bits -= 8;
+      }
+    }
+    return out;
+  }
+}
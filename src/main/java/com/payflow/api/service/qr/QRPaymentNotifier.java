@@ -0,0 +1,37 @@
+package com.payflow.api.service.qr;
+
+import com.payflow.api.event.DomainEventHandler;
+import com.payflow.api.event.QRPaymentCompletedEvent;
+import com.payflow.api.model.dto.response.QRPaymentResponse;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells the merchants watching a QR code, through the {@link QRPaymentSubscriptions}, about each
+ * committed payment against it. A payment that used up a one-time code is the code's last notice.
+ */
+@Component
+@RequiredArgsConstructor
+public class QRPaymentNotifier implements DomainEventHandler<QRPaymentCompletedEvent> {
+
+  private final QRPaymentSubscriptions qrPaymentSubscriptions;
+
+  @Override
+  public Class<QRPaymentCompletedEvent> getEventType() {
+    return QRPaymentCompletedEvent.class;
+  }
+
+  @Override
+  public String getName() {
+    return "qr-payment-notices";
+  }
+
+  @Override
+  public void handle(final List<QRPaymentCompletedEvent> events) {
+    for (final QRPaymentCompletedEvent payment : events) {
+      qrPaymentSubscriptions.publishAfterCommit(
+          QRPaymentResponse.paid(payment), payment.isClosesCode());
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package com.payflow.api.service.qr;
+
+import com.payflow.api.model.dto.response.QRPaymentResponse;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Index of the merchants waiting to hear about payments on a QR code, keyed by QR ID.
+ *
+ * <p>Each watched code holds one small array of subscribers that is copied on change; codes nobody
+ * watches take no space. A notice is delivered once the transaction that caused it commits. When a
+ * code can no longer be paid, because it expired, was deactivated or a one-time code was used, its
+ * subscribers get a last notice and the code's entry is dropped.
+ *
+ * <p>The index is per node: a merchant is only told about payments processed by, and codes closed
+ * on, the node it is subscribed on.
+ */
+@Component
+@Slf4j
+public class QRPaymentSubscriptions {
+
+  /**
+   * Receives the notices for one watched code. Called on the thread that commits the change, or for
+   * payments on the {@link QRPaymentNotifier}'s thread.
+   */
+  @FunctionalInterface
+  public interface Subscriber {
+    void deliver(QRPaymentResponse notice);
+  }
+
+  private static final Subscriber[] NONE = new Subscriber[0];
+
+  private final Map<String, Subscriber[]> subscribers = new ConcurrentHashMap<>();
+
+  @Value("${qr.payments.max-subscribers-per-code:16}")
+  private int maxSubscribersPerCode = 16;
+
+  /**
+   * Starts watching a code.
+   *
+   * @param qrId the QR ID
+   * @param subscriber the subscriber to deliver notices to
+   * @return false if the code already has the maximum number of subscribers
+   */
+  public boolean subscribe(final String qrId, final Subscriber subscriber) {
+    final boolean[] added = {false};
+    subscribers.compute(
+        qrId,
+        (key, current) -> {
+          final Subscriber[] existing = current == null ? NONE : current;
+          if (existing.length >= maxSubscribersPerCode) {
+            return current;
+          }
+          final Subscriber[] next = Arrays.copyOf(existing, existing.length + 1);
+          next[existing.length] = subscriber;
+          added[0] = true;
+          return next;
+        });
+    return added[0];
+  }
+
+  /**
+   * Stops watching a code. Unknown subscribers are ignored.
+   *
+   * @param qrId the QR ID
+   * @param subscriber the subscriber passed to {@link #subscribe}
+   */
+  public void unsubscribe(final String qrId, final Subscriber subscriber) {
+    subscribers.computeIfPresent(
+        qrId,
+        (key, current) -> {
+          for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscriber) {
+              if (current.length == 1) {
+                return null;
+              }
+              final Subscriber[] next = new Subscriber[current.length - 1];
+              System.arraycopy(current, 0, next, 0, i);
+              System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+              return next;
+            }
+          }
+          return current;
+        });
+  }
+
+  /**
+   * Delivers a notice once the current transaction commits, or immediately if none is active.
+   *
+   * @param notice the notice
+   * @param last true if the code can no longer be paid, so its subscribers are dropped
+   */
+  public void publishAfterCommit(final QRPaymentResponse notice, final boolean last) {
+    if (!subscribers.containsKey(notice.getQrId())) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              publish(notice, last);
+            }
+          });
+    } else {
+      publish(notice, last);
+    }
+  }
+
+  /**
+   * Returns the number of codes being watched.
+   *
+   * @return watched codes
+   */
+  public int size() {
+    return subscribers.size();
+  }
+
+  private void publish(final QRPaymentResponse notice, final boolean last) {
+    final Subscriber[] current =
+        last ? subscribers.remove(notice.getQrId()) : subscribers.get(notice.getQrId());
+    if (current == null) {
+      return;
+    }
+    for (final Subscriber subscriber : current) {
+      try {
+        subscriber.deliver(notice);
+      } catch (RuntimeException e) {
+        log.warn(
+            "Could not deliver {} notice for QR code {}", notice.getStatus(), notice.getQrId(), e);
+      }
+    }
+  }
+}
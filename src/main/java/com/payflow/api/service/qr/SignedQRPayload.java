@@ -0,0 +1,77 @@
+package com.payflow.api.service.qr;
+
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+
+/**
+ * Fields carried by a verified QR payload. Everything here was signed by this server, so it can be
+ * trusted without looking the code up; whether the code is still active is not part of the payload
+ * and still has to be checked before a payment.
+ */
+public final class SignedQRPayload {
+
+  private final String keyId;
+  private final String qrId;
+  private final Wallet.Currency currency;
+  private final Money amount;
+  private final boolean amountFixed;
+  private final boolean oneTime;
+  private final long expiresAtEpochSecond;
+
+  public SignedQRPayload(
+      final String keyId,
+      final String qrId,
+      final Wallet.Currency currency,
+      final Money amount,
+      final boolean amountFixed,
+      final boolean oneTime,
+      final long expiresAtEpochSecond) {
+    this.keyId = keyId;
+    this.qrId = qrId;
+    this.currency = currency;
+    this.amount = amount;
+    this.amountFixed = amountFixed;
+    this.oneTime = oneTime;
+    this.expiresAtEpochSecond = expiresAtEpochSecond;
+  }
+
+  /**
+   * Tells whether the payload has passed its expiry. Payloads without an expiry never expire.
+   *
+   * @param nowEpochSecond the current time in epoch seconds
+   * @return true if the payload can no longer be used
+   */
+  public boolean isExpired(final long nowEpochSecond) {
+    return expiresAtEpochSecond != 0L && nowEpochSecond >= expiresAtEpochSecond;
+  }
+
+  public String getKeyId() {
+    return keyId;
+  }
+
+  public String getQrId() {
+    return qrId;
+  }
+
+  public Wallet.Currency getCurrency() {
+    return currency;
+  }
+
+  /** Returns the fixed amount, or {@code null} if the payer chooses the amount. */
+  public Money getAmount() {
+    return amount;
+  }
+
+  public boolean isAmountFixed() {
+    return amountFixed;
+  }
+
+  public boolean isOneTime() {
+    return oneTime;
+  }
+
+  /** Returns the expiry in epoch seconds, or 0 if the payload never expires. */
+  public long getExpiresAtEpochSecond() {
+    return expiresAtEpochSecond;
+  }
+}
@@ -0,0 +1,4 @@
+-- H2 compatible syntax for recording the exchange rate snapshot version on transactions
+
+ALTER TABLE transactions
+ADD COLUMN IF NOT EXISTS exchange_rate_version BIGINT;
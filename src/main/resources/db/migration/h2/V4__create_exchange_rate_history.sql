@@ -0,0 +1,12 @@
+-- Append-only log of published exchange rates, one row per pair per change.
+-- pair_id encodes (from ordinal << 8 | to ordinal); rate_scaled is the rate * 10^6.
+
+CREATE TABLE IF NOT EXISTS exchange_rate_history (
+    pair_id SMALLINT NOT NULL,
+    recorded_at TIMESTAMP NOT NULL,
+    rate_scaled BIGINT NOT NULL,
+    PRIMARY KEY (pair_id, recorded_at)
+);
+
+CREATE INDEX IF NOT EXISTS idx_exchange_rate_history_recorded_at
+ON exchange_rate_history (recorded_at);
@@ -0,0 +1,4 @@
+-- Lets the money request expirer find due PENDING requests without scanning the table.
+
+CREATE INDEX IF NOT EXISTS idx_money_requests_status_expires_at
+ON money_requests (status, expires_at, id);
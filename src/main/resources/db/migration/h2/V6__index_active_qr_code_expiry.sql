@@ -0,0 +1,4 @@
+-- Lets the expiration scheduler find active QR codes falling due without scanning the table.
+
+CREATE INDEX IF NOT EXISTS idx_qr_codes_expires_at
+ON qr_codes (expires_at, id);
@@ -0,0 +1,7 @@
+-- H2 compatible syntax for grouping the money requests of a split bill
+
+ALTER TABLE money_requests
+ADD COLUMN IF NOT EXISTS group_id VARCHAR(50);
+
+CREATE INDEX IF NOT EXISTS idx_money_requests_group_id
+ON money_requests (group_id);
@@ -0,0 +1,4 @@
+-- H2 compatible syntax for keeping the full precision of the rate a transaction was converted at
+
+ALTER TABLE transactions
+ALTER COLUMN exchange_rate SET DATA TYPE DECIMAL(19, 6);
@@ -0,0 +1,4 @@
+-- Record which in-memory exchange rate snapshot priced a cross-currency transaction
+
+ALTER TABLE transactions
+ADD COLUMN IF NOT EXISTS exchange_rate_version BIGINT;
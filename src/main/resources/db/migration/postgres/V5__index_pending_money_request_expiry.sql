@@ -0,0 +1,5 @@
+-- Lets the money request expirer find due PENDING requests without scanning the table.
+-- Only PENDING rows are ever due, so a partial index stays small as history grows.
+
+CREATE INDEX IF NOT EXISTS idx_money_requests_pending_expires_at
+ON money_requests (expires_at, id) WHERE status = 'PENDING';
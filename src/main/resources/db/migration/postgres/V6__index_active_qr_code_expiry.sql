@@ -0,0 +1,5 @@
+-- Lets the expiration scheduler find active QR codes falling due without scanning the table.
+-- Only active codes with an expiry are ever due, so a partial index stays small as codes are used up.
+
+CREATE INDEX IF NOT EXISTS idx_qr_codes_active_expires_at
+ON qr_codes (expires_at, id) WHERE is_active = TRUE AND expires_at IS NOT NULL;
@@ -0,0 +1,8 @@
+-- Group the money requests of a split bill, so the requester can track who has paid.
+-- Most requests are not grouped, so the index only covers the ones that are.
+
+ALTER TABLE money_requests
+ADD COLUMN IF NOT EXISTS group_id VARCHAR(50);
+
+CREATE INDEX IF NOT EXISTS idx_money_requests_group_id
+ON money_requests (group_id) WHERE group_id IS NOT NULL;
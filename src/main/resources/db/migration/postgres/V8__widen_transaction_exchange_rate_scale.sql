@@ -0,0 +1,5 @@
+-- Keep all six decimals of the rate a cross-currency transaction was converted at, so the
+-- credited amount can be recomputed from the row
+
+ALTER TABLE transactions
+ALTER COLUMN exchange_rate TYPE DECIMAL(19, 6);
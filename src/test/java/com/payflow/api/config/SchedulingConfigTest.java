@@ -0,0 +1,71 @@
+package com.payflow.api.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.metrics.OperationTimer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+public class SchedulingConfigTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final SchedulingConfig.MeteredTaskScheduler scheduler =
+      new SchedulingConfig.MeteredTaskScheduler(
+          new OperationTimer(meterRegistry, "scheduler.job", "Test", "job"));
+
+  @AfterEach
+  public void tearDown() {
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testScheduledMethodRunsAreTimedByJob() throws Exception {
+    // Arrange
+    Job job = new Job();
+    scheduler.initialize();
+
+    // Act
+    scheduler.schedule(new ScheduledMethodRunnable(job, "run"), new Date());
+
+    // Assert
+    assertTrue(job.ran.await(5, TimeUnit.SECONDS));
+    Timer timer = awaitTimer("Job.run");
+    assertEquals(1, timer.count());
+  }
+
+  private Timer awaitTimer(final String job) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    Timer timer = null;
+    while (System.currentTimeMillis() < deadline) {
+      timer =
+          meterRegistry
+              .find("scheduler.job")
+              .tag("job", job)
+              .tag("outcome", OperationTimer.SUCCESS)
+              .timer();
+      if (timer != null && timer.count() > 0) {
+        break;
+      }
+      Thread.sleep(5);
+    }
+    assertNotNull(timer);
+    return timer;
+  }
+
+  /** Stands in for a bean with an {@code @Scheduled} method. */
+  public static class Job {
+    private final CountDownLatch ran = new CountDownLatch(1);
+
+    public void run() {
+      ran.countDown();
+    }
+  }
+}
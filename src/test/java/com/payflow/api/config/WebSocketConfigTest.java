@@ -0,0 +1,229 @@
+package com.payflow.api.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payflow.api.model.dto.response.QRPaymentResponse;
+import com.payflow.api.model.dto.response.TransactionResponse;
+import com.payflow.api.model.dto.response.WalletResponse;
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.Transaction;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.repository.UserRepository;
+import com.payflow.api.repository.WalletRepository;
+import com.payflow.api.security.JwtTokenProvider;
+import com.payflow.api.security.UserPrincipal;
+import com.payflow.api.service.QRCodeService;
+import com.payflow.api.service.TransactionService;
+import com.payflow.api.service.push.QRPaymentPushService;
+import com.payflow.api.service.push.UserPushService;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class WebSocketConfigTest {
+
+  @LocalServerPort private int port;
+
+  @Autowired private JwtTokenProvider tokenProvider;
+  @Autowired private TransactionService transactionService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private WalletRepository walletRepository;
+  @Autowired private SimpUserRegistry userRegistry;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private QRCodeService qrCodeService;
+  @Autowired private QRPaymentPushService qrPaymentPushService;
+
+  private WebSocketStompClient stompClient;
+  private User user;
+  private Wallet wallet;
+
+  @BeforeEach
+  public void setup() {
+    stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+    MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+    converter.setObjectMapper(objectMapper);
+    stompClient.setMessageConverter(converter);
+    user = userRepository.save(newUser("push"));
+    wallet = walletRepository.save(newWallet(user, BigDecimal.ZERO));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    stompClient.stop();
+  }
+
+  @Test
+  public void testDepositIsPushedToTheOwnersSession() throws Exception {
+    // Arrange
+    StompSession session = connect(token(user));
+    BlockingQueue<TransactionResponse> transactions =
+        subscribe(session, UserPushService.TRANSACTIONS, TransactionResponse.class);
+    BlockingQueue<WalletResponse> wallets =
+        subscribe(session, UserPushService.WALLETS, WalletResponse.class);
+    awaitSubscriptions(2);
+
+    // Act
+    transactionService.createDepositTransaction(wallet, new BigDecimal("25.00"));
+
+    // Assert
+    TransactionResponse transaction = transactions.poll(5, TimeUnit.SECONDS);
+    WalletResponse balance = wallets.poll(5, TimeUnit.SECONDS);
+    assertNotNull(transaction);
+    assertEquals("DEPOSIT", transaction.getType());
+    assertNotNull(balance);
+    assertEquals(wallet.getWalletNumber(), balance.getWalletNumber());
+    assertEquals(0, new BigDecimal("25.00").compareTo(balance.getBalance()));
+    session.disconnect();
+  }
+
+  @Test
+  public void testQRCodePaymentIsPushedToTheWatchingTill() throws Exception {
+    // Arrange
+    QRCode qrCode =
+        qrCodeService.createWalletQRCode(
+            user, wallet.getWalletNumber(), new BigDecimal("12.50"), true, false, "Till 1", null);
+    User payer = userRepository.save(newUser("payer"));
+    Wallet payerWallet = walletRepository.save(newWallet(payer, new BigDecimal("100.00")));
+    StompSession session = connect(token(user));
+    BlockingQueue<QRPaymentResponse> notices =
+        subscribe(
+            session, QRPaymentPushService.QR_CODES + qrCode.getQrId(), QRPaymentResponse.class);
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (qrPaymentPushService.getSessionCount() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+
+    // Act
+    Transaction transaction =
+        qrCodeService.processQRCodePayment(
+            payer, qrCode.getQrId(), null, payerWallet.getWalletNumber(), null);
+
+    // Assert
+    QRPaymentResponse notice = notices.poll(5, TimeUnit.SECONDS);
+    assertNotNull(notice);
+    assertEquals(QRPaymentResponse.Status.PAID, notice.getStatus());
+    assertEquals(transaction.getTransactionNumber(), notice.getTransactionNumber());
+    assertEquals(0, new BigDecimal("12.50").compareTo(notice.getAmount()));
+    session.disconnect();
+  }
+
+  @Test
+  public void testConnectWithoutTokenIsRejected() {
+    // Act & Assert
+    assertThrows(ExecutionException.class, () -> connect(null));
+  }
+
+  @Test
+  public void testSubscribingOutsideUserDestinationsClosesTheSession() throws Exception {
+    // Arrange
+    StompSession session = connect(token(user));
+
+    // Act
+    session.subscribe(
+        "/queue/transactions-user" + session.getSessionId(), new StompSessionHandlerAdapter() {});
+
+    // Assert
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (session.isConnected() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    assertFalse(session.isConnected());
+  }
+
+  private static User newUser(final String name) {
+    User newUser = new User();
+    newUser.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+    newUser.setPassword("password");
+    newUser.setFullName(name);
+    return newUser;
+  }
+
+  private static Wallet newWallet(final User owner, final BigDecimal balance) {
+    Wallet newWallet = new Wallet();
+    newWallet.setUser(owner);
+    newWallet.setCurrency(Wallet.Currency.USD);
+    newWallet.setBalance(Money.of(balance));
+    return newWallet;
+  }
+
+  private String token(final User owner) {
+    UserPrincipal principal = UserPrincipal.create(owner);
+    return tokenProvider.generateToken(
+        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+  }
+
+  private StompSession connect(final String jwt) throws Exception {
+    StompHeaders connectHeaders = new StompHeaders();
+    if (jwt != null) {
+      connectHeaders.add("Authorization", "Bearer " + jwt);
+    }
+    return stompClient
+        .connect(
+            "ws://localhost:" + port + "/api/v1/ws",
+            new WebSocketHttpHeaders(),
+            connectHeaders,
+            new StompSessionHandlerAdapter() {})
+        .get(5, TimeUnit.SECONDS);
+  }
+
+  private <T> BlockingQueue<T> subscribe(
+      final StompSession session, final String destination, final Class<T> type) {
+    BlockingQueue<T> received = new LinkedBlockingQueue<>();
+    session.subscribe(
+        "/user" + destination,
+        new StompFrameHandler() {
+          @Override
+          public Type getPayloadType(final StompHeaders headers) {
+            return type;
+          }
+
+          @Override
+          public void handleFrame(final StompHeaders headers, final Object payload) {
+            received.add(type.cast(payload));
+          }
+        });
+    return received;
+  }
+
+  /** Subscriptions are registered asynchronously; wait until the broker knows about them. */
+  private void awaitSubscriptions(final int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (System.currentTimeMillis() < deadline) {
+      if (userRegistry.getUser(user.getEmail()) != null
+          && userRegistry.getUser(user.getEmail()).getSessions().stream()
+                  .mapToInt(s -> s.getSubscriptions().size())
+                  .sum()
+              >= count) {
+        return;
+      }
+      Thread.sleep(20);
+    }
+    fail("Subscriptions were not registered");
+  }
+}
@@ -0,0 +1,233 @@
+package com.payflow.api.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.model.dto.response.QRPaymentResponse;
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.security.JwtTokenProvider;
+import com.payflow.api.service.QRCodeService;
+import com.payflow.api.service.UserService;
+import com.payflow.api.service.qr.QRImageFormat;
+import com.payflow.api.service.qr.QRPayloadSigner;
+import com.payflow.api.service.qr.QRPaymentSubscriptions;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class QRCodeControllerTest {
+
+  private static final String TAG = "0123456789abcdef-r1-png-300-4";
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private QRCodeService qrCodeService;
+
+  @MockBean private UserService userService;
+
+  @MockBean private JwtTokenProvider jwtTokenProvider;
+
+  @Autowired private QRPayloadSigner qrPayloadSigner;
+
+  @Autowired private QRPaymentSubscriptions qrPaymentSubscriptions;
+
+  private QRCode qrCode;
+  private String jwtToken;
+
+  @BeforeEach
+  public void setup() {
+    qrCode = new QRCode();
+    qrCode.setId(1L);
+    qrCode.setQrId("TEST-QR-123456");
+
+    jwtToken = "Bearer test-jwt-token";
+    when(jwtTokenProvider.validateToken(anyString())).thenReturn(true);
+    when(jwtTokenProvider.getUserIdFromJwt(anyString())).thenReturn(1L);
+    when(qrCodeService.getQRCodeByIdWithWallet(1L)).thenReturn(qrCode);
+  }
+
+  @Test
+  public void testGetQRCodePng() throws Exception {
+    byte[] png = {(byte) 0x89, 'P', 'N', 'G'};
+    when(qrCodeService.getQRCodeImageTag(qrCode, QRImageFormat.PNG, 300, 4)).thenReturn(TAG);
+    when(qrCodeService.getQRCodeImage(qrCode, QRImageFormat.PNG, 300, 4)).thenReturn(png);
+
+    mockMvc
+        .perform(get("/qr-codes/1/image.png").header("Authorization", jwtToken))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + TAG + "\""))
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, private"))
+        .andExpect(content().bytes(png));
+  }
+
+  @Test
+  public void testGetQRCodePng_NotModified() throws Exception {
+    when(qrCodeService.getQRCodeImageTag(qrCode, QRImageFormat.PNG, 512, 2)).thenReturn(TAG);
+
+    mockMvc
+        .perform(
+            get("/qr-codes/1/image.png")
+                .param("size", "512")
+                .param("margin", "2")
+                .header("Authorization", jwtToken)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + TAG + "\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + TAG + "\""));
+
+    verify(qrCodeService, never()).getQRCodeImage(any(), any(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void testGetQRCodeSvg() throws Exception {
+    byte[] svg = "<svg/>".getBytes();
+    when(qrCodeService.getQRCodeImageTag(qrCode, QRImageFormat.SVG, 300, 4)).thenReturn(TAG);
+    when(qrCodeService.getQRCodeImage(qrCode, QRImageFormat.SVG, 300, 4)).thenReturn(svg);
+
+    mockMvc
+        .perform(get("/qr-codes/1/image.svg").header("Authorization", jwtToken))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/svg+xml"))
+        .andExpect(content().bytes(svg));
+  }
+
+  @Test
+  public void testVerifyScannedQRCode() throws Exception {
+    Wallet wallet = new Wallet();
+    wallet.setCurrency(Wallet.Currency.USD);
+    qrCode.setWallet(wallet);
+    String payload = qrPayloadSigner.sign(qrCode);
+
+    mockMvc
+        .perform(
+            post("/qr-codes/scan/verify")
+                .header("Authorization", jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"payload\":\"" + payload + "\"}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.qrId").value("TEST-QR-123456"))
+        .andExpect(jsonPath("$.currency").value("USD"));
+  }
+
+  @Test
+  public void testPayWithForgedPayloadIsRejectedBeforeLookup() throws Exception {
+    mockMvc
+        .perform(
+            post("/qr-codes/scan/pay")
+                .header("Authorization", jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "{\"payload\":\"PF1.K1.AEAQAAAAAAAAAAAA.AAAAAAAAAAAAAAAA\","
+                        + "\"sourceWalletNumber\":\"WALLET123456\"}"))
+        .andExpect(status().isBadRequest());
+
+    verify(userService, never()).getUserById(anyLong());
+    verify(qrCodeService, never()).processQRCodePayment(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  public void testCreateBulkQrCodesStreamsArchive() throws Exception {
+    List<QRCode> qrCodes = List.of(qrCode);
+    when(qrCodeService.createBulkQRCodes(
+            any(), eq("WALLET123456"), eq(1), any(), anyBoolean(), any(), any()))
+        .thenReturn(qrCodes);
+    doAnswer(
+            invocation -> {
+              invocation.getArgument(4, OutputStream.class).write(new byte[] {'P', 'K'});
+              return null;
+            })
+        .when(qrCodeService)
+        .writeQRCodeArchive(eq(qrCodes), eq(QRImageFormat.SVG), eq(256), eq(4), any());
+
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/qr-codes/bulk")
+                    .header("Authorization", jwtToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        "{\"walletNumber\":\"WALLET123456\",\"count\":1,"
+                            + "\"format\":\"SVG\",\"size\":256}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/zip"))
+        .andExpect(
+            header()
+                .string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"qr-codes.zip\""))
+        .andExpect(content().bytes(new byte[] {'P', 'K'}));
+  }
+
+  @Test
+  public void testAwaitQRCodePayment() throws Exception {
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/qr-codes/TEST-QR-123456/payments/next").header("Authorization", jwtToken))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    qrPaymentSubscriptions.publishAfterCommit(
+        new QRPaymentResponse(
+            "TEST-QR-123456",
+            QRPaymentResponse.Status.PAID,
+            "TXN123456",
+            new BigDecimal("12.50"),
+            "USD",
+            LocalDateTime.now()),
+        false);
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("PAID"))
+        .andExpect(jsonPath("$.transactionNumber").value("TXN123456"))
+        .andExpect(jsonPath("$.amount").value(12.5));
+    assertEquals(0, qrPaymentSubscriptions.size());
+  }
+
+  @Test
+  public void testAwaitQRCodePayment_NotOwner() throws Exception {
+    doThrow(new BadRequestException("You can only watch payments on your own QR codes"))
+        .when(qrCodeService)
+        .checkPaymentWatcher(1L, "TEST-QR-123456");
+
+    mockMvc
+        .perform(get("/qr-codes/TEST-QR-123456/payments/next").header("Authorization", jwtToken))
+        .andExpect(status().isBadRequest());
+    assertEquals(0, qrPaymentSubscriptions.size());
+  }
+}
@@ -1,21 +1,26 @@
 package com.payflow.api.controller;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.payflow.api.model.dto.request.TransactionRequest;
+import com.payflow.api.model.dto.response.TransactionResponse;
 import com.payflow.api.model.entity.Transaction;
 import com.payflow.api.model.entity.User;
 import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
 import com.payflow.api.security.JwtTokenProvider;
 import com.payflow.api.security.UserPrincipal;
 import com.payflow.api.service.TransactionService;
 import com.payflow.api.service.UserService;
+import com.payflow.api.service.push.TransactionStreamService;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -36,6 +41,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -52,6 +58,8 @@ public class TransactionControllerTest {
 
   @MockBean private JwtTokenProvider jwtTokenProvider;
 
+  @Autowired private TransactionStreamService transactionStreamService;
+
   private User testUser;
   private Transaction testTransaction;
   private TransactionRequest transactionRequest;
@@ -70,7 +78,7 @@ public class TransactionControllerTest {
     sourceWallet.setId(1L);
     sourceWallet.setUser(testUser);
     sourceWallet.setCurrency(Wallet.Currency.USD);
-    sourceWallet.setBalance(BigDecimal.valueOf(1000));
+    sourceWallet.setBalance(Money.of(BigDecimal.valueOf(1000)));
     sourceWallet.setWalletNumber("WALLET123456");
 
     // Create destination wallet
@@ -82,7 +90,7 @@ public class TransactionControllerTest {
     destWallet.setId(2L);
     destWallet.setUser(recipient);
     destWallet.setCurrency(Wallet.Currency.USD);
-    destWallet.setBalance(BigDecimal.valueOf(500));
+    destWallet.setBalance(Money.of(BigDecimal.valueOf(500)));
     destWallet.setWalletNumber("WALLET654321");
 
     testTransaction = new Transaction();
@@ -92,7 +100,7 @@ public class TransactionControllerTest {
     testTransaction.setReceiver(recipient);
     testTransaction.setSourceWallet(sourceWallet);
     testTransaction.setDestinationWallet(destWallet);
-    testTransaction.setAmount(BigDecimal.valueOf(100));
+    testTransaction.setAmount(Money.of(BigDecimal.valueOf(100)));
     testTransaction.setType(Transaction.TransactionType.TRANSFER);
     testTransaction.setStatus(Transaction.TransactionStatus.COMPLETED);
     testTransaction.setSourceCurrency(Wallet.Currency.USD);
@@ -118,7 +126,7 @@ public class TransactionControllerTest {
 
     // Mock JWT authentication
     when(jwtTokenProvider.validateToken(anyString())).thenReturn(true);
-    when(jwtTokenProvider.getUserIdFromJWT(anyString())).thenReturn(testUser.getId());
+    when(jwtTokenProvider.getUserIdFromJwt(anyString())).thenReturn(testUser.getId());
   }
 
   @Test
@@ -213,4 +221,37 @@ public class TransactionControllerTest {
                 .content(objectMapper.writeValueAsString(invalidRequest)))
         .andExpect(status().isBadRequest());
   }
+
+  @Test
+  public void testStreamMyTransactions() throws Exception {
+    MvcResult result =
+        mockMvc
+            .perform(get("/transactions/stream").header("Authorization", jwtToken))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    transactionStreamService.publish(
+        testUser.getId(), TransactionResponse.fromEntity(testTransaction));
+
+    long deadline = System.currentTimeMillis() + 5_000;
+    String body = result.getResponse().getContentAsString();
+    while (!body.contains("TXN123456") && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+      body = result.getResponse().getContentAsString();
+    }
+    assertTrue(body.contains("event:transaction"));
+    assertTrue(body.contains("id:1"));
+    assertTrue(body.contains("TXN123456"));
+    result.getRequest().getAsyncContext().complete();
+  }
+
+  @Test
+  public void testStreamMyTransactions_InvalidLastEventId() throws Exception {
+    mockMvc
+        .perform(
+            get("/transactions/stream")
+                .header("Authorization", jwtToken)
+                .header("Last-Event-ID", "not-a-cursor"))
+        .andExpect(status().isBadRequest());
+  }
 }
@@ -0,0 +1,206 @@
+package com.payflow.api.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.event.DomainEventHandler.OverflowPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ActiveProfiles("test")
+public class DomainEventBusTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final MockEnvironment environment = new MockEnvironment();
+  private DomainEventBus bus;
+
+  @AfterEach
+  public void tearDown() {
+    if (bus != null) {
+      bus.stop();
+    }
+  }
+
+  @Test
+  public void testHandlersReceiveTheirEventsInOrderInBatches() throws Exception {
+    // Arrange
+    environment.setProperty("events.handlers.numbers.max-batch-size", "8");
+    Recorder<Numbered> numbers = new Recorder<>(Numbered.class, "numbers", OverflowPolicy.BLOCK);
+    Recorder<Other> others = new Recorder<>(Other.class, "others", OverflowPolicy.BLOCK);
+    start(64, numbers, others);
+
+    // Act
+    for (int i = 0; i < 100; i++) {
+      bus.publish(new Numbered(i));
+      if (i % 10 == 0) {
+        bus.publish(new Other());
+      }
+    }
+
+    // Assert
+    await(() -> numbers.received.size() == 100 && others.received.size() == 10);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, numbers.received.get(i).value);
+    }
+    assertTrue(numbers.batchSizes.stream().allMatch(size -> size <= 8));
+    assertEquals(110.0, meterRegistry.counter("events.bus.published").count());
+  }
+
+  @Test
+  public void testDroppingHandlerIsLappedWithoutHoldingPublishersUp() throws Exception {
+    // Arrange
+    environment.setProperty("events.handlers.slow.overflow-policy", "DROP");
+    Recorder<Numbered> slow = new Recorder<>(Numbered.class, "slow", OverflowPolicy.BLOCK);
+    Recorder<Numbered> fast = new Recorder<>(Numbered.class, "fast", OverflowPolicy.BLOCK);
+    slow.gate = new CountDownLatch(1);
+    start(8, slow, fast);
+    bus.publish(new Numbered(0));
+    await(() -> slow.waiting);
+
+    // Act
+    for (int i = 1; i < 100; i++) {
+      bus.publish(new Numbered(i));
+    }
+    slow.gate.countDown();
+
+    // Assert
+    await(() -> fast.received.size() == 100);
+    await(
+        () -> !slow.received.isEmpty() && slow.received.get(slow.received.size() - 1).value == 99);
+    assertTrue(slow.received.size() < 100);
+    for (int i = 1; i < slow.received.size(); i++) {
+      assertTrue(slow.received.get(i).value > slow.received.get(i - 1).value);
+    }
+    assertTrue(meterRegistry.counter("events.bus.dropped", "handler", "slow").count() > 0);
+    assertEquals(0.0, meterRegistry.counter("events.bus.dropped", "handler", "fast").count());
+  }
+
+  @Test
+  public void testBlockingHandlerHoldsPublishersUpUntilTheTimeout() throws Exception {
+    // Arrange
+    Recorder<Numbered> stuck = new Recorder<>(Numbered.class, "stuck", OverflowPolicy.BLOCK);
+    stuck.gate = new CountDownLatch(1);
+    start(4, stuck);
+    ReflectionTestUtils.setField(bus, "blockTimeoutMs", 50L);
+    bus.publish(new Numbered(0));
+    await(() -> stuck.waiting);
+
+    // Act
+    long startedAt = System.nanoTime();
+    for (int i = 1; i <= 4; i++) {
+      bus.publish(new Numbered(i));
+    }
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    stuck.gate.countDown();
+
+    // Assert
+    assertTrue(elapsedMillis >= 50, "publisher should have waited, took " + elapsedMillis);
+    assertEquals(1.0, meterRegistry.counter("events.bus.block-timeouts").count());
+  }
+
+  @Test
+  public void testFailingBatchDoesNotStopTheHandler() throws Exception {
+    // Arrange
+    Recorder<Numbered> flaky = new Recorder<>(Numbered.class, "flaky", OverflowPolicy.BLOCK);
+    flaky.failOn = 0;
+    start(16, flaky);
+
+    // Act
+    bus.publish(new Numbered(0));
+    await(() -> meterRegistry.counter("events.bus.failures", "handler", "flaky").count() == 1.0);
+    bus.publish(new Numbered(1));
+
+    // Assert
+    await(() -> flaky.received.size() == 1);
+    assertEquals(1, flaky.received.get(0).value);
+  }
+
+  private void start(final int capacity, final DomainEventHandler<?>... handlers) {
+    List<DomainEventHandler<?>> all = new ArrayList<>(List.of(handlers));
+    bus = new DomainEventBus(all, environment, meterRegistry);
+    ReflectionTestUtils.setField(bus, "capacity", capacity);
+    bus.start();
+  }
+
+  private static void await(final BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+
+  private static final class Numbered implements DomainEvent {
+    private final int value;
+
+    private Numbered(final int value) {
+      this.value = value;
+    }
+  }
+
+  private static final class Other implements DomainEvent {}
+
+  private static final class Recorder<E extends DomainEvent> implements DomainEventHandler<E> {
+    private final Class<E> type;
+    private final String name;
+    private final OverflowPolicy policy;
+    private final List<E> received = new CopyOnWriteArrayList<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch gate;
+    private volatile boolean waiting;
+    private volatile int failOn = -1;
+
+    private Recorder(final Class<E> type, final String name, final OverflowPolicy policy) {
+      this.type = type;
+      this.name = name;
+      this.policy = policy;
+    }
+
+    @Override
+    public Class<E> getEventType() {
+      return type;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public OverflowPolicy getOverflowPolicy() {
+      return policy;
+    }
+
+    @Override
+    public void handle(final List<E> events) {
+      final CountDownLatch current = gate;
+      if (current != null) {
+        waiting = true;
+        try {
+          current.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        gate = null;
+      }
+      if (failOn >= 0 && events.get(0) instanceof Numbered) {
+        final int first = ((Numbered) events.get(0)).value;
+        if (first == failOn) {
+          failOn = -1;
+          throw new IllegalStateException("Failing on " + first);
+        }
+      }
+      batchSizes.add(events.size());
+      received.addAll(events);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.payflow.api.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.exception.InsufficientFundsException;
+import com.payflow.api.exception.ResourceNotFoundException;
+import com.payflow.api.model.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+public class OperationTimerTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final OperationTimer timer = new OperationTimer(meterRegistry, "test.operation", "Test");
+
+  @Test
+  public void testSuccessIsRecordedAndResultReturned() {
+    // Act
+    String result = timer.record("transfer", () -> "done");
+
+    // Assert
+    assertEquals("done", result);
+    assertEquals(1, count("transfer", OperationTimer.SUCCESS));
+  }
+
+  @Test
+  public void testFailuresAreRecordedUnderTheirOutcomeAndRethrown() {
+    // Arrange
+    InsufficientFundsException insufficient =
+        new InsufficientFundsException(Money.of(BigDecimal.ONE), Money.of(BigDecimal.TEN));
+
+    // Act
+    assertThrows(InsufficientFundsException.class, () -> fail("transfer", insufficient));
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> fail("transfer", new ResourceNotFoundException("Wallet", "walletNumber", "W1")));
+    assertThrows(BadRequestException.class, () -> fail("transfer", new BadRequestException("no")));
+    assertThrows(IllegalStateException.class, () -> fail("transfer", new IllegalStateException()));
+
+    // Assert
+    assertEquals(1, count("transfer", OperationTimer.INSUFFICIENT_FUNDS));
+    assertEquals(1, count("transfer", OperationTimer.NOT_FOUND));
+    assertEquals(1, count("transfer", OperationTimer.REJECTED));
+    assertEquals(1, count("transfer", OperationTimer.ERROR));
+    assertEquals(0, count("transfer", OperationTimer.SUCCESS));
+  }
+
+  @Test
+  public void testTimersAreReusedPerOperationAndOutcome() {
+    // Act
+    timer.record("deposit", () -> {});
+    timer.record("deposit", () -> {});
+    timer.record("withdrawal", () -> {});
+
+    // Assert
+    assertSame(
+        timer.timer("deposit", OperationTimer.SUCCESS),
+        timer.timer("deposit", OperationTimer.SUCCESS));
+    assertEquals(2, count("deposit", OperationTimer.SUCCESS));
+    assertEquals(1, count("withdrawal", OperationTimer.SUCCESS));
+  }
+
+  private void fail(final String operation, final RuntimeException failure) {
+    timer.record(
+        operation,
+        () -> {
+          throw failure;
+        });
+  }
+
+  private long count(final String operation, final String outcome) {
+    return meterRegistry
+        .find("test.operation")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .timers()
+        .stream()
+        .mapToLong(t -> t.count())
+        .sum();
+  }
+}
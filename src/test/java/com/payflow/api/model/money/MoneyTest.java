@@ -0,0 +1,96 @@
+package com.payflow.api.model.money;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+public class MoneyTest {
+
+  @Test
+  public void testOfRoundsHalfUpToScale() {
+    assertEquals(12_346L, Money.of(new BigDecimal("1.23455")).getMinorUnits());
+    assertEquals(-12_346L, Money.of(new BigDecimal("-1.23455")).getMinorUnits());
+    assertEquals(new BigDecimal("1000.0000"), Money.of(new BigDecimal("1000")).toBigDecimal());
+    assertNull(Money.of(null));
+  }
+
+  @Test
+  public void testArithmeticAndComparison() {
+    // Arrange
+    Money balance = Money.parse("100.50");
+    Money amount = Money.parse("0.75");
+
+    // Act & Assert
+    assertEquals(Money.parse("101.25"), balance.plus(amount));
+    assertEquals(Money.parse("99.75"), balance.minus(amount));
+    assertTrue(amount.isLessThan(balance));
+    assertFalse(balance.isLessThan(balance));
+    assertTrue(balance.compareTo(amount) > 0);
+    assertTrue(Money.ZERO.isZero());
+    assertFalse(Money.ZERO.isPositive());
+  }
+
+  @Test
+  public void testOverflowIsDetected() {
+    Money max = Money.ofMinor(Long.MAX_VALUE);
+    Money min = Money.ofMinor(Long.MIN_VALUE);
+
+    assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+    assertThrows(ArithmeticException.class, () -> min.minus(Money.ofMinor(1)));
+    assertThrows(ArithmeticException.class, () -> Money.ofMajor(Long.MAX_VALUE / 1_000));
+    assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e30")));
+    assertThrows(ArithmeticException.class, () -> max.convert(2_000_000L, 6));
+  }
+
+  @Test
+  public void testConvertMatchesBigDecimalHalfUp() {
+    // Arrange: random amounts and rates, including the ties HALF_UP must round away from zero
+    Random random = new Random(42);
+
+    for (int i = 0; i < 10_000; i++) {
+      long minor = random.nextLong() % 10_000_000_000L;
+      long scaledRate = Math.abs(random.nextLong() % 500_000_000L);
+      Money amount = Money.ofMinor(minor);
+      BigDecimal rate = BigDecimal.valueOf(scaledRate, 6);
+
+      // Act
+      Money converted = amount.convert(scaledRate, 6);
+
+      // Assert
+      BigDecimal expected = amount.toBigDecimal().multiply(rate).setScale(4, RoundingMode.HALF_UP);
+      assertEquals(expected, converted.toBigDecimal(), () -> amount + " * " + rate);
+      assertEquals(converted, amount.convert(rate));
+    }
+    assertEquals(Money.parse("0.0001"), Money.parse("0.0001").convert(500_000L, 6));
+    assertEquals(Money.parse("-0.0001"), Money.parse("-0.0001").convert(500_000L, 6));
+  }
+
+  @Test
+  public void testConvertFallsBackWhenProductOverflows() {
+    // Arrange: the raw product exceeds a long but the result still fits
+    Money amount = Money.ofMajor(500_000_000_000L);
+    BigDecimal rate = new BigDecimal("1.500000");
+
+    // Act
+    Money converted = amount.convert(1_500_000L, 6);
+
+    // Assert
+    assertEquals(Money.of(amount.toBigDecimal().multiply(rate)), converted);
+  }
+
+  @Test
+  public void testConverterRoundTrip() {
+    MoneyConverter converter = new MoneyConverter();
+    Money amount = Money.parse("42.4242");
+
+    assertEquals(new BigDecimal("42.4242"), converter.convertToDatabaseColumn(amount));
+    assertEquals(amount, converter.convertToEntityAttribute(new BigDecimal("42.4242")));
+    assertNull(converter.convertToDatabaseColumn(null));
+    assertNull(converter.convertToEntityAttribute(null));
+  }
+}
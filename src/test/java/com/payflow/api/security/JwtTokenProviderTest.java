@@ -0,0 +1,67 @@
+package com.payflow.api.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import java.util.Date;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ActiveProfiles("test")
+public class JwtTokenProviderTest {
+
+  private static final String SECRET = "test_jwt_secret_key_for_unit_testing";
+
+  private JwtTokenProvider tokenProvider;
+
+  @BeforeEach
+  public void setUp() {
+    tokenProvider = new JwtTokenProvider();
+    ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+    ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000);
+  }
+
+  @Test
+  public void testValidTokenYieldsItsUserId() {
+    // Arrange
+    String token = token(42L, SECRET, 60_000);
+
+    // Act
+    boolean valid = tokenProvider.validateToken(token);
+    Long userId = tokenProvider.getUserIdFromJwt(token);
+
+    // Assert
+    assertTrue(valid);
+    assertEquals(42L, userId);
+  }
+
+  @Test
+  public void testForgedTokenIsRejected() {
+    // Arrange
+    String forged = token(42L, "some_other_secret_key_entirely", 60_000);
+
+    // Act & Assert
+    assertFalse(tokenProvider.validateToken(forged));
+  }
+
+  @Test
+  public void testExpiredTokenIsRejected() {
+    // Arrange
+    String expired = token(42L, SECRET, -1_000);
+
+    // Act & Assert
+    assertFalse(tokenProvider.validateToken(expired));
+  }
+
+  private static String token(final Long userId, final String secret, final long validForMillis) {
+    return Jwts.builder()
+        .setSubject(Long.toString(userId))
+        .setIssuedAt(new Date())
+        .setExpiration(new Date(System.currentTimeMillis() + validForMillis))
+        .signWith(SignatureAlgorithm.HS512, secret)
+        .compact();
+  }
+}
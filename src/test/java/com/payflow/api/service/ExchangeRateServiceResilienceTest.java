@@ -0,0 +1,149 @@
+package com.payflow.api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.payflow.api.model.entity.ExchangeRate;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.repository.ExchangeRateHistoryRepository;
+import com.payflow.api.repository.ExchangeRateRepository;
+import com.payflow.api.service.fx.CircuitBreaker;
+import com.payflow.api.service.fx.FxRateSnapshot;
+import com.payflow.api.service.fx.StubExchangeRateProvider;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Exercises staleness, stale-while-revalidate and the circuit breaker against the stub. */
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+public class ExchangeRateServiceResilienceTest {
+
+  @Mock private ExchangeRateRepository exchangeRateRepository;
+
+  @Mock private ExchangeRateHistoryRepository exchangeRateHistoryRepository;
+
+  private StubExchangeRateProvider provider;
+  private ExchangeRateService exchangeRateService;
+
+  @BeforeEach
+  public void setup() {
+    provider = new StubExchangeRateProvider();
+    exchangeRateService =
+        new ExchangeRateService(exchangeRateRepository, provider, exchangeRateHistoryRepository);
+    ReflectionTestUtils.setField(exchangeRateService, "staleAfter", Duration.ofHours(1));
+    ReflectionTestUtils.setField(exchangeRateService, "revalidateInterval", Duration.ZERO);
+    ReflectionTestUtils.setField(exchangeRateService, "breakerFailureThreshold", 2);
+    ReflectionTestUtils.setField(exchangeRateService, "breakerOpenDuration", Duration.ofMinutes(5));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    exchangeRateService.shutdown();
+  }
+
+  @Test
+  public void testStaleRateIsServedImmediatelyWhileRefreshRunsInBackground() throws Exception {
+    // Arrange: stored rate is two hours old and the provider takes 500ms to answer
+    ExchangeRate stored =
+        new ExchangeRate(Wallet.Currency.USD, Wallet.Currency.EUR, new BigDecimal("0.80"));
+    stored.setLastUpdated(LocalDateTime.now().minusHours(2));
+    when(exchangeRateRepository.findAll()).thenReturn(Collections.singletonList(stored));
+    exchangeRateService.initializeExchangeRates();
+    provider.setLatency(Duration.ofMillis(500));
+
+    // Act
+    long start = System.nanoTime();
+    BigDecimal converted =
+        exchangeRateService.convertCurrency(
+            new BigDecimal("100"), Wallet.Currency.USD, Wallet.Currency.EUR);
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    // Assert: the stale value answers without waiting on the provider
+    assertEquals(new BigDecimal("80.0000"), converted);
+    assertTrue(elapsedMillis < 250, "lookup waited " + elapsedMillis + "ms on the provider");
+
+    // The background refresh eventually publishes the fresh rate
+    awaitRate(Wallet.Currency.USD, Wallet.Currency.EUR, new BigDecimal("0.920000"));
+    assertEquals(1, provider.getCallCount());
+  }
+
+  @Test
+  public void testFreshRateDoesNotTriggerRefresh() throws Exception {
+    // Arrange
+    ExchangeRate stored =
+        new ExchangeRate(Wallet.Currency.USD, Wallet.Currency.EUR, new BigDecimal("0.80"));
+    stored.setLastUpdated(LocalDateTime.now().minusMinutes(5));
+    when(exchangeRateRepository.findAll()).thenReturn(Collections.singletonList(stored));
+    exchangeRateService.initializeExchangeRates();
+
+    // Act
+    exchangeRateService.getExchangeRate(Wallet.Currency.USD, Wallet.Currency.EUR);
+    Thread.sleep(100);
+
+    // Assert
+    assertEquals(0, provider.getCallCount());
+  }
+
+  @Test
+  public void testRepeatedFailuresOpenCircuit() {
+    // Arrange
+    when(exchangeRateRepository.findAll()).thenReturn(Collections.emptyList());
+    exchangeRateService.initializeExchangeRates();
+    provider.failNextCalls(10);
+
+    // Act: two failures reach the threshold, the third attempt is short-circuited
+    exchangeRateService.updateAllExchangeRates();
+    exchangeRateService.updateAllExchangeRates();
+    exchangeRateService.updateAllExchangeRates();
+
+    // Assert
+    assertEquals(CircuitBreaker.State.OPEN, exchangeRateService.getCircuitBreaker().getState());
+    assertEquals(2, provider.getCallCount());
+    assertSame(FxRateSnapshot.empty(), exchangeRateService.getRateSnapshot());
+    verify(exchangeRateRepository, never()).upsertAll(anyCollection());
+  }
+
+  @Test
+  public void testCircuitClosesAfterSuccessfulTrial() {
+    // Arrange: open immediately, retry straight away
+    ReflectionTestUtils.setField(exchangeRateService, "breakerFailureThreshold", 1);
+    ReflectionTestUtils.setField(exchangeRateService, "breakerOpenDuration", Duration.ZERO);
+    when(exchangeRateRepository.findAll()).thenReturn(Collections.emptyList());
+    exchangeRateService.initializeExchangeRates();
+    provider.failNextCalls(1);
+
+    // Act
+    exchangeRateService.updateAllExchangeRates();
+    assertEquals(CircuitBreaker.State.OPEN, exchangeRateService.getCircuitBreaker().getState());
+    exchangeRateService.updateAllExchangeRates();
+
+    // Assert
+    assertEquals(CircuitBreaker.State.CLOSED, exchangeRateService.getCircuitBreaker().getState());
+    assertEquals(
+        new BigDecimal("0.920000"),
+        exchangeRateService.getExchangeRate(Wallet.Currency.USD, Wallet.Currency.EUR));
+  }
+
+  private void awaitRate(Wallet.Currency from, Wallet.Currency to, BigDecimal expected)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (System.currentTimeMillis() < deadline) {
+      if (expected.equals(exchangeRateService.getRateSnapshot().getRate(from, to))) {
+        return;
+      }
+      Thread.sleep(20);
+    }
+    fail("Rate " + from + "->" + to + " was not refreshed to " + expected);
+  }
+}
@@ -6,23 +6,32 @@ import static org.mockito.Mockito.*;
 
 import com.payflow.api.exception.ResourceNotFoundException;
 import com.payflow.api.model.entity.ExchangeRate;
+import com.payflow.api.model.entity.ExchangeRateHistory;
 import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.repository.ExchangeRateHistoryRepository;
 import com.payflow.api.repository.ExchangeRateRepository;
+import com.payflow.api.service.fx.ExchangeRateProvider;
+import com.payflow.api.service.fx.FxRateHistory;
+import com.payflow.api.service.fx.FxRateSnapshot;
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
 
 @ExtendWith(MockitoExtension.class)
 @ActiveProfiles("test")
@@ -30,7 +39,9 @@ public class ExchangeRateServiceTest {
 
   @Mock private ExchangeRateRepository exchangeRateRepository;
 
-  @Mock private RestTemplate restTemplate;
+  @Mock private ExchangeRateProvider exchangeRateProvider;
+
+  @Mock private ExchangeRateHistoryRepository exchangeRateHistoryRepository;
 
   @InjectMocks private ExchangeRateService exchangeRateService;
 
@@ -39,19 +50,18 @@ public class ExchangeRateServiceTest {
 
   @BeforeEach
   public void setup() {
-    ReflectionTestUtils.setField(
-        exchangeRateService, "exchangeRateApiUrl", "https://api.example.com/latest/");
-
     // Set up exchange rates
     usdToEur = new ExchangeRate();
     usdToEur.setBaseCurrency(Wallet.Currency.USD);
     usdToEur.setTargetCurrency(Wallet.Currency.EUR);
     usdToEur.setRate(new BigDecimal("0.85"));
+    usdToEur.setLastUpdated(LocalDateTime.now());
 
     usdToGbp = new ExchangeRate();
     usdToGbp.setBaseCurrency(Wallet.Currency.USD);
     usdToGbp.setTargetCurrency(Wallet.Currency.GBP);
     usdToGbp.setRate(new BigDecimal("0.75"));
+    usdToGbp.setLastUpdated(LocalDateTime.now());
   }
 
   @Test
@@ -66,44 +76,36 @@ public class ExchangeRateServiceTest {
   @Test
   public void testGetExchangeRate_DifferentCurrency() {
     // Arrange
-    when(exchangeRateRepository.findByBaseCurrencyAndTargetCurrency(
-            eq(Wallet.Currency.USD), eq(Wallet.Currency.EUR)))
-        .thenReturn(Optional.of(usdToEur));
+    when(exchangeRateRepository.findAll()).thenReturn(Arrays.asList(usdToEur, usdToGbp));
+    exchangeRateService.loadSnapshotFromDatabase();
 
     // Act
     BigDecimal rate = exchangeRateService.getExchangeRate(Wallet.Currency.USD, Wallet.Currency.EUR);
 
     // Assert
-    assertEquals(new BigDecimal("0.85"), rate);
+    assertEquals(0, new BigDecimal("0.85").compareTo(rate));
 
-    // Verify
-    verify(exchangeRateRepository)
-        .findByBaseCurrencyAndTargetCurrency(Wallet.Currency.USD, Wallet.Currency.EUR);
+    // Verify rates are served from memory, not looked up per call
+    verify(exchangeRateRepository, never()).findByBaseCurrencyAndTargetCurrency(any(), any());
   }
 
   @Test
   public void testGetExchangeRate_NotFound() {
     // Arrange
-    when(exchangeRateRepository.findByBaseCurrencyAndTargetCurrency(
-            eq(Wallet.Currency.USD), eq(Wallet.Currency.JPY)))
-        .thenReturn(Optional.empty());
+    when(exchangeRateRepository.findAll()).thenReturn(Arrays.asList(usdToEur));
+    exchangeRateService.loadSnapshotFromDatabase();
 
     // Act & Assert
     assertThrows(
         ResourceNotFoundException.class,
         () -> exchangeRateService.getExchangeRate(Wallet.Currency.USD, Wallet.Currency.JPY));
-
-    // Verify
-    verify(exchangeRateRepository)
-        .findByBaseCurrencyAndTargetCurrency(Wallet.Currency.USD, Wallet.Currency.JPY);
   }
 
   @Test
   public void testConvertCurrency() {
     // Arrange
-    when(exchangeRateRepository.findByBaseCurrencyAndTargetCurrency(
-            eq(Wallet.Currency.USD), eq(Wallet.Currency.EUR)))
-        .thenReturn(Optional.of(usdToEur));
+    when(exchangeRateRepository.findAll()).thenReturn(Arrays.asList(usdToEur));
+    exchangeRateService.loadSnapshotFromDatabase();
 
     BigDecimal amount = new BigDecimal("100");
 
@@ -113,44 +115,244 @@ public class ExchangeRateServiceTest {
 
     // Assert
     assertEquals(new BigDecimal("85.0000"), convertedAmount);
+  }
+
+  @Test
+  public void testSnapshotIsReplacedNotMutated() {
+    // Arrange
+    when(exchangeRateRepository.findAll()).thenReturn(Arrays.asList(usdToEur));
+    exchangeRateService.loadSnapshotFromDatabase();
+    FxRateSnapshot first = exchangeRateService.getRateSnapshot();
 
-    // Verify
-    verify(exchangeRateRepository)
-        .findByBaseCurrencyAndTargetCurrency(Wallet.Currency.USD, Wallet.Currency.EUR);
+    usdToEur.setRate(new BigDecimal("0.90"));
+    exchangeRateService.loadSnapshotFromDatabase();
+    FxRateSnapshot second = exchangeRateService.getRateSnapshot();
+
+    // Assert: readers holding the old snapshot keep seeing the old rate
+    assertNotSame(first, second);
+    assertTrue(second.getVersion() > first.getVersion());
+    assertEquals(
+        0,
+        new BigDecimal("0.85").compareTo(first.getRate(Wallet.Currency.USD, Wallet.Currency.EUR)));
+    assertEquals(
+        0,
+        new BigDecimal("0.90").compareTo(second.getRate(Wallet.Currency.USD, Wallet.Currency.EUR)));
   }
 
   @Test
   @SuppressWarnings("unchecked")
-  public void testUpdateAllExchangeRates() throws Exception {
-    // Mocked API response
-    Map<String, Double> rates = new HashMap<>();
-    rates.put("USD", 1.0);
-    rates.put("EUR", 0.85);
-    rates.put("GBP", 0.75);
-
-    // Create response object using reflection to access private class
-    Object rateResponse =
-        Class.forName("com.payflow.api.service.ExchangeRateService$ExchangeRateApiResponse")
-            .getDeclaredConstructor()
-            .newInstance();
-    ReflectionTestUtils.setField(rateResponse, "base", "USD");
-    ReflectionTestUtils.setField(rateResponse, "rates", rates);
-
-    // Mock REST API call
-    ResponseEntity<Object> responseEntity = new ResponseEntity<>(rateResponse, HttpStatus.OK);
-    when(restTemplate.getForEntity(anyString(), eq(Object.class)))
-        .thenReturn((ResponseEntity) responseEntity);
-
-    // When existing exchange rate
-    when(exchangeRateRepository.findByBaseCurrencyAndTargetCurrency(
-            any(Wallet.Currency.class), any(Wallet.Currency.class)))
-        .thenReturn(Optional.of(usdToEur));
+  public void testUpdateAllExchangeRates() {
+    // Provider quotes a single base; every other pair is derived from it
+    Map<Wallet.Currency, BigDecimal> usdRates = new EnumMap<>(Wallet.Currency.class);
+    for (Wallet.Currency currency : Wallet.Currency.values()) {
+      usdRates.put(currency, BigDecimal.ONE);
+    }
+    usdRates.put(Wallet.Currency.EUR, new BigDecimal("0.80"));
+    usdRates.put(Wallet.Currency.GBP, new BigDecimal("0.60"));
+    when(exchangeRateProvider.fetchRates(Wallet.Currency.USD)).thenReturn(usdRates);
+    when(exchangeRateRepository.upsertAll(anyCollection()))
+        .thenAnswer(invocation -> ((Collection<ExchangeRate>) invocation.getArgument(0)).size());
 
     // Call method
+    long versionBefore = exchangeRateService.getRateSnapshot().getVersion();
+    exchangeRateService.updateAllExchangeRates();
+
+    // One provider call, one batched write covering all pairs, no per-pair round trips
+    verify(exchangeRateProvider, times(1)).fetchRates(any());
+    ArgumentCaptor<Collection<ExchangeRate>> rows = ArgumentCaptor.forClass(Collection.class);
+    verify(exchangeRateRepository, times(1)).upsertAll(rows.capture());
+    int currencies = Wallet.Currency.values().length;
+    assertEquals(currencies * currencies, rows.getValue().size());
+    verify(exchangeRateRepository, never()).findByBaseCurrencyAndTargetCurrency(any(), any());
+    verify(exchangeRateRepository, never()).save(any(ExchangeRate.class));
+
+    // Cross rates are triangulated through USD
+    assertTrue(exchangeRateService.getRateSnapshot().getVersion() > versionBefore);
+    assertEquals(
+        new BigDecimal("0.750000"),
+        exchangeRateService.getExchangeRate(Wallet.Currency.EUR, Wallet.Currency.GBP));
+    assertEquals(
+        new BigDecimal("1.250000"),
+        exchangeRateService.getExchangeRate(Wallet.Currency.EUR, Wallet.Currency.USD));
+  }
+
+  @Test
+  public void testUpdateAllExchangeRates_ProviderFailureKeepsSnapshot() {
+    // Arrange
+    when(exchangeRateRepository.findAll()).thenReturn(Arrays.asList(usdToEur));
+    exchangeRateService.loadSnapshotFromDatabase();
+    FxRateSnapshot before = exchangeRateService.getRateSnapshot();
+    when(exchangeRateProvider.fetchRates(any())).thenThrow(new IllegalStateException("offline"));
+
+    // Act
     exchangeRateService.updateAllExchangeRates();
 
-    // Difficult to test private methods directly, so verify interactions
-    verify(restTemplate, atLeastOnce()).getForEntity(contains("USD"), any());
-    verify(exchangeRateRepository, atLeastOnce()).save(any(ExchangeRate.class));
+    // Assert
+    assertSame(before, exchangeRateService.getRateSnapshot());
+    verify(exchangeRateRepository, never()).upsertAll(anyCollection());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testUpdateAllExchangeRates_AppendsOnlyChangedPairsToHistory() {
+    // Arrange: first refresh publishes every pair, second one only moves EUR
+    Map<Wallet.Currency, BigDecimal> usdRates = new EnumMap<>(Wallet.Currency.class);
+    for (Wallet.Currency currency : Wallet.Currency.values()) {
+      usdRates.put(currency, BigDecimal.ONE);
+    }
+    when(exchangeRateProvider.fetchRates(Wallet.Currency.USD)).thenReturn(usdRates);
+    exchangeRateService.updateAllExchangeRates();
+
+    Map<Wallet.Currency, BigDecimal> moved = new EnumMap<>(usdRates);
+    moved.put(Wallet.Currency.EUR, new BigDecimal("0.50"));
+    when(exchangeRateProvider.fetchRates(Wallet.Currency.USD)).thenReturn(moved);
+
+    // Act
+    exchangeRateService.updateAllExchangeRates();
+
+    // Assert: all cross pairs first, then only the pairs touching EUR
+    int currencies = Wallet.Currency.values().length;
+    ArgumentCaptor<Collection<ExchangeRateHistory>> rows =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(exchangeRateHistoryRepository, times(2)).appendAll(rows.capture());
+    assertEquals(currencies * (currencies - 1), rows.getAllValues().get(0).size());
+    assertEquals(2 * (currencies - 1), rows.getAllValues().get(1).size());
+    ExchangeRateHistory usdToEurRow =
+        rows.getAllValues().get(1).stream()
+            .filter(
+                row ->
+                    row.getPairId()
+                        == FxRateHistory.pairId(Wallet.Currency.USD, Wallet.Currency.EUR))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+    assertEquals(500_000L, usdToEurRow.getRateScaled());
+  }
+
+  @Test
+  public void testGetExchangeRateAt_AnswersFromMemory() {
+    // Arrange: two refreshes with different EUR rates
+    Map<Wallet.Currency, BigDecimal> usdRates = new EnumMap<>(Wallet.Currency.class);
+    usdRates.put(Wallet.Currency.EUR, new BigDecimal("0.80"));
+    when(exchangeRateProvider.fetchRates(Wallet.Currency.USD)).thenReturn(usdRates);
+    exchangeRateService.updateAllExchangeRates();
+    long firstVersion = exchangeRateService.getRateSnapshot().getVersion();
+
+    Map<Wallet.Currency, BigDecimal> moved = new EnumMap<>(Wallet.Currency.class);
+    moved.put(Wallet.Currency.EUR, new BigDecimal("0.90"));
+    when(exchangeRateProvider.fetchRates(Wallet.Currency.USD)).thenReturn(moved);
+    exchangeRateService.updateAllExchangeRates();
+    long secondVersion = exchangeRateService.getRateSnapshot().getVersion();
+
+    // Act
+    FxRateHistory.Point atFirst =
+        exchangeRateService.getExchangeRateAt(
+            Wallet.Currency.USD, Wallet.Currency.EUR, Instant.ofEpochMilli(firstVersion));
+    FxRateHistory.Point atSecond =
+        exchangeRateService.getExchangeRateAt(
+            Wallet.Currency.USD, Wallet.Currency.EUR, Instant.ofEpochMilli(secondVersion));
+
+    // Assert: each version yields the rate it published, without touching the database
+    assertEquals(new BigDecimal("0.800000"), atFirst.getRate());
+    assertEquals(firstVersion, atFirst.getRecordedAtMillis());
+    assertEquals(new BigDecimal("0.900000"), atSecond.getRate());
+    verify(exchangeRateHistoryRepository, never())
+        .findFirstByPairIdAndRecordedAtLessThanEqualOrderByRecordedAtDesc(anyShort(), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGetExchangeRateAt_BetweenStartupLoadAndFirstRefresh() {
+    // Arrange: EUR was stored two hours ago; the first refresh confirms it and only moves GBP
+    LocalDateTime storedAt = LocalDateTime.now().minusHours(2).truncatedTo(ChronoUnit.SECONDS);
+    usdToEur.setLastUpdated(storedAt);
+    when(exchangeRateRepository.findAll()).thenReturn(Arrays.asList(usdToEur));
+    exchangeRateService.loadSnapshotFromDatabase();
+
+    Map<Wallet.Currency, BigDecimal> usdRates = new EnumMap<>(Wallet.Currency.class);
+    usdRates.put(Wallet.Currency.EUR, new BigDecimal("0.85"));
+    usdRates.put(Wallet.Currency.GBP, new BigDecimal("0.75"));
+    when(exchangeRateProvider.fetchRates(Wallet.Currency.USD)).thenReturn(usdRates);
+    exchangeRateService.updateAllExchangeRates();
+
+    // Act
+    Instant storedInstant = storedAt.atZone(ZoneId.systemDefault()).toInstant();
+    FxRateHistory.Point point =
+        exchangeRateService.getExchangeRateAt(
+            Wallet.Currency.USD, Wallet.Currency.EUR, storedInstant.plusSeconds(3600));
+
+    // Assert: the stored rate answers from memory and keeps its update time through the refresh
+    assertEquals(new BigDecimal("0.850000"), point.getRate());
+    assertEquals(storedInstant.toEpochMilli(), point.getRecordedAtMillis());
+    verify(exchangeRateHistoryRepository, never())
+        .findFirstByPairIdAndRecordedAtLessThanEqualOrderByRecordedAtDesc(anyShort(), any());
+
+    FxRateSnapshot snapshot = exchangeRateService.getRateSnapshot();
+    assertEquals(
+        storedInstant.toEpochMilli(),
+        snapshot.getUpdatedAtMillis(Wallet.Currency.USD, Wallet.Currency.EUR));
+    assertFalse(
+        snapshot.isStale(
+            Wallet.Currency.USD,
+            Wallet.Currency.EUR,
+            Duration.ofHours(1).toMillis(),
+            System.currentTimeMillis()));
+
+    // The loaded rate is persisted to history as of its update time
+    ArgumentCaptor<Collection<ExchangeRateHistory>> rows =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(exchangeRateHistoryRepository, times(2)).appendAll(rows.capture());
+    assertEquals(1, rows.getAllValues().get(0).size());
+    ExchangeRateHistory loaded = rows.getAllValues().get(0).iterator().next();
+    assertEquals(storedAt, loaded.getRecordedAt());
+    assertEquals(850_000L, loaded.getRateScaled());
+    ArgumentCaptor<Collection<ExchangeRate>> stored = ArgumentCaptor.forClass(Collection.class);
+    verify(exchangeRateRepository).upsertAll(stored.capture());
+    ExchangeRate storedRow =
+        stored.getValue().stream()
+            .filter(
+                row ->
+                    row.getBaseCurrency() == Wallet.Currency.USD
+                        && row.getTargetCurrency() == Wallet.Currency.EUR)
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+    assertEquals(storedAt, storedRow.getLastUpdated());
+  }
+
+  @Test
+  public void testGetExchangeRateAt_FallsBackToDatabaseForOlderTimes() {
+    // Arrange: nothing in memory, one stored history row
+    LocalDateTime recordedAt = LocalDateTime.of(2024, 1, 15, 12, 0);
+    short pairId = FxRateHistory.pairId(Wallet.Currency.USD, Wallet.Currency.GBP);
+    when(exchangeRateHistoryRepository
+            .findFirstByPairIdAndRecordedAtLessThanEqualOrderByRecordedAtDesc(eq(pairId), any()))
+        .thenReturn(Optional.of(new ExchangeRateHistory(pairId, recordedAt, 781_234L)));
+
+    // Act
+    FxRateHistory.Point point =
+        exchangeRateService.getExchangeRateAt(
+            Wallet.Currency.USD,
+            Wallet.Currency.GBP,
+            recordedAt.plusHours(3).atZone(ZoneId.systemDefault()).toInstant());
+
+    // Assert
+    assertEquals(new BigDecimal("0.781234"), point.getRate());
+    assertEquals(
+        recordedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+        point.getRecordedAtMillis());
+  }
+
+  @Test
+  public void testGetExchangeRateAt_NotFound() {
+    // Arrange
+    when(exchangeRateHistoryRepository
+            .findFirstByPairIdAndRecordedAtLessThanEqualOrderByRecordedAtDesc(anyShort(), any()))
+        .thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(
+        ResourceNotFoundException.class,
+        () ->
+            exchangeRateService.getExchangeRateAt(
+                Wallet.Currency.USD, Wallet.Currency.JPY, Instant.now()));
   }
 }
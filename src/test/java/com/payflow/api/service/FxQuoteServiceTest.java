@@ -0,0 +1,199 @@
+package com.payflow.api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.service.fx.FxQuote;
+import com.payflow.api.service.fx.FxRateSnapshot;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+public class FxQuoteServiceTest {
+
+  private static final Wallet.Currency USD = Wallet.Currency.USD;
+  private static final Wallet.Currency EUR = Wallet.Currency.EUR;
+  private static final Wallet.Currency GBP = Wallet.Currency.GBP;
+
+  @Mock private ExchangeRateService exchangeRateService;
+
+  @InjectMocks private FxQuoteService fxQuoteService;
+
+  private FxRateSnapshot rates;
+
+  @BeforeEach
+  public void setup() {
+    rates =
+        FxRateSnapshot.empty().toBuilder()
+            .put(USD, EUR, new BigDecimal("0.85"), Instant.now())
+            .build(Instant.now());
+    fxQuoteService.initializeQuoteStore();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private void stubRates() {
+    when(exchangeRateService.getRateSnapshot()).thenReturn(rates);
+    when(exchangeRateService.getExchangeRate(rates, USD, EUR)).thenReturn(rates.getRate(USD, EUR));
+  }
+
+  @Test
+  public void testQuoteIsHonouredAfterRatesChange() {
+    // Arrange
+    stubRates();
+    FxQuote quote = fxQuoteService.createQuote(1L, USD, EUR, new BigDecimal("100"));
+    FxRateSnapshot moved =
+        rates.toBuilder().put(USD, EUR, new BigDecimal("0.95"), Instant.now()).build(Instant.now());
+    lenient().when(exchangeRateService.getRateSnapshot()).thenReturn(moved);
+
+    // Act
+    FxQuote redeemed =
+        fxQuoteService.resolve(quote.getQuoteId(), 1L, USD, EUR, Money.of(new BigDecimal("100")));
+
+    // Assert
+    assertEquals(Money.of(new BigDecimal("85")), redeemed.getConvertedAmount());
+    assertEquals(0, new BigDecimal("0.85").compareTo(redeemed.getRate()));
+    assertEquals(rates.getVersion(), redeemed.getRateVersion());
+  }
+
+  @Test
+  public void testQuoteIsSingleUse() {
+    // Arrange
+    stubRates();
+    FxQuote quote = fxQuoteService.createQuote(1L, USD, EUR, new BigDecimal("10"));
+    Money amount = Money.of(new BigDecimal("10"));
+    fxQuoteService.resolve(quote.getQuoteId(), 1L, USD, EUR, amount);
+
+    // Act & Assert
+    assertThrows(
+        BadRequestException.class,
+        () -> fxQuoteService.resolve(quote.getQuoteId(), 1L, USD, EUR, amount));
+  }
+
+  @Test
+  public void testQuoteIsRestoredWhenPaymentRollsBack() {
+    // Arrange
+    stubRates();
+    FxQuote quote = fxQuoteService.createQuote(1L, USD, EUR, new BigDecimal("10"));
+    Money amount = Money.of(new BigDecimal("10"));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act: the payment redeems the quote, then fails and rolls back
+    fxQuoteService.resolve(quote.getQuoteId(), 1L, USD, EUR, amount);
+    completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    // Assert: the next attempt settles at the same quote
+    FxQuote retried = fxQuoteService.resolve(quote.getQuoteId(), 1L, USD, EUR, amount);
+    assertEquals(quote.getConvertedAmount(), retried.getConvertedAmount());
+  }
+
+  @Test
+  public void testQuoteStaysUsedWhenPaymentCommits() {
+    // Arrange
+    stubRates();
+    FxQuote quote = fxQuoteService.createQuote(1L, USD, EUR, new BigDecimal("10"));
+    Money amount = Money.of(new BigDecimal("10"));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    fxQuoteService.resolve(quote.getQuoteId(), 1L, USD, EUR, amount);
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+    // Assert
+    assertThrows(
+        BadRequestException.class,
+        () -> fxQuoteService.resolve(quote.getQuoteId(), 1L, USD, EUR, amount));
+  }
+
+  @Test
+  public void testExpiredQuoteIsRejected() {
+    // Arrange
+    stubRates();
+    ReflectionTestUtils.setField(fxQuoteService, "quoteTtl", Duration.ZERO);
+    FxQuote quote = fxQuoteService.createQuote(1L, USD, EUR, new BigDecimal("10"));
+
+    // Act & Assert
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            fxQuoteService.resolve(
+                quote.getQuoteId(), 1L, USD, EUR, Money.of(new BigDecimal("10"))));
+  }
+
+  @Test
+  public void testQuoteOfAnotherUserIsRejectedAndKept() {
+    // Arrange
+    stubRates();
+    FxQuote quote = fxQuoteService.createQuote(1L, USD, EUR, new BigDecimal("10"));
+    Money amount = Money.of(new BigDecimal("10"));
+
+    // Act & Assert
+    assertThrows(
+        BadRequestException.class,
+        () -> fxQuoteService.resolve(quote.getQuoteId(), 2L, USD, EUR, amount));
+    assertNotNull(fxQuoteService.resolve(quote.getQuoteId(), 1L, USD, EUR, amount));
+  }
+
+  @Test
+  public void testQuoteNotMatchingPaymentIsRejected() {
+    // Arrange
+    stubRates();
+    FxQuote amountQuote = fxQuoteService.createQuote(1L, USD, EUR, new BigDecimal("10"));
+    FxQuote pairQuote = fxQuoteService.createQuote(1L, USD, EUR, new BigDecimal("10"));
+
+    // Act & Assert
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            fxQuoteService.resolve(
+                amountQuote.getQuoteId(), 1L, USD, EUR, Money.of(new BigDecimal("11"))));
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            fxQuoteService.resolve(
+                pairQuote.getQuoteId(), 1L, USD, GBP, Money.of(new BigDecimal("10"))));
+  }
+
+  @Test
+  public void testResolveWithoutQuoteIdPricesAtSpot() {
+    // Arrange
+    stubRates();
+
+    // Act
+    FxQuote spot = fxQuoteService.resolve(null, 1L, USD, EUR, Money.of(new BigDecimal("20")));
+
+    // Assert
+    assertNull(spot.getQuoteId());
+    assertEquals(Money.of(new BigDecimal("17")), spot.getConvertedAmount());
+    assertFalse(spot.isExpired(Long.MAX_VALUE));
+  }
+
+  private static void completeTransaction(final int status) {
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCompletion(status);
+    }
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+}
@@ -0,0 +1,439 @@
+package com.payflow.api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.model.dto.request.MoneyRequestActionDTO;
+import com.payflow.api.model.dto.request.MoneyRequestDTO;
+import com.payflow.api.model.dto.request.TopUpRequest;
+import com.payflow.api.model.dto.request.TransactionRequest;
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.Transaction;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.repository.TransactionRepository;
+import com.payflow.api.repository.UserRepository;
+import com.payflow.api.repository.WalletRepository;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs thousands of concurrent transfers, QR code payments, money request payments, top-ups and
+ * withdrawals across a few hot wallets in three currencies, then reconciles the books: every
+ * wallet's balance must equal what its transaction rows add up to, each currency's total must equal
+ * what was deposited less what was withdrawn plus what was converted into it, no balance may go
+ * negative, and every operation that succeeded must have left exactly one row.
+ *
+ * <p>Operations that lose a lock race are retried as a client would; the retries and deadlocks are
+ * logged with the throughput.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+public class MoneyConservationStressTest {
+
+  private static final int USERS = 4;
+  private static final Wallet.Currency[] CURRENCIES = {
+    Wallet.Currency.USD, Wallet.Currency.EUR, Wallet.Currency.GBP
+  };
+  private static final int OPERATIONS = 3000;
+  private static final int THREADS = 16;
+  private static final int MAX_ATTEMPTS = 10;
+  private static final BigDecimal OPENING_BALANCE = new BigDecimal("500.00");
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private WalletService walletService;
+  @Autowired private QRCodeService qrCodeService;
+  @Autowired private MoneyRequestService moneyRequestService;
+  @Autowired private ExchangeRateService exchangeRateService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private WalletRepository walletRepository;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private final List<User> users = new ArrayList<>();
+  private final Map<Long, List<Wallet>> walletsByUser = new HashMap<>();
+  private final Map<String, String> qrIdByWallet = new HashMap<>();
+  private final Map<Wallet.Currency, Money> deposited = new ConcurrentHashMap<>();
+  private final Map<Wallet.Currency, Money> withdrawn = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> succeeded = new ConcurrentHashMap<>();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder deadlocks = new LongAdder();
+  private final Failures failures = new Failures();
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    executor = Executors.newFixedThreadPool(THREADS);
+    awaitExchangeRates();
+    for (int i = 0; i < USERS; i++) {
+      User user = createUser("hot" + i);
+      users.add(user);
+      List<Wallet> wallets = new ArrayList<>();
+      for (Wallet.Currency currency : CURRENCIES) {
+        Wallet wallet = walletService.createWallet(user, currency, OPENING_BALANCE);
+        credit(deposited, currency, Money.of(OPENING_BALANCE));
+        wallets.add(wallet);
+        QRCode qrCode =
+            qrCodeService.createWalletQRCode(
+                user, wallet.getWalletNumber(), null, false, false, "Till", null);
+        qrIdByWallet.put(wallet.getWalletNumber(), qrCode.getQrId());
+      }
+      walletsByUser.put(user.getId(), wallets);
+    }
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentPaymentsConserveMoney() throws Exception {
+    // Arrange
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(OPERATIONS);
+    Random seeds = new Random(42);
+    for (int i = 0; i < OPERATIONS; i++) {
+      long seed = seeds.nextLong();
+      executor.execute(
+          () -> {
+            try {
+              start.await();
+              runOperation(new Random(seed));
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            } finally {
+              done.countDown();
+            }
+          });
+    }
+
+    // Act
+    long startedAt = System.nanoTime();
+    start.countDown();
+    assertTrue(done.await(5, TimeUnit.MINUTES), "operations did not finish");
+    double seconds = (System.nanoTime() - startedAt) / 1e9;
+    log.info(
+        "{} operations in {} s ({} ops/s): succeeded {}, rejected {}, retries {}, deadlocks {}",
+        OPERATIONS,
+        String.format("%.2f", seconds),
+        String.format("%.0f", OPERATIONS / seconds),
+        succeeded,
+        rejected.sum(),
+        retries.sum(),
+        deadlocks.sum());
+
+    // Assert
+    assertTrue(failures.isEmpty(), () -> "unexpected failures: " + failures.describe());
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> reconcile());
+  }
+
+  /** Picks an operation and a pair of hot wallets and runs it, retrying lost lock races. */
+  private void runOperation(final Random random) {
+    final User payer = users.get(random.nextInt(USERS));
+    User payee = payer;
+    while (payee == payer) {
+      payee = users.get(random.nextInt(USERS));
+    }
+    final Wallet source = walletOf(payer, random);
+    final Wallet destination = walletOf(payee, random);
+    final BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(2400), 2);
+    final int pick = random.nextInt(100);
+    final User requester = payee;
+
+    if (pick < 30) {
+      attempt(
+          "transfer",
+          () -> {
+            TransactionRequest request = new TransactionRequest();
+            request.setSourceWalletNumber(source.getWalletNumber());
+            request.setDestinationWalletNumber(destination.getWalletNumber());
+            request.setAmount(amount);
+            request.setDescription("Stress transfer");
+            transactionService.createTransferTransaction(payer, request);
+          });
+    } else if (pick < 55) {
+      attempt(
+          "qr",
+          () ->
+              qrCodeService.processQRCodePayment(
+                  payer,
+                  qrIdByWallet.get(destination.getWalletNumber()),
+                  amount,
+                  source.getWalletNumber(),
+                  null));
+    } else if (pick < 80) {
+      MoneyRequestDTO requestDto = new MoneyRequestDTO();
+      requestDto.setRequesteeEmail(payer.getEmail());
+      requestDto.setWalletNumber(destination.getWalletNumber());
+      requestDto.setAmount(amount);
+      requestDto.setDescription("Stress request");
+      MoneyRequest[] created = new MoneyRequest[1];
+      if (!attempt(
+          "money_request_create",
+          () -> created[0] = moneyRequestService.createMoneyRequest(requester, requestDto))) {
+        return;
+      }
+      attempt(
+          "money_request_payment",
+          () -> {
+            MoneyRequestActionDTO action = new MoneyRequestActionDTO();
+            action.setRequestNumber(created[0].getRequestNumber());
+            action.setAction("APPROVE");
+            action.setPaymentWalletNumber(source.getWalletNumber());
+            moneyRequestService.processMoneyRequestAction(payer, action);
+          });
+    } else if (pick < 90) {
+      if (attempt(
+          "top_up",
+          () -> {
+            TopUpRequest request = new TopUpRequest();
+            request.setWalletNumber(source.getWalletNumber());
+            request.setAmount(amount);
+            walletService.topUpWallet(payer, request);
+          })) {
+        credit(deposited, source.getCurrency(), Money.of(amount));
+      }
+    } else {
+      if (attempt("withdrawal", () -> walletService.withdrawFunds(payer, amount, null))) {
+        credit(withdrawn, Wallet.Currency.USD, Money.of(amount));
+      }
+    }
+  }
+
+  /**
+   * Runs an operation until it succeeds, is rejected, or fails for a reason other than a lost lock
+   * race.
+   *
+   * @return whether the operation succeeded
+   */
+  private boolean attempt(final String operation, final Runnable body) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        body.run();
+        succeeded.computeIfAbsent(operation, key -> new AtomicInteger()).incrementAndGet();
+        return true;
+      } catch (BadRequestException e) {
+        // Insufficient funds included
+        rejected.increment();
+        return false;
+      } catch (RuntimeException e) {
+        if (!isLockFailure(e) || attempt == MAX_ATTEMPTS) {
+          failures.add(operation, e);
+          return false;
+        }
+        if (isDeadlock(e)) {
+          deadlocks.increment();
+        }
+        retries.increment();
+        sleepBeforeRetry(attempt);
+      }
+    }
+  }
+
+  /** Checks the books once every operation has finished. */
+  private void reconcile() {
+    final Map<Long, Wallet> wallets =
+        walletsByUser.values().stream()
+            .flatMap(List::stream)
+            .map(wallet -> walletRepository.findById(wallet.getId()).orElseThrow())
+            .collect(Collectors.toMap(Wallet::getId, wallet -> wallet));
+    final Set<Long> walletIds = wallets.keySet();
+    final List<Transaction> rows =
+        transactionRepository.findAll().stream()
+            .filter(
+                row ->
+                    (row.getSourceWallet() != null
+                            && walletIds.contains(row.getSourceWallet().getId()))
+                        || (row.getDestinationWallet() != null
+                            && walletIds.contains(row.getDestinationWallet().getId())))
+            .collect(Collectors.toList());
+
+    // Every wallet's balance is what its rows add up to
+    final Map<Long, Money> ledger = new HashMap<>();
+    final Map<Wallet.Currency, Money> convertedIn = new EnumMap<>(Wallet.Currency.class);
+    final Map<Wallet.Currency, Money> convertedOut = new EnumMap<>(Wallet.Currency.class);
+    int deposits = 0;
+    int withdrawals = 0;
+    int payments = 0;
+    for (Transaction row : rows) {
+      switch (row.getType()) {
+        case DEPOSIT:
+          deposits++;
+          credit(ledger, row.getDestinationWallet().getId(), row.getAmount());
+          break;
+        case WITHDRAWAL:
+          withdrawals++;
+          debit(ledger, row.getSourceWallet().getId(), row.getAmount());
+          break;
+        default:
+          payments++;
+          final Money credited =
+              row.getSourceCurrency() == row.getDestinationCurrency()
+                  ? row.getAmount()
+                  : row.getAmount().convert(row.getExchangeRate());
+          debit(ledger, row.getSourceWallet().getId(), row.getAmount());
+          credit(ledger, row.getDestinationWallet().getId(), credited);
+          if (row.getSourceCurrency() != row.getDestinationCurrency()) {
+            credit(convertedOut, row.getSourceCurrency(), row.getAmount());
+            credit(convertedIn, row.getDestinationCurrency(), credited);
+          }
+      }
+    }
+    for (Wallet wallet : wallets.values()) {
+      assertEquals(
+          ledger.getOrDefault(wallet.getId(), Money.ZERO),
+          wallet.getBalance(),
+          "balance of " + wallet.getWalletNumber() + " does not match its transactions");
+      assertFalse(
+          wallet.getBalance().compareTo(Money.ZERO) < 0,
+          wallet.getWalletNumber() + " went negative");
+    }
+
+    // Each currency holds what was deposited, less what was withdrawn, plus net conversions
+    for (Wallet.Currency currency : CURRENCIES) {
+      Money total = Money.ZERO;
+      for (Wallet wallet : wallets.values()) {
+        if (wallet.getCurrency() == currency) {
+          total = total.plus(wallet.getBalance());
+        }
+      }
+      Money expected =
+          deposited
+              .getOrDefault(currency, Money.ZERO)
+              .minus(withdrawn.getOrDefault(currency, Money.ZERO))
+              .plus(convertedIn.getOrDefault(currency, Money.ZERO))
+              .minus(convertedOut.getOrDefault(currency, Money.ZERO));
+      assertEquals(expected, total, "total " + currency + " balance");
+    }
+
+    // Every operation that succeeded left exactly one row, and nothing else did
+    assertEquals(USERS * CURRENCIES.length + count("top_up"), deposits);
+    assertEquals(count("withdrawal"), withdrawals);
+    assertEquals(count("transfer") + count("qr") + count("money_request_payment"), payments);
+  }
+
+  private Wallet walletOf(final User user, final Random random) {
+    final List<Wallet> wallets = walletsByUser.get(user.getId());
+    return wallets.get(random.nextInt(wallets.size()));
+  }
+
+  private int count(final String operation) {
+    final AtomicInteger count = succeeded.get(operation);
+    return count == null ? 0 : count.get();
+  }
+
+  private static <K> void credit(final Map<K, Money> totals, final K key, final Money amount) {
+    totals.merge(key, amount, Money::plus);
+  }
+
+  private static <K> void debit(final Map<K, Money> totals, final K key, final Money amount) {
+    totals.merge(key, Money.ZERO.minus(amount), Money::plus);
+  }
+
+  private static boolean isLockFailure(final Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConcurrencyFailureException
+          || cause instanceof javax.persistence.PessimisticLockException
+          || cause instanceof javax.persistence.LockTimeoutException
+          || cause instanceof org.hibernate.exception.LockAcquisitionException
+          || cause instanceof org.hibernate.PessimisticLockException) {
+        return true;
+      }
+    }
+    return isDeadlock(failure);
+  }
+
+  private static boolean isDeadlock(final Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException) {
+        final String state = ((SQLException) cause).getSQLState();
+        if ("40001".equals(state) || "40P01".equals(state)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static void sleepBeforeRetry(final int attempt) {
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextInt(1, 5 * attempt + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void awaitExchangeRates() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!exchangeRateService.getRateSnapshot().hasRate(Wallet.Currency.EUR, Wallet.Currency.GBP)
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    if (!exchangeRateService.getRateSnapshot().hasRate(Wallet.Currency.EUR, Wallet.Currency.GBP)) {
+      exchangeRateService.updateAllExchangeRates();
+    }
+  }
+
+  private User createUser(final String name) {
+    User user = new User();
+    user.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+    user.setPassword("password");
+    user.setFullName(name);
+    return userRepository.save(user);
+  }
+
+  /** Operations that failed for a reason other than a rejection or a lost lock race. */
+  private static final class Failures {
+    private final ConcurrentLinkedQueue<String> entries = new ConcurrentLinkedQueue<>();
+
+    void add(final String operation, final Throwable failure) {
+      Throwable root = failure;
+      while (root.getCause() != null) {
+        root = root.getCause();
+      }
+      entries.add(operation + ": " + failure + " (root: " + root + ")");
+    }
+
+    boolean isEmpty() {
+      return entries.isEmpty();
+    }
+
+    String describe() {
+      return entries.size() + " failures, first " + entries.stream().limit(5).toList();
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.payflow.api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.event.MoneyRequestExpiredEvent;
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.repository.MoneyRequestRepository;
+import com.payflow.api.repository.UserRepository;
+import com.payflow.api.repository.WalletRepository;
+import com.payflow.api.service.expiry.ExpirationScheduler;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+public class MoneyRequestExpiryServiceTest {
+
+  @Autowired private MoneyRequestExpiryService moneyRequestExpiryService;
+  @Autowired private ExpirationScheduler expirationScheduler;
+  @Autowired private MoneyRequestRepository moneyRequestRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private WalletRepository walletRepository;
+  @Autowired private ApplicationEvents applicationEvents;
+
+  private User requester;
+  private User requestee;
+  private Wallet wallet;
+
+  @BeforeEach
+  public void setup() {
+    ReflectionTestUtils.setField(moneyRequestExpiryService, "chunkSize", 2);
+    ReflectionTestUtils.setField(expirationScheduler, "pageSize", 2);
+    requester = createUser("requester");
+    requestee = createUser("requestee");
+    wallet = new Wallet();
+    wallet.setUser(requester);
+    wallet.setCurrency(Wallet.Currency.USD);
+    wallet.setBalance(Money.ZERO);
+    wallet = walletRepository.save(wallet);
+  }
+
+  @Test
+  public void testSchedulerExpiresOnlyDuePendingRequestsAcrossPagesAndRanges() {
+    // Arrange
+    LocalDateTime now = LocalDateTime.now();
+    List<MoneyRequest> due = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      due.add(createRequest(MoneyRequest.RequestStatus.PENDING, now.minusMinutes(1)));
+    }
+    MoneyRequest approved = createRequest(MoneyRequest.RequestStatus.APPROVED, now.minusMinutes(1));
+    MoneyRequest notYetDue = createRequest(MoneyRequest.RequestStatus.PENDING, now.plusDays(1));
+
+    // Act
+    long nowMillis = System.currentTimeMillis();
+    expirationScheduler.load(nowMillis);
+    expirationScheduler.fire(nowMillis + 2_000);
+
+    // Assert
+    for (MoneyRequest request : due) {
+      assertEquals(MoneyRequest.RequestStatus.EXPIRED, statusOf(request));
+    }
+    assertEquals(MoneyRequest.RequestStatus.APPROVED, statusOf(approved));
+    assertEquals(MoneyRequest.RequestStatus.PENDING, statusOf(notYetDue));
+
+    Set<String> notified =
+        applicationEvents.stream(MoneyRequestExpiredEvent.class)
+            .map(MoneyRequestExpiredEvent::getRequestNumber)
+            .collect(Collectors.toSet());
+    assertEquals(
+        due.stream().map(MoneyRequest::getRequestNumber).collect(Collectors.toSet()), notified);
+    MoneyRequestExpiredEvent event =
+        applicationEvents.stream(MoneyRequestExpiredEvent.class).findFirst().orElseThrow();
+    assertEquals(requester.getId(), event.getRequesterId());
+    assertEquals(requestee.getId(), event.getRequesteeId());
+    assertEquals(Money.of(BigDecimal.TEN), event.getAmount());
+    assertEquals("EXPIRED", event.getMoneyRequest().getStatus());
+    assertEquals(requester.getEmail(), event.getMoneyRequest().getRequesterEmail());
+    assertEquals(requestee.getEmail(), event.getMoneyRequest().getRequesteeEmail());
+    assertEquals(wallet.getWalletNumber(), event.getMoneyRequest().getWalletNumber());
+  }
+
+  @Test
+  public void testExpireSkipsRequestsNoLongerPending() {
+    // Arrange
+    LocalDateTime now = LocalDateTime.now();
+    MoneyRequest first = createRequest(MoneyRequest.RequestStatus.PENDING, now.minusMinutes(1));
+    MoneyRequest declined = createRequest(MoneyRequest.RequestStatus.DECLINED, now.minusMinutes(1));
+    MoneyRequest last = createRequest(MoneyRequest.RequestStatus.PENDING, now.minusMinutes(1));
+
+    // Act
+    int expired =
+        moneyRequestExpiryService.expireDueRequests(
+            new long[] {first.getId(), declined.getId(), last.getId()}, now);
+
+    // Assert
+    assertEquals(2, expired);
+    assertEquals(MoneyRequest.RequestStatus.EXPIRED, statusOf(first));
+    assertEquals(MoneyRequest.RequestStatus.DECLINED, statusOf(declined));
+    assertEquals(MoneyRequest.RequestStatus.EXPIRED, statusOf(last));
+  }
+
+  private MoneyRequest createRequest(
+      final MoneyRequest.RequestStatus status, final LocalDateTime expiresAt) {
+    MoneyRequest request = new MoneyRequest();
+    request.setRequester(requester);
+    request.setRequestee(requestee);
+    request.setRequestWallet(wallet);
+    request.setAmount(Money.of(BigDecimal.TEN));
+    request.setStatus(status);
+    request.setExpiresAt(expiresAt);
+    return moneyRequestRepository.save(request);
+  }
+
+  private MoneyRequest.RequestStatus statusOf(final MoneyRequest request) {
+    return moneyRequestRepository.findById(request.getId()).orElseThrow().getStatus();
+  }
+
+  private User createUser(final String name) {
+    User user = new User();
+    user.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+    user.setPassword("password");
+    user.setFullName(name);
+    return userRepository.save(user);
+  }
+}
@@ -0,0 +1,202 @@
+package com.payflow.api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.exception.ResourceNotFoundException;
+import com.payflow.api.model.dto.request.GroupMoneyRequestDTO;
+import com.payflow.api.model.dto.request.MoneyRequestActionDTO;
+import com.payflow.api.model.dto.response.MoneyRequestGroupResponse;
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.repository.UserRepository;
+import com.payflow.api.repository.WalletRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class MoneyRequestServiceTest {
+
+  @Autowired private MoneyRequestService moneyRequestService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private WalletRepository walletRepository;
+
+  private User requester;
+  private Wallet wallet;
+  private List<User> friends;
+
+  @BeforeEach
+  public void setup() {
+    requester = createUser("requester");
+    wallet = createWallet(requester, BigDecimal.ZERO);
+    friends = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      friends.add(createUser("friend"));
+    }
+  }
+
+  @Test
+  public void testEqualSplitLeavesNoCentBehind() {
+    // Arrange
+    GroupMoneyRequestDTO request = groupRequest(new BigDecimal("100.00"), friends);
+
+    // Act
+    List<MoneyRequest> created = moneyRequestService.createGroupMoneyRequest(requester, request);
+
+    // Assert
+    assertEquals(3, created.size());
+    assertEquals(
+        Arrays.asList(
+            Money.of(new BigDecimal("33.34")),
+            Money.of(new BigDecimal("33.33")),
+            Money.of(new BigDecimal("33.33"))),
+        created.stream().map(MoneyRequest::getAmount).collect(Collectors.toList()));
+    String groupId = created.get(0).getGroupId();
+    assertNotNull(groupId);
+    for (int i = 0; i < created.size(); i++) {
+      MoneyRequest moneyRequest = created.get(i);
+      assertNotNull(moneyRequest.getId());
+      assertNotNull(moneyRequest.getRequestNumber());
+      assertNotNull(moneyRequest.getExpiresAt());
+      assertEquals(groupId, moneyRequest.getGroupId());
+      assertEquals(MoneyRequest.RequestStatus.PENDING, moneyRequest.getStatus());
+      assertEquals(friends.get(i).getId(), moneyRequest.getRequestee().getId());
+    }
+  }
+
+  @Test
+  public void testEqualSplitIncludingRequester() {
+    // Arrange
+    GroupMoneyRequestDTO request = groupRequest(new BigDecimal("100.00"), friends);
+    request.setIncludeRequester(true);
+
+    // Act
+    List<MoneyRequest> created = moneyRequestService.createGroupMoneyRequest(requester, request);
+
+    // Assert
+    for (MoneyRequest moneyRequest : created) {
+      assertEquals(Money.of(new BigDecimal("25.00")), moneyRequest.getAmount());
+    }
+  }
+
+  @Test
+  public void testCustomSharesMustAddUp() {
+    // Arrange
+    GroupMoneyRequestDTO request = groupRequest(new BigDecimal("60.00"), friends.subList(0, 2));
+    request.getRequestees().get(0).setAmount(new BigDecimal("45.00"));
+    request.getRequestees().get(1).setAmount(new BigDecimal("15.00"));
+
+    // Act
+    List<MoneyRequest> created = moneyRequestService.createGroupMoneyRequest(requester, request);
+    request.setAmount(new BigDecimal("70.00"));
+
+    // Assert
+    assertEquals(Money.of(new BigDecimal("45.00")), created.get(0).getAmount());
+    assertEquals(Money.of(new BigDecimal("15.00")), created.get(1).getAmount());
+    BadRequestException e =
+        assertThrows(
+            BadRequestException.class,
+            () -> moneyRequestService.createGroupMoneyRequest(requester, request));
+    assertEquals("Shares must add up to the amount", e.getMessage());
+  }
+
+  @Test
+  public void testUnknownRequesteeCreatesNothing() {
+    // Arrange
+    GroupMoneyRequestDTO request = groupRequest(new BigDecimal("30.00"), friends);
+    GroupMoneyRequestDTO.Share stranger = new GroupMoneyRequestDTO.Share();
+    stranger.setEmail("nobody-" + UUID.randomUUID() + "@example.com");
+    request.getRequestees().add(stranger);
+
+    // Act & Assert
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> moneyRequestService.createGroupMoneyRequest(requester, request));
+    assertTrue(moneyRequestService.getPendingRequestsForUser(friends.get(0)).isEmpty());
+  }
+
+  @Test
+  public void testDuplicateRequesteeIsRejected() {
+    // Arrange
+    GroupMoneyRequestDTO request =
+        groupRequest(new BigDecimal("30.00"), Arrays.asList(friends.get(0), friends.get(0)));
+
+    // Act & Assert
+    assertThrows(
+        BadRequestException.class,
+        () -> moneyRequestService.createGroupMoneyRequest(requester, request));
+  }
+
+  @Test
+  public void testGroupTracksPayments() {
+    // Arrange
+    List<MoneyRequest> created =
+        moneyRequestService.createGroupMoneyRequest(
+            requester, groupRequest(new BigDecimal("30.00"), friends));
+    String groupId = created.get(0).getGroupId();
+    User payer = friends.get(0);
+    Wallet payerWallet = createWallet(payer, new BigDecimal("100.00"));
+    MoneyRequestActionDTO approve = new MoneyRequestActionDTO();
+    approve.setRequestNumber(created.get(0).getRequestNumber());
+    approve.setAction("APPROVE");
+    approve.setPaymentWalletNumber(payerWallet.getWalletNumber());
+    moneyRequestService.processMoneyRequestAction(payer, approve);
+
+    // Act
+    MoneyRequestGroupResponse group =
+        MoneyRequestGroupResponse.fromEntities(
+            groupId, moneyRequestService.getMoneyRequestGroup(requester, groupId));
+
+    // Assert
+    assertEquals(0, new BigDecimal("30.00").compareTo(group.getTotalAmount()));
+    assertEquals(0, new BigDecimal("10.00").compareTo(group.getPaidAmount()));
+    assertEquals(1L, group.getStatusCounts().get(MoneyRequest.RequestStatus.APPROVED));
+    assertEquals(2L, group.getStatusCounts().get(MoneyRequest.RequestStatus.PENDING));
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> moneyRequestService.getMoneyRequestGroup(payer, groupId));
+  }
+
+  private GroupMoneyRequestDTO groupRequest(final BigDecimal amount, final List<User> requestees) {
+    GroupMoneyRequestDTO request = new GroupMoneyRequestDTO();
+    request.setWalletNumber(wallet.getWalletNumber());
+    request.setAmount(amount);
+    request.setDescription("Dinner");
+    List<GroupMoneyRequestDTO.Share> shares = new ArrayList<>();
+    for (User requestee : requestees) {
+      GroupMoneyRequestDTO.Share share = new GroupMoneyRequestDTO.Share();
+      share.setEmail(requestee.getEmail());
+      shares.add(share);
+    }
+    request.setRequestees(shares);
+    return request;
+  }
+
+  private User createUser(final String name) {
+    User user = new User();
+    user.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+    user.setPassword("password");
+    user.setFullName(name);
+    return userRepository.save(user);
+  }
+
+  private Wallet createWallet(final User user, final BigDecimal balance) {
+    Wallet wallet = new Wallet();
+    wallet.setUser(user);
+    wallet.setCurrency(Wallet.Currency.USD);
+    wallet.setBalance(Money.of(balance));
+    return walletRepository.save(wallet);
+  }
+}
@@ -4,24 +4,46 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import com.payflow.api.event.QRPaymentCompletedEvent;
 import com.payflow.api.exception.BadRequestException;
 import com.payflow.api.exception.ResourceNotFoundException;
+import com.payflow.api.model.dto.response.QRPaymentResponse;
 import com.payflow.api.model.entity.QRCode;
 import com.payflow.api.model.entity.Transaction;
 import com.payflow.api.model.entity.User;
 import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.expiry.Expiration;
+import com.payflow.api.model.money.Money;
 import com.payflow.api.repository.QRCodeRepository;
+import com.payflow.api.service.expiry.ExpirationScheduler;
+import com.payflow.api.service.qr.ActiveQRCode;
+import com.payflow.api.service.qr.ActiveQRCodeRegistry;
+import com.payflow.api.service.qr.QRBulkArchiveWriter;
+import com.payflow.api.service.qr.QRImageCache;
+import com.payflow.api.service.qr.QRImageFormat;
+import com.payflow.api.service.qr.QRImagePrerenderer;
+import com.payflow.api.service.qr.QRImageRenderer;
+import com.payflow.api.service.qr.QRPayloadSigner;
+import com.payflow.api.service.qr.QRPaymentNotifier;
+import com.payflow.api.service.qr.QRPaymentSubscriptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.ActiveProfiles;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +56,24 @@ public class QRCodeServiceTest {
 
   @Mock private TransactionService transactionService;
 
+  @Spy private QRImageCache qrImageCache = new QRImageCache();
+
+  @Spy private QRImageRenderer qrImageRenderer = new QRImageRenderer(new SimpleMeterRegistry());
+
+  @Mock private QRImagePrerenderer qrImagePrerenderer;
+
+  @Spy private ActiveQRCodeRegistry activeQRCodes = new ActiveQRCodeRegistry();
+
+  @Spy private QRPayloadSigner qrPayloadSigner = new QRPayloadSigner();
+
+  @Mock private QRBulkArchiveWriter qrBulkArchiveWriter;
+
+  @Mock private ExpirationScheduler expirationScheduler;
+
+  @Spy private QRPaymentSubscriptions qrPaymentSubscriptions = new QRPaymentSubscriptions();
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks private QRCodeService qrCodeService;
 
   private User testUser;
@@ -46,6 +86,8 @@ public class QRCodeServiceTest {
 
   @BeforeEach
   public void setup() {
+    qrPayloadSigner.init();
+
     testUser = new User();
     testUser.setId(1L);
     testUser.setEmail("test@example.com");
@@ -60,21 +102,21 @@ public class QRCodeServiceTest {
     userWallet.setId(1L);
     userWallet.setUser(testUser);
     userWallet.setCurrency(Wallet.Currency.USD);
-    userWallet.setBalance(BigDecimal.valueOf(1000));
+    userWallet.setBalance(Money.of(BigDecimal.valueOf(1000)));
     userWallet.setWalletNumber("WALLET123456");
 
     otherWallet = new Wallet();
     otherWallet.setId(2L);
     otherWallet.setUser(otherUser);
     otherWallet.setCurrency(Wallet.Currency.USD);
-    otherWallet.setBalance(BigDecimal.valueOf(500));
+    otherWallet.setBalance(Money.of(BigDecimal.valueOf(500)));
     otherWallet.setWalletNumber("WALLET654321");
 
     testQRCode = new QRCode();
     testQRCode.setId(1L);
     testQRCode.setQrId(qrId);
     testQRCode.setWallet(userWallet);
-    testQRCode.setAmount(BigDecimal.valueOf(50));
+    testQRCode.setAmount(Money.of(BigDecimal.valueOf(50)));
     testQRCode.setAmountFixed(true);
     testQRCode.setOneTime(false);
     testQRCode.setDescription("Test QR Code");
@@ -89,7 +131,7 @@ public class QRCodeServiceTest {
     testTransaction.setReceiver(testUser);
     testTransaction.setSourceWallet(otherWallet);
     testTransaction.setDestinationWallet(userWallet);
-    testTransaction.setAmount(BigDecimal.valueOf(50));
+    testTransaction.setAmount(Money.of(BigDecimal.valueOf(50)));
     testTransaction.setType(Transaction.TransactionType.TRANSFER);
     testTransaction.setStatus(Transaction.TransactionStatus.COMPLETED);
     testTransaction.setSourceCurrency(Wallet.Currency.USD);
@@ -107,7 +149,7 @@ public class QRCodeServiceTest {
     boolean isAmountFixed = true;
     boolean isOneTime = false;
     String description = "Test QR Code";
-    LocalDateTime expiresAt = LocalDateTime.now().plusDays(7);
+    LocalDateTime expiresAt = testQRCode.getExpiresAt();
 
     // Act
     QRCode result =
@@ -124,7 +166,7 @@ public class QRCodeServiceTest {
     assertNotNull(result);
     assertEquals(testQRCode.getQrId(), result.getQrId());
     assertEquals(userWallet, result.getWallet());
-    assertEquals(amount, result.getAmount());
+    assertEquals(Money.of(amount), result.getAmount());
     assertEquals(isAmountFixed, result.isAmountFixed());
     assertEquals(isOneTime, result.isOneTime());
     assertEquals(description, result.getDescription());
@@ -133,6 +175,29 @@ public class QRCodeServiceTest {
     // Verify
     verify(walletService).getWalletByNumber(userWallet.getWalletNumber());
     verify(qrCodeRepository).save(any(QRCode.class));
+    verify(qrImagePrerenderer).submitAfterCommit(any(Runnable.class));
+    verify(expirationScheduler)
+        .scheduleAfterCommit(new Expiration(Expiration.QR_CODE, 1L, qrId, expiresAt));
+  }
+
+  @Test
+  public void testCreateWalletQRCode_PrerendersImageIntoCache() {
+    // Arrange
+    when(walletService.getWalletByNumber(anyString())).thenReturn(userWallet);
+    when(qrCodeRepository.save(any(QRCode.class))).thenReturn(testQRCode);
+    when(qrCodeRepository.findByQrIdWithWallet(anyString())).thenReturn(Optional.of(testQRCode));
+    qrCodeService.createWalletQRCode(
+        testUser, userWallet.getWalletNumber(), BigDecimal.valueOf(50), true, false, "Test", null);
+    ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+    verify(qrImagePrerenderer).submitAfterCommit(task.capture());
+
+    // Act
+    task.getValue().run();
+    qrCodeService.generateQRCodeImage(qrId);
+
+    // Assert
+    assertEquals(1, qrImageCache.getMissCount());
+    assertEquals(1, qrImageCache.getHitCount());
   }
 
   @Test
@@ -225,13 +290,14 @@ public class QRCodeServiceTest {
     // Arrange
     when(qrCodeRepository.findByQrId(anyString())).thenReturn(Optional.of(testQRCode));
     when(walletService.getWalletByNumber(anyString())).thenReturn(otherWallet);
-    when(transactionService.processQRCodeTransaction(any(Transaction.class)))
+    when(walletService.getWalletById(userWallet.getId())).thenReturn(userWallet);
+    when(transactionService.processQRCodeTransaction(any(Transaction.class), isNull()))
         .thenReturn(testTransaction);
 
     // Act
     Transaction result =
         qrCodeService.processQRCodePayment(
-            otherUser, qrId, BigDecimal.valueOf(50), otherWallet.getWalletNumber());
+            otherUser, qrId, BigDecimal.valueOf(50), otherWallet.getWalletNumber(), null);
 
     // Assert
     assertNotNull(result);
@@ -241,7 +307,119 @@ public class QRCodeServiceTest {
     // Verify
     verify(qrCodeRepository).findByQrId(qrId);
     verify(walletService).getWalletByNumber(otherWallet.getWalletNumber());
-    verify(transactionService).processQRCodeTransaction(any(Transaction.class));
+    verify(transactionService).processQRCodeTransaction(any(Transaction.class), isNull());
+    assertNotNull(activeQRCodes.get(qrId));
+  }
+
+  @Test
+  public void testProcessQRCodePayment_RegisteredCodeNeedsNoLookup() {
+    // Arrange
+    activeQRCodes.register(ActiveQRCode.from(testQRCode), activeQRCodes.stamp());
+    when(walletService.getWalletByNumber(anyString())).thenReturn(otherWallet);
+    when(walletService.getWalletById(userWallet.getId())).thenReturn(userWallet);
+    when(transactionService.processQRCodeTransaction(any(Transaction.class), isNull()))
+        .thenReturn(testTransaction);
+
+    // Act
+    Transaction result =
+        qrCodeService.processQRCodePayment(
+            otherUser, qrId, BigDecimal.valueOf(50), otherWallet.getWalletNumber(), null);
+
+    // Assert
+    assertEquals(testTransaction.getId(), result.getId());
+    verify(qrCodeRepository, never()).findByQrId(anyString());
+  }
+
+  @Test
+  public void testProcessQRCodePayment_ConsumedOneTimeCodeLeavesRegistry() {
+    // Arrange
+    testQRCode.setOneTime(true);
+    activeQRCodes.register(ActiveQRCode.from(testQRCode), activeQRCodes.stamp());
+    when(walletService.getWalletByNumber(anyString())).thenReturn(otherWallet);
+    when(walletService.getWalletById(userWallet.getId())).thenReturn(userWallet);
+    when(qrCodeRepository.deactivateIfActive(testQRCode.getId())).thenReturn(1);
+    when(transactionService.processQRCodeTransaction(any(Transaction.class), isNull()))
+        .thenReturn(testTransaction);
+
+    // Act
+    qrCodeService.processQRCodePayment(
+        otherUser, qrId, BigDecimal.valueOf(50), otherWallet.getWalletNumber(), null);
+
+    // Assert
+    assertNull(activeQRCodes.get(qrId));
+    verify(qrCodeRepository, never()).findByQrId(anyString());
+    verify(expirationScheduler).cancelAfterCommit(Expiration.QR_CODE, testQRCode.getId());
+  }
+
+  @Test
+  public void testProcessQRCodePayment_NotifiesWatchers() {
+    // Arrange
+    List<QRPaymentResponse> notices = new ArrayList<>();
+    qrPaymentSubscriptions.subscribe(qrId, notices::add);
+    activeQRCodes.register(ActiveQRCode.from(testQRCode), activeQRCodes.stamp());
+    when(walletService.getWalletByNumber(anyString())).thenReturn(otherWallet);
+    when(walletService.getWalletById(userWallet.getId())).thenReturn(userWallet);
+    when(transactionService.processQRCodeTransaction(any(Transaction.class), isNull()))
+        .thenReturn(testTransaction);
+
+    // Act
+    qrCodeService.processQRCodePayment(
+        otherUser, qrId, BigDecimal.valueOf(50), otherWallet.getWalletNumber(), null);
+    ArgumentCaptor<QRPaymentCompletedEvent> published =
+        ArgumentCaptor.forClass(QRPaymentCompletedEvent.class);
+    verify(eventPublisher).publishEvent(published.capture());
+    assertTrue(notices.isEmpty());
+    new QRPaymentNotifier(qrPaymentSubscriptions).handle(List.of(published.getValue()));
+
+    // Assert: a reusable code stays watched
+    assertEquals(1, notices.size());
+    assertEquals(QRPaymentResponse.Status.PAID, notices.get(0).getStatus());
+    assertEquals("TXN123456", notices.get(0).getTransactionNumber());
+    assertEquals(0, BigDecimal.valueOf(50).compareTo(notices.get(0).getAmount()));
+    assertEquals(1, qrPaymentSubscriptions.size());
+  }
+
+  @Test
+  public void testDeactivateQRCode_ClosesWatchers() {
+    // Arrange
+    List<QRPaymentResponse> notices = new ArrayList<>();
+    qrPaymentSubscriptions.subscribe(qrId, notices::add);
+    when(qrCodeRepository.findByQrId(anyString())).thenReturn(Optional.of(testQRCode));
+
+    // Act
+    qrCodeService.deactivateQRCode(testUser, qrId);
+
+    // Assert
+    assertEquals(1, notices.size());
+    assertEquals(QRPaymentResponse.Status.DEACTIVATED, notices.get(0).getStatus());
+    assertEquals(0, qrPaymentSubscriptions.size());
+  }
+
+  @Test
+  public void testCheckPaymentWatcher() {
+    // Arrange
+    when(qrCodeRepository.findByQrId(qrId)).thenReturn(Optional.of(testQRCode));
+
+    // Act & Assert
+    assertDoesNotThrow(() -> qrCodeService.checkPaymentWatcher(testUser.getId(), qrId));
+    assertThrows(
+        BadRequestException.class,
+        () -> qrCodeService.checkPaymentWatcher(otherUser.getId(), qrId));
+    testQRCode.setActive(false);
+    assertThrows(
+        BadRequestException.class, () -> qrCodeService.checkPaymentWatcher(testUser.getId(), qrId));
+  }
+
+  @Test
+  public void testReloadActiveQRCodes() {
+    // Arrange
+    when(qrCodeRepository.findAllActiveQRCodes()).thenReturn(Arrays.asList(testQRCode));
+
+    // Act
+    qrCodeService.reloadActiveQRCodes();
+
+    // Assert
+    assertNotNull(activeQRCodes.get(qrId));
   }
 
   @Test
@@ -256,11 +434,11 @@ public class QRCodeServiceTest {
         BadRequestException.class,
         () ->
             qrCodeService.processQRCodePayment(
-                otherUser, qrId, BigDecimal.valueOf(50), otherWallet.getWalletNumber()));
+                otherUser, qrId, BigDecimal.valueOf(50), otherWallet.getWalletNumber(), null));
 
     // Verify
     verify(qrCodeRepository).findByQrId(qrId);
-    verify(transactionService, never()).processQRCodeTransaction(any(Transaction.class));
+    verify(transactionService, never()).processQRCodeTransaction(any(Transaction.class), isNull());
   }
 
   @Test
@@ -275,11 +453,11 @@ public class QRCodeServiceTest {
         BadRequestException.class,
         () ->
             qrCodeService.processQRCodePayment(
-                otherUser, qrId, BigDecimal.valueOf(50), otherWallet.getWalletNumber()));
+                otherUser, qrId, BigDecimal.valueOf(50), otherWallet.getWalletNumber(), null));
 
     // Verify
     verify(qrCodeRepository).findByQrId(qrId);
-    verify(transactionService, never()).processQRCodeTransaction(any(Transaction.class));
+    verify(transactionService, never()).processQRCodeTransaction(any(Transaction.class), isNull());
   }
 
   @Test
@@ -297,6 +475,8 @@ public class QRCodeServiceTest {
     // Verify
     verify(qrCodeRepository).findByQrId(qrId);
     verify(qrCodeRepository).save(testQRCode);
+    verify(activeQRCodes).removeAfterCommit(qrId);
+    verify(expirationScheduler).cancelAfterCommit(Expiration.QR_CODE, testQRCode.getId());
   }
 
   @Test
@@ -315,7 +495,7 @@ public class QRCodeServiceTest {
   @Test
   public void testGenerateQRCodeImage() {
     // This test is minimal since it involves external libraries
-    when(qrCodeRepository.findByQrId(anyString())).thenReturn(Optional.of(testQRCode));
+    when(qrCodeRepository.findByQrIdWithWallet(anyString())).thenReturn(Optional.of(testQRCode));
 
     // Act
     String base64Image = qrCodeService.generateQRCodeImage(qrId);
@@ -325,6 +505,159 @@ public class QRCodeServiceTest {
     assertTrue(base64Image.length() > 0);
 
     // Verify
-    verify(qrCodeRepository).findByQrId(qrId);
+    verify(qrCodeRepository).findByQrIdWithWallet(qrId);
+  }
+
+  @Test
+  public void testGenerateQRCodeImage_ServedFromCache() {
+    // Arrange
+    when(qrCodeRepository.findByQrIdWithWallet(anyString())).thenReturn(Optional.of(testQRCode));
+    String first = qrCodeService.generateQRCodeImage(qrId);
+
+    // Act
+    String second = qrCodeService.generateQRCodeImage(qrId);
+
+    // Assert
+    assertEquals(first, second);
+    assertEquals(1, qrImageCache.getMissCount());
+    assertEquals(1, qrImageCache.getHitCount());
+  }
+
+  @Test
+  public void testGenerateQRCodeImage_ContentChangeBypassesCache() {
+    // Arrange
+    when(qrCodeRepository.findByQrIdWithWallet(anyString())).thenReturn(Optional.of(testQRCode));
+    String before = qrCodeService.generateQRCodeImage(qrId);
+    testQRCode.setAmount(Money.of(BigDecimal.valueOf(75)));
+
+    // Act
+    String after = qrCodeService.generateQRCodeImage(qrId);
+
+    // Assert
+    assertNotEquals(before, after);
+    assertEquals(2, qrImageCache.getMissCount());
+  }
+
+  @Test
+  public void testGetQRCodeImage_Svg() {
+    // Act
+    String svg =
+        new String(
+            qrCodeService.getQRCodeImage(testQRCode, QRImageFormat.SVG, 256, 2),
+            java.nio.charset.StandardCharsets.UTF_8);
+
+    // Assert
+    assertTrue(svg.startsWith("<svg"));
+    assertTrue(svg.contains("width=\"256\""));
+    assertTrue(svg.contains("<path"));
+  }
+
+  @Test
+  public void testGetQRCodeImageTag_DependsOnContentAndOptions() {
+    // Act
+    String png = qrCodeService.getQRCodeImageTag(testQRCode, QRImageFormat.PNG, 300, 4);
+    String svg = qrCodeService.getQRCodeImageTag(testQRCode, QRImageFormat.SVG, 300, 4);
+    testQRCode.setAmount(Money.of(BigDecimal.valueOf(75)));
+    String changed = qrCodeService.getQRCodeImageTag(testQRCode, QRImageFormat.PNG, 300, 4);
+
+    // Assert
+    assertNotEquals(png, svg);
+    assertNotEquals(png, changed);
+  }
+
+  @Test
+  public void testGetQRCodeImage_UnsupportedSizeOrMargin() throws Exception {
+    // Act & Assert
+    assertThrows(
+        BadRequestException.class,
+        () -> qrCodeService.getQRCodeImage(testQRCode, QRImageFormat.PNG, 301, 4));
+    assertThrows(
+        BadRequestException.class,
+        () -> qrCodeService.getQRCodeImageTag(testQRCode, QRImageFormat.PNG, 300, 40));
+    verify(qrImageRenderer, never()).render(anyString(), any(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void testDeactivateQRCode_InvalidatesCachedImage() {
+    // Arrange
+    when(qrCodeRepository.findByQrIdWithWallet(anyString())).thenReturn(Optional.of(testQRCode));
+    when(qrCodeRepository.findByQrId(anyString())).thenReturn(Optional.of(testQRCode));
+    qrCodeService.generateQRCodeImage(qrId);
+
+    // Act
+    qrCodeService.deactivateQRCode(testUser, qrId);
+
+    // Assert
+    assertEquals(0, qrImageCache.getEntryCount());
+    verify(qrImageCache).invalidate(qrId);
+  }
+
+  @Test
+  public void testCreateBulkQRCodes() {
+    // Arrange
+    when(walletService.getWalletByNumber(anyString())).thenReturn(userWallet);
+    when(qrCodeRepository.insertAll(anyCollection())).thenReturn(3);
+
+    // Act
+    List<QRCode> result =
+        qrCodeService.createBulkQRCodes(
+            testUser, userWallet.getWalletNumber(), 3, BigDecimal.TEN, true, "Table", null);
+
+    // Assert
+    assertEquals(3, result.size());
+    assertEquals(3, result.stream().map(QRCode::getQrId).distinct().count());
+    assertTrue(result.stream().allMatch(qrCode -> qrCode.isOneTime() && qrCode.isActive()));
+    verify(qrCodeRepository).insertAll(result);
+    verify(qrCodeRepository, never()).save(any(QRCode.class));
+  }
+
+  @Test
+  public void testCreateBulkQRCodes_RegistersCodesAndSchedulesExpiries() {
+    // Arrange
+    LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+    when(walletService.getWalletByNumber(anyString())).thenReturn(userWallet);
+    when(qrCodeRepository.insertAll(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              long id = 100;
+              for (QRCode qrCode : invocation.<Collection<QRCode>>getArgument(0)) {
+                qrCode.setId(id++);
+              }
+              return 3;
+            });
+
+    // Act
+    List<QRCode> result =
+        qrCodeService.createBulkQRCodes(
+            testUser, userWallet.getWalletNumber(), 3, BigDecimal.TEN, true, "Table", expiresAt);
+
+    // Assert
+    for (QRCode qrCode : result) {
+      assertEquals(qrCode.getId(), activeQRCodes.get(qrCode.getQrId()).getId());
+    }
+    ArgumentCaptor<Collection<Expiration>> expirations = ArgumentCaptor.forClass(Collection.class);
+    verify(expirationScheduler).scheduleAllAfterCommit(expirations.capture());
+    assertEquals(
+        result.stream().map(QRCode::getId).collect(Collectors.toSet()),
+        expirations.getValue().stream().map(Expiration::getId).collect(Collectors.toSet()));
+  }
+
+  @Test
+  public void testCreateBulkQRCodes_Rejected() {
+    // Arrange
+    when(walletService.getWalletByNumber(anyString())).thenReturn(otherWallet);
+
+    // Act & Assert
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            qrCodeService.createBulkQRCodes(
+                testUser, otherWallet.getWalletNumber(), 3, null, false, null, null));
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            qrCodeService.createBulkQRCodes(
+                testUser, userWallet.getWalletNumber(), 5_001, null, false, null, null));
+    verify(qrCodeRepository, never()).insertAll(anyCollection());
   }
 }
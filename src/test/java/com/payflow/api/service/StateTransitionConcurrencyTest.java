@@ -0,0 +1,272 @@
+package com.payflow.api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.model.dto.request.MoneyRequestActionDTO;
+import com.payflow.api.model.dto.request.MoneyRequestDTO;
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.repository.MoneyRequestRepository;
+import com.payflow.api.repository.QRCodeRepository;
+import com.payflow.api.repository.UserRepository;
+import com.payflow.api.repository.WalletRepository;
+import com.payflow.api.service.qr.ActiveQRCodeRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Races several payers against a one-time QR code and a money request on a real database and checks
+ * that each is consumed exactly once and that exactly one payment's worth of money moves, and that
+ * a claim or a deactivation is given back when its transaction fails.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class StateTransitionConcurrencyTest {
+
+  private static final int PAYERS = 8;
+  private static final BigDecimal AMOUNT = new BigDecimal("10.0000");
+
+  @Autowired private QRCodeService qrCodeService;
+  @Autowired private MoneyRequestService moneyRequestService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private WalletRepository walletRepository;
+  @Autowired private QRCodeRepository qrCodeRepository;
+  @Autowired private MoneyRequestRepository moneyRequestRepository;
+  @Autowired private ActiveQRCodeRegistry activeQRCodes;
+  @Autowired private ExchangeRateService exchangeRateService;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private ExecutorService executor;
+  private User merchant;
+  private Wallet merchantWallet;
+
+  @BeforeEach
+  public void setup() {
+    executor = Executors.newFixedThreadPool(PAYERS);
+    merchant = createUser("merchant");
+    merchantWallet = createWallet(merchant, BigDecimal.ZERO);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testOneTimeQRCodeIsPaidExactlyOnce() throws Exception {
+    // Arrange
+    QRCode qrCode =
+        qrCodeService.createWalletQRCode(
+            merchant, merchantWallet.getWalletNumber(), AMOUNT, true, true, "Coffee", null);
+    List<Callable<Object>> payments = new ArrayList<>();
+    for (int i = 0; i < PAYERS; i++) {
+      User payer = createUser("payer" + i);
+      Wallet payerWallet = createWallet(payer, new BigDecimal("100"));
+      payments.add(
+          () ->
+              qrCodeService.processQRCodePayment(
+                  payer, qrCode.getQrId(), null, payerWallet.getWalletNumber(), null));
+    }
+
+    // Act
+    int succeeded = race(payments);
+
+    // Assert
+    assertEquals(1, succeeded);
+    assertFalse(qrCodeRepository.findById(qrCode.getId()).orElseThrow().isActive());
+    assertEquals(Money.of(AMOUNT), balanceOf(merchantWallet));
+  }
+
+  @Test
+  public void testBulkIssuedQRCodeIsPaidExactlyOnce() throws Exception {
+    // Arrange
+    List<QRCode> qrCodes =
+        qrCodeService.createBulkQRCodes(
+            merchant, merchantWallet.getWalletNumber(), 3, AMOUNT, true, "Table", null);
+    String qrId = qrCodes.get(1).getQrId();
+    assertEquals(qrCodes.get(1).getId(), activeQRCodes.get(qrId).getId());
+    assertEquals(qrCodeRepository.findByQrId(qrId).orElseThrow().getId(), qrCodes.get(1).getId());
+    List<Callable<Object>> payments = new ArrayList<>();
+    for (int i = 0; i < PAYERS; i++) {
+      User payer = createUser("payer" + i);
+      Wallet payerWallet = createWallet(payer, new BigDecimal("100"));
+      payments.add(
+          () ->
+              qrCodeService.processQRCodePayment(
+                  payer, qrId, null, payerWallet.getWalletNumber(), null));
+    }
+
+    // Act
+    int succeeded = race(payments);
+
+    // Assert
+    assertEquals(1, succeeded);
+    assertEquals(3, qrCodeRepository.findByWallet(merchantWallet).size());
+    assertFalse(qrCodeRepository.findByQrId(qrId).orElseThrow().isActive());
+    assertEquals(Money.of(AMOUNT), balanceOf(merchantWallet));
+  }
+
+  @Test
+  public void testOneTimeQRCodeSurvivesAFailedPayment() {
+    // Arrange: a EUR code paid from a USD wallet, first with a quote that cannot be redeemed
+    exchangeRateService.updateAllExchangeRates();
+    Wallet eurWallet = createWallet(merchant, Wallet.Currency.EUR, BigDecimal.ZERO);
+    QRCode qrCode =
+        qrCodeService.createWalletQRCode(
+            merchant, eurWallet.getWalletNumber(), AMOUNT, true, true, "Coffee", null);
+    User payer = createUser("payer");
+    Wallet payerWallet = createWallet(payer, new BigDecimal("100"));
+
+    // Act: the code is claimed, then the payment fails on its quote and rolls back
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            qrCodeService.processQRCodePayment(
+                payer, qrCode.getQrId(), null, payerWallet.getWalletNumber(), "FXQ-unknown"));
+
+    // Assert: the code is still active and payable
+    assertTrue(qrCodeRepository.findById(qrCode.getId()).orElseThrow().isActive());
+    assertNotNull(activeQRCodes.get(qrCode.getQrId()));
+    qrCodeService.processQRCodePayment(
+        payer, qrCode.getQrId(), null, payerWallet.getWalletNumber(), null);
+    assertFalse(qrCodeRepository.findById(qrCode.getId()).orElseThrow().isActive());
+    assertNull(activeQRCodes.get(qrCode.getQrId()));
+    assertEquals(Money.of(new BigDecimal("90")), balanceOf(payerWallet));
+    assertTrue(balanceOf(eurWallet).isPositive());
+  }
+
+  @Test
+  public void testDeactivationThatRollsBackLeavesTheCodeRegistered() {
+    // Arrange
+    QRCode qrCode =
+        qrCodeService.createWalletQRCode(
+            merchant, merchantWallet.getWalletNumber(), AMOUNT, true, true, "Coffee", null);
+    User payer = createUser("payer");
+    Wallet payerWallet = createWallet(payer, new BigDecimal("100"));
+
+    // Act: the deactivation is part of a transaction that rolls back
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+            status -> {
+              qrCodeService.deactivateQRCode(merchant, qrCode.getQrId());
+              status.setRollbackOnly();
+            });
+
+    // Assert: the code is still active, registered and payable
+    assertTrue(qrCodeRepository.findById(qrCode.getId()).orElseThrow().isActive());
+    assertNotNull(activeQRCodes.get(qrCode.getQrId()));
+    qrCodeService.processQRCodePayment(
+        payer, qrCode.getQrId(), null, payerWallet.getWalletNumber(), null);
+    assertEquals(Money.of(AMOUNT), balanceOf(merchantWallet));
+  }
+
+  @Test
+  public void testMoneyRequestIsPaidExactlyOnce() throws Exception {
+    // Arrange
+    User payer = createUser("payer");
+    MoneyRequestDTO requestDto = new MoneyRequestDTO();
+    requestDto.setRequesteeEmail(payer.getEmail());
+    requestDto.setWalletNumber(merchantWallet.getWalletNumber());
+    requestDto.setAmount(AMOUNT);
+    requestDto.setDescription("Dinner");
+    MoneyRequest moneyRequest = moneyRequestService.createMoneyRequest(merchant, requestDto);
+
+    List<Wallet> payerWallets = new ArrayList<>();
+    List<Callable<Object>> approvals = new ArrayList<>();
+    for (int i = 0; i < PAYERS; i++) {
+      Wallet payerWallet = createWallet(payer, new BigDecimal("100"));
+      payerWallets.add(payerWallet);
+      MoneyRequestActionDTO action = new MoneyRequestActionDTO();
+      action.setRequestNumber(moneyRequest.getRequestNumber());
+      action.setAction("APPROVE");
+      action.setPaymentWalletNumber(payerWallet.getWalletNumber());
+      approvals.add(() -> moneyRequestService.processMoneyRequestAction(payer, action));
+    }
+
+    // Act
+    int succeeded = race(approvals);
+
+    // Assert
+    assertEquals(1, succeeded);
+    assertEquals(
+        MoneyRequest.RequestStatus.APPROVED,
+        moneyRequestRepository.findById(moneyRequest.getId()).orElseThrow().getStatus());
+    assertEquals(Money.of(AMOUNT), balanceOf(merchantWallet));
+    Money paid = Money.ZERO;
+    for (Wallet payerWallet : payerWallets) {
+      paid = paid.plus(Money.of(new BigDecimal("100")).minus(balanceOf(payerWallet)));
+    }
+    assertEquals(Money.of(AMOUNT), paid);
+  }
+
+  /** Starts every task at once and returns how many completed without throwing. */
+  private int race(final List<Callable<Object>> tasks) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Object>> futures = new ArrayList<>();
+    for (Callable<Object> task : tasks) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                return task.call();
+              }));
+    }
+    start.countDown();
+
+    int succeeded = 0;
+    for (Future<Object> future : futures) {
+      try {
+        future.get(30, TimeUnit.SECONDS);
+        succeeded++;
+      } catch (java.util.concurrent.ExecutionException e) {
+        // Losing the race is expected
+      }
+    }
+    return succeeded;
+  }
+
+  private User createUser(final String name) {
+    User user = new User();
+    user.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+    user.setPassword("password");
+    user.setFullName(name);
+    return userRepository.save(user);
+  }
+
+  private Wallet createWallet(final User user, final BigDecimal balance) {
+    return createWallet(user, Wallet.Currency.USD, balance);
+  }
+
+  private Wallet createWallet(
+      final User user, final Wallet.Currency currency, final BigDecimal balance) {
+    Wallet wallet = new Wallet();
+    wallet.setUser(user);
+    wallet.setCurrency(currency);
+    wallet.setBalance(Money.of(balance));
+    return walletRepository.save(wallet);
+  }
+
+  private Money balanceOf(final Wallet wallet) {
+    return walletRepository.findById(wallet.getId()).orElseThrow().getBalance();
+  }
+}
@@ -0,0 +1,176 @@
+package com.payflow.api.service.expiry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.model.expiry.Expiration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ActiveProfiles("test")
+public class ExpirationSchedulerTest {
+
+  private long now;
+  private FakeHandler holds;
+  private FakeHandler quotes;
+  private ExpirationScheduler scheduler;
+
+  @BeforeEach
+  public void setup() {
+    now = System.currentTimeMillis();
+    holds = new FakeHandler("hold");
+    quotes = new FakeHandler("quote");
+    scheduler = new ExpirationScheduler(Arrays.asList(holds, quotes), new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(scheduler, "pageSize", 2);
+    scheduler.init();
+  }
+
+  @Test
+  public void testLoadsDueEntitiesAndFiresOneBatchPerType() {
+    // Arrange
+    holds.add(1, now - 60_000);
+    holds.add(2, now + 5_000);
+    holds.add(3, now + 5_000);
+    holds.add(4, now + 3_600_000);
+    quotes.add(7, now + 5_000);
+
+    // Act
+    int loaded = scheduler.load(now);
+    int firedEarly = scheduler.fire(now + 2_000);
+    int firedLater = scheduler.fire(now + 7_000);
+
+    // Assert: the hold beyond the ten-minute horizon stays in the database
+    assertEquals(4, loaded);
+    assertEquals(1, firedEarly);
+    assertEquals(3, firedLater);
+    assertEquals(Arrays.asList(Arrays.asList(1L), Arrays.asList(2L, 3L)), holds.batches);
+    assertEquals(Arrays.asList(Arrays.asList(7L)), quotes.batches);
+    assertEquals(0, scheduler.getPendingCount());
+  }
+
+  @Test
+  public void testReloadDoesNotScheduleAnEntityTwice() {
+    // Arrange
+    holds.add(1, now + 5_000);
+
+    // Act
+    scheduler.load(now);
+    int reloaded = scheduler.load(now + 1_000);
+
+    // Assert
+    assertEquals(0, reloaded);
+    assertEquals(1, scheduler.getPendingCount());
+  }
+
+  @Test
+  public void testScheduleAddsOnlyEntitiesInsideTheLoadedHorizon() {
+    // Arrange
+    scheduler.load(now);
+
+    // Act
+    scheduler.schedule(holds.expiration(1, now + 5_000));
+    scheduler.schedule(holds.expiration(2, now + 3_600_000));
+
+    // Assert
+    assertEquals(1, scheduler.getPendingCount());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> scheduler.schedule(new Expiration("unknown", 1, null, LocalDateTime.now())));
+  }
+
+  @Test
+  public void testCancelledEntityIsNotExpired() {
+    // Arrange
+    holds.add(1, now + 5_000);
+    holds.add(2, now + 5_000);
+    scheduler.load(now);
+
+    // Act
+    scheduler.cancel("hold", 1);
+    scheduler.fire(now + 7_000);
+
+    // Assert
+    assertEquals(Arrays.asList(Arrays.asList(2L)), holds.batches);
+  }
+
+  @Test
+  public void testFailedBatchIsRetriedByTheNextLoad() {
+    // Arrange
+    holds.add(1, now + 5_000);
+    scheduler.load(now);
+    holds.failing = true;
+
+    // Act
+    int failed = scheduler.fire(now + 7_000);
+    holds.failing = false;
+    int reloaded = scheduler.load(now + 7_000);
+    int retried = scheduler.fire(now + 9_000);
+
+    // Assert
+    assertEquals(0, failed);
+    assertEquals(1, reloaded);
+    assertEquals(1, retried);
+  }
+
+  /** Handler over an in-memory table of live entities that records the batches it expires. */
+  private static final class FakeHandler implements ExpirationHandler {
+
+    private final String type;
+    private final List<Expiration> table = new ArrayList<>();
+    private final List<List<Long>> batches = new ArrayList<>();
+    private boolean failing;
+
+    private FakeHandler(final String type) {
+      this.type = type;
+    }
+
+    private Expiration expiration(final long id, final long dueAtMillis) {
+      return new Expiration(
+          type,
+          id,
+          null,
+          LocalDateTime.ofInstant(Instant.ofEpochMilli(dueAtMillis), ZoneId.systemDefault()));
+    }
+
+    private void add(final long id, final long dueAtMillis) {
+      table.add(expiration(id, dueAtMillis));
+    }
+
+    @Override
+    public String getType() {
+      return type;
+    }
+
+    @Override
+    public List<Expiration> findDue(
+        final LocalDateTime before, final Expiration after, final int limit) {
+      final Comparator<Expiration> order =
+          Comparator.comparing(Expiration::getDueAt).thenComparingLong(Expiration::getId);
+      return table.stream()
+          .filter(expiration -> expiration.getDueAt().isBefore(before))
+          .filter(expiration -> after == null || order.compare(expiration, after) > 0)
+          .sorted(order)
+          .limit(limit)
+          .collect(Collectors.toList());
+    }
+
+    @Override
+    public void expire(final List<Expiration> due) {
+      if (failing) {
+        throw new IllegalStateException("database unavailable");
+      }
+      table.removeAll(due);
+      batches.add(due.stream().map(Expiration::getId).sorted().collect(Collectors.toList()));
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.payflow.api.service.expiry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+public class TimingWheelTest {
+
+  @Test
+  public void testItemsFireOnceTheirDeadlinePasses() {
+    // Arrange: 100ms ticks, 8 buckets and 2 levels, so 2_500 starts on the upper level
+    TimingWheel<String> wheel = new TimingWheel<>(100, 8, 2, 0);
+    wheel.schedule("soon", 250);
+    wheel.schedule("later", 2_500);
+
+    // Act & Assert
+    assertEquals(Collections.emptyList(), wheel.advance(200));
+    assertEquals(Collections.singletonList("soon"), wheel.advance(300));
+    assertEquals(Collections.emptyList(), wheel.advance(2_400));
+    assertEquals(Collections.singletonList("later"), wheel.advance(2_500));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void testLongGapFiresEverythingDue() {
+    // Arrange: 90_000 is beyond both levels and waits in the top one
+    TimingWheel<String> wheel = new TimingWheel<>(100, 8, 2, 0);
+    wheel.schedule("a", 150);
+    wheel.schedule("b", 550);
+    wheel.schedule("c", 90_000);
+
+    // Act
+    List<String> due = wheel.advance(10_000);
+
+    // Assert
+    assertEquals(Arrays.asList("a", "b"), due.stream().sorted().toList());
+    assertEquals(1, wheel.size());
+    assertEquals(Collections.emptyList(), wheel.advance(89_900));
+    assertEquals(Collections.singletonList("c"), wheel.advance(90_000));
+  }
+
+  @Test
+  public void testPastDeadlineFiresOnNextTick() {
+    // Arrange
+    TimingWheel<String> wheel = new TimingWheel<>(100, 8, 2, 1_000);
+
+    // Act
+    wheel.schedule("late", 10);
+
+    // Assert
+    assertEquals(Collections.emptyList(), wheel.advance(1_050));
+    assertEquals(Collections.singletonList("late"), wheel.advance(1_100));
+  }
+
+  @Test
+  public void testCascadedItemsFireOnTheirOwnTick() {
+    // Arrange: 4 buckets and 3 levels span 64 ticks; deadlines run well past that
+    TimingWheel<Integer> wheel = new TimingWheel<>(1, 4, 3, 0);
+    Random random = new Random(42);
+    long[] deadlines = new long[500];
+    for (int i = 0; i < deadlines.length; i++) {
+      deadlines[i] = 1 + random.nextInt(300);
+      wheel.schedule(i, deadlines[i]);
+    }
+
+    // Act & Assert: every item fires on the first advance that reaches its deadline
+    long now = 0;
+    while (wheel.size() > 0) {
+      long previous = now;
+      now += 1 + random.nextInt(5);
+      for (int item : wheel.advance(now)) {
+        assertTrue(deadlines[item] > previous && deadlines[item] <= now, "item " + item);
+        deadlines[item] = -1;
+      }
+    }
+    assertTrue(Arrays.stream(deadlines).allMatch(deadline -> deadline == -1));
+  }
+}
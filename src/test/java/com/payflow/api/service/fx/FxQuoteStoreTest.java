@@ -0,0 +1,58 @@
+package com.payflow.api.service.fx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+public class FxQuoteStoreTest {
+
+  private static FxQuote quote(final String id, final long expiresAtMillis) {
+    return new FxQuote(
+        id,
+        1L,
+        Wallet.Currency.USD,
+        Wallet.Currency.EUR,
+        Money.ofMajor(10),
+        BigDecimal.ONE,
+        Money.ofMajor(10),
+        1L,
+        expiresAtMillis);
+  }
+
+  @Test
+  public void testFullStoreEvictsOldestQuote() {
+    // Arrange
+    FxQuoteStore store = new FxQuoteStore(2);
+    store.put(quote("a", 10_000L), 0L);
+    store.put(quote("b", 10_000L), 0L);
+
+    // Act
+    store.put(quote("c", 10_000L), 0L);
+
+    // Assert
+    assertEquals(2, store.size());
+    assertNull(store.remove("a", 1L));
+    assertNotNull(store.remove("c", 1L));
+  }
+
+  @Test
+  public void testExpiredQuotesArePurgedOnInsert() {
+    // Arrange
+    FxQuoteStore store = new FxQuoteStore(10);
+    store.put(quote("a", 1_000L), 0L);
+    store.put(quote("b", 2_000L), 0L);
+
+    // Act
+    store.put(quote("c", 5_000L), 1_500L);
+
+    // Assert
+    assertEquals(2, store.size());
+    assertNull(store.remove("a", 1L));
+    assertNotNull(store.remove("b", 1L));
+  }
+}
@@ -0,0 +1,66 @@
+package com.payflow.api.service.fx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.model.entity.Wallet;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+public class FxRateHistoryTest {
+
+  private static final Wallet.Currency USD = Wallet.Currency.USD;
+  private static final Wallet.Currency EUR = Wallet.Currency.EUR;
+
+  @Test
+  public void testFindReturnsLatestAtOrBefore() {
+    // Arrange
+    FxRateHistory history = new FxRateHistory(8);
+    history.record(USD, EUR, 1_000L, 800_000L);
+    history.record(USD, EUR, 2_000L, 850_000L);
+    history.record(USD, EUR, 3_000L, 900_000L);
+
+    // Act & Assert
+    assertEquals(800_000L, history.find(USD, EUR, 1_000L).getScaledRate());
+    assertEquals(850_000L, history.find(USD, EUR, 2_999L).getScaledRate());
+    assertEquals(900_000L, history.find(USD, EUR, 10_000L).getScaledRate());
+    assertNull(history.find(USD, EUR, 999L));
+    assertNull(history.find(EUR, USD, 10_000L));
+  }
+
+  @Test
+  public void testRingOverwritesOldestEntries() {
+    // Arrange
+    FxRateHistory history = new FxRateHistory(3);
+    for (int i = 1; i <= 5; i++) {
+      history.record(USD, EUR, i * 1_000L, i);
+    }
+
+    // Act & Assert: only the last three remain, older times fall through to the database
+    assertNull(history.find(USD, EUR, 2_500L));
+    assertEquals(3L, history.find(USD, EUR, 3_000L).getScaledRate());
+    assertEquals(4L, history.find(USD, EUR, 4_500L).getScaledRate());
+    assertEquals(5L, history.find(USD, EUR, 6_000L).getScaledRate());
+  }
+
+  @Test
+  public void testOutOfOrderEntriesAreIgnored() {
+    // Arrange
+    FxRateHistory history = new FxRateHistory(4);
+    history.record(USD, EUR, 2_000L, 2L);
+    history.record(USD, EUR, 1_000L, 1L);
+
+    // Act & Assert
+    assertNull(history.find(USD, EUR, 1_500L));
+    assertEquals(2L, history.find(USD, EUR, 2_000L).getScaledRate());
+  }
+
+  @Test
+  public void testScaledConversionsAndPairIds() {
+    assertEquals(1_234_568L, FxRateHistory.toScaled(new BigDecimal("1.2345675")));
+    assertEquals(new BigDecimal("1.234568"), FxRateHistory.fromScaled(1_234_568L));
+    assertNotEquals(FxRateHistory.pairId(USD, EUR), FxRateHistory.pairId(EUR, USD));
+    assertEquals(USD.ordinal() << 8 | EUR.ordinal(), FxRateHistory.pairId(USD, EUR));
+  }
+}
@@ -0,0 +1,121 @@
+package com.payflow.api.service.fx;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payflow.api.model.entity.Wallet;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+public class HttpExchangeRateProviderTest {
+
+  @Mock private RestTemplate restTemplate;
+  @Spy private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks private HttpExchangeRateProvider provider;
+
+  @BeforeEach
+  public void setup() {
+    ReflectionTestUtils.setField(provider, "exchangeRateApiUrl", "https://api.example.com/latest/");
+    ReflectionTestUtils.setField(
+        provider, "fallbackLocation", new ClassPathResource("fx/rates.json"));
+  }
+
+  @Test
+  public void testFetchRates() {
+    // Mocked API response, including a currency we do not support
+    Map<String, Double> rates = new HashMap<>();
+    rates.put("USD", 1.0);
+    rates.put("EUR", 0.85);
+    rates.put("GBP", 0.75);
+    rates.put("XAU", 0.0004);
+
+    HttpExchangeRateProvider.ExchangeRateApiResponse body =
+        new HttpExchangeRateProvider.ExchangeRateApiResponse();
+    body.setBase("USD");
+    body.setRates(rates);
+    when(restTemplate.getForEntity(
+            eq("https://api.example.com/latest/USD"),
+            eq(HttpExchangeRateProvider.ExchangeRateApiResponse.class)))
+        .thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
+
+    // Act
+    Map<Wallet.Currency, BigDecimal> result = provider.fetchRates(Wallet.Currency.USD);
+
+    // Assert
+    assertEquals(3, result.size());
+    assertEquals(0, new BigDecimal("0.85").compareTo(result.get(Wallet.Currency.EUR)));
+    assertFalse(result.containsKey(Wallet.Currency.JPY));
+  }
+
+  @Test
+  public void testFetchRates_EmptyBody() {
+    when(restTemplate.getForEntity(
+            anyString(), eq(HttpExchangeRateProvider.ExchangeRateApiResponse.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    assertTrue(provider.fetchRates(Wallet.Currency.EUR).isEmpty());
+  }
+
+  @Test
+  public void testFetchRates_FailureWithoutFallbackIsRethrown() {
+    // Arrange
+    when(restTemplate.getForEntity(
+            anyString(), eq(HttpExchangeRateProvider.ExchangeRateApiResponse.class)))
+        .thenThrow(new ResourceAccessException("Connection refused"));
+
+    // Act & Assert
+    assertThrows(ResourceAccessException.class, () -> provider.fetchRates(Wallet.Currency.USD));
+  }
+
+  @Test
+  public void testFetchRates_FailureFallsBackToFile() {
+    // Arrange
+    ReflectionTestUtils.setField(provider, "fallbackToFile", true);
+    when(restTemplate.getForEntity(
+            anyString(), eq(HttpExchangeRateProvider.ExchangeRateApiResponse.class)))
+        .thenThrow(new ResourceAccessException("Connection refused"));
+
+    // Act
+    Map<Wallet.Currency, BigDecimal> rates = provider.fetchRates(Wallet.Currency.USD);
+
+    // Assert
+    assertEquals(Wallet.Currency.values().length, rates.size());
+    assertEquals(0, new BigDecimal("0.92").compareTo(rates.get(Wallet.Currency.EUR)));
+  }
+
+  @Test
+  public void testFetchRates_EmptyBodyFallsBackToFile() {
+    // Arrange
+    ReflectionTestUtils.setField(provider, "fallbackToFile", true);
+    when(restTemplate.getForEntity(
+            anyString(), eq(HttpExchangeRateProvider.ExchangeRateApiResponse.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    // Act
+    Map<Wallet.Currency, BigDecimal> rates = provider.fetchRates(Wallet.Currency.EUR);
+
+    // Assert
+    assertEquals(0, BigDecimal.ONE.compareTo(rates.get(Wallet.Currency.EUR)));
+    assertTrue(rates.containsKey(Wallet.Currency.USD));
+  }
+}
@@ -0,0 +1,53 @@
+package com.payflow.api.service.fx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payflow.api.model.entity.Wallet;
+import java.math.BigDecimal;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ActiveProfiles("test")
+public class LocalFileExchangeRateProviderTest {
+
+  private LocalFileExchangeRateProvider provider;
+
+  @BeforeEach
+  public void setup() {
+    provider = new LocalFileExchangeRateProvider(new ObjectMapper());
+  }
+
+  @Test
+  public void testFetchRatesFromBundledFile() {
+    // Arrange
+    ReflectionTestUtils.setField(provider, "location", new ClassPathResource("fx/rates.json"));
+
+    // Act
+    Map<Wallet.Currency, BigDecimal> rates = provider.fetchRates(Wallet.Currency.USD);
+
+    // Assert
+    assertEquals(Wallet.Currency.values().length, rates.size());
+    assertEquals(0, new BigDecimal("0.92").compareTo(rates.get(Wallet.Currency.EUR)));
+  }
+
+  @Test
+  public void testFetchRatesRebasesToRequestedBase() {
+    // Arrange: file quotes EUR, caller asks for USD
+    String json = "{\"base\":\"EUR\",\"rates\":{\"USD\":1.25,\"GBP\":0.75}}";
+    ReflectionTestUtils.setField(provider, "location", new ByteArrayResource(json.getBytes()));
+
+    // Act
+    Map<Wallet.Currency, BigDecimal> rates = provider.fetchRates(Wallet.Currency.USD);
+
+    // Assert
+    assertEquals(0, BigDecimal.ONE.compareTo(rates.get(Wallet.Currency.USD)));
+    assertEquals(0, new BigDecimal("0.8").compareTo(rates.get(Wallet.Currency.EUR)));
+    assertEquals(0, new BigDecimal("0.6").compareTo(rates.get(Wallet.Currency.GBP)));
+  }
+}
@@ -0,0 +1,238 @@
+package com.payflow.api.service.push;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.payflow.api.event.TransactionCompletedEvent;
+import com.payflow.api.model.dto.response.TransactionResponse;
+import com.payflow.api.model.entity.Transaction;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import com.payflow.api.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+public class TransactionStreamServiceTest {
+
+  @Mock private TransactionRepository transactionRepository;
+
+  private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private TransactionStreamService streamService;
+  private CountDownLatch sendGate;
+
+  @BeforeEach
+  public void setup() {
+    streamService =
+        new TransactionStreamService(transactionRepository, meterRegistry) {
+          @Override
+          SseEmitter newEmitter(final long timeout) {
+            RecordingEmitter emitter = new RecordingEmitter();
+            emitters.add(emitter);
+            return emitter;
+          }
+        };
+    ReflectionTestUtils.setField(streamService, "backlogSize", 2);
+    ReflectionTestUtils.setField(streamService, "maxStreamsPerUser", 2);
+    streamService.start();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    if (sendGate != null) {
+      sendGate.countDown();
+    }
+    streamService.stop();
+  }
+
+  @Test
+  public void testResumeReplaysMissedTransactionsThenLiveOnes() throws Exception {
+    // Arrange
+    when(transactionRepository.findByUserIdAfter(eq(1L), eq(4L), any()))
+        .thenAnswer(
+            invocation -> {
+              // Committed while catching up, so it is both queued and in the query result
+              streamService.publish(1L, response(6L));
+              return Arrays.asList(transaction(5L), transaction(6L));
+            });
+
+    // Act
+    streamService.open(1L, 4L);
+    streamService.publish(1L, response(7L));
+
+    // Assert
+    RecordingEmitter emitter = emitters.get(0);
+    awaitEvents(emitter, 3);
+    assertEquals(Arrays.asList("transaction:5", "transaction:6", "transaction:7"), emitter.events);
+  }
+
+  @Test
+  public void testResumeTooFarBehindSendsResync() throws Exception {
+    // Arrange
+    when(transactionRepository.findByUserIdAfter(eq(1L), eq(1L), any()))
+        .thenReturn(Arrays.asList(transaction(2L), transaction(3L), transaction(4L)));
+    when(transactionRepository.findLatestIdByUserId(1L)).thenReturn(40L);
+
+    // Act
+    streamService.open(1L, 1L);
+
+    // Assert
+    assertEquals(Collections.singletonList("resync:40"), emitters.get(0).events);
+    assertEquals(1.0, meterRegistry.counter("transaction.stream.resyncs").count());
+  }
+
+  @Test
+  public void testSlowStreamCollapsesToResync() throws Exception {
+    // Arrange
+    sendGate = new CountDownLatch(1);
+    streamService.open(1L, null);
+    RecordingEmitter emitter = emitters.get(0);
+    streamService.publish(1L, response(1L));
+    awaitCondition(() -> emitter.blocked);
+
+    // Act
+    streamService.publish(1L, response(2L));
+    streamService.publish(1L, response(3L));
+    streamService.publish(1L, response(4L));
+    sendGate.countDown();
+
+    // Assert
+    awaitEvents(emitter, 2);
+    assertEquals(Arrays.asList("transaction:1", "resync:4"), emitter.events);
+    verifyNoInteractions(transactionRepository);
+  }
+
+  @Test
+  public void testCommittedTransactionsReachTheStreamsOfBothParties() throws Exception {
+    // Arrange
+    streamService.open(1L, null);
+    streamService.open(2L, null);
+    User bob = new User();
+    bob.setId(2L);
+    bob.setFullName("Bob");
+    Transaction transfer = transaction(3L);
+    transfer.setType(Transaction.TransactionType.TRANSFER);
+    transfer.setReceiver(bob);
+
+    // Act
+    streamService.handle(
+        List.of(
+            TransactionCompletedEvent.of(transfer), TransactionCompletedEvent.of(transaction(4L))));
+
+    // Assert
+    awaitEvents(emitters.get(0), 2);
+    awaitEvents(emitters.get(1), 1);
+    assertEquals(Arrays.asList("transaction:3", "transaction:4"), emitters.get(0).events);
+    assertEquals(Collections.singletonList("transaction:3"), emitters.get(1).events);
+  }
+
+  @Test
+  public void testOpeningTooManyStreamsClosesTheOldest() throws Exception {
+    // Act
+    streamService.open(1L, null);
+    streamService.open(1L, null);
+    streamService.open(1L, null);
+    streamService.open(2L, null);
+    streamService.publish(1L, response(9L));
+
+    // Assert
+    assertEquals(3, streamService.getStreamCount());
+    awaitEvents(emitters.get(2), 1);
+    assertTrue(emitters.get(0).events.isEmpty());
+    assertTrue(emitters.get(3).events.isEmpty());
+  }
+
+  private static void awaitEvents(final RecordingEmitter emitter, final int count)
+      throws InterruptedException {
+    awaitCondition(() -> emitter.events.size() >= count);
+  }
+
+  private static void awaitCondition(final BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+
+  private static TransactionResponse response(final Long id) {
+    return TransactionResponse.fromEntity(transaction(id));
+  }
+
+  private static Transaction transaction(final Long id) {
+    User user = new User();
+    user.setId(1L);
+    user.setFullName("Alice");
+    Transaction transaction = new Transaction();
+    transaction.setId(id);
+    transaction.setTransactionNumber("TRX-" + id);
+    transaction.setSender(user);
+    transaction.setReceiver(user);
+    transaction.setAmount(Money.of(new BigDecimal("10.00")));
+    transaction.setSourceCurrency(Wallet.Currency.USD);
+    transaction.setDestinationCurrency(Wallet.Currency.USD);
+    transaction.setType(Transaction.TransactionType.DEPOSIT);
+    transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+    return transaction;
+  }
+
+  /** Records each event as {@code name:id}, optionally blocking on the test's send gate. */
+  private final class RecordingEmitter extends SseEmitter {
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private volatile boolean blocked;
+
+    @Override
+    public void send(final SseEventBuilder builder) throws IOException {
+      List<String> lines = new ArrayList<>();
+      for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+        if (part.getData() instanceof String) {
+          lines.addAll(Arrays.asList(((String) part.getData()).split("\n")));
+        }
+      }
+      String name = null;
+      String id = null;
+      for (String line : lines) {
+        if (line.startsWith("event:")) {
+          name = line.substring("event:".length());
+        } else if (line.startsWith("id:")) {
+          id = line.substring("id:".length());
+        }
+      }
+      if (name == null) {
+        return;
+      }
+      if (sendGate != null && !blocked) {
+        blocked = true;
+        try {
+          sendGate.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      events.add(name + ":" + id);
+    }
+  }
+}
@@ -0,0 +1,240 @@
+package com.payflow.api.service.push;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.payflow.api.event.MoneyRequestExpiredEvent;
+import com.payflow.api.event.TransactionCompletedEvent;
+import com.payflow.api.model.dto.response.MoneyRequestResponse;
+import com.payflow.api.model.dto.response.TransactionResponse;
+import com.payflow.api.model.dto.response.WalletResponse;
+import com.payflow.api.model.entity.MoneyRequest;
+import com.payflow.api.model.entity.Transaction;
+import com.payflow.api.model.entity.User;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+public class UserPushServiceTest {
+
+  @Mock private SimpMessageSendingOperations messagingTemplate;
+  @Mock private SimpUserRegistry userRegistry;
+  @Mock private SimpUser connectedUser;
+
+  private UserPushService pushService;
+  private User alice;
+  private User bob;
+  private Wallet aliceWallet;
+  private Wallet bobWallet;
+
+  @BeforeEach
+  public void setup() {
+    pushService = new UserPushService(messagingTemplate, userRegistry, new SimpleMeterRegistry());
+    alice = user(1L, "alice@example.com");
+    bob = user(2L, "bob@example.com");
+    aliceWallet = wallet(alice, "W-ALICE", "100.00");
+    bobWallet = wallet(bob, "W-BOB", "5.00");
+    lenient().when(userRegistry.getUser(anyString())).thenReturn(connectedUser);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    if (TransactionSynchronizationManager.hasResource(pushService)) {
+      TransactionSynchronizationManager.unbindResource(pushService);
+    }
+  }
+
+  @Test
+  public void testBatchPushesEachWalletOnceWithItsLatestBalance() {
+    // Arrange
+    TransactionCompletedEvent first =
+        TransactionCompletedEvent.of(transfer(7L, aliceWallet, bobWallet));
+    aliceWallet.setBalance(Money.of(new BigDecimal("90.00")));
+    TransactionCompletedEvent second =
+        TransactionCompletedEvent.of(transfer(8L, aliceWallet, bobWallet));
+
+    // Act
+    pushService.handle(List.of(first, second));
+
+    // Assert
+    ArgumentCaptor<Object> wallets = ArgumentCaptor.forClass(Object.class);
+    verify(messagingTemplate)
+        .convertAndSendToUser(
+            eq("alice@example.com"), eq(UserPushService.WALLETS), wallets.capture());
+    assertEquals(
+        0, new BigDecimal("90.00").compareTo(((WalletResponse) wallets.getValue()).getBalance()));
+    verify(messagingTemplate)
+        .convertAndSendToUser(eq("bob@example.com"), eq(UserPushService.WALLETS), any());
+    verify(messagingTemplate, times(2))
+        .convertAndSendToUser(
+            eq("alice@example.com"),
+            eq(UserPushService.TRANSACTIONS),
+            any(TransactionResponse.class));
+    verify(messagingTemplate, times(2))
+        .convertAndSendToUser(
+            eq("bob@example.com"),
+            eq(UserPushService.TRANSACTIONS),
+            any(TransactionResponse.class));
+    verifyNoMoreInteractions(messagingTemplate);
+  }
+
+  @Test
+  public void testWalletChangePushesOnlyAfterCommitWithCommittedBalance() {
+    // Arrange
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    pushService.walletChanged(aliceWallet);
+    aliceWallet.setBalance(Money.of(new BigDecimal("90.00")));
+    pushService.walletChanged(aliceWallet);
+    verifyNoInteractions(messagingTemplate);
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    // Assert
+    ArgumentCaptor<Object> wallets = ArgumentCaptor.forClass(Object.class);
+    verify(messagingTemplate)
+        .convertAndSendToUser(
+            eq("alice@example.com"), eq(UserPushService.WALLETS), wallets.capture());
+    assertEquals(
+        0, new BigDecimal("90.00").compareTo(((WalletResponse) wallets.getValue()).getBalance()));
+    verifyNoMoreInteractions(messagingTemplate);
+  }
+
+  @Test
+  public void testRollbackPushesNothing() {
+    // Arrange
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    pushService.walletChanged(aliceWallet);
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    // Assert
+    verifyNoInteractions(messagingTemplate);
+    assertFalse(TransactionSynchronizationManager.hasResource(pushService));
+  }
+
+  @Test
+  public void testDepositIsPushedToItsOwnerOnce() {
+    // Arrange
+    Transaction deposit = transfer(7L, aliceWallet, aliceWallet);
+    deposit.setType(Transaction.TransactionType.DEPOSIT);
+
+    // Act
+    pushService.handle(List.of(TransactionCompletedEvent.of(deposit)));
+
+    // Assert
+    verify(messagingTemplate)
+        .convertAndSendToUser(eq("alice@example.com"), eq(UserPushService.TRANSACTIONS), any());
+    verify(messagingTemplate)
+        .convertAndSendToUser(eq("alice@example.com"), eq(UserPushService.WALLETS), any());
+    verifyNoMoreInteractions(messagingTemplate);
+  }
+
+  @Test
+  public void testUsersWithoutSessionsAreSkipped() {
+    // Arrange
+    when(userRegistry.getUser("bob@example.com")).thenReturn(null);
+
+    // Act
+    pushService.walletChanged(bobWallet);
+
+    // Assert
+    verifyNoInteractions(messagingTemplate);
+  }
+
+  @Test
+  public void testBrokenPayloadDoesNotFailTheCaller() {
+    // Arrange
+    MoneyRequest broken = new MoneyRequest();
+    broken.setRequester(alice);
+    broken.setRequestee(bob);
+
+    // Act & Assert
+    assertDoesNotThrow(() -> pushService.moneyRequestChanged(broken));
+    verifyNoInteractions(messagingTemplate);
+  }
+
+  @Test
+  public void testExpiredMoneyRequestIsPushedToBothParties() {
+    // Arrange
+    MoneyRequestResponse request = new MoneyRequestResponse();
+    request.setRequestNumber("REQ-1");
+    request.setRequesterEmail("alice@example.com");
+    request.setRequesteeEmail("bob@example.com");
+    request.setStatus("EXPIRED");
+    MoneyRequestExpiredEvent event =
+        new MoneyRequestExpiredEvent(1L, 2L, Money.of(BigDecimal.TEN), request);
+
+    // Act
+    new MoneyRequestExpiryNotifier(pushService).handle(List.of(event));
+
+    // Assert
+    verify(messagingTemplate)
+        .convertAndSendToUser("alice@example.com", UserPushService.MONEY_REQUESTS, request);
+    verify(messagingTemplate)
+        .convertAndSendToUser("bob@example.com", UserPushService.MONEY_REQUESTS, request);
+    verifyNoMoreInteractions(messagingTemplate);
+  }
+
+  private void complete(final int status) {
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCompletion(status);
+    }
+  }
+
+  private Transaction transfer(final Long id, final Wallet source, final Wallet destination) {
+    Transaction transaction = new Transaction();
+    transaction.setId(id);
+    transaction.setTransactionNumber("TRX-" + id);
+    transaction.setSender(source.getUser());
+    transaction.setReceiver(destination.getUser());
+    transaction.setSourceWallet(source);
+    transaction.setDestinationWallet(destination);
+    transaction.setAmount(Money.of(new BigDecimal("10.00")));
+    transaction.setSourceCurrency(source.getCurrency());
+    transaction.setDestinationCurrency(destination.getCurrency());
+    transaction.setType(Transaction.TransactionType.TRANSFER);
+    transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+    return transaction;
+  }
+
+  private static User user(final Long id, final String email) {
+    User user = new User();
+    user.setId(id);
+    user.setEmail(email);
+    user.setFullName(email);
+    return user;
+  }
+
+  private static Wallet wallet(final User user, final String walletNumber, final String balance) {
+    Wallet wallet = new Wallet();
+    wallet.setUser(user);
+    wallet.setWalletNumber(walletNumber);
+    wallet.setCurrency(Wallet.Currency.USD);
+    wallet.setBalance(Money.of(new BigDecimal(balance)));
+    return wallet;
+  }
+}
@@ -0,0 +1,64 @@
+package com.payflow.api.service.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+public class ActiveQRCodeRegistryTest {
+
+  private static ActiveQRCode code(final String qrId, final LocalDateTime expiresAt) {
+    return new ActiveQRCode(
+        1L,
+        qrId,
+        10L,
+        Wallet.Currency.USD,
+        Money.of(BigDecimal.TEN),
+        true,
+        false,
+        "Coffee",
+        expiresAt);
+  }
+
+  @Test
+  public void testRemovedCodeIsNotRestoredByStaleRead() {
+    // Arrange: a load starts, then the code is deactivated before the load finishes
+    ActiveQRCodeRegistry registry = new ActiveQRCodeRegistry();
+    ActiveQRCode code = code("QR-1", null);
+    long stamp = registry.stamp();
+    registry.remove("QR-1");
+
+    // Act
+    registry.register(code, stamp);
+    registry.replaceAll(Collections.singletonList(code), stamp);
+
+    // Assert
+    assertNull(registry.get("QR-1"));
+
+    // A read that starts after the removal is trusted again
+    registry.register(code, registry.stamp());
+    assertSame(code, registry.get("QR-1"));
+  }
+
+  @Test
+  public void testReplaceAllDropsCodesNoLongerActive() {
+    // Arrange
+    ActiveQRCodeRegistry registry = new ActiveQRCodeRegistry();
+    registry.register(code("QR-1", null), registry.stamp());
+    registry.register(code("QR-2", null), registry.stamp());
+
+    // Act
+    registry.replaceAll(Collections.singletonList(code("QR-2", null)), registry.stamp());
+
+    // Assert
+    assertNull(registry.get("QR-1"));
+    assertNotNull(registry.get("QR-2"));
+    assertEquals(1, registry.size());
+  }
+}
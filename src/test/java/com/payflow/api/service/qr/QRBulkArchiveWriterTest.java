@@ -0,0 +1,89 @@
+package com.payflow.api.service.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+public class QRBulkArchiveWriterTest {
+
+  private QRBulkArchiveWriter writer;
+
+  @BeforeEach
+  public void setup() {
+    writer = new QRBulkArchiveWriter(new QRImageRenderer(new SimpleMeterRegistry()));
+    writer.start();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    writer.shutdown();
+  }
+
+  @Test
+  public void testArchiveHoldsManifestAndImagesInOrder() throws Exception {
+    // Arrange: more codes than the render window
+    Wallet wallet = new Wallet();
+    wallet.setCurrency(Wallet.Currency.USD);
+    List<QRCode> qrCodes = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      QRCode qrCode = new QRCode(wallet, Money.of(BigDecimal.TEN), true, true, "Table " + i, null);
+      qrCode.setQrId("QR-BULK-" + i);
+      qrCodes.add(qrCode);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // Act
+    writer.write(qrCodes, qrCode -> "PAY " + qrCode.getQrId(), QRImageFormat.PNG, 128, 2, out);
+
+    // Assert
+    List<String> names = new ArrayList<>();
+    String manifest = null;
+    byte[] lastImage = null;
+    try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+        names.add(entry.getName());
+        byte[] data = zip.readAllBytes();
+        if (entry.getName().equals(QRBulkArchiveWriter.MANIFEST)) {
+          manifest = new String(data, StandardCharsets.UTF_8);
+        } else {
+          lastImage = data;
+        }
+      }
+    }
+    assertEquals(21, names.size());
+    assertEquals(QRBulkArchiveWriter.MANIFEST, names.get(0));
+    assertEquals("QR-BULK-0.png", names.get(1));
+    assertEquals("QR-BULK-19.png", names.get(20));
+    String[] lines = manifest.split("\n");
+    assertEquals(21, lines.length);
+    assertEquals("QR-BULK-0,QR-BULK-0.png,USD,10.0000,,PAY QR-BULK-0", lines[1]);
+
+    BinaryBitmap bitmap =
+        new BinaryBitmap(
+            new HybridBinarizer(
+                new BufferedImageLuminanceSource(
+                    ImageIO.read(new ByteArrayInputStream(lastImage)))));
+    assertEquals("PAY QR-BULK-19", new QRCodeReader().decode(bitmap).getText());
+  }
+}
@@ -0,0 +1,84 @@
+package com.payflow.api.service.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.expiry.Expiration;
+import com.payflow.api.repository.QRCodeRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+public class QRCodeExpirationHandlerTest {
+
+  @Mock private QRCodeRepository qrCodeRepository;
+
+  @Spy private ActiveQRCodeRegistry activeQRCodes = new ActiveQRCodeRegistry();
+
+  @Spy private QRImageCache qrImageCache = new QRImageCache();
+
+  @Spy private QRPaymentSubscriptions qrPaymentSubscriptions = new QRPaymentSubscriptions();
+
+  @InjectMocks private QRCodeExpirationHandler handler;
+
+  @Test
+  public void testExpireDeactivatesBatchAndDropsItFromRegistry() {
+    // Arrange
+    LocalDateTime past = LocalDateTime.now().minusSeconds(5);
+    for (String qrId : Arrays.asList("QR-1", "QR-2", "QR-3")) {
+      activeQRCodes.register(
+          new ActiveQRCode(1L, qrId, 10L, Wallet.Currency.USD, null, false, false, null, past),
+          activeQRCodes.stamp());
+    }
+    when(qrCodeRepository.deactivateAllIfActive(Arrays.asList(1L, 2L))).thenReturn(2);
+
+    // Act
+    handler.expire(
+        Arrays.asList(
+            new Expiration(Expiration.QR_CODE, 1L, "QR-1", past),
+            new Expiration(Expiration.QR_CODE, 2L, "QR-2", past)));
+
+    // Assert
+    verify(qrCodeRepository).deactivateAllIfActive(Arrays.asList(1L, 2L));
+    verify(qrImageCache).invalidate("QR-1");
+    verify(qrImageCache).invalidate("QR-2");
+    assertNull(activeQRCodes.get("QR-1"));
+    assertNull(activeQRCodes.get("QR-2"));
+    assertNotNull(activeQRCodes.get("QR-3"));
+  }
+
+  @Test
+  public void testExpireSplitsLargeBatchIntoChunks() {
+    // Arrange: five codes falling due together, at most two per update
+    ReflectionTestUtils.setField(handler, "chunkSize", 2);
+    LocalDateTime past = LocalDateTime.now().minusSeconds(5);
+    List<Expiration> due = new ArrayList<>();
+    for (long id = 1; id <= 5; id++) {
+      due.add(new Expiration(Expiration.QR_CODE, id, "QR-" + id, past));
+    }
+    when(qrCodeRepository.deactivateAllIfActive(anyList()))
+        .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+    // Act
+    handler.expire(due);
+
+    // Assert
+    verify(qrCodeRepository).deactivateAllIfActive(Arrays.asList(1L, 2L));
+    verify(qrCodeRepository).deactivateAllIfActive(Arrays.asList(3L, 4L));
+    verify(qrCodeRepository).deactivateAllIfActive(Arrays.asList(5L));
+    verify(qrImageCache, times(5)).invalidate(anyString());
+  }
+}
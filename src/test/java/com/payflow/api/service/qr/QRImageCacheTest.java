@@ -0,0 +1,136 @@
+package com.payflow.api.service.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+@ActiveProfiles("test")
+public class QRImageCacheTest {
+
+  private static QRImageCache cacheOf(final long maxBytes) {
+    QRImageCache cache = new QRImageCache();
+    ReflectionTestUtils.setField(cache, "maxSize", DataSize.ofBytes(maxBytes));
+    return cache;
+  }
+
+  @Test
+  public void testLeastRecentlyUsedImageIsEvictedOverBudget() {
+    // Arrange
+    QRImageCache cache = cacheOf(250);
+    cache.get("a", "h", "png", () -> new byte[100]);
+    cache.get("b", "h", "png", () -> new byte[100]);
+    cache.get("a", "h", "png", () -> new byte[100]);
+
+    // Act
+    cache.get("c", "h", "png", () -> new byte[100]);
+
+    // Assert: "b" was least recently used
+    assertEquals(200, cache.getSizeBytes());
+    assertEquals(1, cache.getEvictionCount());
+    AtomicInteger renders = new AtomicInteger();
+    cache.get("a", "h", "png", () -> new byte[renders.incrementAndGet()]);
+    cache.get("b", "h", "png", () -> new byte[renders.incrementAndGet()]);
+    assertEquals(1, renders.get());
+  }
+
+  @Test
+  public void testInvalidateDropsAllVariantsOfQRCode() {
+    // Arrange
+    QRImageCache cache = cacheOf(1_000);
+    cache.get("a", "h", "png:300", () -> new byte[10]);
+    cache.get("a", "h", "svg", () -> new byte[20]);
+    cache.get("b", "h", "png:300", () -> new byte[30]);
+
+    // Act
+    cache.invalidate("a");
+
+    // Assert
+    assertEquals(1, cache.getEntryCount());
+    assertEquals(30, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testConcurrentMissesAreRenderedOnce() throws Exception {
+    // Arrange
+    QRImageCache cache = cacheOf(1_000);
+    AtomicInteger renders = new AtomicInteger();
+    CountDownLatch rendering = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try {
+      // Act
+      Future<byte[]> first =
+          executor.submit(
+              () ->
+                  cache.get(
+                      "a",
+                      "h",
+                      "png",
+                      () -> {
+                        renders.incrementAndGet();
+                        rendering.countDown();
+                        await(release);
+                        return new byte[] {1};
+                      }));
+      assertTrue(rendering.await(5, TimeUnit.SECONDS));
+      Future<byte[]> second =
+          executor.submit(
+              () ->
+                  cache.get(
+                      "a",
+                      "h",
+                      "png",
+                      () -> {
+                        renders.incrementAndGet();
+                        return new byte[] {2};
+                      }));
+      Thread.sleep(50);
+      release.countDown();
+
+      // Assert
+      assertArrayEquals(new byte[] {1}, first.get(5, TimeUnit.SECONDS));
+      assertArrayEquals(new byte[] {1}, second.get(5, TimeUnit.SECONDS));
+      assertEquals(1, renders.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFailedRenderIsNotCached() {
+    // Arrange
+    QRImageCache cache = cacheOf(1_000);
+
+    // Act & Assert
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.get(
+                "a",
+                "h",
+                "png",
+                () -> {
+                  throw new IllegalStateException("boom");
+                }));
+    assertEquals(0, cache.getEntryCount());
+    assertArrayEquals(new byte[] {1}, cache.get("a", "h", "png", () -> new byte[] {1}));
+  }
+
+  private static void await(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
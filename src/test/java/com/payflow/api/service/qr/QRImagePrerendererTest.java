@@ -0,0 +1,88 @@
+package com.payflow.api.service.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ActiveProfiles("test")
+public class QRImagePrerendererTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private QRImagePrerenderer prerenderer;
+
+  private QRImagePrerenderer start(final int queueCapacity) {
+    prerenderer = new QRImagePrerenderer(meterRegistry);
+    ReflectionTestUtils.setField(prerenderer, "queueCapacity", queueCapacity);
+    prerenderer.start();
+    return prerenderer;
+  }
+
+  @AfterEach
+  public void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    prerenderer.shutdown();
+  }
+
+  @Test
+  public void testTaskRunsOnlyAfterCommit() throws Exception {
+    // Arrange
+    start(10);
+    CountDownLatch rendered = new CountDownLatch(1);
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    prerenderer.submitAfterCommit(rendered::countDown);
+
+    // Assert
+    assertFalse(rendered.await(100, TimeUnit.MILLISECONDS));
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCommit();
+    }
+    assertTrue(rendered.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testFullQueueDropsWorkAndExposesMetrics() throws Exception {
+    // Arrange
+    start(1);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    prerenderer.submitAfterCommit(
+        () -> {
+          running.countDown();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+    prerenderer.submitAfterCommit(() -> {});
+
+    // Act
+    prerenderer.submitAfterCommit(() -> {});
+
+    // Assert
+    assertEquals(1, prerenderer.getQueueDepth());
+    assertEquals(1, prerenderer.getRejectedCount());
+    assertEquals(1.0, meterRegistry.get("qr.image.prerender.queue").gauge().value());
+
+    release.countDown();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (prerenderer.getCompletedCount() < 2 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(2, meterRegistry.get("qr.image.prerender").timer().count());
+  }
+}
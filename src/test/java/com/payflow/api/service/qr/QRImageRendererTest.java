@@ -0,0 +1,90 @@
+package com.payflow.api.service.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+public class QRImageRendererTest {
+
+  private static final String CONTENT =
+      "payflow://payment?qr_id=QR-1234567890&wallet=WALLET123456&currency=USD&amount=50.0000";
+
+  private final QRImageRenderer renderer = new QRImageRenderer(new SimpleMeterRegistry());
+
+  @Test
+  public void testPngMatchesZxingLayoutPixelForPixel() throws Exception {
+    int[][] options = {{300, 4}, {128, 0}, {256, 1}, {1024, 2}};
+    for (int[] option : options) {
+      // Arrange
+      Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+      hints.put(EncodeHintType.MARGIN, option[1]);
+      BitMatrix expected =
+          new QRCodeWriter().encode(CONTENT, BarcodeFormat.QR_CODE, option[0], option[0], hints);
+
+      // Act
+      BufferedImage image =
+          ImageIO.read(
+              new ByteArrayInputStream(
+                  renderer.render(CONTENT, QRImageFormat.PNG, option[0], option[1])));
+
+      // Assert
+      assertEquals(expected.getWidth(), image.getWidth());
+      assertEquals(expected.getHeight(), image.getHeight());
+      for (int y = 0; y < image.getHeight(); y++) {
+        for (int x = 0; x < image.getWidth(); x++) {
+          boolean dark = (image.getRGB(x, y) & 0xFFFFFF) == 0;
+          assertEquals(expected.get(x, y), dark, "pixel " + x + "," + y + " at " + option[0]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPngDecodesToOriginalContent() throws Exception {
+    // Arrange
+    BufferedImage image =
+        ImageIO.read(new ByteArrayInputStream(renderer.render(CONTENT, QRImageFormat.PNG, 300, 4)));
+
+    // Act
+    String decoded =
+        new QRCodeReader()
+            .decode(new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image))))
+            .getText();
+
+    // Assert
+    assertEquals(CONTENT, decoded);
+  }
+
+  @Test
+  public void testSvgUsesModuleGridIncludingMargin() throws Exception {
+    // Arrange
+    int modules = QRImageRenderer.encode(CONTENT).getWidth();
+
+    // Act
+    String svg =
+        new String(renderer.render(CONTENT, QRImageFormat.SVG, 512, 2), StandardCharsets.UTF_8);
+
+    // Assert
+    assertTrue(svg.contains("width=\"512\""));
+    assertTrue(svg.contains("viewBox=\"0 0 " + (modules + 4) + " " + (modules + 4) + "\""));
+    // The top-left finder pattern starts at the margin with a run of seven dark modules
+    assertTrue(svg.contains("d=\"M2 2h7v1h-7z"));
+  }
+}
@@ -0,0 +1,121 @@
+package com.payflow.api.service.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Mode;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.payflow.api.exception.BadRequestException;
+import com.payflow.api.model.entity.QRCode;
+import com.payflow.api.model.entity.Wallet;
+import com.payflow.api.model.money.Money;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ActiveProfiles("test")
+public class QRPayloadSignerTest {
+
+  private static final String OLD_KEY = "K0:an_old_qr_signing_key_of_at_least_32_bytes";
+  private static final String NEW_KEY = "K1:a_new_qr_signing_key_of_at_least_32_bytes";
+
+  private static QRPayloadSigner signer(final String signingKey, final String... keys) {
+    QRPayloadSigner signer = new QRPayloadSigner();
+    ReflectionTestUtils.setField(signer, "keys", keys);
+    ReflectionTestUtils.setField(signer, "signingKeyId", signingKey);
+    signer.init();
+    return signer;
+  }
+
+  private static QRCode qrCode(final LocalDateTime expiresAt) {
+    Wallet wallet = new Wallet();
+    wallet.setCurrency(Wallet.Currency.EUR);
+    QRCode qrCode = new QRCode();
+    qrCode.setQrId("QR-1a2b3c4d-5e6");
+    qrCode.setWallet(wallet);
+    qrCode.setAmount(Money.of(new BigDecimal("12.3400")));
+    qrCode.setAmountFixed(true);
+    qrCode.setOneTime(true);
+    qrCode.setExpiresAt(expiresAt);
+    return qrCode;
+  }
+
+  @Test
+  public void testSignedPayloadRoundTripsInAlphanumericMode() throws Exception {
+    // Arrange
+    QRPayloadSigner signer = signer("K1", NEW_KEY);
+    LocalDateTime expiresAt = LocalDateTime.now().plusDays(1).withNano(0);
+
+    // Act
+    String payload = signer.sign(qrCode(expiresAt));
+    SignedQRPayload verified = signer.verify(payload);
+
+    // Assert
+    assertTrue(payload.startsWith("PF1.K1."));
+    assertEquals(Mode.ALPHANUMERIC, Encoder.encode(payload, ErrorCorrectionLevel.M).getMode());
+    assertEquals("K1", verified.getKeyId());
+    assertEquals("QR-1a2b3c4d-5e6", verified.getQrId());
+    assertEquals(Wallet.Currency.EUR, verified.getCurrency());
+    assertEquals(Money.of(new BigDecimal("12.34")), verified.getAmount());
+    assertTrue(verified.isAmountFixed());
+    assertTrue(verified.isOneTime());
+    assertEquals(
+        expiresAt.atZone(ZoneId.systemDefault()).toEpochSecond(),
+        verified.getExpiresAtEpochSecond());
+  }
+
+  @Test
+  public void testTamperedOrForgedPayloadIsRejected() {
+    // Arrange
+    QRPayloadSigner signer = signer("K1", NEW_KEY);
+    String payload = signer.sign(qrCode(null));
+    int bodyStart = "PF1.K1.".length();
+    char flipped = payload.charAt(bodyStart + 3) == 'A' ? 'B' : 'A';
+    String tampered =
+        payload.substring(0, bodyStart + 3) + flipped + payload.substring(bodyStart + 4);
+    String forged =
+        signer("K1", "K1:someone_elses_key_that_is_at_least_32_bytes").sign(qrCode(null));
+
+    // Act & Assert
+    assertThrows(BadRequestException.class, () -> signer.verify(tampered));
+    assertThrows(BadRequestException.class, () -> signer.verify(forged));
+    assertThrows(BadRequestException.class, () -> signer.verify("PF1.K9.AAAA.AAAAAAAAAAAAAAAA"));
+    assertThrows(BadRequestException.class, () -> signer.verify("payflow://payment?qr_id=QR-1"));
+    assertThrows(BadRequestException.class, () -> signer.verify(null));
+  }
+
+  @Test
+  public void testExpiredPayloadIsRejected() {
+    // Arrange
+    QRPayloadSigner signer = signer("K1", NEW_KEY);
+    LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+    String payload = signer.sign(qrCode(expiresAt));
+    long expirySecond = expiresAt.atZone(ZoneId.systemDefault()).toEpochSecond();
+
+    // Act & Assert
+    assertNotNull(signer.verify(payload, expirySecond - 1));
+    BadRequestException e =
+        assertThrows(BadRequestException.class, () -> signer.verify(payload, expirySecond));
+    assertEquals("This QR code has expired", e.getMessage());
+  }
+
+  @Test
+  public void testRotatedKeyKeepsVerifyingUntilRemoved() {
+    // Arrange
+    String oldPayload = signer("K0", OLD_KEY).sign(qrCode(null));
+
+    // Act
+    QRPayloadSigner rotated = signer("K1", NEW_KEY, OLD_KEY);
+    QRPayloadSigner retired = signer("K1", NEW_KEY);
+
+    // Assert
+    assertEquals("K0", rotated.verify(oldPayload).getKeyId());
+    assertTrue(rotated.sign(qrCode(null)).startsWith("PF1.K1."));
+    assertThrows(BadRequestException.class, () -> retired.verify(oldPayload));
+    assertThrows(IllegalStateException.class, () -> signer("K2", NEW_KEY));
+    assertThrows(IllegalStateException.class, () -> signer("K1", "K1:too_short"));
+  }
+}
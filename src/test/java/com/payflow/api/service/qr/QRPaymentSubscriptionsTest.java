@@ -0,0 +1,119 @@
+package com.payflow.api.service.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.payflow.api.model.dto.response.QRPaymentResponse;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ActiveProfiles("test")
+public class QRPaymentSubscriptionsTest {
+
+  private final QRPaymentSubscriptions subscriptions = new QRPaymentSubscriptions();
+
+  @AfterEach
+  public void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  public void testPaymentReachesEverySubscriberOfTheCode() {
+    // Arrange
+    List<QRPaymentResponse> till = new ArrayList<>();
+    List<QRPaymentResponse> phone = new ArrayList<>();
+    List<QRPaymentResponse> otherCode = new ArrayList<>();
+    subscriptions.subscribe("QR-1", till::add);
+    subscriptions.subscribe("QR-1", phone::add);
+    subscriptions.subscribe("QR-2", otherCode::add);
+
+    // Act
+    subscriptions.publishAfterCommit(paid("QR-1"), false);
+
+    // Assert
+    assertEquals(1, till.size());
+    assertEquals("TRX-1", till.get(0).getTransactionNumber());
+    assertEquals(1, phone.size());
+    assertTrue(otherCode.isEmpty());
+    assertEquals(2, subscriptions.size());
+  }
+
+  @Test
+  public void testClosingNoticeDropsTheCode() {
+    // Arrange
+    List<QRPaymentResponse> till = new ArrayList<>();
+    subscriptions.subscribe("QR-1", till::add);
+
+    // Act
+    subscriptions.publishAfterCommit(
+        QRPaymentResponse.closed("QR-1", QRPaymentResponse.Status.EXPIRED), true);
+    subscriptions.publishAfterCommit(paid("QR-1"), false);
+
+    // Assert
+    assertEquals(1, till.size());
+    assertEquals(QRPaymentResponse.Status.EXPIRED, till.get(0).getStatus());
+    assertEquals(0, subscriptions.size());
+  }
+
+  @Test
+  public void testNoticeWaitsForCommit() {
+    // Arrange
+    List<QRPaymentResponse> till = new ArrayList<>();
+    subscriptions.subscribe("QR-1", till::add);
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    subscriptions.publishAfterCommit(paid("QR-1"), false);
+    boolean deliveredEarly = !till.isEmpty();
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCommit();
+    }
+
+    // Assert
+    assertFalse(deliveredEarly);
+    assertEquals(1, till.size());
+  }
+
+  @Test
+  public void testUnsubscribeAndLimit() {
+    // Arrange
+    ReflectionTestUtils.setField(subscriptions, "maxSubscribersPerCode", 2);
+    QRPaymentSubscriptions.Subscriber first = notice -> {};
+    QRPaymentSubscriptions.Subscriber second = notice -> {};
+
+    // Act
+    boolean firstAdded = subscriptions.subscribe("QR-1", first);
+    boolean secondAdded = subscriptions.subscribe("QR-1", second);
+    boolean thirdAdded = subscriptions.subscribe("QR-1", notice -> {});
+    subscriptions.unsubscribe("QR-1", first);
+    int afterFirst = subscriptions.size();
+    subscriptions.unsubscribe("QR-1", second);
+
+    // Assert
+    assertTrue(firstAdded);
+    assertTrue(secondAdded);
+    assertFalse(thirdAdded);
+    assertEquals(1, afterFirst);
+    assertEquals(0, subscriptions.size());
+  }
+
+  private static QRPaymentResponse paid(final String qrId) {
+    return new QRPaymentResponse(
+        qrId,
+        QRPaymentResponse.Status.PAID,
+        "TRX-1",
+        new BigDecimal("12.50"),
+        "USD",
+        LocalDateTime.now());
+  }
+}